@@ -1,11 +1,18 @@
 package com.azyasaxi.config;
 
+import com.azyasaxi.utils.ConnectionPoolStats;
+import com.azyasaxi.utils.TableVersions;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.core.env.Environment; // 用于访问属性文件
-import org.springframework.jdbc.datasource.DriverManagerDataSource; // 一个简单的 DataSource 实现
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.sql.DataSource; // 标准 JDBC DataSource 接口
 
@@ -16,6 +23,7 @@ import javax.sql.DataSource; // 标准 JDBC DataSource 接口
 @Configuration // 声明这是一个 Spring 配置类
 @ComponentScan(basePackages = "com.azyasaxi") // 扫描 "com.azyasaxi" 包及其子包下的 Spring 组件 (如 @Component, @Service, @Repository)
 @PropertySource("classpath:application.properties") // 加载位于 classpath 下的 application.properties 文件
+@EnableScheduling // 启用 @Scheduled 定时任务 (如学分汇总表的定期校验)
 public class AppConfig {
 
     // Spring Environment 会被自动注入，用于访问属性文件中的值
@@ -26,25 +34,67 @@ public class AppConfig {
         this.env = env;
     }
 
+    /**
+     * 连接池运行时统计 bean。
+     * 作为 HikariCP 的指标收集器挂到连接池上，同时可被其他组件注入以读取活跃/空闲连接数、等待时间等信息。
+     *
+     * @return ConnectionPoolStats 实例
+     */
+    @Bean
+    public ConnectionPoolStats connectionPoolStats() {
+        return new ConnectionPoolStats();
+    }
+
     /**
      * 配置并返回一个 DataSource bean。
-     * DataSource 用于管理数据库连接。
-     * 配置信息从 application.properties 文件中读取。
+     * 使用 HikariCP 连接池复用物理连接，避免每次 JdbcTemplate 调用都新建/关闭 MySQL 连接。
+     * 数据库连接信息和连接池参数均从 application.properties 文件中读取。
+     * 容器关闭时调用 close() 释放池中的所有连接。
      *
+     * @param poolStats 连接池统计收集器
      * @return 配置好的 DataSource 实例
      */
-    @Bean
-    public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        // 从 application.properties 文件中获取数据库驱动类名
-        dataSource.setDriverClassName(env.getProperty("spring.datasource.driver-class-name"));
-        // 从 application.properties 文件中获取数据库连接 URL
-        dataSource.setUrl(env.getProperty("spring.datasource.url"));
-        // 从 application.properties 文件中获取数据库用户名
-        dataSource.setUsername(env.getProperty("spring.datasource.username"));
-        // 从 application.properties 文件中获取数据库密码
-        dataSource.setPassword(env.getProperty("spring.datasource.password"));
-        return dataSource;
+    @Bean(destroyMethod = "close")
+    public DataSource dataSource(ConnectionPoolStats poolStats) {
+        // 连接空闲超过该窗口后，借出前会先做一次有效性校验 (HikariCP 通过系统属性读取此值)
+        if (System.getProperty("com.zaxxer.hikari.aliveBypassWindowMs") == null) {
+            System.setProperty("com.zaxxer.hikari.aliveBypassWindowMs",
+                    env.getProperty("spring.datasource.hikari.alive-bypass-window-ms", "500"));
+        }
+
+        HikariConfig config = new HikariConfig();
+        // 从 application.properties 文件中获取数据库驱动类名、连接 URL、用户名和密码
+        config.setDriverClassName(env.getProperty("spring.datasource.driver-class-name"));
+        config.setJdbcUrl(env.getProperty("spring.datasource.url"));
+        config.setUsername(env.getProperty("spring.datasource.username"));
+        config.setPassword(env.getProperty("spring.datasource.password"));
+
+        // 连接池大小与空闲连接回收
+        config.setPoolName(env.getProperty("spring.datasource.hikari.pool-name", "StudentSystemPool"));
+        config.setMinimumIdle(env.getProperty("spring.datasource.hikari.minimum-idle", Integer.class, 5));
+        config.setMaximumPoolSize(env.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 20));
+        config.setIdleTimeout(env.getProperty("spring.datasource.hikari.idle-timeout-ms", Long.class, 600_000L));
+        config.setMaxLifetime(env.getProperty("spring.datasource.hikari.max-lifetime-ms", Long.class, 1_800_000L));
+        config.setKeepaliveTime(env.getProperty("spring.datasource.hikari.keepalive-time-ms", Long.class, 300_000L));
+
+        // 获取连接超时、借出校验、泄漏检测
+        config.setConnectionTimeout(env.getProperty("spring.datasource.hikari.connection-timeout-ms", Long.class, 3_000L));
+        config.setValidationTimeout(env.getProperty("spring.datasource.hikari.validation-timeout-ms", Long.class, 1_000L));
+        String testQuery = env.getProperty("spring.datasource.hikari.connection-test-query");
+        if (testQuery != null && !testQuery.trim().isEmpty()) {
+            config.setConnectionTestQuery(testQuery.trim()); // 未配置时使用 JDBC4 的 Connection.isValid()
+        }
+        config.setLeakDetectionThreshold(env.getProperty("spring.datasource.hikari.leak-detection-threshold-ms", Long.class, 0L));
+
+        // MySQL 驱动端预编译语句缓存
+        config.addDataSourceProperty("cachePrepStmts", env.getProperty("spring.datasource.hikari.cache-prep-stmts", "true"));
+        config.addDataSourceProperty("prepStmtCacheSize", env.getProperty("spring.datasource.hikari.prep-stmt-cache-size", "250"));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", env.getProperty("spring.datasource.hikari.prep-stmt-cache-sql-limit", "2048"));
+
+        // 注册指标收集器，并通过 JMX 暴露连接池状态
+        config.setMetricsTrackerFactory(poolStats);
+        config.setRegisterMbeans(true);
+        return new HikariDataSource(config);
     }
 
     /**
@@ -59,4 +109,37 @@ public class AppConfig {
         return new org.springframework.jdbc.core.JdbcTemplate(dataSource);
     }
 
-}
\ No newline at end of file
+    /**
+     * 配置基于 DataSource 的事务管理器。
+     * 需要多条语句原子执行的写操作 (如修改成绩并同步学分汇总) 通过它开启本地事务。
+     *
+     * @param dataSource Spring 管理的 DataSource bean。
+     * @return DataSourceTransactionManager 实例。
+     */
+    @Bean
+    public PlatformTransactionManager transactionManager(DataSource dataSource) {
+        return new DataSourceTransactionManager(dataSource);
+    }
+
+    /**
+     * 配置编程式事务模板，供 Service 层在一个事务中执行多个 DAO 调用。
+     *
+     * @param transactionManager 事务管理器。
+     * @return TransactionTemplate 实例。
+     */
+    @Bean
+    public TransactionTemplate transactionTemplate(PlatformTransactionManager transactionManager) {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 数据表版本号 bean。Service 层写入后递增，只读页面据此计算 ETag 并响应 304。
+     *
+     * @return TableVersions 实例
+     */
+    @Bean
+    public TableVersions tableVersions() {
+        return new TableVersions();
+    }
+
+}
@@ -0,0 +1,214 @@
+package com.azyasaxi.controller.admin;
+
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
+import com.azyasaxi.model.*; // 导入所有模型类
+import com.azyasaxi.service.*; // 导入所有服务类
+import com.fasterxml.jackson.databind.ObjectMapper; // 用于将Java对象转换为JSON字符串
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * AdminListDataServlet
+ * 管理员仪表盘各模块列表的分页 JSON 接口。仪表盘页面只输出页面框架，
+ * 由 admin.js 在模块可见时请求第一页，并在滚动到表格底部时继续请求下一页。
+ * 请求示例: GET /admin/api/students?q=张&gender=女&classId=3&sort=name&dir=desc&offset=0&limit=50
+ * 支持的参数: q (检索词)、offset、limit、sort/dir (白名单排序列与方向)，
+ * 以及筛选条件 gender、classId、majorId (学生)、majorId (班级、课程)、status (请假)。
+ * 响应格式: {"items": [...], "offset": 0, "limit": 50, "hasMore": true, "nextOffset": 50}
+ */
+@WebServlet(urlPatterns = {"/admin/api/students", "/admin/api/classes", "/admin/api/courses",
+        "/admin/api/leaves", "/admin/api/credits"})
+public class AdminListDataServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(AdminListDataServlet.class);
+    private static final int DEFAULT_LIMIT = 50; // 默认每页行数
+    private static final int MAX_LIMIT = 200;    // 允许请求的最大每页行数
+
+    private StudentService studentService;
+    private ClassInfoService classInfoService;
+    private CourseService courseService;
+    private LeaveRequestService leaveRequestService;
+    private CreditSummaryService creditSummaryService;
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void init(ServletConfig config) throws ServletException {
+        super.init(config);
+        WebApplicationContext context = WebApplicationContextUtils.getWebApplicationContext(config.getServletContext());
+        if (context != null) {
+            this.studentService = context.getBean(StudentService.class);
+            this.classInfoService = context.getBean(ClassInfoService.class);
+            this.courseService = context.getBean(CourseService.class);
+            this.leaveRequestService = context.getBean(LeaveRequestService.class);
+            this.creditSummaryService = context.getBean(CreditSummaryService.class);
+            this.objectMapper = new ObjectMapper();
+        } else {
+            throw new ServletException("Spring WebApplicationContext not found for AdminListDataServlet.");
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        ListQuery query = buildQuery(request);
+        String module = request.getServletPath().substring("/admin/api/".length());
+
+        Map<String, Object> body;
+        try {
+            switch (module) {
+                case "students":
+                    body = toJson(studentService.searchStudentsPage(query), this::studentRow);
+                    break;
+                case "classes":
+                    body = toJson(classInfoService.searchClassInfosPage(query), this::classRow);
+                    break;
+                case "courses":
+                    body = toJson(courseService.searchCoursesPage(query), this::courseRow);
+                    break;
+                case "leaves":
+                    body = toJson(leaveRequestService.listLeaveRequestsPage(query), this::leaveRow);
+                    break;
+                case "credits":
+                    body = toJson(creditSummaryService.listCreditSummariesPage(query), this::creditRow);
+                    break;
+                default:
+                    response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                    return;
+            }
+        } catch (RuntimeException e) {
+            logger.error("加载列表时出错", e, "module", module);
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "加载数据时发生内部错误");
+            return;
+        }
+
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        objectMapper.writeValue(response.getWriter(), body);
+    }
+
+    // 读取分页、检索、筛选和排序参数；排序列由各 DAO 按白名单解析，非法值会被忽略
+    private static ListQuery buildQuery(HttpServletRequest request) {
+        ListQuery query = ListQuery.ofSearchTerm(request.getParameter("q"));
+        query.setOffset(parseInt(request.getParameter("offset"), 0, 0, Integer.MAX_VALUE));
+        query.setPageSize(parseInt(request.getParameter("limit"), DEFAULT_LIMIT, 1, MAX_LIMIT));
+        query.setStatus(request.getParameter("status"));
+        String gender = request.getParameter("gender");
+        if ("男".equals(gender) || "女".equals(gender)) {
+            query.setGender(gender);
+        }
+        query.setClassId(parseId(request.getParameter("classId")));
+        query.setMajorId(parseId(request.getParameter("majorId")));
+        query.setSortKey(request.getParameter("sort"));
+        query.setAscending(!"desc".equalsIgnoreCase(request.getParameter("dir")));
+        return query;
+    }
+
+    private static Integer parseId(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int parseInt(String value, int defaultValue, int min, int max) {
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(min, Math.min(max, Integer.parseInt(value)));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static <T> Map<String, Object> toJson(PageResult<T> page, Function<T, Map<String, Object>> rowMapper) {
+        List<Map<String, Object>> items = new ArrayList<>(page.getItems().size());
+        for (T item : page.getItems()) {
+            items.add(rowMapper.apply(item));
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("items", items);
+        body.put("offset", page.getOffset());
+        body.put("limit", page.getLimit());
+        body.put("hasMore", page.isHasMore());
+        body.put("nextOffset", page.getNextOffset());
+        return body;
+    }
+
+    private static String formatDate(Date date, String pattern) {
+        return date == null ? null : new SimpleDateFormat(pattern).format(date);
+    }
+
+    // 各模块只输出表格需要的列，避免把密码等字段序列化到前端
+
+    private Map<String, Object> studentRow(Student student) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("studentId", student.getStudentId());
+        row.put("name", student.getName());
+        row.put("gender", student.getGender());
+        row.put("classId", student.getClassId());
+        row.put("className", student.getClassName());
+        return row;
+    }
+
+    private Map<String, Object> classRow(ClassInfo classInfo) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("classId", classInfo.getClassId());
+        row.put("className", classInfo.getClassName());
+        row.put("majorId", classInfo.getMajorId());
+        row.put("majorName", classInfo.getMajorName());
+        row.put("collegeId", classInfo.getCollegeId());
+        row.put("collegeName", classInfo.getCollegeName());
+        return row;
+    }
+
+    private Map<String, Object> courseRow(Course course) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("courseId", course.getCourseId());
+        row.put("courseName", course.getCourseName());
+        row.put("courseTeacher", course.getCourseTeacher());
+        row.put("credit", course.getCredit());
+        row.put("majorId", course.getMajorId());
+        row.put("majorName", course.getMajorName());
+        return row;
+    }
+
+    private Map<String, Object> leaveRow(LeaveRequest leave) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("leaveId", leave.getLeaveId());
+        row.put("studentName", leave.getStudentName());
+        row.put("reason", leave.getReason());
+        row.put("startDate", formatDate(leave.getStartDate(), "yyyy-MM-dd"));
+        row.put("endDate", formatDate(leave.getEndDate(), "yyyy-MM-dd"));
+        row.put("status", leave.getStatus());
+        row.put("requestDate", formatDate(leave.getRequestDate(), "yyyy-MM-dd HH:mm"));
+        return row;
+    }
+
+    private Map<String, Object> creditRow(CreditSummary summary) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("studentId", summary.getStudentId());
+        row.put("studentName", summary.getStudentName());
+        row.put("totalCredits", summary.getTotalCredits());
+        return row;
+    }
+}
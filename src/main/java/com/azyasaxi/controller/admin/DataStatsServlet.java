@@ -1,6 +1,11 @@
 package com.azyasaxi.controller.admin;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
+import com.azyasaxi.model.CreditHistogram;
+import com.azyasaxi.service.StatisticsEngine;
 import com.azyasaxi.service.StudentService;
+import com.azyasaxi.utils.TableVersions;
 import com.fasterxml.jackson.databind.ObjectMapper; // 用于将Java对象转换为JSON字符串
 import jakarta.servlet.ServletConfig;
 import jakarta.servlet.ServletException;
@@ -17,9 +22,30 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-@WebServlet("/admin/dataStats")
+/**
+ * DataStatsServlet
+ * /admin/dataStats: 数据统计页，按学院统计学生数和平均学分、按学分区间统计学生数。
+ * /admin/dataStats/histogram: 学分直方图 JSON 接口，供统计图表按学院、专业或班级下钻，区间划分由请求参数决定。
+ * 请求示例: GET /admin/dataStats/histogram?scope=major&id=3&boundaries=0,4,8,12,16
+ *          GET /admin/dataStats/histogram?scope=college&id=1&buckets=5&mode=quantile
+ * 支持的参数: scope (all/college/major/class，默认 all)、id (学院、专业或班级ID)，
+ * 以及 boundaries (逗号分隔的区间下边界) 或 buckets + mode (width 等宽，默认；quantile 等频)。
+ * 两者都未提供时使用统计页的 0/5/10/15 划分。
+ * 响应格式: {"scope": "major", "scopeId": 3, "boundaries": [...], "labels": [...], "counts": [...], "underflow": false, "total": 120}
+ * 有学生低于第一个边界时 underflow 为 true，labels/counts 最前面多出一个 "<下限 学分" 区间。
+ */
+@WebServlet(urlPatterns = {"/admin/dataStats", "/admin/dataStats/histogram"})
 public class DataStatsServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(DataStatsServlet.class);
+    // 按学院统计学生数和平均学分、按学分区间统计学生数
+    private static final TableVersions.Table[] PAGE_TABLES = {
+            TableVersions.Table.STUDENT, TableVersions.Table.CLASS_INFO,
+            TableVersions.Table.ENROLLMENT, TableVersions.Table.COURSE};
+    private static final double[] DEFAULT_BOUNDARIES = {0, 5, 10, 15}; // 未指定区间划分时使用统计页的区间
+
     private StudentService studentService;
+    private StatisticsEngine statisticsEngine; // 内存统计数据，已预先序列化为 JSON
+    private TableVersions tableVersions;
     private ObjectMapper objectMapper; // Jackson ObjectMapper for JSON conversion
 
     @Override
@@ -28,6 +54,8 @@ public class DataStatsServlet extends HttpServlet {
         WebApplicationContext context = WebApplicationContextUtils.getWebApplicationContext(config.getServletContext());
         if (context != null) {
             this.studentService = context.getBean(StudentService.class);
+            this.statisticsEngine = context.getBean(StatisticsEngine.class);
+            this.tableVersions = context.getBean(TableVersions.class);
             this.objectMapper = new ObjectMapper(); // Initialize ObjectMapper
         } else {
             throw new ServletException("Spring WebApplicationContext not found for DataStatsServlet.");
@@ -42,48 +70,138 @@ public class DataStatsServlet extends HttpServlet {
             return;
         }
 
+        if ("/admin/dataStats/histogram".equals(request.getServletPath())) {
+            writeHistogram(request, response);
+            return;
+        }
+
+        // 统计数据只在学生、班级、选课或课程变化，或定期校正改变了内存统计数据时才会改变，未变化时直接返回 304
+        String etag = tableVersions.etag(request.getSession().getAttribute("username") + "|" + statisticsEngine.getVersion(),
+                PAGE_TABLES);
+        if (TableVersions.notModified(request, response, etag)) {
+            return;
+        }
+
         try {
-            // 1. 获取按学院统计的数据
-            List<Map<String, Object>> collegeStatsRaw = studentService.getStudentStatsByCollege();
-            // 转换为 Chart.js 需要的格式
-            List<String> collegeNames = new ArrayList<>();
-            List<Number> studentCountsPerCollege = new ArrayList<>();
-            List<Number> avgCreditsPerCollege = new ArrayList<>();
-
-            for (Map<String, Object> stat : collegeStatsRaw) {
-                collegeNames.add((String) stat.getOrDefault("college_name", "未知学院"));
-                studentCountsPerCollege.add((Number) stat.getOrDefault("student_count", 0));
-                // AVG 可能返回 BigDecimal 或 Double，确保转换为 Number
-                Object avgCreditsObj = stat.get("average_total_credits");
-                avgCreditsPerCollege.add(avgCreditsObj instanceof Number ? (Number) avgCreditsObj : 0.0);
+            StatisticsEngine.Snapshot snapshot = statisticsEngine.getSnapshot();
+            if (snapshot != null) {
+                request.setAttribute("collegeNamesJson", snapshot.getCollegeNamesJson());
+                request.setAttribute("studentCountsPerCollegeJson", snapshot.getStudentCountsPerCollegeJson());
+                request.setAttribute("avgCreditsPerCollegeJson", snapshot.getAvgCreditsPerCollegeJson());
+                request.setAttribute("creditRangeLabelsJson", snapshot.getCreditRangeLabelsJson());
+                request.setAttribute("studentCountsPerRangeJson", snapshot.getStudentCountsPerRangeJson());
+            } else {
+                loadFromDatabase(request); // 统计数据尚未构建完成
             }
-            request.setAttribute("collegeNamesJson", objectMapper.writeValueAsString(collegeNames));
-            request.setAttribute("studentCountsPerCollegeJson", objectMapper.writeValueAsString(studentCountsPerCollege));
-            request.setAttribute("avgCreditsPerCollegeJson", objectMapper.writeValueAsString(avgCreditsPerCollege));
-
-            // 2. 获取按学分区间统计的数据
-            List<Map<String, Object>> creditRangeStatsRaw = studentService.getStudentCountByCreditRanges();
-            // 转换为 Chart.js 需要的格式
-            List<String> creditRangeLabels = creditRangeStatsRaw.stream()
-                                                .map(stat -> (String) stat.getOrDefault("credit_range", "未知区间"))
-                                                .collect(Collectors.toList());
-            List<Number> studentCountsPerRange = creditRangeStatsRaw.stream()
-                                                .map(stat -> (Number) stat.getOrDefault("student_count", 0))
-                                                .collect(Collectors.toList());
-
-            request.setAttribute("creditRangeLabelsJson", objectMapper.writeValueAsString(creditRangeLabels));
-            request.setAttribute("studentCountsPerRangeJson", objectMapper.writeValueAsString(studentCountsPerRange));
 
             // 设置一个标记，表示数据已加载，JSP可以尝试渲染图表
             request.setAttribute("statsDataLoaded", true);
+            TableVersions.writeETag(response, etag);
 
         } catch (Exception e) {
-            System.err.println("DataStatsServlet: 获取或处理统计数据时出错: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("获取或处理统计数据时出错", e);
             request.setAttribute("statsErrorMessage", "加载统计数据时发生内部错误。");
             request.setAttribute("statsDataLoaded", false);
         }
 
         request.getRequestDispatcher("/dataStats.jsp").forward(request, response);
     }
+
+    private void writeHistogram(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // 直方图只依赖统计页相同的数据表和内存统计数据，同一组参数在数据未变化时返回 304
+        String etag = tableVersions.etag(request.getQueryString() + "|" + statisticsEngine.getVersion(), PAGE_TABLES);
+        if (TableVersions.notModified(request, response, etag)) {
+            return;
+        }
+
+        CreditHistogram histogram;
+        try {
+            StatisticsEngine.Scope scope = StatisticsEngine.Scope.parse(request.getParameter("scope"));
+            if (scope == null) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "无效的统计范围");
+                return;
+            }
+            Integer scopeId = parseId(request.getParameter("id"));
+            String boundaries = request.getParameter("boundaries");
+            String buckets = request.getParameter("buckets");
+            if (boundaries != null && !boundaries.trim().isEmpty()) {
+                histogram = statisticsEngine.histogram(scope, scopeId, parseBoundaries(boundaries));
+            } else if (buckets != null && !buckets.trim().isEmpty()) {
+                int bucketCount = Integer.parseInt(buckets.trim());
+                histogram = "quantile".equalsIgnoreCase(request.getParameter("mode"))
+                        ? statisticsEngine.quantileHistogram(scope, scopeId, bucketCount)
+                        : statisticsEngine.equalWidthHistogram(scope, scopeId, bucketCount);
+            } else {
+                histogram = statisticsEngine.histogram(scope, scopeId, DEFAULT_BOUNDARIES);
+            }
+        } catch (IllegalArgumentException e) { // 包括 NumberFormatException
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        if (histogram == null) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "统计数据正在加载，请稍后重试");
+            return;
+        }
+
+        response.setContentType("application/json;charset=UTF-8");
+        TableVersions.writeETag(response, etag);
+        objectMapper.writeValue(response.getWriter(), histogram);
+    }
+
+    private static Integer parseId(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static double[] parseBoundaries(String value) {
+        String[] parts = value.split(",");
+        if (parts.length > StatisticsEngine.MAX_HISTOGRAM_BUCKETS) {
+            throw new IllegalArgumentException("区间个数必须在 1 到 " + StatisticsEngine.MAX_HISTOGRAM_BUCKETS + " 之间");
+        }
+        double[] boundaries = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            boundaries[i] = Double.parseDouble(parts[i].trim());
+        }
+        return boundaries;
+    }
+
+    // 直接用 SQL 聚合查询统计数据并序列化
+    private void loadFromDatabase(HttpServletRequest request) throws IOException {
+        // 1. 获取按学院统计的数据
+        List<Map<String, Object>> collegeStatsRaw = studentService.getStudentStatsByCollege();
+        // 转换为 Chart.js 需要的格式
+        List<String> collegeNames = new ArrayList<>();
+        List<Number> studentCountsPerCollege = new ArrayList<>();
+        List<Number> avgCreditsPerCollege = new ArrayList<>();
+
+        for (Map<String, Object> stat : collegeStatsRaw) {
+            collegeNames.add((String) stat.getOrDefault("college_name", "未知学院"));
+            studentCountsPerCollege.add((Number) stat.getOrDefault("student_count", 0));
+            // AVG 可能返回 BigDecimal 或 Double，确保转换为 Number
+            Object avgCreditsObj = stat.get("average_total_credits");
+            avgCreditsPerCollege.add(avgCreditsObj instanceof Number ? (Number) avgCreditsObj : 0.0);
+        }
+        request.setAttribute("collegeNamesJson", objectMapper.writeValueAsString(collegeNames));
+        request.setAttribute("studentCountsPerCollegeJson", objectMapper.writeValueAsString(studentCountsPerCollege));
+        request.setAttribute("avgCreditsPerCollegeJson", objectMapper.writeValueAsString(avgCreditsPerCollege));
+
+        // 2. 获取按学分区间统计的数据
+        List<Map<String, Object>> creditRangeStatsRaw = studentService.getStudentCountByCreditRanges();
+        // 转换为 Chart.js 需要的格式
+        List<String> creditRangeLabels = creditRangeStatsRaw.stream()
+                                            .map(stat -> (String) stat.getOrDefault("credit_range", "未知区间"))
+                                            .collect(Collectors.toList());
+        List<Number> studentCountsPerRange = creditRangeStatsRaw.stream()
+                                            .map(stat -> (Number) stat.getOrDefault("student_count", 0))
+                                            .collect(Collectors.toList());
+
+        request.setAttribute("creditRangeLabelsJson", objectMapper.writeValueAsString(creditRangeLabels));
+        request.setAttribute("studentCountsPerRangeJson", objectMapper.writeValueAsString(studentCountsPerRange));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.azyasaxi.controller.admin;
+
+import com.azyasaxi.filter.AccessDecisionStats;
+import com.fasterxml.jackson.databind.ObjectMapper; // 用于将Java对象转换为JSON字符串
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * FilterStatsServlet
+ * 以 JSON 形式返回访问过滤器的授权决定计数 (静态资源、公共页面、放行、未登录重定向、角色不符重定向)。
+ * 计数器由 Filter 在 init 时放入 ServletContext。
+ */
+@WebServlet("/admin/filterStats")
+public class FilterStatsServlet extends HttpServlet {
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void init(ServletConfig config) throws ServletException {
+        super.init(config);
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        AccessDecisionStats stats = (AccessDecisionStats) getServletContext().getAttribute(AccessDecisionStats.CONTEXT_ATTRIBUTE);
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        objectMapper.writeValue(response.getWriter(), stats != null ? stats.snapshot() : Collections.emptyMap());
+    }
+}
@@ -0,0 +1,66 @@
+package com.azyasaxi.controller.admin;
+
+import com.azyasaxi.logging.LogLevel;
+import com.azyasaxi.logging.LogManager;
+import com.fasterxml.jackson.databind.ObjectMapper; // 用于将Java对象转换为JSON字符串
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/**
+ * LogLevelServlet
+ * 查看和修改运行时日志级别。
+ * GET 返回当前级别配置与日志缓冲区统计 (已入队、丢弃、已输出、省略的堆栈数)。
+ * POST 修改级别: logger 为包名或类名前缀 (例如 com.azyasaxi.dao)，为 "root" 时修改根级别；
+ * level 为 DEBUG/INFO/WARN/ERROR/OFF，留空时删除该前缀的配置。修改后返回新的配置。
+ */
+@WebServlet("/admin/logLevels")
+public class LogLevelServlet extends HttpServlet {
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void init(ServletConfig config) throws ServletException {
+        super.init(config);
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        writeSnapshot(response);
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        String loggerName = request.getParameter("logger");
+        String levelName = request.getParameter("level");
+        LogLevel level = LogLevel.parse(levelName);
+        if (loggerName == null || loggerName.trim().isEmpty()
+                || (level == null && levelName != null && !levelName.trim().isEmpty())) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "参数无效: 需要 logger，level 取 DEBUG/INFO/WARN/ERROR/OFF");
+            return;
+        }
+        if ("root".equalsIgnoreCase(loggerName.trim())) {
+            if (level == null) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "根级别不能删除");
+                return;
+            }
+            LogManager.setRootLevel(level);
+        } else {
+            LogManager.setLevel(loggerName.trim(), level);
+        }
+        writeSnapshot(response);
+    }
+
+    private void writeSnapshot(HttpServletResponse response) throws IOException {
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        objectMapper.writeValue(response.getWriter(), LogManager.snapshot());
+    }
+}
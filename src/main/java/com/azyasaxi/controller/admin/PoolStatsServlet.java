@@ -0,0 +1,44 @@
+package com.azyasaxi.controller.admin;
+
+import com.azyasaxi.utils.ConnectionPoolStats;
+import com.fasterxml.jackson.databind.ObjectMapper; // 用于将Java对象转换为JSON字符串
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+
+import java.io.IOException;
+
+/**
+ * PoolStatsServlet
+ * 以 JSON 形式返回数据库连接池的实时统计 (活跃/空闲连接数、等待线程数、获取连接等待时间等)。
+ */
+@WebServlet("/admin/poolStats")
+public class PoolStatsServlet extends HttpServlet {
+    private ConnectionPoolStats connectionPoolStats;
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void init(ServletConfig config) throws ServletException {
+        super.init(config);
+        WebApplicationContext context = WebApplicationContextUtils.getWebApplicationContext(config.getServletContext());
+        if (context != null) {
+            this.connectionPoolStats = context.getBean(ConnectionPoolStats.class);
+            this.objectMapper = new ObjectMapper();
+        } else {
+            throw new ServletException("Spring WebApplicationContext not found for PoolStatsServlet.");
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        objectMapper.writeValue(response.getWriter(), connectionPoolStats.snapshot());
+    }
+}
@@ -0,0 +1,74 @@
+package com.azyasaxi.controller.admin;
+
+import com.azyasaxi.model.Student;
+import com.azyasaxi.service.StudentService;
+import com.fasterxml.jackson.databind.ObjectMapper; // 用于将Java对象转换为JSON字符串
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StudentSuggestServlet
+ * 管理员学生搜索框的输入建议接口，支持学号、姓名、用户名、班级名以及姓名全拼/首字母 (如 "zs" -> 张三)。
+ * 结果直接来自内存搜索索引，供前端在每次按键时调用。
+ * 请求示例: GET /admin/studentSuggest?q=zs&limit=10
+ */
+@WebServlet("/admin/studentSuggest")
+public class StudentSuggestServlet extends HttpServlet {
+    private static final int DEFAULT_LIMIT = 10; // 默认返回的建议条数
+    private static final int MAX_LIMIT = 50;     // 允许请求的最大条数
+
+    private StudentService studentService;
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void init(ServletConfig config) throws ServletException {
+        super.init(config);
+        WebApplicationContext context = WebApplicationContextUtils.getWebApplicationContext(config.getServletContext());
+        if (context != null) {
+            this.studentService = context.getBean(StudentService.class);
+            this.objectMapper = new ObjectMapper();
+        } else {
+            throw new ServletException("Spring WebApplicationContext not found for StudentSuggestServlet.");
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        int limit = DEFAULT_LIMIT;
+        String limitStr = request.getParameter("limit");
+        if (limitStr != null && !limitStr.isEmpty()) {
+            try {
+                limit = Math.max(1, Math.min(MAX_LIMIT, Integer.parseInt(limitStr)));
+            } catch (NumberFormatException e) {
+                // 使用默认条数
+            }
+        }
+
+        List<Map<String, Object>> suggestions = new ArrayList<>();
+        for (Student student : studentService.suggestStudents(request.getParameter("q"), limit)) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("studentId", student.getStudentId());
+            item.put("name", student.getName());
+            item.put("userName", student.getUserName());
+            item.put("className", student.getClassName());
+            suggestions.add(item);
+        }
+
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        objectMapper.writeValue(response.getWriter(), suggestions);
+    }
+}
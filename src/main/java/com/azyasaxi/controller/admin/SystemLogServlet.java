@@ -1,6 +1,8 @@
 package com.azyasaxi.controller.admin;
 
-import com.azyasaxi.model.AdminLog;
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
+import com.azyasaxi.model.AdminLogPage;
 import com.azyasaxi.service.AdminLogService;
 import jakarta.servlet.ServletConfig;
 import jakarta.servlet.ServletException;
@@ -12,10 +14,10 @@ import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.context.support.WebApplicationContextUtils;
 
 import java.io.IOException;
-import java.util.List;
 
 @WebServlet("/admin/systemLogs")
 public class SystemLogServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(SystemLogServlet.class);
     private AdminLogService adminLogService;
     private static final int DEFAULT_PAGE_SIZE = 15; // 每页默认显示15条日志
 
@@ -38,35 +40,27 @@ public class SystemLogServlet extends HttpServlet {
             return;
         }
 
-        int pageNumber = 1;
-        String pageStr = request.getParameter("page");
-        if (pageStr != null && !pageStr.isEmpty()) {
-            try {
-                pageNumber = Integer.parseInt(pageStr);
-                if (pageNumber < 1) {
-                    pageNumber = 1;
-                }
-            } catch (NumberFormatException e) {
-                System.err.println("SystemLogServlet: 无效的页码参数: " + pageStr);
-                // pageNumber 保持为 1
-            }
-        }
+        // 游标分页：after 翻到更早的一页，before 翻回更新的一页，都为空时显示最新一页
+        String afterCursor = request.getParameter("after");
+        String beforeCursor = request.getParameter("before");
 
         try {
-            List<AdminLog> logList = adminLogService.getLogsPaged(pageNumber, DEFAULT_PAGE_SIZE);
+            AdminLogPage logPage = adminLogService.getLogsPage(afterCursor, beforeCursor, DEFAULT_PAGE_SIZE);
             int totalLogs = adminLogService.getTotalLogCount();
-            int totalPages = (int) Math.ceil((double) totalLogs / DEFAULT_PAGE_SIZE);
-            if (totalPages == 0 && totalLogs > 0) totalPages = 1; // 至少一页
 
-            request.setAttribute("logList", logList);
-            request.setAttribute("currentPage", pageNumber);
-            request.setAttribute("totalPages", totalPages);
+            request.setAttribute("logList", logPage.getLogs());
+            request.setAttribute("nextCursor", logPage.getNextCursor());
+            request.setAttribute("prevCursor", logPage.getPrevCursor());
             request.setAttribute("pageSize", DEFAULT_PAGE_SIZE); // 如果JSP需要知道
             request.setAttribute("totalLogs", totalLogs);
+            // 异步写入队列的运行状况 (已入队 / 已写入 / 已丢弃 / 等待写入)
+            request.setAttribute("logQueuedCount", adminLogService.getQueuedCount());
+            request.setAttribute("logFlushedCount", adminLogService.getFlushedCount());
+            request.setAttribute("logDroppedCount", adminLogService.getDroppedCount());
+            request.setAttribute("logPendingCount", adminLogService.getPendingCount());
 
         } catch (Exception e) {
-            System.err.println("SystemLogServlet: 获取系统日志时出错: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("获取系统日志时出错", e);
             request.setAttribute("errorMessage", "加载系统日志时发生内部错误。");
         }
 
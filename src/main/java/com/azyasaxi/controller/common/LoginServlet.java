@@ -1,5 +1,7 @@
 package com.azyasaxi.controller.common;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.Admin;   // 导入 Admin 模型类
 import com.azyasaxi.model.Student; // 新增：导入 Student 模型类
 import com.azyasaxi.service.AdminService; // 导入 AdminService 类
@@ -19,6 +21,7 @@ import java.io.IOException;
 
 @WebServlet("/login") // Servlet 映射路径
 public class LoginServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(LoginServlet.class);
     // 定义临时学生用户的用户名和密码常量
     private static final String TEMP_STUDENT_USERNAME = "user";
     private static final String TEMP_STUDENT_PASSWORD = "user123";
@@ -44,7 +47,7 @@ public class LoginServlet extends HttpServlet {
             this.adminService = context.getBean(AdminService.class);
             this.studentService = context.getBean(StudentService.class); // 新增：获取 StudentService bean
         } else {
-            System.err.println("Spring WebApplicationContext 未找到。请确保 ContextLoaderListener 已在 web.xml 中配置。");
+            logger.warn("Spring WebApplicationContext 未找到。请确保 ContextLoaderListener 已在 web.xml 中配置");
             // adminService 和 studentService 将为 null
         }
     }
@@ -74,7 +77,7 @@ public class LoginServlet extends HttpServlet {
         if (this.adminService != null) {
             authenticatedAdmin = adminService.authenticateAdmin(username, password);
         } else {
-            System.err.println("LoginServlet: AdminService 未初始化。管理员登录认证跳过。");
+            logger.warn("AdminService 未初始化。管理员登录认证跳过");
         }
 
         if (authenticatedAdmin != null) {
@@ -95,7 +98,7 @@ public class LoginServlet extends HttpServlet {
             if (this.studentService != null) {
                 authenticatedStudent = studentService.authenticateStudent(username, password);
             } else {
-                System.err.println("LoginServlet: StudentService 未初始化。数据库学生登录认证跳过。");
+                logger.warn("StudentService 未初始化。数据库学生登录认证跳过");
             }
 
             if (authenticatedStudent != null) {
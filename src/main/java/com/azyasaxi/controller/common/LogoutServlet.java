@@ -1,5 +1,7 @@
 package com.azyasaxi.controller.common;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -12,6 +14,7 @@ import java.io.IOException;
 
 @WebServlet("/logout") // Servlet 映射路径
 public class LogoutServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(LogoutServlet.class);
 
     /**
      * 处理 GET 请求，用于用户登出。
@@ -31,9 +34,9 @@ public class LogoutServlet extends HttpServlet {
             session.removeAttribute("userType"); // 移除 userType 属性
             session.removeAttribute("username"); // 移除 username 属性
             session.invalidate(); // 使整个会话失效
-            System.out.println("Session 已清除。");
+            logger.debug("Session 已清除");
         } else {
-            System.out.println("没有活动的 Session 需要清除。");
+            logger.debug("没有活动的 Session 需要清除");
         }
 
         // 2. 清除 Cookie (通过设置同名 Cookie 的 MaxAge 为 0)
@@ -42,7 +45,7 @@ public class LogoutServlet extends HttpServlet {
         usernameCookie.setMaxAge(0); // 设置有效期为0，指示浏览器立即删除该 Cookie
         usernameCookie.setPath(request.getContextPath() + "/"); // Cookie 的路径必须与创建时设置的路径一致
         response.addCookie(usernameCookie);
-        System.out.println("usernameCookie 已清除。");
+        logger.debug("usernameCookie 已清除");
 
         // 可以添加清除其他特定 Cookie 的逻辑
         // 例如，JSESSIONID 是由容器管理的会话跟踪 Cookie，通常不需要手动清除它，
@@ -51,7 +54,7 @@ public class LogoutServlet extends HttpServlet {
         // 3. 重定向到登录页面
         // 使用 loginPage.jsp 作为登录页面的目标
         response.sendRedirect(request.getContextPath() + "/loginPage.jsp?logout=true"); // 添加一个参数以便登录页面可以显示登出成功消息
-        System.out.println("用户已登出，重定向到登录页面。");
+        logger.info("用户已登出，重定向到登录页面");
     }
 
     /**
@@ -1,5 +1,7 @@
 package com.azyasaxi.controller.delete;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.service.ClassInfoService;
 import jakarta.servlet.ServletConfig;
 import jakarta.servlet.ServletException;
@@ -14,6 +16,7 @@ import java.io.IOException;
 
 @WebServlet("/admin/deleteClass")
 public class DeleteClassServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(DeleteClassServlet.class);
     private ClassInfoService classInfoService;
 
     @Override
@@ -50,7 +53,7 @@ public class DeleteClassServlet extends HttpServlet {
                 request.getSession().setAttribute("errorMessage", "无效的班级ID格式。");
             } catch (Exception e) {
                 request.getSession().setAttribute("errorMessage", "删除班级时发生错误：" + e.getMessage());
-                e.printStackTrace(); // 记录到服务器日志
+                logger.error("删除班级时发生错误", e, "classId", idStr);
             }
         } else {
             request.getSession().setAttribute("errorMessage", "未提供班级ID，无法删除。");
@@ -1,5 +1,7 @@
 package com.azyasaxi.controller.delete;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.service.CourseService;
 import jakarta.servlet.ServletConfig;
 import jakarta.servlet.ServletException;
@@ -14,6 +16,7 @@ import java.io.IOException;
 
 @WebServlet("/admin/deleteCourse")
 public class DeleteCourseServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(DeleteCourseServlet.class);
     private CourseService courseService;
 
     @Override
@@ -49,7 +52,7 @@ public class DeleteCourseServlet extends HttpServlet {
                 request.getSession().setAttribute("errorMessage", "无效的课程ID格式。");
             } catch (Exception e) {
                 request.getSession().setAttribute("errorMessage", "删除课程时发生错误：" + e.getMessage());
-                e.printStackTrace(); // 记录到服务器日志
+                logger.error("删除课程时发生错误", e, "courseId", idStr);
             }
         } else {
             request.getSession().setAttribute("errorMessage", "未提供课程ID，无法删除。");
@@ -1,5 +1,7 @@
 package com.azyasaxi.controller.delete;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.service.StudentService;
 import jakarta.servlet.ServletConfig;
 import jakarta.servlet.ServletException;
@@ -14,6 +16,7 @@ import java.io.IOException;
 
 @WebServlet("/admin/deleteStudent")
 public class DeleteStudentServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(DeleteStudentServlet.class);
     private StudentService studentService;
 
     @Override
@@ -49,7 +52,7 @@ public class DeleteStudentServlet extends HttpServlet {
                 request.getSession().setAttribute("errorMessage", "无效的学生ID格式。");
             } catch (Exception e) {
                 request.getSession().setAttribute("errorMessage", "删除学生时发生错误：" + e.getMessage());
-                e.printStackTrace(); // 记录到服务器日志
+                logger.error("删除学生时发生错误", e, "studentId", idStr);
             }
         } else {
             request.getSession().setAttribute("errorMessage", "未提供学生ID，无法删除。");
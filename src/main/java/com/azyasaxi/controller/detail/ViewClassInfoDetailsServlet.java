@@ -1,7 +1,10 @@
 package com.azyasaxi.controller.detail;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.ClassInfo;
 import com.azyasaxi.service.ClassInfoService;
+import com.azyasaxi.utils.TableVersions;
 import jakarta.servlet.ServletConfig;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
@@ -15,7 +18,14 @@ import java.io.IOException;
 
 @WebServlet("/admin/viewClassInfoDetails")
 public class ViewClassInfoDetailsServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(ViewClassInfoDetailsServlet.class);
+    // 班级详情包含班内学生及其总学分 (由选课成绩和课程学分计算)
+    private static final TableVersions.Table[] PAGE_TABLES = {
+            TableVersions.Table.CLASS_INFO, TableVersions.Table.STUDENT,
+            TableVersions.Table.ENROLLMENT, TableVersions.Table.COURSE};
+
     private ClassInfoService classInfoService;
+    private TableVersions tableVersions;
 
     @Override
     public void init(ServletConfig config) throws ServletException {
@@ -23,6 +33,7 @@ public class ViewClassInfoDetailsServlet extends HttpServlet {
         WebApplicationContext context = WebApplicationContextUtils.getWebApplicationContext(config.getServletContext());
         if (context != null) {
             this.classInfoService = context.getBean(ClassInfoService.class);
+            this.tableVersions = context.getBean(TableVersions.class);
         } else {
             throw new ServletException("Spring WebApplicationContext not found for ViewClassInfoDetailsServlet.");
         }
@@ -31,6 +42,12 @@ public class ViewClassInfoDetailsServlet extends HttpServlet {
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
+        // 依赖的表都没有写入过时，浏览器缓存的页面仍然有效，直接返回 304
+        String etag = tableVersions.etag((String) request.getSession().getAttribute("username"), PAGE_TABLES);
+        if (TableVersions.notModified(request, response, etag)) {
+            return;
+        }
+
         String idStr = request.getParameter("id");
         String activeModule = request.getParameter("activeModule");
         if (activeModule == null || activeModule.isEmpty()) {
@@ -43,6 +60,7 @@ public class ViewClassInfoDetailsServlet extends HttpServlet {
                 ClassInfo classDetails = classInfoService.findClassInfoWithDetailsById(classId);
 
                 if (classDetails != null) {
+                    TableVersions.writeETag(response, etag);
                     request.setAttribute("detailsData", classDetails);
                     request.setAttribute("viewMode", "classDetails"); // 指示JSP显示班级详情片段
                 } else {
@@ -52,7 +70,7 @@ public class ViewClassInfoDetailsServlet extends HttpServlet {
                 request.setAttribute("errorMessage", "无效的班级ID格式。");
             } catch (Exception e) {
                 request.setAttribute("errorMessage", "获取班级详情时发生错误：" + e.getMessage());
-                e.printStackTrace();
+                logger.error("获取班级详情时发生错误", e, "classId", idStr);
             }
         } else {
             request.setAttribute("errorMessage", "未提供班级ID以查看详情。");
@@ -1,7 +1,10 @@
 package com.azyasaxi.controller.detail;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.Course;
 import com.azyasaxi.service.CourseService;
+import com.azyasaxi.utils.TableVersions;
 import jakarta.servlet.ServletConfig;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
@@ -15,7 +18,14 @@ import java.io.IOException;
 
 @WebServlet("/admin/viewCourseDetails")
 public class ViewCourseDetailsServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(ViewCourseDetailsServlet.class);
+    // 课程详情包含选课学生 (姓名、班级) 及其成绩
+    private static final TableVersions.Table[] PAGE_TABLES = {
+            TableVersions.Table.COURSE, TableVersions.Table.ENROLLMENT,
+            TableVersions.Table.STUDENT, TableVersions.Table.CLASS_INFO};
+
     private CourseService courseService;
+    private TableVersions tableVersions;
 
     @Override
     public void init(ServletConfig config) throws ServletException {
@@ -23,6 +33,7 @@ public class ViewCourseDetailsServlet extends HttpServlet {
         WebApplicationContext context = WebApplicationContextUtils.getWebApplicationContext(config.getServletContext());
         if (context != null) {
             this.courseService = context.getBean(CourseService.class);
+            this.tableVersions = context.getBean(TableVersions.class);
         } else {
             throw new ServletException("Spring WebApplicationContext not found for ViewCourseDetailsServlet.");
         }
@@ -31,6 +42,12 @@ public class ViewCourseDetailsServlet extends HttpServlet {
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
+        // 依赖的表都没有写入过时，浏览器缓存的页面仍然有效，直接返回 304
+        String etag = tableVersions.etag((String) request.getSession().getAttribute("username"), PAGE_TABLES);
+        if (TableVersions.notModified(request, response, etag)) {
+            return;
+        }
+
         String idStr = request.getParameter("id");
         String activeModule = request.getParameter("activeModule");
         if (activeModule == null || activeModule.isEmpty()) {
@@ -44,6 +61,7 @@ public class ViewCourseDetailsServlet extends HttpServlet {
                 Course courseDetails = courseService.getCourseDetailsById(courseId);
 
                 if (courseDetails != null) {
+                    TableVersions.writeETag(response, etag);
                     request.setAttribute("detailsData", courseDetails);
                     request.setAttribute("viewMode", "courseDetails"); // 指示JSP显示课程详情片段
                 } else {
@@ -53,7 +71,7 @@ public class ViewCourseDetailsServlet extends HttpServlet {
                 request.setAttribute("errorMessage", "无效的课程ID格式。");
             } catch (Exception e) {
                 request.setAttribute("errorMessage", "获取课程详情时发生错误：" + e.getMessage());
-                e.printStackTrace();
+                logger.error("获取课程详情时发生错误", e, "courseId", idStr);
             }
         } else {
             request.setAttribute("errorMessage", "未提供课程ID以查看详情。");
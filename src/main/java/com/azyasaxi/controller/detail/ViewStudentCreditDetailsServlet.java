@@ -1,5 +1,7 @@
 package com.azyasaxi.controller.detail;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.Student;
 import com.azyasaxi.service.StudentService;
 import jakarta.servlet.ServletConfig;
@@ -15,6 +17,7 @@ import java.io.IOException;
 
 @WebServlet("/admin/viewStudentCreditDetails")
 public class ViewStudentCreditDetailsServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(ViewStudentCreditDetailsServlet.class);
     private StudentService studentService;
 
     @Override
@@ -51,7 +54,7 @@ public class ViewStudentCreditDetailsServlet extends HttpServlet {
                 return;
             } catch (Exception e) {
                 request.getSession().setAttribute("errorMessage", "获取学生学分详情时发生错误：" + e.getMessage());
-                e.printStackTrace();
+                logger.error("获取学生学分详情时发生错误", e, "studentId", studentIdStr);
                 response.sendRedirect(request.getContextPath() + "/admin/dashboard?activeModule=credit#credit");
                 return;
             }
@@ -1,7 +1,10 @@
 package com.azyasaxi.controller.detail;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.Student;
 import com.azyasaxi.service.StudentService;
+import com.azyasaxi.utils.TableVersions;
 import jakarta.servlet.ServletConfig;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
@@ -15,7 +18,14 @@ import java.io.IOException;
 
 @WebServlet("/admin/viewStudentDetails")
 public class ViewStudentDetailsServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(ViewStudentDetailsServlet.class);
+    // 学生详情包含班级、选课记录 (课程名、学分、成绩) 和总学分
+    private static final TableVersions.Table[] PAGE_TABLES = {
+            TableVersions.Table.STUDENT, TableVersions.Table.CLASS_INFO,
+            TableVersions.Table.ENROLLMENT, TableVersions.Table.COURSE};
+
     private StudentService studentService;
+    private TableVersions tableVersions;
 
     @Override
     public void init(ServletConfig config) throws ServletException {
@@ -23,6 +33,7 @@ public class ViewStudentDetailsServlet extends HttpServlet {
         WebApplicationContext context = WebApplicationContextUtils.getWebApplicationContext(config.getServletContext());
         if (context != null) {
             this.studentService = context.getBean(StudentService.class);
+            this.tableVersions = context.getBean(TableVersions.class);
         } else {
             throw new ServletException("Spring WebApplicationContext not found for ViewStudentDetailsServlet.");
         }
@@ -31,6 +42,12 @@ public class ViewStudentDetailsServlet extends HttpServlet {
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
+        // 依赖的表都没有写入过时，浏览器缓存的页面仍然有效，直接返回 304
+        String etag = tableVersions.etag((String) request.getSession().getAttribute("username"), PAGE_TABLES);
+        if (TableVersions.notModified(request, response, etag)) {
+            return;
+        }
+
         String idStr = request.getParameter("id");
         String activeModule = request.getParameter("activeModule");
         if (activeModule == null || activeModule.isEmpty()) {
@@ -44,6 +61,7 @@ public class ViewStudentDetailsServlet extends HttpServlet {
                 Student studentDetails = studentService.getStudentFullDetailsById(studentId);
 
                 if (studentDetails != null) {
+                    TableVersions.writeETag(response, etag);
                     request.setAttribute("detailsData", studentDetails);
                     request.setAttribute("viewMode", "studentDetails"); // 指示JSP显示学生详情片段
                 } else {
@@ -53,7 +71,7 @@ public class ViewStudentDetailsServlet extends HttpServlet {
                 request.setAttribute("errorMessage", "无效的学生ID格式。");
             } catch (Exception e) {
                 request.setAttribute("errorMessage", "获取学生详情时发生错误：" + e.getMessage());
-                e.printStackTrace();
+                logger.error("获取学生详情时发生错误", e, "studentId", idStr);
             }
         } else {
             request.setAttribute("errorMessage", "未提供学生ID以查看详情。");
@@ -0,0 +1,255 @@
+package com.azyasaxi.controller.edit;
+
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
+import com.azyasaxi.model.LeaveTransitionResult;
+import com.azyasaxi.service.AdminLogService;
+import com.azyasaxi.service.LeaveRequestService;
+import com.fasterxml.jackson.databind.ObjectMapper; // 用于输出每条申请的审批结果
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BulkLeaveDecisionServlet
+ * 批量批准或驳回待审批的请假申请，返回 JSON 格式的结果 (每条申请的结果和汇总)。整批只记录一条管理员操作日志。
+ * 参数 action=approve|reject，以及以下两种方式之一：
+ * 按ID: ids=12,13,14 (或多个 id 参数)；
+ * 按条件: status (只能为 待审批，可省略)、classId、dateFrom、dateTo (申请日期，yyyy-MM-dd，含首尾两天)，
+ * 按申请时间先后最多处理 leave.bulk.max-size 条，达到上限时 limitReached 为 true，可再次提交处理剩余的申请。
+ * 既没有 ID 也没有 classId / dateFrom / dateTo 时会处理全部班级的待审批申请，必须同时提交 confirm=all
+ * 和 expectedCount (GET 同一地址预览得到的 pending)，数量不一致时返回 409，避免空表单误批准所有申请。
+ * GET: 用同样的筛选条件预览待审批申请的数量，返回 {"pending": n, "maxBulkSize": m}。
+ */
+@WebServlet("/admin/bulkLeaveDecision")
+public class BulkLeaveDecisionServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(BulkLeaveDecisionServlet.class);
+    private static final int MAX_LOGGED_IDS = 100; // 操作日志中最多列出的请假ID数
+
+    private LeaveRequestService leaveRequestService;
+    private AdminLogService adminLogService;
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void init(ServletConfig config) throws ServletException {
+        super.init(config);
+        WebApplicationContext context = WebApplicationContextUtils.getWebApplicationContext(config.getServletContext());
+        if (context != null) {
+            this.leaveRequestService = context.getBean(LeaveRequestService.class);
+            this.adminLogService = context.getBean(AdminLogService.class);
+            this.objectMapper = new ObjectMapper();
+        } else {
+            throw new ServletException("Spring WebApplicationContext not found for BulkLeaveDecisionServlet.");
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        HttpSession session = request.getSession(false);
+        if (session == null || session.getAttribute("adminId") == null) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "请先登录管理员账户后再进行操作");
+            return;
+        }
+        PendingFilter filter;
+        try {
+            filter = PendingFilter.parse(request);
+        } catch (NumberFormatException | ParseException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "班级ID或日期格式不正确");
+            return;
+        }
+        int pending = leaveRequestService.countPendingLeaveRequests(filter.classId, filter.from, filter.before);
+        if (pending < 0) {
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "统计待审批请假申请失败，请稍后重试");
+            return;
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("pending", pending);
+        body.put("maxBulkSize", leaveRequestService.getMaxBulkSize());
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        objectMapper.writeValue(response.getWriter(), body);
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        HttpSession session = request.getSession(false);
+        Integer adminId = (session != null) ? (Integer) session.getAttribute("adminId") : null;
+        if (adminId == null) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "请先登录管理员账户后再进行操作");
+            return;
+        }
+        String adminUsername = session.getAttribute("username") != null ? (String) session.getAttribute("username") : "未知管理员";
+
+        String action = request.getParameter("action");
+        String newStatus = "approve".equals(action) ? "已批准" : "reject".equals(action) ? "已驳回" : null;
+        if (newStatus == null) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "action 必须为 approve 或 reject");
+            return;
+        }
+        String verb = "已批准".equals(newStatus) ? "批准" : "驳回";
+
+        Map<Integer, LeaveTransitionResult> outcomes;
+        boolean byFilter;
+        try {
+            List<Integer> ids = parseIds(request);
+            byFilter = ids.isEmpty();
+            if (!byFilter) {
+                if (ids.size() > leaveRequestService.getMaxBulkSize()) {
+                    response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                            "一次最多处理 " + leaveRequestService.getMaxBulkSize() + " 条请假申请");
+                    return;
+                }
+                outcomes = leaveRequestService.approveOrRejectLeaveRequests(ids, newStatus, adminId);
+            } else {
+                String status = request.getParameter("status");
+                if (StringUtils.hasText(status) && !"待审批".equals(status.trim())) {
+                    response.sendError(HttpServletResponse.SC_BAD_REQUEST, "只能批量审批待审批的请假申请");
+                    return;
+                }
+                PendingFilter filter = PendingFilter.parse(request);
+                if (!filter.isNarrowing()) {
+                    // 没有任何筛选条件：处理全部班级的待审批申请，必须显式确认并核对预览的数量
+                    String expected = request.getParameter("expectedCount");
+                    if (!"all".equals(request.getParameter("confirm")) || !StringUtils.hasText(expected)) {
+                        response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                                "请选择请假申请或提供 classId / dateFrom / dateTo；审批全部待审批申请需提交 confirm=all 和 expectedCount");
+                        return;
+                    }
+                    int pending = leaveRequestService.countPendingLeaveRequests(null, null, null);
+                    if (pending < 0) {
+                        response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "统计待审批请假申请失败，请稍后重试");
+                        return;
+                    }
+                    if (pending != Integer.parseInt(expected.trim())) {
+                        response.sendError(HttpServletResponse.SC_CONFLICT,
+                                "待审批申请的数量已变为 " + pending + "，请重新预览后再确认");
+                        return;
+                    }
+                }
+                outcomes = leaveRequestService.approveOrRejectPendingLeaveRequests(filter.classId, filter.from, filter.before,
+                        newStatus, adminId);
+            }
+        } catch (NumberFormatException | ParseException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "请假ID、班级ID或日期格式不正确");
+            return;
+        }
+        if (outcomes == null) {
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "批量" + verb + "请假申请失败，请稍后重试");
+            return;
+        }
+
+        List<Map<String, Object>> items = new ArrayList<>(outcomes.size());
+        List<Integer> succeededIds = new ArrayList<>();
+        for (Map.Entry<Integer, LeaveTransitionResult> entry : outcomes.entrySet()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("leaveId", entry.getKey());
+            item.put("result", entry.getValue());
+            item.put("message", entry.getValue().getMessage());
+            items.add(item);
+            if (entry.getValue().isSuccess()) {
+                succeededIds.add(entry.getKey());
+            }
+        }
+
+        if (!succeededIds.isEmpty()) {
+            List<Integer> logged = succeededIds.subList(0, Math.min(succeededIds.size(), MAX_LOGGED_IDS));
+            adminLogService.recordAdminAction(adminId, adminUsername,
+                    "批量" + verb + "请假申请", "请假申请", null,
+                    "批量" + verb + "了 " + succeededIds.size() + " 条请假申请 (ID: " + StringUtils.collectionToDelimitedString(logged, ",")
+                            + (succeededIds.size() > logged.size() ? " 等" : "") + ")");
+        }
+        logger.info("批量审批请假申请", "status", newStatus, "total", outcomes.size(), "succeeded", succeededIds.size());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", newStatus);
+        body.put("total", outcomes.size());
+        body.put("succeeded", succeededIds.size());
+        body.put("failed", outcomes.size() - succeededIds.size());
+        if (byFilter) {
+            body.put("limitReached", outcomes.size() >= leaveRequestService.getMaxBulkSize());
+        }
+        body.put("outcomes", items);
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        objectMapper.writeValue(response.getWriter(), body);
+    }
+
+    // 按条件批量审批的筛选参数：classId、dateFrom、dateTo
+    private static final class PendingFilter {
+        final Integer classId;
+        final Date from;   // 申请时间下限 (含)
+        final Date before; // 申请时间上限 (不含)
+
+        private PendingFilter(Integer classId, Date from, Date before) {
+            this.classId = classId;
+            this.from = from;
+            this.before = before;
+        }
+
+        static PendingFilter parse(HttpServletRequest request) throws ParseException {
+            String classIdStr = request.getParameter("classId");
+            Integer classId = StringUtils.hasText(classIdStr) ? Integer.valueOf(classIdStr.trim()) : null;
+            return new PendingFilter(classId, parseDay(request.getParameter("dateFrom"), 0),
+                    parseDay(request.getParameter("dateTo"), 1)); // 含结束当天
+        }
+
+        // 至少有一个条件缩小了范围
+        boolean isNarrowing() {
+            return classId != null || from != null || before != null;
+        }
+    }
+
+    // 读取 ids=1,2,3 和多个 id 参数
+    private static List<Integer> parseIds(HttpServletRequest request) {
+        List<Integer> ids = new ArrayList<>();
+        String joined = request.getParameter("ids");
+        if (StringUtils.hasText(joined)) {
+            for (String part : joined.split(",")) {
+                if (StringUtils.hasText(part)) {
+                    ids.add(Integer.valueOf(part.trim()));
+                }
+            }
+        }
+        String[] single = request.getParameterValues("id");
+        if (single != null) {
+            for (String part : single) {
+                if (StringUtils.hasText(part)) {
+                    ids.add(Integer.valueOf(part.trim()));
+                }
+            }
+        }
+        return ids;
+    }
+
+    // 解析 yyyy-MM-dd 并向后移动 plusDays 天；为空时返回 null
+    private static Date parseDay(String text, int plusDays) throws ParseException {
+        if (!StringUtils.hasText(text)) {
+            return null;
+        }
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+        format.setLenient(false);
+        Calendar day = Calendar.getInstance();
+        day.setTime(format.parse(text.trim()));
+        day.add(Calendar.DAY_OF_MONTH, plusDays);
+        return day.getTime();
+    }
+}
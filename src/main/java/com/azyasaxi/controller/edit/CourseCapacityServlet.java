@@ -0,0 +1,107 @@
+package com.azyasaxi.controller.edit;
+
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
+import com.azyasaxi.service.AdminLogService;
+import com.azyasaxi.service.CourseService;
+import com.azyasaxi.service.RegistrationEngine;
+import com.fasterxml.jackson.databind.ObjectMapper; // 用于输出名额状态JSON
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * CourseCapacityServlet
+ * 查看和设置课程的人数上限。
+ * GET  /admin/courseCapacity?courseId=12 返回 {"courseId":12,"capacity":60,"enrolled":60,"waitlisted":5}；
+ * POST /admin/courseCapacity (参数 courseId、capacity) 设置人数上限，capacity 为空表示不限人数，返回更新后的名额状态。
+ */
+@WebServlet("/admin/courseCapacity")
+public class CourseCapacityServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(CourseCapacityServlet.class);
+
+    private CourseService courseService;
+    private RegistrationEngine registrationEngine;
+    private AdminLogService adminLogService;
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void init(ServletConfig config) throws ServletException {
+        super.init(config);
+        WebApplicationContext context = WebApplicationContextUtils.getWebApplicationContext(config.getServletContext());
+        if (context != null) {
+            this.courseService = context.getBean(CourseService.class);
+            this.registrationEngine = context.getBean(RegistrationEngine.class);
+            this.adminLogService = context.getBean(AdminLogService.class);
+            this.objectMapper = new ObjectMapper();
+        } else {
+            throw new ServletException("Spring WebApplicationContext not found for CourseCapacityServlet.");
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        int courseId;
+        try {
+            courseId = Integer.parseInt(request.getParameter("courseId"));
+        } catch (NumberFormatException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "无效的课程ID");
+            return;
+        }
+        writeStatus(courseId, response);
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        int courseId;
+        Integer capacity = null;
+        try {
+            courseId = Integer.parseInt(request.getParameter("courseId"));
+            String capacityStr = request.getParameter("capacity");
+            if (StringUtils.hasText(capacityStr)) {
+                capacity = Integer.valueOf(capacityStr.trim());
+            }
+        } catch (NumberFormatException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "无效的课程ID或人数上限");
+            return;
+        }
+
+        if (!courseService.setCourseCapacity(courseId, capacity)) {
+            logger.warn("设置课程人数上限失败", "courseId", courseId, "capacity", capacity);
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "设置人数上限失败，课程不存在或人数上限无效");
+            return;
+        }
+
+        HttpSession session = request.getSession(false);
+        Integer adminId = (session != null) ? (Integer) session.getAttribute("adminId") : null;
+        String adminUsername = (session != null) ? (String) session.getAttribute("username") : "未知管理员";
+        adminLogService.recordAdminAction(adminId, adminUsername,
+                "修改课程人数上限", "课程", String.valueOf(courseId),
+                "将课程 (ID: " + courseId + ") 的人数上限设为 " + (capacity != null ? capacity : "不限") + "。");
+
+        writeStatus(courseId, response);
+    }
+
+    private void writeStatus(int courseId, HttpServletResponse response) throws IOException {
+        Map<String, Object> status = registrationEngine.getSeatStatus(courseId);
+        if (status == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "课程不存在");
+            return;
+        }
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        objectMapper.writeValue(response.getWriter(), status);
+    }
+}
@@ -1,5 +1,8 @@
 package com.azyasaxi.controller.edit;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
+import com.azyasaxi.model.LeaveTransitionResult;
 import com.azyasaxi.service.LeaveRequestService;
 import com.azyasaxi.service.AdminLogService; // 新增：导入 AdminLogService
 import jakarta.servlet.ServletConfig;
@@ -16,6 +19,7 @@ import java.io.IOException;
 
 @WebServlet("/admin/rejectLeave")
 public class RejectLeaveServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(RejectLeaveServlet.class);
     private LeaveRequestService leaveRequestService;
     private AdminLogService adminLogService; // 新增：AdminLogService 实例
 
@@ -57,8 +61,8 @@ public class RejectLeaveServlet extends HttpServlet {
         if (leaveIdStr != null && !leaveIdStr.isEmpty()) {
             try {
                 int leaveId = Integer.parseInt(leaveIdStr);
-                boolean success = leaveRequestService.approveOrRejectLeaveRequest(leaveId, "已驳回", adminId);
-                if (success) {
+                LeaveTransitionResult result = leaveRequestService.approveOrRejectLeaveRequest(leaveId, "已驳回", adminId);
+                if (result.isSuccess()) {
                     session.setAttribute("successMessage", "请假申请 (ID: " + leaveId + ") 已成功驳回。");
                     // 记录日志
                     String adminUsername = (String) session.getAttribute("username"); // 获取用户名
@@ -66,13 +70,13 @@ public class RejectLeaveServlet extends HttpServlet {
                             "驳回请假申请", "请假申请", leaveIdStr,
                             "驳回了请假申请 (ID: " + leaveIdStr + ")");
                 } else {
-                    session.setAttribute("errorMessage", "驳回请假申请 (ID: " + leaveId + ") 失败。可能申请不存在或状态已改变。");
+                    session.setAttribute("errorMessage", "驳回请假申请 (ID: " + leaveId + ") 失败：" + result.getMessage() + "。");
                 }
             } catch (NumberFormatException e) {
                 session.setAttribute("errorMessage", "无效的请假申请ID格式。");
             } catch (Exception e) {
                 session.setAttribute("errorMessage", "驳回请假申请时发生错误：" + e.getMessage());
-                e.printStackTrace();
+                logger.error("驳回请假申请时发生错误", e, "leaveId", leaveIdStr);
             }
         } else {
             session.setAttribute("errorMessage", "未提供请假申请ID，无法驳回。");
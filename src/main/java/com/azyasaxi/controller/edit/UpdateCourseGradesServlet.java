@@ -0,0 +1,165 @@
+package com.azyasaxi.controller.edit;
+
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
+import com.azyasaxi.model.BatchResult;
+import com.azyasaxi.model.Enrollment;
+import com.azyasaxi.service.AdminLogService;
+import com.azyasaxi.service.EnrollmentService;
+import com.azyasaxi.utils.CsvReader;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper; // 用于解析请求和输出JSON
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * UpdateCourseGradesServlet
+ * 一次提交一门课程整张名单的成绩，返回 JSON 格式的结果 (成功行数和每个失败行的行号、原因)。
+ * 整批成绩在一个事务中写入，只记录一条管理员操作日志。支持两种请求体：
+ * JSON (Content-Type: application/json): {"courseId": 12, "grades": [{"studentId": 1, "grade": 85.5}, ...]}；
+ * CSV (Content-Type: text/csv，课程ID通过参数 courseId 传递): 表头 studentId,grade (或 学号,成绩)。
+ * grade 为 null 或空表示清除成绩。格式错误 (无法解析的ID或成绩) 时整个请求返回 400。
+ */
+@WebServlet("/admin/updateCourseGrades")
+public class UpdateCourseGradesServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(UpdateCourseGradesServlet.class);
+
+    private EnrollmentService enrollmentService;
+    private AdminLogService adminLogService;
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void init(ServletConfig config) throws ServletException {
+        super.init(config);
+        WebApplicationContext context = WebApplicationContextUtils.getWebApplicationContext(config.getServletContext());
+        if (context != null) {
+            this.enrollmentService = context.getBean(EnrollmentService.class);
+            this.adminLogService = context.getBean(AdminLogService.class);
+            this.objectMapper = new ObjectMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        } else {
+            throw new ServletException("Spring WebApplicationContext not found for UpdateCourseGradesServlet.");
+        }
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        String contentType = request.getContentType() != null ? request.getContentType().toLowerCase(Locale.ROOT) : "";
+        int courseId;
+        List<Enrollment> grades;
+        try (Reader reader = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)) {
+            if (contentType.startsWith("application/json")) {
+                JsonNode body = objectMapper.readTree(reader);
+                if (body == null || !body.path("courseId").canConvertToInt() || !body.path("grades").isArray()) {
+                    throw new IllegalArgumentException("请求体需要 courseId 和 grades 数组");
+                }
+                courseId = body.get("courseId").asInt();
+                grades = parseJsonGrades(body.get("grades"));
+            } else {
+                courseId = Integer.parseInt(request.getParameter("courseId"));
+                grades = parseCsvGrades(reader);
+            }
+        } catch (NumberFormatException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "无效的课程ID");
+            return;
+        } catch (IllegalArgumentException | IOException e) {
+            logger.warn("批量录入成绩失败，请求格式不正确", "reason", e.getMessage());
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        BatchResult result = enrollmentService.updateCourseGrades(courseId, grades);
+
+        if (result.getSucceeded() > 0) {
+            HttpSession session = request.getSession(false);
+            Integer adminId = (session != null) ? (Integer) session.getAttribute("adminId") : null;
+            String adminUsername = (session != null) ? (String) session.getAttribute("username") : "未知管理员";
+            adminLogService.recordAdminAction(adminId, adminUsername,
+                    "批量修改学生成绩", "课程", String.valueOf(courseId),
+                    "批量录入课程 (ID: " + courseId + ") 的成绩: 共 " + result.getTotal() + " 行，成功 "
+                            + result.getSucceeded() + " 行，失败 " + result.getFailed() + " 行。");
+        }
+
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        objectMapper.writeValue(response.getWriter(), result);
+    }
+
+    // 解析 JSON 数组中的每一项；studentId 必须是整数，grade 可以是数字、数字字符串或 null
+    private static List<Enrollment> parseJsonGrades(JsonNode items) {
+        List<Enrollment> grades = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            JsonNode item = items.get(i);
+            if (!item.path("studentId").canConvertToInt()) {
+                throw new IllegalArgumentException("第 " + (i + 1) + " 项缺少有效的 studentId");
+            }
+            JsonNode grade = item.path("grade");
+            String gradeText = grade.isNumber() ? grade.decimalValue().toPlainString()
+                    : grade.isTextual() ? grade.asText() : null;
+            grades.add(toEnrollment(item.get("studentId").asInt(), gradeText, i + 1));
+        }
+        return grades;
+    }
+
+    // 解析 CSV：第一行为表头，需要 studentId/学号 和 grade/成绩 两列
+    private static List<Enrollment> parseCsvGrades(Reader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        int studentColumn = -1;
+        int gradeColumn = -1;
+        for (int i = 0; header != null && i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+            if (name.equals("studentid") || name.equals("student_id") || name.equals("学号")) {
+                studentColumn = i;
+            } else if (name.equals("grade") || name.equals("成绩")) {
+                gradeColumn = i;
+            }
+        }
+        if (studentColumn < 0 || gradeColumn < 0) {
+            throw new IllegalArgumentException("表头需要 studentId 和 grade 两列");
+        }
+        List<Enrollment> grades = new ArrayList<>();
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            int row = grades.size() + 1;
+            String studentText = studentColumn < record.size() ? record.get(studentColumn).trim() : "";
+            String gradeText = gradeColumn < record.size() ? record.get(gradeColumn) : null;
+            try {
+                grades.add(toEnrollment(Integer.parseInt(studentText), gradeText, row));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("第 " + row + " 行的学号格式不正确");
+            }
+        }
+        return grades;
+    }
+
+    private static Enrollment toEnrollment(int studentId, String gradeText, int row) {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setStudentId(studentId);
+        if (gradeText != null && !gradeText.trim().isEmpty()) {
+            try {
+                enrollment.setGrade(new BigDecimal(gradeText.trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("第 " + row + " 行的成绩格式不正确");
+            }
+        }
+        return enrollment;
+    }
+}
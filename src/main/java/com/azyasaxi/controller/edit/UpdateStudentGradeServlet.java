@@ -1,5 +1,7 @@
 package com.azyasaxi.controller.edit;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.service.EnrollmentService;
 import com.azyasaxi.service.AdminLogService; // 新增：导入 AdminLogService
 import jakarta.servlet.ServletConfig;
@@ -18,6 +20,7 @@ import java.math.BigDecimal;
 
 @WebServlet("/admin/updateStudentGrade")
 public class UpdateStudentGradeServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(UpdateStudentGradeServlet.class);
     private EnrollmentService enrollmentService;
     private AdminLogService adminLogService; // 新增：AdminLogService 实例
 
@@ -88,7 +91,7 @@ public class UpdateStudentGradeServlet extends HttpServlet {
             request.getSession().setAttribute("errorMessage", "无效的ID或成绩格式。");
         } catch (Exception e) {
             request.getSession().setAttribute("errorMessage", "更新成绩时发生错误：" + e.getMessage());
-            e.printStackTrace();
+            logger.error("更新成绩时发生错误", e, "studentId", studentIdStr, "courseId", courseIdStr, "grade", newGradeStr);
         }
 
         // 重定向回该学生的学分详情页
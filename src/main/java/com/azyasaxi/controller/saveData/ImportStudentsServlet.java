@@ -0,0 +1,103 @@
+package com.azyasaxi.controller.saveData;
+
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
+import com.azyasaxi.model.BatchResult;
+import com.azyasaxi.service.AdminLogService;
+import com.azyasaxi.service.StudentService;
+import com.fasterxml.jackson.databind.ObjectMapper; // 用于将导入结果转换为JSON
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.MultipartConfig;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.Part;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * ImportStudentsServlet
+ * 从上传的 CSV 文件 (UTF-8) 批量导入学生，返回 JSON 格式的导入结果 (成功行数、新学号、每个失败行的行号和原因)。
+ * 支持两种提交方式：multipart 表单中名为 "file" 的文件，或请求体直接为 CSV 内容 (Content-Type: text/csv)。
+ * 文件内容边读边解析，不会先整体读入内存。整个导入只记录一条管理员操作日志。
+ * 请求示例: POST /admin/importStudents (表头: name,gender,username,password,class_id)
+ */
+@WebServlet("/admin/importStudents")
+@MultipartConfig(fileSizeThreshold = 1024 * 1024, maxFileSize = 64L * 1024 * 1024, maxRequestSize = 65L * 1024 * 1024)
+public class ImportStudentsServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(ImportStudentsServlet.class);
+
+    private StudentService studentService;
+    private AdminLogService adminLogService;
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void init(ServletConfig config) throws ServletException {
+        super.init(config);
+        WebApplicationContext context = WebApplicationContextUtils.getWebApplicationContext(config.getServletContext());
+        if (context != null) {
+            this.studentService = context.getBean(StudentService.class);
+            this.adminLogService = context.getBean(AdminLogService.class);
+            this.objectMapper = new ObjectMapper();
+        } else {
+            throw new ServletException("Spring WebApplicationContext not found for ImportStudentsServlet.");
+        }
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        String contentType = request.getContentType() != null ? request.getContentType().toLowerCase(Locale.ROOT) : "";
+        InputStream body;
+        if (contentType.startsWith("multipart/")) {
+            Part file = request.getPart("file");
+            if (file == null) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "缺少上传文件 (表单字段 file)");
+                return;
+            }
+            String fileName = file.getSubmittedFileName() != null ? file.getSubmittedFileName().toLowerCase(Locale.ROOT) : "";
+            if (fileName.endsWith(".xlsx") || fileName.endsWith(".xls")) {
+                response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, "暂不支持 Excel 文件，请另存为 CSV (UTF-8) 后上传");
+                return;
+            }
+            body = file.getInputStream();
+        } else {
+            body = request.getInputStream();
+        }
+
+        BatchResult result;
+        try (Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8)) {
+            result = studentService.importStudents(reader);
+        } catch (IllegalArgumentException | IOException e) {
+            logger.warn("批量导入学生失败，文件格式不正确", "reason", e.getMessage());
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        if (result.getSucceeded() > 0) {
+            HttpSession session = request.getSession(false);
+            Integer adminId = (session != null) ? (Integer) session.getAttribute("adminId") : null;
+            String adminUsername = (session != null) ? (String) session.getAttribute("username") : "未知管理员";
+            List<Integer> ids = result.getCreatedIds();
+            adminLogService.recordAdminAction(adminId, adminUsername,
+                    "批量导入学生", "学生", ids.get(0) + "-" + ids.get(ids.size() - 1),
+                    "批量导入学生: 共 " + result.getTotal() + " 行，成功 " + result.getSucceeded()
+                            + " 行，失败 " + result.getFailed() + " 行。");
+        }
+
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        objectMapper.writeValue(response.getWriter(), result);
+    }
+}
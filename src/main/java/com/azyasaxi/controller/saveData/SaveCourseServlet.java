@@ -1,5 +1,7 @@
 package com.azyasaxi.controller.saveData;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.service.CourseService; // 导入 CourseService
 import com.azyasaxi.service.MajorService;  // 导入 MajorService
 import com.azyasaxi.service.AdminLogService; // 新增：导入 AdminLogService
@@ -24,6 +26,7 @@ import java.util.Collections; // 用于空列表
  */
 @WebServlet("/admin/saveCourse") // Servlet的映射路径
 public class SaveCourseServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(SaveCourseServlet.class);
 
     private CourseService courseService; // CourseService 实例，用于课程相关的业务操作
     private MajorService majorService;   // MajorService 实例
@@ -194,15 +197,14 @@ public class SaveCourseServlet extends HttpServlet {
                 // 调用 MajorService 获取所有专业信息
                 request.setAttribute("majorListFromServlet", this.majorService.listAllMajors());
             } catch (Exception e) {
-                System.err.println("SaveCourseServlet (forwardToFormWithError): 重新加载专业列表时出错: " + e.getMessage());
-                e.printStackTrace();
+                logger.error("重新加载专业列表时出错", e);
                 // 设置一个关于专业列表加载失败的特定错误消息
                 request.setAttribute("errorMessageForMajorList", "无法重新加载专业列表，请手动选择或稍后重试。");
                 request.setAttribute("majorListFromServlet", Collections.emptyList()); // 确保属性存在且为空列表
             }
         } else {
             // 如果 majorService 由于某种原因仍为 null (理论上 init 中会处理或抛异常)
-            System.err.println("SaveCourseServlet (forwardToFormWithError): MajorService 未初始化，无法重新加载专业列表。");
+            logger.warn("MajorService 未初始化，无法重新加载专业列表");
             request.setAttribute("errorMessageForMajorList", "专业服务不可用，无法加载专业列表。");
             request.setAttribute("majorListFromServlet", Collections.emptyList());
         }
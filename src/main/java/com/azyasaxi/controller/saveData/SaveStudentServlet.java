@@ -132,19 +132,17 @@ public class SaveStudentServlet extends HttpServlet {
                 return;
             }
             student.setPassword(password); // Service层会处理哈希
-            success = studentService.addStudent(student); // studentDao.addStudent 不返回ID，所以日志中ID可能不准确
+            success = studentService.addStudent(student); // 成功后 student 中带有数据库生成的学号
             
             if (success) {
                 actionMessage = "学生 '" + student.getName() + "' 添加成功！";
                 // 记录新增日志
-                // 由于 addStudent 不返回新生成的ID，我们暂时无法在日志中记录准确的 target_entity_id
-                // 可以记录用户名作为标识，或者后续改进DAO层使其返回ID
                 HttpSession session = request.getSession(false);
                 Integer adminId = (session != null) ? (Integer) session.getAttribute("adminId") : null;
                 String adminUsername = (session != null) ? (String) session.getAttribute("username") : "未知管理员";
                 adminLogService.recordAdminAction(adminId, adminUsername,
-                        "新增学生", "学生", student.getUserName(), // 使用用户名作为临时ID
-                        "添加了新学生: " + student.getName() + " (用户名: " + student.getUserName() + ")");
+                        "新增学生", "学生", String.valueOf(student.getStudentId()),
+                        "添加了新学生: " + student.getName() + " (ID: " + student.getStudentId() + ", 用户名: " + student.getUserName() + ")");
             } else {
                  actionMessage = "添加学生 '" + student.getName() + "' 失败。可能是用户名已存在。";
             }
@@ -1,5 +1,7 @@
 package com.azyasaxi.controller.showDataForm;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.Major; // 导入 Major 模型类
 import com.azyasaxi.service.MajorService; // 导入 MajorService 类
 import jakarta.servlet.ServletConfig; // 导入 ServletConfig
@@ -21,6 +23,7 @@ import java.util.List; // 导入 List
  */
 @WebServlet("/admin/showAddClassForm")
 public class ShowAddClassFormServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(ShowAddClassFormServlet.class);
 
     private MajorService majorService; // MajorService 实例
 
@@ -57,8 +60,7 @@ public class ShowAddClassFormServlet extends HttpServlet {
             List<Major> majorList = majorService.listAllMajors();
             request.setAttribute("majorList", majorList);
         } catch (Exception e) {
-            System.err.println("加载专业列表时出错 (for add class form): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("加载添加班级表单的专业列表时出错", e);
             request.setAttribute("errorMessage", "加载专业列表失败，无法正常添加班级。");
             // 即使加载专业失败，也尝试显示表单，但下拉列表会是空的或只有错误提示
         }
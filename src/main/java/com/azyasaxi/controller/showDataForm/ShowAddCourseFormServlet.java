@@ -1,5 +1,7 @@
 package com.azyasaxi.controller.showDataForm;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.Major; // 导入 Major 模型类
 import com.azyasaxi.service.MajorService; // 导入 MajorService 类
 import jakarta.servlet.ServletConfig; // 导入 ServletConfig
@@ -22,6 +24,7 @@ import java.util.List; // 导入 List
  */
 @WebServlet("/admin/showAddCourseForm") // Servlet的映射路径
 public class ShowAddCourseFormServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(ShowAddCourseFormServlet.class);
 
     private MajorService majorService; // MajorService 实例，用于获取专业数据
 
@@ -63,7 +66,7 @@ public class ShowAddCourseFormServlet extends HttpServlet {
 
         // 检查 MajorService 是否已成功初始化
         if (this.majorService == null) {
-            System.err.println("ShowAddCourseFormServlet: MajorService 未初始化。"); // 记录错误到服务器日志
+            logger.warn("MajorService 未初始化"); // 记录错误到服务器日志
             // 向客户端发送一个内部服务器错误响应
             response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "依赖服务 MajorService 未正确初始化，无法加载课程添加表单。");
             return;
@@ -77,8 +80,7 @@ public class ShowAddCourseFormServlet extends HttpServlet {
             request.setAttribute("majorListFromServlet", majorList); // 使用不同的变量名
         } catch (Exception e) {
             // 如果在获取专业列表过程中发生异常
-            System.err.println("ShowAddCourseFormServlet: 加载专业列表以供添加课程表单使用时出错: " + e.getMessage());
-            e.printStackTrace(); // 打印完整的异常堆栈到服务器日志
+            logger.error("加载专业列表以供添加课程表单使用时出错", e);
             // 设置一个错误消息到请求属性中，JSP页面可以显示这个错误
             request.setAttribute("errorMessageForMajorList", "无法加载专业列表，请稍后重试或联系管理员。");
             // 即使加载专业失败，仍然尝试显示表单，但专业下拉列表将是空的或显示错误提示
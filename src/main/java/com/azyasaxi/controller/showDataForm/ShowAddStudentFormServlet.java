@@ -1,5 +1,7 @@
 package com.azyasaxi.controller.showDataForm;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.ClassInfo;
 import com.azyasaxi.service.ClassInfoService;
 import jakarta.servlet.ServletConfig;
@@ -21,6 +23,7 @@ import java.util.List;
  */
 @WebServlet("/admin/showAddStudentForm")
 public class ShowAddStudentFormServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(ShowAddStudentFormServlet.class);
 
     private ClassInfoService classInfoService;
 
@@ -57,8 +60,7 @@ public class ShowAddStudentFormServlet extends HttpServlet {
             List<ClassInfo> classList = classInfoService.listAllClassInfos();
             request.setAttribute("classList", classList);
         } catch (Exception e) {
-            System.err.println("加载班级列表时出错 (for add student form): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("加载添加学生表单的班级列表时出错", e);
             request.setAttribute("errorMessage", "加载班级列表失败，无法添加学生。");
             // 仍然尝试转发，JSP中可以显示错误
         }
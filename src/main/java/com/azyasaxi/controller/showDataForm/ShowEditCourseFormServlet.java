@@ -1,5 +1,7 @@
 package com.azyasaxi.controller.showDataForm;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.Course;
 import com.azyasaxi.model.Major;
 import com.azyasaxi.service.CourseService;
@@ -18,6 +20,7 @@ import java.util.List;
 
 @WebServlet("/admin/editCourse")
 public class ShowEditCourseFormServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(ShowEditCourseFormServlet.class);
     private CourseService courseService;
     private MajorService majorService;
 
@@ -61,7 +64,7 @@ public class ShowEditCourseFormServlet extends HttpServlet {
                 return;
             } catch (Exception e) {
                 request.getSession().setAttribute("errorMessage", "加载课程编辑表单时发生错误：" + e.getMessage());
-                e.printStackTrace();
+                logger.error("加载课程编辑表单时发生错误", e, "courseId", idStr);
                 response.sendRedirect(request.getContextPath() + "/admin/dashboard?activeModule=" + activeModule + "#" + activeModule);
                 return;
             }
@@ -1,5 +1,7 @@
 package com.azyasaxi.controller.showDataForm;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.ClassInfo;
 import com.azyasaxi.model.Student;
 import com.azyasaxi.service.ClassInfoService;
@@ -18,6 +20,7 @@ import java.util.List;
 
 @WebServlet("/admin/editStudent")
 public class ShowEditStudentFormServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(ShowEditStudentFormServlet.class);
     private StudentService studentService;
     private ClassInfoService classInfoService;
 
@@ -61,7 +64,7 @@ public class ShowEditStudentFormServlet extends HttpServlet {
                 return;
             } catch (Exception e) {
                 request.getSession().setAttribute("errorMessage", "加载学生编辑表单时发生错误：" + e.getMessage());
-                e.printStackTrace();
+                logger.error("加载学生编辑表单时发生错误", e, "studentId", idStr);
                 response.sendRedirect(request.getContextPath() + "/admin/dashboard?activeModule=" + activeModule + "#" + activeModule);
                 return;
             }
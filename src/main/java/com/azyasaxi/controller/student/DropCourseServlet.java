@@ -0,0 +1,76 @@
+package com.azyasaxi.controller.student;
+
+import com.azyasaxi.model.RegistrationResult;
+import com.azyasaxi.service.EnrollmentService;
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+
+/**
+ * DropCourseServlet
+ * 学生退选一门尚未录入成绩的课程，或退出候补队列。空出的名额自动交给候补队列中的下一位学生。
+ */
+@WebServlet("/student/dropCourse")
+public class DropCourseServlet extends HttpServlet {
+    private EnrollmentService enrollmentService;
+
+    @Override
+    public void init(ServletConfig config) throws ServletException {
+        super.init(config);
+        WebApplicationContext context = WebApplicationContextUtils.getWebApplicationContext(config.getServletContext());
+        if (context != null) {
+            this.enrollmentService = context.getBean(EnrollmentService.class);
+        } else {
+            throw new ServletException("Spring WebApplicationContext not found for DropCourseServlet.");
+        }
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        request.setCharacterEncoding("UTF-8");
+        HttpSession session = request.getSession(false);
+
+        if (session == null || !"student".equals(session.getAttribute("userType")) || session.getAttribute("studentId") == null) {
+            response.sendRedirect(request.getContextPath() + "/loginPage.jsp");
+            return;
+        }
+
+        Integer studentId = (Integer) session.getAttribute("studentId");
+        String courseIdStr = request.getParameter("courseId");
+
+        if (!StringUtils.hasText(courseIdStr)) {
+            session.setAttribute("errorMessage", "退课失败：未指定课程ID。");
+            response.sendRedirect(request.getContextPath() + "/student/dashboard#course-selection");
+            return;
+        }
+
+        int courseId;
+        try {
+            courseId = Integer.parseInt(courseIdStr);
+        } catch (NumberFormatException e) {
+            session.setAttribute("errorMessage", "退课失败：课程ID格式无效。");
+            response.sendRedirect(request.getContextPath() + "/student/dashboard#course-selection");
+            return;
+        }
+
+        RegistrationResult result = enrollmentService.dropStudentFromCourse(studentId, courseId);
+
+        if (result == RegistrationResult.DROPPED || result == RegistrationResult.LEFT_WAITLIST) {
+            session.setAttribute("successMessage", "课程 (ID: " + courseId + ") " + result.getMessage() + "。");
+        } else {
+            // Service 层会打印更具体的日志，这里给用户展示失败原因
+            session.setAttribute("errorMessage", "退选课程 (ID: " + courseId + ") 失败：" + result.getMessage() + "。");
+        }
+        response.sendRedirect(request.getContextPath() + "/student/dashboard#course-selection");
+    }
+}
\ No newline at end of file
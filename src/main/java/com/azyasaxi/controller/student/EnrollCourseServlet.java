@@ -1,5 +1,6 @@
 package com.azyasaxi.controller.student;
 
+import com.azyasaxi.model.RegistrationResult;
 import com.azyasaxi.service.EnrollmentService;
 import jakarta.servlet.ServletConfig;
 import jakarta.servlet.ServletException;
@@ -58,13 +59,13 @@ public class EnrollCourseServlet extends HttpServlet {
             return;
         }
 
-        boolean success = enrollmentService.enrollStudentInCourse(studentId, courseId);
+        RegistrationResult result = enrollmentService.enrollStudentInCourse(studentId, courseId);
 
-        if (success) {
-            session.setAttribute("successMessage", "课程 (ID: " + courseId + ") 选修成功！");
+        if (result == RegistrationResult.ENROLLED || result == RegistrationResult.WAITLISTED) {
+            session.setAttribute("successMessage", "课程 (ID: " + courseId + ") " + result.getMessage() + "。");
         } else {
-            // Service 层会打印更具体的日志，这里给用户一个通用提示
-            session.setAttribute("errorMessage", "选修课程 (ID: " + courseId + ") 失败。您可能已选修该课程或发生其他错误。");
+            // Service 层会打印更具体的日志，这里给用户展示失败原因
+            session.setAttribute("errorMessage", "选修课程 (ID: " + courseId + ") 失败：" + result.getMessage() + "。");
         }
         response.sendRedirect(request.getContextPath() + "/student/dashboard#course-selection");
     }
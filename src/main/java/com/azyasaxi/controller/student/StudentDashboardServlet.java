@@ -1,5 +1,7 @@
 package com.azyasaxi.controller.student;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.Course;
 import com.azyasaxi.model.LeaveRequest;
 import com.azyasaxi.model.Student;
@@ -23,6 +25,7 @@ import java.util.List;
 
 @WebServlet("/student/dashboard")
 public class StudentDashboardServlet extends HttpServlet {
+    private static final Logger logger = LogManager.getLogger(StudentDashboardServlet.class);
 
     private StudentService studentService;
     private LeaveRequestService leaveRequestService;
@@ -96,8 +99,7 @@ public class StudentDashboardServlet extends HttpServlet {
 
 
         } catch (Exception e) {
-            System.err.println("StudentDashboardServlet: Error loading data for student ID " + studentId + ": " + e.getMessage());
-            e.printStackTrace();
+            logger.error("加载学生主界面数据时出错", e, "studentId", studentId);
             request.setAttribute("pageError", "加载页面数据时发生错误，请稍后再试。");
         }
 
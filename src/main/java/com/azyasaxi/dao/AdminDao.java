@@ -1,5 +1,7 @@
 package com.azyasaxi.dao;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.Admin;
 import org.springframework.beans.factory.annotation.Autowired; // 用于依赖注入
 import org.springframework.dao.EmptyResultDataAccessException; // 用于处理查询结果为空的情况
@@ -17,6 +19,7 @@ import java.util.List;
  */
 @Repository // 将此类标记为 Spring 管理的 DAO 组件
 public class AdminDao {
+    private static final Logger logger = LogManager.getLogger(AdminDao.class);
 
     private final JdbcTemplate jdbcTemplate; // Spring JdbcTemplate 实例
 
@@ -48,8 +51,7 @@ public class AdminDao {
             return null; // 返回 null 表示未找到
         } catch (Exception e) {
             // 处理其他可能的数据库访问异常
-            // 在实际应用中，这里应该有更完善的日志记录和异常处理
-            e.printStackTrace(); // 简单打印堆栈信息
+            logger.error("根据用户名查找管理员时发生数据库错误", e, "username", username);
             return null;
         }
     }
@@ -1,5 +1,7 @@
 package com.azyasaxi.dao;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.AdminLog;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -9,11 +11,15 @@ import org.springframework.stereotype.Repository;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 @Repository
 public class AdminLogDao {
+    private static final Logger logger = LogManager.getLogger(AdminLogDao.class);
 
     private final JdbcTemplate jdbcTemplate;
 
@@ -67,25 +73,95 @@ public class AdminLogDao {
                     log.getActionDescription());
             return rowsAffected > 0;
         } catch (Exception e) {
-            System.err.println("添加管理员日志失败: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("添加管理员日志失败", e);
             return false;
         }
     }
 
     /**
-     * 分页获取管理员操作日志。
-     * @param offset 记录的起始偏移量。
-     * @param limit 每页的记录数。
-     * @return AdminLog 对象的列表。
+     * 用一条多行 INSERT 批量写入管理员操作日志。
+     * 由 AdminLogService 的后台写线程调用。action_timestamp 始终按数据库时钟和时区计算：
+     * 写入值为 CURRENT_TIMESTAMP 减去该日志在队列中等待的时长 (由 actionTimestamp 入队时间算出，
+     * 只取 JVM 时钟的时间差，不写入 JVM 时区的时间)，与其他途径写入的日志保持同一时区，游标排序不会错乱。
+     * @param logs 待写入的日志列表。
+     * @return 实际插入的行数；失败时抛出异常，由调用方决定如何处理。
      */
-    public List<AdminLog> getLogs(int offset, int limit) {
-        String sql = "SELECT * FROM AdminLog ORDER BY action_timestamp DESC LIMIT ? OFFSET ?";
+    public int addLogs(List<AdminLog> logs) {
+        if (logs == null || logs.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO AdminLog (admin_id, admin_username, action_type, target_entity, " +
+                "target_entity_id, action_description, action_timestamp) VALUES ");
+        Object[] args = new Object[logs.size() * 7];
+        LocalDateTime now = LocalDateTime.now();
+        int i = 0;
+        for (AdminLog log : logs) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, TIMESTAMPADD(MICROSECOND, -?, CURRENT_TIMESTAMP(6)))");
+            args[i++] = log.getAdminId();
+            args[i++] = log.getAdminUsername();
+            args[i++] = log.getActionType();
+            args[i++] = log.getTargetEntity();
+            args[i++] = log.getTargetEntityId();
+            args[i++] = log.getActionDescription();
+            args[i++] = log.getActionTimestamp() != null
+                    ? Math.max(0L, Duration.between(log.getActionTimestamp(), now).toNanos() / 1000) : 0L; // 排队时长 (微秒)
+        }
+        return jdbcTemplate.update(sql.toString(), args);
+    }
+
+    /**
+     * 获取最新的一页管理员操作日志 (游标分页的第一页)。
+     * 排序键 (action_timestamp, log_id) 由索引 idx_adminlog_ts_id 支持，只扫描 limit 行。
+     * @param limit 最多返回的记录数。
+     * @return 按 (action_timestamp, log_id) 倒序排列的 AdminLog 列表。
+     */
+    public List<AdminLog> getLatestLogs(int limit) {
+        String sql = "SELECT * FROM AdminLog ORDER BY action_timestamp DESC, log_id DESC LIMIT ?";
+        try {
+            return jdbcTemplate.query(sql, new AdminLogMapper(), limit);
+        } catch (Exception e) {
+            logger.error("获取最新管理员日志失败", e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * 获取排在给定位置之后 (更早) 的日志，用于"下一页"。
+     * @param timestamp 游标位置日志的 action_timestamp。
+     * @param logId 游标位置日志的 log_id。
+     * @param limit 最多返回的记录数。
+     * @return 按 (action_timestamp, log_id) 倒序排列的 AdminLog 列表。
+     */
+    public List<AdminLog> getLogsBefore(Timestamp timestamp, int logId, int limit) {
+        // 展开写成 OR 形式：MySQL 不会对行构造器的 < 比较使用范围扫描，展开后 idx_adminlog_ts_id 上是 range 访问
+        String sql = "SELECT * FROM AdminLog WHERE action_timestamp < ? OR (action_timestamp = ? AND log_id < ?) " +
+                     "ORDER BY action_timestamp DESC, log_id DESC LIMIT ?";
+        try {
+            return jdbcTemplate.query(sql, new AdminLogMapper(), timestamp, timestamp, logId, limit);
+        } catch (Exception e) {
+            logger.error("按游标获取更早的管理员日志失败", e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * 获取排在给定位置之前 (更新) 的日志，用于"上一页"。
+     * 查询按正序取出紧邻游标的 limit 行，再在内存中翻转为倒序。
+     * @param timestamp 游标位置日志的 action_timestamp。
+     * @param logId 游标位置日志的 log_id。
+     * @param limit 最多返回的记录数。
+     * @return 按 (action_timestamp, log_id) 倒序排列的 AdminLog 列表。
+     */
+    public List<AdminLog> getLogsAfter(Timestamp timestamp, int logId, int limit) {
+        String sql = "SELECT * FROM AdminLog WHERE action_timestamp > ? OR (action_timestamp = ? AND log_id > ?) " +
+                     "ORDER BY action_timestamp ASC, log_id ASC LIMIT ?";
         try {
-            return jdbcTemplate.query(sql, new AdminLogMapper(), limit, offset);
+            List<AdminLog> logs = new ArrayList<>(jdbcTemplate.query(sql, new AdminLogMapper(),
+                    timestamp, timestamp, logId, limit));
+            Collections.reverse(logs);
+            return logs;
         } catch (Exception e) {
-            System.err.println("获取管理员日志列表失败: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("按游标获取更新的管理员日志失败", e);
             return Collections.emptyList();
         }
     }
@@ -100,8 +176,7 @@ public class AdminLogDao {
             Integer count = jdbcTemplate.queryForObject(sql, Integer.class);
             return count != null ? count : 0;
         } catch (Exception e) {
-            System.err.println("统计管理员日志总数失败: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("统计管理员日志总数失败", e);
             return 0;
         }
     }
@@ -1,6 +1,10 @@
 package com.azyasaxi.dao;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.ClassInfo; // 导入 ClassInfo 模型类
+import com.azyasaxi.model.ListQuery; // 列表查询条件
+import com.azyasaxi.utils.SortClause; // 白名单排序与分页子句
 // Major 和 College 的导入保持不变，因为 RowMapper 中会用到
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
@@ -13,6 +17,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * ClassInfoDao 类 (Data Access Object)
@@ -20,6 +25,7 @@ import java.util.List;
  */
 @Repository
 public class ClassInfoDao {
+    private static final Logger logger = LogManager.getLogger(ClassInfoDao.class);
 
     private final JdbcTemplate jdbcTemplate;
 
@@ -61,8 +67,25 @@ public class ClassInfoDao {
         }
     }
 
+    // 班级列表允许排序的列 (接口字段名 -> SQL 列)
+    private static final Map<String, String> SORTABLE_COLUMNS = Map.of(
+            "classId", "ci.class_id",
+            "className", "ci.class_name",
+            "majorName", "m.major_name",
+            "collegeName", "col.college_name");
+
     // --- 查询方法 ---
     public List<ClassInfo> searchClassInfos(String searchTerm) {
+        return searchClassInfos(ListQuery.ofSearchTerm(searchTerm));
+    }
+
+    /**
+     * 按条件检索班级，支持检索词、专业筛选、白名单排序和分页。
+     *
+     * @param query 查询条件；pageSize 大于 0 时最多返回 pageSize + 1 行 (多出的一行用于判断是否还有下一页)。
+     * @return 班级列表；发生错误时返回空列表。
+     */
+    public List<ClassInfo> searchClassInfos(ListQuery query) {
         StringBuilder sqlBuilder = new StringBuilder(
                 "SELECT ci.class_id AS ci_class_id, ci.class_name AS ci_class_name, ci.major_id AS ci_major_id, " +
                         "m.major_name AS m_major_name, m.college_id AS m_college_id, col.college_name AS co_college_name " +
@@ -70,26 +93,35 @@ public class ClassInfoDao {
                         "LEFT JOIN Major m ON ci.major_id = m.major_id " +
                         "LEFT JOIN College col ON m.college_id = col.college_id"
         );
+        List<String> conditions = new ArrayList<>();
         List<Object> params = new ArrayList<>();
-        if (searchTerm != null && !searchTerm.trim().isEmpty()) {
-            String likeTerm = "%" + searchTerm.trim() + "%";
-            sqlBuilder.append(" WHERE (ci.class_name LIKE ? OR m.major_name LIKE ? OR col.college_name LIKE ?)");
+        if (query.hasSearchTerm()) {
+            String likeTerm = "%" + query.getSearchTerm().trim() + "%";
+            conditions.add("(ci.class_name LIKE ? OR m.major_name LIKE ? OR col.college_name LIKE ?)");
             params.add(likeTerm);
             params.add(likeTerm);
             params.add(likeTerm);
         }
-        sqlBuilder.append(" ORDER BY ci.class_id ASC");
+        if (query.getMajorId() != null) {
+            conditions.add("ci.major_id = ?");
+            params.add(query.getMajorId());
+        }
+        if (!conditions.isEmpty()) {
+            sqlBuilder.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sqlBuilder.append(SortClause.orderBy(query, SORTABLE_COLUMNS, "ci.class_id ASC", "ci.class_id"));
+        SortClause.appendPage(sqlBuilder, params, query);
+
         try {
-            return jdbcTemplate.query(sqlBuilder.toString(), params.toArray(), new ClassInfoWithHierarchyRowMapper());
+            return jdbcTemplate.query(sqlBuilder.toString(), new ClassInfoWithHierarchyRowMapper(), params.toArray());
         } catch (Exception e) {
-            System.err.println("搜索班级信息失败 (searchTerm: " + searchTerm + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("搜索班级信息失败", e, "searchTerm", query.getSearchTerm());
             return Collections.emptyList();
         }
     }
 
     public List<ClassInfo> getAllClassInfo() {
-        return searchClassInfos(null);
+        return searchClassInfos((String) null);
     }
 
     /**
@@ -109,15 +141,35 @@ public class ClassInfoDao {
         try {
             return jdbcTemplate.queryForObject(sql, new ClassInfoWithHierarchyRowMapper(), classId);
         } catch (EmptyResultDataAccessException e) {
-            System.out.println("未找到ID为 " + classId + " 的班级信息。");
+            logger.debug("未找到班级信息", "classId", classId);
             return null; // 未找到班级
         } catch (Exception e) {
-            System.err.println("根据ID获取班级详细信息失败 (classId: " + classId + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("根据ID获取班级详细信息失败", e, "classId", classId);
             return null; // 发生其他错误
         }
     }
 
+    /**
+     * 获取所有班级的ID、名称和专业ID (不关联专业和学院)，用于构建内存中的院系层级缓存。
+     *
+     * @return 按班级ID升序的 ClassInfo 列表 (只填充 classId, className, majorId)；查询失败时返回 null。
+     */
+    public List<ClassInfo> findAllClassInfoBasic() {
+        String sql = "SELECT class_id, class_name, major_id FROM ClassInfo ORDER BY class_id";
+        try {
+            return jdbcTemplate.query(sql, (rs, rowNum) -> {
+                ClassInfo classInfo = new ClassInfo();
+                classInfo.setClassId(rs.getInt("class_id"));
+                classInfo.setClassName(rs.getString("class_name"));
+                classInfo.setMajorId(rs.getObject("major_id", Integer.class));
+                return classInfo;
+            });
+        } catch (Exception e) {
+            logger.error("查询所有班级基本信息失败", e);
+            return null;
+        }
+    }
+
     // --- 增删改 ---
     public int addClassInfo(ClassInfo classInfo) {
         String sql = "INSERT INTO ClassInfo (class_name, major_id) VALUES (?, ?)";
@@ -126,7 +178,7 @@ public class ClassInfoDao {
             Object majorIdParam = (majorId == null) ? null : majorId;
             return jdbcTemplate.update(sql, classInfo.getClassName(), majorIdParam);
         } catch (Exception e) {
-            System.err.println("添加班级信息失败: " + classInfo.getClassName() + " - " + e.getMessage());
+            logger.error("添加班级信息失败", e, "className", classInfo.getClassName());
             return 0;
         }
     }
@@ -136,8 +188,7 @@ public class ClassInfoDao {
         try {
             return jdbcTemplate.update(sql, classId);
         } catch (Exception e) {
-            System.err.println("删除班级信息失败 (classId: " + classId + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("删除班级信息失败", e, "classId", classId);
             return 0;
         }
     }
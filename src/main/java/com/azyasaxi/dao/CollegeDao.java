@@ -0,0 +1,41 @@
+package com.azyasaxi.dao;
+
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
+import com.azyasaxi.model.College;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * CollegeDao 类 (Data Access Object)
+ * 负责与数据库中的 College 表进行交互。
+ */
+@Repository
+public class CollegeDao {
+    private static final Logger logger = LogManager.getLogger(CollegeDao.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public CollegeDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 从数据库中检索所有学院的信息。
+     *
+     * @return 包含所有 College 对象的列表 (按学院ID升序)；查询失败时返回 null。
+     */
+    public List<College> findAllColleges() {
+        String sql = "SELECT college_id, college_name FROM College ORDER BY college_id";
+        try {
+            return jdbcTemplate.query(sql, (rs, rowNum) -> new College(rs.getInt("college_id"), rs.getString("college_name")));
+        } catch (Exception e) {
+            logger.error("查询所有学院信息失败", e);
+            return null;
+        }
+    }
+}
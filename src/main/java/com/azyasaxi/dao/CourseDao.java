@@ -1,15 +1,27 @@
 package com.azyasaxi.dao;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.Course; // 导入 Course 模型类
+import com.azyasaxi.model.ListQuery; // 列表查询条件
+import com.azyasaxi.utils.SortClause; // 白名单排序与分页子句
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * CourseDao 类 (Data Access Object)
@@ -17,6 +29,7 @@ import java.util.List;
  */
 @Repository // 将此类标记为 Spring 管理的 DAO 组件
 public class CourseDao {
+    private static final Logger logger = LogManager.getLogger(CourseDao.class);
 
     private final JdbcTemplate jdbcTemplate; // Spring JdbcTemplate 实例
 
@@ -58,6 +71,14 @@ public class CourseDao {
         }
     }
 
+    // 课程列表允许排序的列 (接口字段名 -> SQL 列)；course_name、course_teacher、credit 有二级索引
+    private static final Map<String, String> SORTABLE_COLUMNS = Map.of(
+            "courseId", "c.course_id",
+            "courseName", "c.course_name",
+            "courseTeacher", "c.course_teacher",
+            "credit", "c.credit",
+            "majorName", "m.major_name");
+
     /**
      * 从数据库中检索所有课程的信息，或者根据提供的搜索词进行过滤。
      * 搜索基于课程名称或课程教师的相似匹配。
@@ -66,100 +87,155 @@ public class CourseDao {
      * @return 包含匹配 Course 对象的列表；如果未找到或发生错误，则返回空列表。
      */
     public List<Course> searchCourses(String searchTerm) {
+        return searchCourses(ListQuery.ofSearchTerm(searchTerm));
+    }
+
+    /**
+     * 按条件检索课程，支持检索词 (课程名称或教师)、专业筛选、白名单排序和分页。
+     *
+     * @param query 查询条件；pageSize 大于 0 时最多返回 pageSize + 1 行 (多出的一行用于判断是否还有下一页)。
+     * @return 课程列表；发生错误时返回空列表。
+     */
+    public List<Course> searchCourses(ListQuery query) {
         StringBuilder sqlBuilder = new StringBuilder(
                 "SELECT c.course_id, c.course_name, c.course_teacher, c.credit, c.major_id, " +
                         "m.major_name " + // 获取专业名称
                         "FROM Course c " +
                         "LEFT JOIN Major m ON c.major_id = m.major_id" // 左连接以包含没有关联专业的课程（如果允许）
         );
+        List<String> conditions = new ArrayList<>();
         List<Object> params = new ArrayList<>();
 
-        if (searchTerm != null && !searchTerm.trim().isEmpty()) {
-            String likeTerm = "%" + searchTerm.trim() + "%";
+        if (query.hasSearchTerm()) {
+            String likeTerm = "%" + query.getSearchTerm().trim() + "%";
             // 根据课程名称或课程老师进行搜索
-            sqlBuilder.append(" WHERE (c.course_name LIKE ? OR c.course_teacher LIKE ?)");
+            conditions.add("(c.course_name LIKE ? OR c.course_teacher LIKE ?)");
             params.add(likeTerm);
             params.add(likeTerm);
         }
-        sqlBuilder.append(" ORDER BY c.course_id"); // 添加排序
+        if (query.getMajorId() != null) {
+            conditions.add("c.major_id = ?");
+            params.add(query.getMajorId());
+        }
+        if (!conditions.isEmpty()) {
+            sqlBuilder.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sqlBuilder.append(SortClause.orderBy(query, SORTABLE_COLUMNS, "c.course_id ASC", "c.course_id")); // 添加排序
+        SortClause.appendPage(sqlBuilder, params, query);
 
         try {
-            return jdbcTemplate.query(sqlBuilder.toString(), params.toArray(), new CourseRowMapper());
+            return jdbcTemplate.query(sqlBuilder.toString(), new CourseRowMapper(), params.toArray());
         } catch (Exception e) {
-            System.err.println("搜索课程信息失败 (searchTerm: " + searchTerm + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("搜索课程信息失败", e, "searchTerm", query.getSearchTerm());
             return List.of(); // 返回空列表表示错误或未找到
         }
     }
 
+    /**
+     * 获取指定学生尚未选修的课程 (可选课程)。
+     * 使用 NOT EXISTS 反连接在数据库中完成过滤，
+     * 由 Enrollment 表 (student_id, course_id) 上的唯一索引支持，不需要把整张课程表取回应用层。
+     *
+     * @param studentId 学生的ID。
+     * @return 按 course_id 排序的可选课程列表；发生错误时返回空列表。
+     */
+    public List<Course> getCoursesNotEnrolledByStudent(int studentId) {
+        String sql = "SELECT c.course_id, c.course_name, c.course_teacher, c.credit, c.major_id, " +
+                     "m.major_name " +
+                     "FROM Course c " +
+                     "LEFT JOIN Major m ON c.major_id = m.major_id " +
+                     "WHERE NOT EXISTS (SELECT 1 FROM Enrollment e WHERE e.student_id = ? AND e.course_id = c.course_id) " +
+                     "ORDER BY c.course_id";
+        try {
+            return jdbcTemplate.query(sql, new CourseRowMapper(), studentId);
+        } catch (Exception e) {
+            logger.error("获取学生可选课程失败", e, "studentId", studentId);
+            return List.of();
+        }
+    }
+
     /**
      * 获取所有课程信息。
      *
      * @return 包含所有 Course 对象的列表。
      */
     public List<Course> getAllCourses() {
-        return searchCourses(null); // 调用搜索方法，传入null以获取所有
+        return searchCourses((String) null); // 调用搜索方法，传入null以获取所有
     }
 
     /**
      * 向数据库中添加一个新的课程信息。
-     * 注意：这里我们假设通过专业名称来查找 major_id。如果专业不存在，则添加失败。
-     * 或者，您可以选择先创建专业（如果不存在）或让调用者确保专业已存在并传递 major_id。
-     * 为了简化，这里假设调用者会提供一个有效的 major_id (或者允许 major_id 为 null)。
+     * 专业由调用方 (CourseService) 先按名称解析为 majorId，这里不再查询 Major 表。
      *
-     * 通过课程名称，任课老师，学分和专业名称进行添加"，
-     * 我们需要先根据专业名称查询到 major_id。
+     * @param course 包含新课程信息的 Course 对象，需要 courseName, courseTeacher, credit；
+     *               majorId 为 null 表示不关联专业。
+     * @return 如果插入成功，返回影响的行数 (通常为 1)；课程在该专业下已存在时返回 -3；其他失败返回 0。
+     */
+    public int addCourse(Course course) {
+        String sql = "INSERT INTO Course (course_name, course_teacher, credit, major_id) VALUES (?, ?, ?, ?)";
+        try {
+            return jdbcTemplate.update(sql, course.getCourseName(), course.getCourseTeacher(), course.getCredit(),
+                    course.getMajorId());
+        } catch (DuplicateKeyException e) {
+            logger.warn("添加课程信息失败，课程在该专业下已存在", "courseName", course.getCourseName());
+            return -3; // 表示唯一性约束冲突
+        } catch (Exception e) {
+            logger.error("添加课程信息失败", e, "courseName", course.getCourseName());
+            return 0; // 表示其他插入失败
+        }
+    }
+
+    /**
+     * 用 JDBC 批处理一次插入多门课程 (每门课程的 majorId 已由调用方解析)。
+     * 数据库错误以异常形式抛出，以便调用方的事务整体回滚。
      *
-     * @param course 包含新课程信息的 Course 对象。
-     *               需要 courseName, courseTeacher, credit。
-     *               majorName 用于查找 majorId，如果 majorName 为 null 或空，则 majorId 也为 null。
-     * @return 如果插入成功，返回影响的行数 (通常为 1)；如果插入失败（例如专业名找不到），返回 0 或负数。
+     * @param courses 要插入的课程。
+     * @return 每门课程影响的行数。
      */
-    public int addCourse(Course course, String majorName) {
+    public int[] addCourses(List<Course> courses) {
         String sql = "INSERT INTO Course (course_name, course_teacher, credit, major_id) VALUES (?, ?, ?, ?)";
-        Integer majorIdToInsert = null;
-
-        // 如果提供了专业名称，则尝试根据专业名称获取 major_id
-        if (majorName != null && !majorName.trim().isEmpty()) {
-            String findMajorIdSql = "SELECT major_id FROM Major WHERE major_name = ?";
-            try {
-                // queryForObject 期望返回单行单列，如果找不到会抛出 EmptyResultDataAccessException
-                majorIdToInsert = jdbcTemplate.queryForObject(findMajorIdSql, Integer.class, majorName.trim());
-            } catch (org.springframework.dao.EmptyResultDataAccessException e) {
-                System.err.println("添加课程失败：找不到专业名称 '" + majorName + "' 对应的专业ID。");
-                return -1; // 表示专业名未找到
-            } catch (Exception e) {
-                System.err.println("查询专业ID时出错: " + e.getMessage());
-                e.printStackTrace();
-                return -2; // 表示查询专业ID时发生其他错误
-            }
-        } else {
-            // 如果没有提供专业名称，或者您允许课程没有专业关联，则 majorIdToInsert 保持为 null
-            // 确保您的 Course 表的 major_id 字段允许 NULL 值，如果这是您的业务需求。
-            // 根据您的表结构，major_id 是外键，所以它要么是有效的Major表ID，要么如果允许NULL，则为NULL。
-            System.out.println("添加课程时未提供专业名称。");
+        List<Object[]> batchArgs = new ArrayList<>(courses.size());
+        for (Course course : courses) {
+            batchArgs.add(new Object[]{course.getCourseName(), course.getCourseTeacher(), course.getCredit(), course.getMajorId()});
         }
+        return jdbcTemplate.batchUpdate(sql, batchArgs);
+    }
 
+    /**
+     * 查询给定名称的课程已存在于哪些专业下，用于批量添加前一次性检查唯一性 (同一专业下课程名唯一)。
+     *
+     * @param courseNames 课程名称。
+     * @return 已存在课程的 "小写课程名|专业ID" 集合 (没有专业时为 "小写课程名|null")；查询失败时返回 null。
+     */
+    public Set<String> findExistingCourseKeys(Collection<String> courseNames) {
+        Set<String> keys = new HashSet<>();
+        if (courseNames == null || courseNames.isEmpty()) {
+            return keys;
+        }
+        String sql = "SELECT course_name, major_id FROM Course WHERE course_name IN (" +
+                String.join(",", Collections.nCopies(courseNames.size(), "?")) + ")";
         try {
-            // 执行插入课程的操作
-            // 如果 majorIdToInsert 是 null，我们需要使用 PreparedStatement.setNull
-            if (majorIdToInsert == null) {
-                return jdbcTemplate.update(sql, course.getCourseName(), course.getCourseTeacher(), course.getCredit(), null);
-            } else {
-                return jdbcTemplate.update(sql, course.getCourseName(), course.getCourseTeacher(), course.getCredit(), majorIdToInsert);
-            }
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs ->
+                    keys.add(courseKey(rs.getString("course_name"), rs.getObject("major_id", Integer.class))),
+                    courseNames.toArray());
+            return keys;
         } catch (Exception e) {
-            System.err.println("添加课程信息失败: " + course.getCourseName() + " - " + e.getMessage());
-            // 检查是否是唯一性约束冲突
-            if (e.getMessage() != null && e.getMessage().toLowerCase().contains("unique constraint") || e.getMessage().toLowerCase().contains("duplicate entry")) {
-                System.err.println("错误：课程 '" + course.getCourseName() + "' 在该专业下已存在。");
-                return -3; // 表示唯一性约束冲突
-            }
-            e.printStackTrace();
-            return 0; // 表示其他插入失败
+            logger.error("批量查询已存在课程失败", e, "courses", courseNames.size());
+            return null;
         }
     }
 
+    /**
+     * 课程的唯一键 (课程名忽略首尾空白和大小写，与数据库排序规则一致)。
+     *
+     * @param courseName 课程名称。
+     * @param majorId    专业ID，可以为 null。
+     * @return "小写课程名|专业ID"
+     */
+    public static String courseKey(String courseName, Integer majorId) {
+        return courseName.trim().toLowerCase(Locale.ROOT) + "|" + majorId;
+    }
+
 
     // 根据需求，未来可以添加更多方法：
     /**
@@ -178,8 +254,7 @@ public class CourseDao {
         } catch (org.springframework.dao.EmptyResultDataAccessException e) {
             return null; // 未找到课程
         } catch (Exception e) {
-            System.err.println("根据ID获取课程信息失败 (courseId: " + courseId + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("根据ID获取课程信息失败", e, "courseId", courseId);
             return null;
         }
     }
@@ -187,43 +262,16 @@ public class CourseDao {
     /**
      * 更新现有课程信息。
      *
-     * @param course 要更新的 Course 对象，其 courseId 必须有效。
-     * @param majorName (可选) 新的专业名称，用于更新 major_id。如果为 null，则不更新专业。
+     * @param course 要更新的 Course 对象，其 courseId 必须有效；majorId 为 null 表示不关联专业。
      * @return 影响的行数。
      */
-    public int updateCourse(Course course, String majorName) {
+    public int updateCourse(Course course) {
         String sql = "UPDATE Course SET course_name = ?, course_teacher = ?, credit = ?, major_id = ? WHERE course_id = ?";
-        Integer majorIdToUpdate = course.getMajorId(); // 默认使用课程对象中已有的majorId
-
-        if (majorName != null && !majorName.trim().isEmpty()) {
-            String findMajorIdSql = "SELECT major_id FROM Major WHERE major_name = ?";
-            try {
-                majorIdToUpdate = jdbcTemplate.queryForObject(findMajorIdSql, Integer.class, majorName.trim());
-            } catch (org.springframework.dao.EmptyResultDataAccessException e) {
-                System.err.println("更新课程失败：找不到专业名称 '" + majorName + "' 对应的专业ID。");
-                return -1;
-            } catch (Exception e) {
-                System.err.println("查询专业ID时出错 (更新课程): " + e.getMessage());
-                e.printStackTrace();
-                return -2;
-            }
-        } else if (majorName != null && majorName.trim().isEmpty()) { // 如果传入空字符串，表示希望清除专业关联
-            majorIdToUpdate = null;
-        }
-        // 如果 majorName 是 null (不是空字符串)，则保持 course 对象中原有的 majorId 不变
-
         try {
-            if (majorIdToUpdate == null) {
-                return jdbcTemplate.update(sql, course.getCourseName(), course.getCourseTeacher(), course.getCredit(),
-                        null, // 使用 Types.INTEGER 来显式设置 NULL
-                        course.getCourseId());
-            } else {
-                return jdbcTemplate.update(sql, course.getCourseName(), course.getCourseTeacher(), course.getCredit(),
-                        majorIdToUpdate, course.getCourseId());
-            }
+            return jdbcTemplate.update(sql, course.getCourseName(), course.getCourseTeacher(), course.getCredit(),
+                    course.getMajorId(), course.getCourseId());
         } catch (Exception e) {
-            System.err.println("更新课程信息失败 (courseId: " + course.getCourseId() + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("更新课程信息失败", e, "courseId", course.getCourseId());
             return 0;
         }
     }
@@ -239,12 +287,25 @@ public class CourseDao {
         try {
             return jdbcTemplate.update(sql, courseId);
         } catch (Exception e) {
-            System.err.println("删除课程信息失败 (courseId: " + courseId + "): " + e.getMessage());
+            logger.error("删除课程信息失败", e, "courseId", courseId);
             // 需要考虑外键约束，Enrollment表引用了Course。
             // 如果有学生选了这门课，直接删除可能会失败（除非设置了级联删除或SET NULL，这里是Enrollment级联删除Course）
-            e.printStackTrace();
             return 0;
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * 设置课程的人数上限。
+     *
+     * @param capacity 人数上限，null 表示不限。
+     * @return 影响的行数；出错时返回 0。
+     */
+    public int updateCourseCapacity(int courseId, Integer capacity) {
+        try {
+            return jdbcTemplate.update("UPDATE Course SET capacity = ? WHERE course_id = ?", capacity, courseId);
+        } catch (Exception e) {
+            logger.error("设置课程人数上限失败", e, "courseId", courseId, "capacity", capacity);
+            return 0;
+        }
+    }
+}
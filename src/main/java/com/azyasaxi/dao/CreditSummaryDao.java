@@ -1,24 +1,53 @@
 package com.azyasaxi.dao;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.CreditSummary; // 导入 CreditSummary 模型类
+import com.azyasaxi.model.ListQuery;     // 列表查询条件
+import com.azyasaxi.utils.SortClause;    // 白名单排序与分页子句
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections; // 用于返回空列表
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 
 /**
  * CreditSummaryDao 类 (Data Access Object)
- * 负责从数据库中的 CreditSummary 视图查询学生已获得的学分统计信息。
+ * 负责读取和维护数据库中的 CreditSummary 学分汇总表。
+ * 汇总表只保存 student_id 与 total_credits (成绩60分及以上课程的学分之和)，学生姓名查询时关联 Student 表获取；
+ * 成绩、课程学分变化时由 Service 层调用 refresh 系列方法按学生增量重算，另有全量重建与校验方法供定时任务使用。
  * 使用 Spring JdbcTemplate 执行查询操作。
  */
 @Repository // 将此类标记为 Spring 管理的 DAO 组件
 public class CreditSummaryDao {
+    private static final Logger logger = LogManager.getLogger(CreditSummaryDao.class);
+
+    // 实时计算每个学生已获得学分的查询 (与旧版 CreditSummary 视图的定义一致)
+    private static final String EARNED_CREDITS_SELECT =
+            "SELECT e.student_id, SUM(c.credit) AS total_credits " +
+            "FROM Enrollment e JOIN Course c ON e.course_id = c.course_id " +
+            "WHERE e.grade >= 60.0";
+
+    // 读取汇总表时关联 Student 表取学生姓名
+    private static final String SUMMARY_SELECT =
+            "SELECT cs.student_id, s.name AS student_name, cs.total_credits " +
+            "FROM CreditSummary cs JOIN Student s ON cs.student_id = s.student_id";
+
+    // 学分统计列表允许排序的列 (接口字段名 -> SQL 列)；total_credits 有二级索引
+    private static final Map<String, String> SORTABLE_COLUMNS = Map.of(
+            "studentId", "cs.student_id",
+            "studentName", "s.name",
+            "totalCredits", "cs.total_credits");
 
     private final JdbcTemplate jdbcTemplate; // Spring JdbcTemplate 实例
 
@@ -39,47 +68,57 @@ public class CreditSummaryDao {
         @Override
         public CreditSummary mapRow(ResultSet rs, int rowNum) throws SQLException {
             CreditSummary summary = new CreditSummary();
-            summary.setStudentId(rs.getInt("student_id"));       // 从视图获取 student_id
-            summary.setStudentName(rs.getString("student_name")); // 从视图获取 student_name
-            summary.setTotalCredits(rs.getBigDecimal("total_credits")); // 从视图获取 total_credits
+            summary.setStudentId(rs.getInt("student_id"));       // 从汇总表获取 student_id
+            summary.setStudentName(rs.getString("student_name")); // 从 Student 表获取 student_name
+            summary.setTotalCredits(rs.getBigDecimal("total_credits")); // 从汇总表获取 total_credits
             return summary;
         }
     }
 
     /**
-     * 从 CreditSummary 视图中检索所有学生的学分统计信息，或者根据提供的学生姓名进行过滤。
+     * 从 CreditSummary 汇总表中检索所有学生的学分统计信息，或者根据提供的学生姓名进行过滤。
      * 搜索基于学生姓名的相似匹配。
      *
      * @param searchTerm 可选的搜索词，可以是学生姓名或学号。如果为 null 或空，则返回所有学生的学分统计。
      * @return 包含匹配 CreditSummary 对象的列表；如果未找到或发生错误，则返回空列表。
      */
     public List<CreditSummary> searchCreditSummaries(String searchTerm) {
-        StringBuilder sqlBuilder = new StringBuilder(
-                "SELECT student_id, student_name, total_credits FROM CreditSummary"
-        );
+        return searchCreditSummaries(ListQuery.ofSearchTerm(searchTerm));
+    }
+
+    /**
+     * 按条件检索学分统计，支持学号/姓名检索词、白名单排序和分页。
+     *
+     * @param query 查询条件；pageSize 大于 0 时最多返回 pageSize + 1 行 (多出的一行用于判断是否还有下一页)。
+     * @return 学分统计列表；发生错误时返回空列表。
+     */
+    public List<CreditSummary> searchCreditSummaries(ListQuery query) {
+        StringBuilder sqlBuilder = new StringBuilder(SUMMARY_SELECT);
         List<Object> params = new ArrayList<>();
 
-        if (searchTerm != null && !searchTerm.trim().isEmpty()) {
-            String trimmedSearchTerm = searchTerm.trim();
+        if (query.hasSearchTerm()) {
+            String trimmedSearchTerm = query.getSearchTerm().trim();
             try {
                 // 尝试将搜索词解析为整数 (学号)
                 int studentId = Integer.parseInt(trimmedSearchTerm);
-                sqlBuilder.append(" WHERE student_id = ?");
+                sqlBuilder.append(" WHERE cs.student_id = ?");
                 params.add(studentId);
             } catch (NumberFormatException e) {
                 // 如果解析失败，则按学生姓名进行模糊搜索
-                sqlBuilder.append(" WHERE student_name LIKE ?");
+                sqlBuilder.append(" WHERE s.name LIKE ?");
                 params.add("%" + trimmedSearchTerm + "%");
             }
         }
 
-        sqlBuilder.append(" ORDER BY total_credits DESC, student_name ASC");
+        // 默认按总学分降序；学号保证分页顺序稳定
+        sqlBuilder.append(SortClause.orderBy(query, SORTABLE_COLUMNS,
+                "cs.total_credits DESC, s.name ASC, cs.student_id ASC", "cs.student_id"));
+        SortClause.appendPage(sqlBuilder, params, query);
 
         try {
-            return jdbcTemplate.query(sqlBuilder.toString(), params.toArray(), new CreditSummaryRowMapper());
+            return jdbcTemplate.query(sqlBuilder.toString(), new CreditSummaryRowMapper(), params.toArray());
         } catch (Exception e) {
-            System.err.println("搜索学分统计信息失败 (searchTerm: " + searchTerm + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("搜索学分统计信息失败", e, "searchTerm", query.getSearchTerm());
             return Collections.emptyList();
         }
     }
@@ -91,7 +130,7 @@ public class CreditSummaryDao {
      */
     public List<CreditSummary> getAllCreditSummaries() {
         // 调用搜索方法，不传递任何搜索条件，以获取所有记录
-        return searchCreditSummaries(null);
+        return searchCreditSummaries((String) null);
     }
 
     /**
@@ -101,7 +140,7 @@ public class CreditSummaryDao {
      * @return CreditSummary 对象，如果未找到该学生的学分记录则返回 null。
      */
     public CreditSummary getCreditSummaryByStudentId(int studentId) {
-        String sql = "SELECT student_id, student_name, total_credits FROM CreditSummary WHERE student_id = ?";
+        String sql = SUMMARY_SELECT + " WHERE cs.student_id = ?";
         try {
             // queryForObject 期望返回单条记录，如果找不到会抛出 EmptyResultDataAccessException
             return jdbcTemplate.queryForObject(sql, new CreditSummaryRowMapper(), studentId);
@@ -109,10 +148,114 @@ public class CreditSummaryDao {
             // 如果没有找到对应ID的记录，返回null是合理的行为
             return null;
         } catch (Exception e) {
-            System.err.println("根据学生ID获取学分统计信息失败 (studentId: " + studentId + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("根据学生ID获取学分统计信息失败", e, "studentId", studentId);
             return null; // 发生其他错误时也返回null
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * 一次查询获取指定班级所有学生的已获学分。
+     *
+     * @param classId 班级ID。
+     * @return 学生ID -> 总学分 的映射；没有学分记录的学生不在映射中，发生错误时返回空映射。
+     */
+    public Map<Integer, BigDecimal> getTotalCreditsByClassId(int classId) {
+        String sql = "SELECT cs.student_id, cs.total_credits FROM CreditSummary cs " +
+                     "JOIN Student s ON cs.student_id = s.student_id WHERE s.class_id = ?";
+        Map<Integer, BigDecimal> credits = new HashMap<>();
+        try {
+            jdbcTemplate.query(sql, rs -> {
+                credits.put(rs.getInt("student_id"), rs.getBigDecimal("total_credits"));
+            }, classId);
+            return credits;
+        } catch (Exception e) {
+            logger.error("获取班级学生学分失败", e, "classId", classId);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * 一次查询获取一组学生的已获学分。
+     *
+     * @param studentIds 学生ID集合。
+     * @return 学生ID -> 总学分 的映射；没有学分记录的学生不在映射中，发生错误时返回空映射。
+     */
+    public Map<Integer, BigDecimal> getTotalCreditsByStudentIds(Collection<Integer> studentIds) {
+        if (studentIds == null || studentIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        String sql = "SELECT student_id, total_credits FROM CreditSummary WHERE student_id IN (" +
+                     String.join(",", Collections.nCopies(studentIds.size(), "?")) + ")";
+        Map<Integer, BigDecimal> credits = new HashMap<>();
+        try {
+            jdbcTemplate.query(sql, rs -> {
+                credits.put(rs.getInt("student_id"), rs.getBigDecimal("total_credits"));
+            }, studentIds.toArray());
+            return credits;
+        } catch (Exception e) {
+            logger.error("批量获取学生学分失败", e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * 按实时成绩重新计算指定学生的已获学分，并写回汇总表。
+     * 先删除这些学生的旧汇总行，再插入重新聚合的结果；没有及格课程的学生不保留汇总行 (与原视图一致)。
+     * 两条语句需要在同一事务中执行，出错时直接抛出异常，由调用方的事务回滚。
+     * 学生ID去重并按升序排列，并发的重算 (例如两次批量录入成绩涉及相同学生) 总是按相同顺序加锁，不会互相死锁。
+     *
+     * @param studentIds 需要重算的学生ID。
+     * @return 写入的汇总行数。
+     */
+    public int refreshStudents(Collection<Integer> studentIds) {
+        if (studentIds == null || studentIds.isEmpty()) {
+            return 0;
+        }
+        Object[] ids = new TreeSet<>(studentIds).toArray();
+        String placeholders = String.join(",", Collections.nCopies(ids.length, "?"));
+        jdbcTemplate.update("DELETE FROM CreditSummary WHERE student_id IN (" + placeholders + ")", ids);
+        return jdbcTemplate.update("INSERT INTO CreditSummary (student_id, total_credits) " +
+                EARNED_CREDITS_SELECT + " AND e.student_id IN (" + placeholders + ") GROUP BY e.student_id", ids);
+    }
+
+    /**
+     * 查询在指定课程中成绩及格 (即该课程学分已计入汇总) 的学生ID。
+     * 课程学分修改或课程删除前调用，用于确定需要重算的学生。
+     *
+     * @param courseId 课程ID。
+     * @return 学生ID列表。
+     */
+    public List<Integer> getStudentIdsWithPassingGrade(int courseId) {
+        String sql = "SELECT student_id FROM Enrollment WHERE course_id = ? AND grade >= 60.0";
+        return jdbcTemplate.queryForList(sql, Integer.class, courseId);
+    }
+
+    /**
+     * 清空汇总表并按全部选课成绩重新生成。
+     * 需要在事务中调用，出错时直接抛出异常。
+     *
+     * @return 重建后的汇总行数。
+     */
+    public int rebuildAll() {
+        jdbcTemplate.update("DELETE FROM CreditSummary");
+        return jdbcTemplate.update("INSERT INTO CreditSummary (student_id, total_credits) " +
+                EARNED_CREDITS_SELECT + " GROUP BY e.student_id");
+    }
+
+    /**
+     * 比较汇总表与实时聚合结果，统计不一致的学生数
+     * (汇总值不同、汇总表缺行或多出的行)。
+     *
+     * @return 不一致的学生数，0 表示汇总表与成绩数据一致。
+     */
+    public int countMismatches() {
+        String live = "(" + EARNED_CREDITS_SELECT + " GROUP BY e.student_id)";
+        String sql = "SELECT " +
+                "(SELECT COUNT(*) FROM " + live + " l LEFT JOIN CreditSummary cs ON cs.student_id = l.student_id " +
+                "  WHERE cs.student_id IS NULL OR cs.total_credits <> l.total_credits) + " +
+                "(SELECT COUNT(*) FROM CreditSummary cs LEFT JOIN " + live + " l ON l.student_id = cs.student_id " +
+                "  WHERE l.student_id IS NULL)";
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class);
+        return count != null ? count : 0;
+    }
+}
@@ -1,18 +1,26 @@
 package com.azyasaxi.dao;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.Enrollment;
 import com.azyasaxi.model.Student;
 import com.azyasaxi.model.Course; // 虽然主要用于courseId，但RowMapper中可能需要
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal; // 导入 BigDecimal
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * EnrollmentDao 类 (Data Access Object)
@@ -20,6 +28,7 @@ import java.util.List;
  */
 @Repository
 public class EnrollmentDao {
+    private static final Logger logger = LogManager.getLogger(EnrollmentDao.class);
 
     private final JdbcTemplate jdbcTemplate;
 
@@ -78,8 +87,7 @@ public class EnrollmentDao {
         try {
             return jdbcTemplate.query(sql, new EnrollmentWithStudentDetailsRowMapper(), courseId);
         } catch (Exception e) {
-            System.err.println("根据课程ID获取选课学生列表失败 (courseId: " + courseId + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("根据课程ID获取选课学生列表失败", e, "courseId", courseId);
             return Collections.emptyList();
         }
     }
@@ -97,12 +105,46 @@ public class EnrollmentDao {
         try {
             return jdbcTemplate.update(sql, newGrade, studentId, courseId);
         } catch (Exception e) {
-            System.err.println("更新成绩失败 (studentId: " + studentId + ", courseId: " + courseId + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("更新成绩失败", e, "studentId", studentId, "courseId", courseId);
             return 0; // 表示更新失败
         }
     }
 
+    /**
+     * 获取某门课程全部选课学生的当前成绩，用于批量录入成绩前一次性核对名单。
+     *
+     * @param courseId 课程的ID。
+     * @return 学生ID -> 成绩 (未录入成绩时值为 null)；出错时返回 null。
+     */
+    public Map<Integer, BigDecimal> getGradesByCourseId(int courseId) {
+        String sql = "SELECT student_id, grade FROM Enrollment WHERE course_id = ?";
+        Map<Integer, BigDecimal> grades = new HashMap<>();
+        try {
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs -> grades.put(rs.getInt("student_id"), rs.getBigDecimal("grade")), courseId);
+            return grades;
+        } catch (Exception e) {
+            logger.error("获取课程成绩名单失败", e, "courseId", courseId);
+            return null;
+        }
+    }
+
+    /**
+     * 用一个 JDBC 批处理更新同一门课程中多名学生的成绩。
+     * 在 Spring 事务中调用时随事务提交或回滚；出错时抛出异常，以便调用方的事务回滚。
+     *
+     * @param courseId 课程的ID。
+     * @param grades   每项包含 studentId 和新成绩 (null 表示清除成绩)。
+     * @return 每条 UPDATE 的影响行数。
+     */
+    public int[] updateGrades(int courseId, List<Enrollment> grades) {
+        String sql = "UPDATE Enrollment SET grade = ? WHERE student_id = ? AND course_id = ?";
+        List<Object[]> batchArgs = new ArrayList<>(grades.size());
+        for (Enrollment enrollment : grades) {
+            batchArgs.add(new Object[]{enrollment.getGrade(), enrollment.getStudentId(), courseId});
+        }
+        return jdbcTemplate.batchUpdate(sql, batchArgs);
+    }
+
     /**
      * 根据学生ID获取该学生已选修的所有课程ID列表。
      * @param studentId 学生的ID。
@@ -113,8 +155,7 @@ public class EnrollmentDao {
         try {
             return jdbcTemplate.queryForList(sql, Integer.class, studentId);
         } catch (Exception e) {
-            System.err.println("获取学生 (ID: " + studentId + ") 已选课程ID列表失败: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("获取学生已选课程ID列表失败", e, "studentId", studentId);
             return Collections.emptyList();
         }
     }
@@ -138,10 +179,201 @@ public class EnrollmentDao {
                     null // 选课时成绩默认为NULL
             );
         } catch (Exception e) {
-            System.err.println("添加选课记录失败 (studentId: " + enrollment.getStudentId() + ", courseId: " + enrollment.getCourseId() + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("添加选课记录失败", e, "studentId", enrollment.getStudentId(), "courseId", enrollment.getCourseId());
             return 0; // 表示失败
         }
     }
 
-}
\ No newline at end of file
+    // --- 选课引擎 (RegistrationEngine) 使用的方法：出错时抛出异常，由引擎决定如何恢复 ---
+
+    /**
+     * 插入一条选课记录 (成绩为 NULL)。
+     *
+     * @return 1 表示插入成功，0 表示该学生已选修此课程。
+     */
+    public int insertEnrollment(int studentId, int courseId) {
+        return jdbcTemplate.update("INSERT IGNORE INTO Enrollment (student_id, course_id, grade) VALUES (?, ?, NULL)",
+                studentId, courseId);
+    }
+
+    /** insertEnrollments 的结果：该行已插入 */
+    public static final int INSERT_OK = 1;
+    /** insertEnrollments 的结果：该学生已选修此课程 (或同一批中有相同的选课) */
+    public static final int INSERT_DUPLICATE = 0;
+    /** insertEnrollments 的结果：学生或课程不存在 (外键约束)，未插入 */
+    public static final int INSERT_REJECTED = -1;
+
+    /**
+     * 用一条多行 INSERT IGNORE 插入多条选课记录 (成绩为 NULL)，并给出每一行的结果。
+     * 必须在可重复读 (REPEATABLE READ) 事务中调用：先用一致性读查出已存在的选课 (同时建立事务快照)，
+     * 再插入其余的行；影响行数与待插入行数相同时全部插入成功。否则再用一致性读查一次：
+     * 快照之后出现的行只能是本事务插入的，其余的行用加锁读 (读取最新已提交的数据) 区分
+     * 其他事务刚插入的选课 (已选过) 和被外键约束拒绝的选课 (INSERT IGNORE 把外键错误降级为警告)。
+     * 每一行的结果都来自 (student_id, course_id) 的实际存在情况，不依赖自增ID的分配方式。
+     *
+     * @param enrollments 要插入的选课 (只使用 studentId 和 courseId)。
+     * @return 与 enrollments 一一对应的结果：INSERT_OK、INSERT_DUPLICATE 或 INSERT_REJECTED。
+     */
+    public int[] insertEnrollments(List<Enrollment> enrollments) {
+        int[] outcomes = new int[enrollments.size()];
+        Map<Long, Integer> firstIndex = new HashMap<>(); // (学生, 课程) -> 在本批中第一次出现的位置
+        List<Integer> unique = new ArrayList<>(enrollments.size());
+        for (int i = 0; i < enrollments.size(); i++) {
+            Enrollment e = enrollments.get(i);
+            if (firstIndex.putIfAbsent(pairKey(e.getStudentId(), e.getCourseId()), i) == null) {
+                unique.add(i);
+            } else {
+                outcomes[i] = INSERT_DUPLICATE; // 同一批中的重复选课只插入第一条
+            }
+        }
+        if (unique.isEmpty()) {
+            return outcomes;
+        }
+
+        Set<Long> before = existingPairs(enrollments, unique, ""); // 一致性读，同时建立事务快照
+        List<Integer> toInsert = new ArrayList<>(unique.size());
+        for (int i : unique) {
+            Enrollment e = enrollments.get(i);
+            if (before.contains(pairKey(e.getStudentId(), e.getCourseId()))) {
+                outcomes[i] = INSERT_DUPLICATE;
+            } else {
+                toInsert.add(i);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return outcomes;
+        }
+
+        StringBuilder values = new StringBuilder();
+        Object[] args = new Object[toInsert.size() * 2];
+        for (int k = 0; k < toInsert.size(); k++) {
+            Enrollment e = enrollments.get(toInsert.get(k));
+            values.append(k == 0 ? "" : ", ").append("(?, ?, NULL)");
+            args[k * 2] = e.getStudentId();
+            args[k * 2 + 1] = e.getCourseId();
+        }
+        int inserted = jdbcTemplate.update("INSERT IGNORE INTO Enrollment (student_id, course_id, grade) VALUES " + values, args);
+        if (inserted == toInsert.size()) {
+            for (int i : toInsert) {
+                outcomes[i] = INSERT_OK;
+            }
+            return outcomes;
+        }
+
+        // 快照之后其他事务提交的行在一致性读中不可见，因此这里查到的都是本事务插入的
+        Set<Long> ours = existingPairs(enrollments, toInsert, "");
+        List<Integer> skipped = new ArrayList<>();
+        for (int i : toInsert) {
+            Enrollment e = enrollments.get(i);
+            if (ours.contains(pairKey(e.getStudentId(), e.getCourseId()))) {
+                outcomes[i] = INSERT_OK;
+            } else {
+                skipped.add(i);
+            }
+        }
+        if (!skipped.isEmpty()) {
+            Set<Long> committed = existingPairs(enrollments, skipped, " LOCK IN SHARE MODE"); // 读取最新已提交的数据
+            for (int i : skipped) {
+                Enrollment e = enrollments.get(i);
+                outcomes[i] = committed.contains(pairKey(e.getStudentId(), e.getCourseId())) ? INSERT_DUPLICATE : INSERT_REJECTED;
+            }
+        }
+        return outcomes;
+    }
+
+    // 查询给定位置的选课中已存在的 (学生, 课程)；lockClause 为空时是一致性读
+    private Set<Long> existingPairs(List<Enrollment> enrollments, List<Integer> indexes, String lockClause) {
+        StringBuilder pairs = new StringBuilder();
+        Object[] args = new Object[indexes.size() * 2];
+        for (int k = 0; k < indexes.size(); k++) {
+            Enrollment e = enrollments.get(indexes.get(k));
+            pairs.append(k == 0 ? "" : ", ").append("(?, ?)");
+            args[k * 2] = e.getStudentId();
+            args[k * 2 + 1] = e.getCourseId();
+        }
+        Set<Long> existing = new HashSet<>();
+        jdbcTemplate.query("SELECT student_id, course_id FROM Enrollment WHERE (student_id, course_id) IN (" + pairs + ")" + lockClause,
+                (RowCallbackHandler) rs -> existing.add(pairKey(rs.getInt("student_id"), rs.getInt("course_id"))),
+                args);
+        return existing;
+    }
+
+    private static long pairKey(int studentId, int courseId) {
+        return ((long) studentId << 32) | (courseId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 删除一条尚未录入成绩的选课记录 (已出成绩的课程不能退选)。
+     *
+     * @return 删除的行数 (0 或 1)。
+     */
+    public int deleteUngradedEnrollment(int studentId, int courseId) {
+        return jdbcTemplate.update("DELETE FROM Enrollment WHERE student_id = ? AND course_id = ? AND grade IS NULL",
+                studentId, courseId);
+    }
+
+    public boolean isEnrolled(int studentId, int courseId) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM Enrollment WHERE student_id = ? AND course_id = ?", Integer.class, studentId, courseId);
+        return count != null && count > 0;
+    }
+
+    /**
+     * 把学生加入课程的候补队列 (队尾)。
+     *
+     * @return 1 表示加入成功，0 表示已在队列中。
+     */
+    public int addToWaitlist(int studentId, int courseId) {
+        return jdbcTemplate.update("INSERT IGNORE INTO CourseWaitlist (student_id, course_id) VALUES (?, ?)",
+                studentId, courseId);
+    }
+
+    public int removeFromWaitlist(int studentId, int courseId) {
+        return jdbcTemplate.update("DELETE FROM CourseWaitlist WHERE student_id = ? AND course_id = ?", studentId, courseId);
+    }
+
+    /**
+     * 按入队顺序读取候补记录，逐行回调 (列 student_id, course_id)。
+     *
+     * @param courseId 只读取该课程；为 null 时读取全部课程。
+     * @return 是否读取成功。
+     */
+    public boolean streamWaitlist(Integer courseId, RowCallbackHandler callback) {
+        String sql = "SELECT student_id, course_id FROM CourseWaitlist" +
+                (courseId != null ? " WHERE course_id = ?" : "") + " ORDER BY waitlist_id ASC";
+        try {
+            if (courseId != null) {
+                jdbcTemplate.query(sql, callback, courseId);
+            } else {
+                jdbcTemplate.query(sql, callback);
+            }
+            return true;
+        } catch (Exception e) {
+            logger.error("读取候补队列失败", e, "courseId", courseId);
+            return false;
+        }
+    }
+
+    /**
+     * 读取课程的人数上限和已选人数，逐行回调 (列 course_id, capacity, enrolled；capacity 为 NULL 表示不限)。
+     *
+     * @param courseId 只读取该课程；为 null 时读取全部课程。
+     * @return 是否读取成功。
+     */
+    public boolean getCourseSeats(Integer courseId, RowCallbackHandler callback) {
+        String sql = "SELECT c.course_id, c.capacity, " +
+                "(SELECT COUNT(*) FROM Enrollment e WHERE e.course_id = c.course_id) AS enrolled " +
+                "FROM Course c" + (courseId != null ? " WHERE c.course_id = ?" : "");
+        try {
+            if (courseId != null) {
+                jdbcTemplate.query(sql, callback, courseId);
+            } else {
+                jdbcTemplate.query(sql, callback);
+            }
+            return true;
+        } catch (Exception e) {
+            logger.error("读取课程名额失败", e, "courseId", courseId);
+            return false;
+        }
+    }
+}
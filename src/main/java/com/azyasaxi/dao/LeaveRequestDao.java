@@ -1,10 +1,15 @@
 package com.azyasaxi.dao;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.LeaveRequest; // 导入 LeaveRequest 模型类
+import com.azyasaxi.model.ListQuery;    // 列表查询条件
+import com.azyasaxi.utils.SortClause;   // 白名单排序与分页子句
 import com.azyasaxi.model.Student;    // 可能需要 Student 模型用于连接查询学生姓名
 import com.azyasaxi.model.Admin;      // 可能需要 Admin 模型用于连接查询审批管理员姓名
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder; // 用于获取自增主键
 import org.springframework.jdbc.support.KeyHolder;       // 用于获取自增主键
@@ -16,8 +21,12 @@ import java.sql.SQLException;
 import java.sql.Statement;   // 用于 Statement.RETURN_GENERATED_KEYS
 import java.sql.Timestamp;   // 用于处理 DATETIME 类型
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections; // 用于返回空列表
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * LeaveRequestDao 类 (Data Access Object)
@@ -25,6 +34,7 @@ import java.util.List;
  */
 @Repository // 将此类标记为 Spring 管理的 DAO 组件
 public class LeaveRequestDao {
+    private static final Logger logger = LogManager.getLogger(LeaveRequestDao.class);
 
     private final JdbcTemplate jdbcTemplate; // Spring JdbcTemplate 实例
 
@@ -115,6 +125,15 @@ public class LeaveRequestDao {
         }
     }
 
+    // 请假列表允许排序的列 (接口字段名 -> SQL 列)
+    private static final Map<String, String> SORTABLE_COLUMNS = Map.of(
+            "leaveId", "lr.leave_id",
+            "studentName", "s.name",
+            "startDate", "lr.start_date",
+            "endDate", "lr.end_date",
+            "status", "lr.status",
+            "requestDate", "lr.request_date");
+
     /**
      * 从数据库中检索所有请假申请的信息，或者根据提供的搜索条件进行过滤。
      * 搜索可以基于学生姓名或请假状态。
@@ -124,6 +143,19 @@ public class LeaveRequestDao {
      * @return 包含匹配 LeaveRequest 对象的列表；如果未找到或发生错误，则返回空列表。
      */
     public List<LeaveRequest> searchLeaveRequests(String studentNameSearchTerm, String statusSearchTerm) {
+        ListQuery query = ListQuery.ofSearchTerm(studentNameSearchTerm);
+        query.setStatus(statusSearchTerm);
+        return searchLeaveRequests(query);
+    }
+
+    /**
+     * 按条件检索请假申请，支持学生姓名检索词、状态筛选、白名单排序和分页。
+     *
+     * @param query 查询条件 (searchTerm 匹配学生姓名，status 为请假状态)；
+     *              pageSize 大于 0 时最多返回 pageSize + 1 行 (多出的一行用于判断是否还有下一页)。
+     * @return 请假申请列表；发生错误时返回空列表。
+     */
+    public List<LeaveRequest> searchLeaveRequests(ListQuery query) {
         // SQL 查询语句，连接 Student 表获取学生姓名，连接 Admin 表获取审批管理员用户名
         // 使用别名 lr, s, a 来区分不同表中的同名字段
         StringBuilder sqlBuilder = new StringBuilder(
@@ -137,35 +169,33 @@ public class LeaveRequestDao {
                         "JOIN Student s ON lr.student_id = s.student_id " + // 内连接 Student 表
                         "LEFT JOIN Admin a ON lr.approved_by_admin_id = a.admin_id" // 左连接 Admin 表，因为审批管理员可能为空
         );
+        List<String> conditions = new ArrayList<>();
         List<Object> params = new ArrayList<>(); // 用于存放查询参数
-        boolean hasWhereClause = false; // 标记是否已添加WHERE子句
 
         // 根据学生姓名搜索条件构建SQL
-        if (studentNameSearchTerm != null && !studentNameSearchTerm.trim().isEmpty()) {
-            sqlBuilder.append(" WHERE s.name LIKE ?");
-            params.add("%" + studentNameSearchTerm.trim() + "%");
-            hasWhereClause = true;
+        if (query.hasSearchTerm()) {
+            conditions.add("s.name LIKE ?");
+            params.add("%" + query.getSearchTerm().trim() + "%");
         }
 
         // 根据请假状态搜索条件构建SQL
-        if (statusSearchTerm != null && !statusSearchTerm.trim().isEmpty()) {
-            if (hasWhereClause) {
-                sqlBuilder.append(" AND lr.status = ?"); // 如果已有WHERE，则用AND连接
-            } else {
-                sqlBuilder.append(" WHERE lr.status = ?"); // 否则用WHERE开始
-                // hasWhereClause = true; // 如果后面还有其他条件，这里应该设置为true
-            }
-            params.add(statusSearchTerm.trim());
+        if (query.getStatus() != null && !query.getStatus().trim().isEmpty()) {
+            conditions.add("lr.status = ?");
+            params.add(query.getStatus().trim());
+        }
+        if (!conditions.isEmpty()) {
+            sqlBuilder.append(" WHERE ").append(String.join(" AND ", conditions));
         }
 
-        sqlBuilder.append(" ORDER BY lr.request_date DESC, lr.leave_id DESC"); // 按申请时间降序排序，再按ID降序
+        // 默认按申请时间降序排序，再按ID降序
+        sqlBuilder.append(SortClause.orderBy(query, SORTABLE_COLUMNS, "lr.request_date DESC, lr.leave_id DESC", "lr.leave_id"));
+        SortClause.appendPage(sqlBuilder, params, query);
 
         try {
             // 执行查询，并使用 LeaveRequestRowMapper 将结果映射到 LeaveRequest 对象列表
-            return jdbcTemplate.query(sqlBuilder.toString(), params.toArray(), new LeaveRequestRowMapper());
+            return jdbcTemplate.query(sqlBuilder.toString(), new LeaveRequestRowMapper(), params.toArray());
         } catch (Exception e) {
-            System.err.println("搜索请假申请信息失败 (studentName: " + studentNameSearchTerm + ", status: " + statusSearchTerm + "): " + e.getMessage());
-            e.printStackTrace(); // 打印详细错误信息到控制台
+            logger.error("搜索请假申请信息失败", e, "searchTerm", query.getSearchTerm(), "status", query.getStatus());
             return Collections.emptyList(); // 发生错误时返回空列表
         }
     }
@@ -199,8 +229,7 @@ public class LeaveRequestDao {
         try {
             return jdbcTemplate.query(sql, new LeaveRequestRowMapper(), studentId);
         } catch (Exception e) {
-            System.err.println("根据学生ID获取请假申请失败 (studentId: " + studentId + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("根据学生ID获取请假申请失败", e, "studentId", studentId);
             return Collections.emptyList();
         }
     }
@@ -236,12 +265,11 @@ public class LeaveRequestDao {
             if (rowsAffected > 0 && keyHolder.getKey() != null) {
                 return keyHolder.getKey().intValue(); // 返回新生成的 leaveId
             } else {
-                System.err.println("添加请假申请失败，没有行被影响或未能获取到生成的键。");
+                logger.warn("添加请假申请失败，没有行被影响或未能获取到生成的键");
                 return -1; // 表示插入失败
             }
         } catch (Exception e) {
-            System.err.println("添加请假申请信息失败: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("添加请假申请信息失败", e);
             return -1; // 表示插入失败
         }
     }
@@ -270,72 +298,212 @@ public class LeaveRequestDao {
             // 如果没有找到对应ID的记录，返回null是合理的行为
             return null;
         } catch (Exception e) {
-            System.err.println("根据ID获取请假申请信息失败 (leaveId: " + leaveId + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("根据ID获取请假申请信息失败", e, "leaveId", leaveId);
             return null; // 发生其他错误时也返回null
         }
     }
 
     /**
-     * 更新现有请假申请的状态和审批信息 (通常由管理员操作)。
+     * 只读取请假申请的学生ID和状态 (单表主键查询)，用于在状态变更未生效时说明原因。
+     *
+     * @param leaveId 请假记录的ID。
+     * @return 只填充了 leaveId、studentId 和 status 的 LeaveRequest；记录不存在时返回 null。
+     *         数据库错误时抛出异常。
+     */
+    public LeaveRequest getLeaveRequestState(int leaveId) {
+        List<LeaveRequest> rows = jdbcTemplate.query(
+                "SELECT leave_id, student_id, status FROM LeaveRequest WHERE leave_id = ?",
+                (rs, rowNum) -> {
+                    LeaveRequest state = new LeaveRequest();
+                    state.setLeaveId(rs.getInt("leave_id"));
+                    state.setStudentId(rs.getInt("student_id"));
+                    state.setStatus(rs.getString("status"));
+                    return state;
+                }, leaveId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * 审批一条待审批的请假申请 (管理员操作)。状态条件写在 UPDATE 中，
+     * 两位管理员同时审批同一申请时只有一人成功，无需先查询。
      *
-     * @param leaveId 要更新的请假记录的ID。
-     * @param newStatus 新的请假状态 (例如："已批准", "已驳回")。
+     * @param leaveId 要审批的请假记录的ID。
+     * @param newStatus 新的请假状态 ("已批准" 或 "已驳回")。
      * @param adminId 执行审批操作的管理员ID。
-     * @return 如果更新成功，返回影响的行数 (通常为 1)；如果更新失败，返回 0。
+     * @return 影响的行数：1 表示审批成功，0 表示申请不存在或已不是待审批；数据库错误时返回 -1。
      */
     public int updateLeaveRequestStatus(int leaveId, String newStatus, Integer adminId) {
         // SQL 更新语句，同时更新状态、审批管理员ID和审批时间
-        String sql = "UPDATE LeaveRequest SET status = ?, approved_by_admin_id = ?, approval_date = CURRENT_TIMESTAMP WHERE leave_id = ?";
+        String sql = "UPDATE LeaveRequest SET status = ?, approved_by_admin_id = ?, approval_date = CURRENT_TIMESTAMP " +
+                "WHERE leave_id = ? AND status = '待审批'";
         try {
             return jdbcTemplate.update(sql, newStatus, adminId, leaveId);
         } catch (Exception e) {
-            System.err.println("更新请假申请状态失败 (leaveId: " + leaveId + ", status: " + newStatus + "): " + e.getMessage());
-            e.printStackTrace();
-            return 0; // 表示更新失败
+            logger.error("更新请假申请状态失败", e, "leaveId", leaveId, "newStatus", newStatus);
+            return -1; // 表示数据库错误
         }
     }
 
     /**
      * 学生更新自己的请假申请 (只能在“待审批”状态下，且不能修改审批相关字段)。
+     * 申请人和状态条件都写在 UPDATE 中，一条语句完成权限检查和修改。
      *
-     * @param leaveRequest 包含更新后信息的 LeaveRequest 对象 (leaveId 必须有效)。
-     * @return 如果更新成功，返回影响的行数；否则返回0。
+     * @param leaveRequest 包含更新后信息的 LeaveRequest 对象 (leaveId 和 studentId 必须有效)。
+     * @return 影响的行数：1 表示修改成功，0 表示申请不存在、不属于该学生或已审批；数据库错误时返回 -1。
      */
     public int updateLeaveRequestByStudent(LeaveRequest leaveRequest) {
         // SQL 更新语句，只允许学生修改原因、开始日期、结束日期，且状态必须是“待审批”
         // 注意：这里不更新 request_date, status, approval_date, approved_by_admin_id
         String sql = "UPDATE LeaveRequest SET reason = ?, start_date = ?, end_date = ? " +
-                "WHERE leave_id = ? AND status = '待审批'"; // 关键：只允许在待审批时修改
+                "WHERE leave_id = ? AND student_id = ? AND status = '待审批'"; // 关键：只允许本人在待审批时修改
         try {
             return jdbcTemplate.update(sql,
                     leaveRequest.getReason(),
                     new java.sql.Date(leaveRequest.getStartDate().getTime()),
                     new java.sql.Date(leaveRequest.getEndDate().getTime()),
-                    leaveRequest.getLeaveId());
+                    leaveRequest.getLeaveId(),
+                    leaveRequest.getStudentId());
         } catch (Exception e) {
-            System.err.println("学生更新请假申请失败 (leaveId: " + leaveRequest.getLeaveId() + "): " + e.getMessage());
-            e.printStackTrace();
-            return 0;
+            logger.error("学生更新请假申请失败", e, "leaveId", leaveRequest.getLeaveId());
+            return -1;
         }
     }
 
 
     /**
-     * 根据请假ID删除请假申请记录。
+     * 根据请假ID删除请假申请记录 (管理员操作，不限状态)。
      *
      * @param leaveId 要删除的请假记录的ID。
-     * @return 如果删除成功，返回影响的行数 (通常为 1)；如果删除失败，返回 0。
+     * @return 影响的行数：1 表示删除成功，0 表示申请不存在；数据库错误时返回 -1。
      */
     public int deleteLeaveRequest(int leaveId) {
         String sql = "DELETE FROM LeaveRequest WHERE leave_id = ?";
         try {
             return jdbcTemplate.update(sql, leaveId);
         } catch (Exception e) {
-            System.err.println("删除请假申请信息失败 (leaveId: " + leaveId + "): " + e.getMessage());
-            e.printStackTrace();
-            return 0; // 表示删除失败
+            logger.error("删除请假申请信息失败", e, "leaveId", leaveId);
+            return -1; // 表示数据库错误
+        }
+    }
+
+    /**
+     * 学生删除自己的待审批请假申请。申请人和状态条件都写在 DELETE 中。
+     *
+     * @param leaveId 要删除的请假记录的ID。
+     * @param studentId 执行删除的学生ID。
+     * @return 影响的行数：1 表示删除成功，0 表示申请不存在、不属于该学生或已审批；数据库错误时返回 -1。
+     */
+    public int deletePendingLeaveRequest(int leaveId, int studentId) {
+        String sql = "DELETE FROM LeaveRequest WHERE leave_id = ? AND student_id = ? AND status = '待审批'";
+        try {
+            return jdbcTemplate.update(sql, leaveId, studentId);
+        } catch (Exception e) {
+            logger.error("学生删除请假申请失败", e, "leaveId", leaveId, "studentId", studentId);
+            return -1;
+        }
+    }
+
+    // --- 批量审批使用的方法：在调用方的事务中执行，出错时抛出异常以便回滚 ---
+
+    /**
+     * 锁定给定ID的请假申请并读取其状态 (SELECT ... FOR UPDATE)，供批量审批判断每条申请的结果。
+     *
+     * @param leaveIds 请假记录的ID (不超过批量审批的上限)。
+     * @return 请假ID -> 当前状态；不存在的ID不在结果中。
+     */
+    public Map<Integer, String> lockLeaveStatuses(Collection<Integer> leaveIds) {
+        Map<Integer, String> statuses = new HashMap<>();
+        if (leaveIds.isEmpty()) {
+            return statuses;
+        }
+        String sql = "SELECT leave_id, status FROM LeaveRequest WHERE leave_id IN (" + placeholders(leaveIds.size()) + ") FOR UPDATE";
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> statuses.put(rs.getInt("leave_id"), rs.getString("status")),
+                leaveIds.toArray());
+        return statuses;
+    }
+
+    /**
+     * 锁定符合筛选条件的待审批请假申请 (SELECT ... FOR UPDATE)，按申请时间先后排列。
+     *
+     * @param classId 只选该班级学生的申请；为 null 时不限班级。
+     * @param requestedFrom 申请时间下限 (含)；为 null 时不限。
+     * @param requestedBefore 申请时间上限 (不含)；为 null 时不限。
+     * @param limit 最多锁定的条数。
+     * @return 待审批申请的ID列表。
+     */
+    public List<Integer> lockPendingLeaveIds(Integer classId, Date requestedFrom, Date requestedBefore, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT lr.leave_id");
+        List<Object> params = new ArrayList<>();
+        appendPendingFilter(sql, params, classId, requestedFrom, requestedBefore);
+        // 不用 FOR UPDATE OF lr (需要 MySQL 8.0.1+)；连接的学生行同样被锁定，与审批事务一起释放
+        sql.append(" ORDER BY lr.request_date, lr.leave_id LIMIT ? FOR UPDATE");
+        params.add(limit);
+        return jdbcTemplate.queryForList(sql.toString(), Integer.class, params.toArray());
+    }
+
+    /**
+     * 统计符合筛选条件的待审批请假申请数量，供不带筛选条件的批量审批预览和确认。
+     *
+     * @param classId 只统计该班级学生的申请；为 null 时不限班级。
+     * @param requestedFrom 申请时间下限 (含)；为 null 时不限。
+     * @param requestedBefore 申请时间上限 (不含)；为 null 时不限。
+     * @return 待审批申请的数量；数据库错误时返回 -1。
+     */
+    public int countPendingLeaveRequests(Integer classId, Date requestedFrom, Date requestedBefore) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*)");
+        List<Object> params = new ArrayList<>();
+        appendPendingFilter(sql, params, classId, requestedFrom, requestedBefore);
+        try {
+            Integer count = jdbcTemplate.queryForObject(sql.toString(), Integer.class, params.toArray());
+            return count != null ? count : 0;
+        } catch (Exception e) {
+            logger.error("统计待审批请假申请数量失败", e, "classId", classId);
+            return -1;
         }
     }
 
+    // 待审批申请的 FROM / WHERE 子句，按筛选条件追加参数
+    private static void appendPendingFilter(StringBuilder sql, List<Object> params, Integer classId,
+                                            Date requestedFrom, Date requestedBefore) {
+        sql.append(" FROM LeaveRequest lr");
+        if (classId != null) {
+            sql.append(" JOIN Student s ON lr.student_id = s.student_id AND s.class_id = ?");
+            params.add(classId);
+        }
+        sql.append(" WHERE lr.status = '待审批'");
+        if (requestedFrom != null) {
+            sql.append(" AND lr.request_date >= ?");
+            params.add(new Timestamp(requestedFrom.getTime()));
+        }
+        if (requestedBefore != null) {
+            sql.append(" AND lr.request_date < ?");
+            params.add(new Timestamp(requestedBefore.getTime()));
+        }
+    }
+
+    /**
+     * 用一条带状态条件的 UPDATE 审批多条待审批的请假申请。
+     *
+     * @param leaveIds 要审批的请假记录的ID。
+     * @param newStatus 新的请假状态 ("已批准" 或 "已驳回")。
+     * @param adminId 执行审批操作的管理员ID。
+     * @return 实际审批的条数。
+     */
+    public int updatePendingLeaveStatuses(Collection<Integer> leaveIds, String newStatus, Integer adminId) {
+        if (leaveIds.isEmpty()) {
+            return 0;
+        }
+        String sql = "UPDATE LeaveRequest SET status = ?, approved_by_admin_id = ?, approval_date = CURRENT_TIMESTAMP " +
+                "WHERE status = '待审批' AND leave_id IN (" + placeholders(leaveIds.size()) + ")";
+        List<Object> params = new ArrayList<>(leaveIds.size() + 2);
+        params.add(newStatus);
+        params.add(adminId);
+        params.addAll(leaveIds);
+        return jdbcTemplate.update(sql, params.toArray());
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.azyasaxi.dao;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.Major;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -16,6 +18,7 @@ import java.util.List;
  */
 @Repository
 public class MajorDao {
+    private static final Logger logger = LogManager.getLogger(MajorDao.class);
 
     private final JdbcTemplate jdbcTemplate;
 
@@ -30,13 +33,38 @@ public class MajorDao {
      * @return 包含所有 Major 对象的列表。
      */
     public List<Major> getAllMajors() {
+        List<Major> majors = findAllMajors();
+        return majors != null ? majors : List.of(); // 返回空列表表示查询失败或没有数据
+    }
+
+    /**
+     * 从数据库中检索所有专业的信息，与 getAllMajors 相同，但查询失败时返回 null 以便调用方区分"没有数据"。
+     *
+     * @return 包含所有 Major 对象的列表 (按专业名称排序)；查询失败时返回 null。
+     */
+    public List<Major> findAllMajors() {
         String sql = "SELECT major_id, major_name, college_id FROM Major ORDER BY major_name";
         try {
             return jdbcTemplate.query(sql, new MajorRowMapper());
         } catch (Exception e) {
-            System.err.println("查询所有专业信息失败: " + e.getMessage());
-            e.printStackTrace();
-            return List.of(); // 返回空列表表示查询失败或没有数据
+            logger.error("查询所有专业信息失败", e);
+            return null;
+        }
+    }
+
+    /**
+     * 按名称查找专业ID (数据库排序规则不区分大小写)。不同学院可以有同名专业，因此可能返回多个ID。
+     *
+     * @param majorName 专业名称 (已去除首尾空白)。
+     * @return 专业ID列表，不存在时为空列表；查询失败时返回 null。
+     */
+    public List<Integer> findMajorIdsByName(String majorName) {
+        String sql = "SELECT major_id FROM Major WHERE major_name = ?";
+        try {
+            return jdbcTemplate.queryForList(sql, Integer.class, majorName);
+        } catch (Exception e) {
+            logger.error("根据名称查询专业ID失败", e, "majorName", majorName);
+            return null;
         }
     }
 
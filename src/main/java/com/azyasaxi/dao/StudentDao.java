@@ -1,19 +1,35 @@
 package com.azyasaxi.dao;
 
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.Student;    // 导入 Student 模型类
 import com.azyasaxi.model.Course;    // 导入 Course 模型
 import com.azyasaxi.model.Enrollment; // 导入 Enrollment 模型
+import com.azyasaxi.model.ListQuery;  // 列表查询条件
+import com.azyasaxi.utils.DBHelper;   // 流式查询工具
+import com.azyasaxi.utils.SortClause; // 白名单排序与分页子句
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder; // 用于获取自增主键
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * StudentDao 类 (Data Access Object)
@@ -21,12 +37,16 @@ import java.util.List;
  */
 @Repository
 public class StudentDao {
+    private static final Logger logger = LogManager.getLogger(StudentDao.class);
+    private static final int IN_QUERY_CHUNK = 1000; // 批量检查时每条 IN 查询的参数个数上限
 
     private final JdbcTemplate jdbcTemplate;
+    private final DBHelper dbHelper; // 用于流式读取全表 (构建搜索索引)
 
     @Autowired
-    public StudentDao(JdbcTemplate jdbcTemplateArg) {
+    public StudentDao(JdbcTemplate jdbcTemplateArg, DBHelper dbHelperArg) {
         this.jdbcTemplate = jdbcTemplateArg;
+        this.dbHelper = dbHelperArg;
     }
 
     // --- StudentRowMapper (用于学生列表，包含班级名) ---
@@ -109,33 +129,166 @@ public class StudentDao {
     }
 
 
+    // 学生列表允许排序的列 (接口字段名 -> SQL 列)；name、gender 有二级索引，按其排序时可直接走索引
+    private static final Map<String, String> SORTABLE_COLUMNS = Map.of(
+            "studentId", "s.student_id",
+            "name", "s.name",
+            "gender", "s.gender",
+            "className", "ci.class_name");
+
     // --- 查询方法 ---
     public List<Student> searchStudents(String searchTerm) {
+        return searchStudents(ListQuery.ofSearchTerm(searchTerm), null);
+    }
+
+    /**
+     * 按条件检索学生，支持检索词、性别/班级/专业筛选、白名单排序和分页。
+     *
+     * @param query        查询条件；pageSize 大于 0 时最多返回 pageSize + 1 行 (多出的一行用于判断是否还有下一页)。
+     * @param candidateIds 候选学生ID (来自内存搜索索引)，不为 null 时只在这些学生中筛选排序，并忽略 query 中的检索词。
+     * @return 学生列表；发生错误时返回空列表。
+     */
+    public List<Student> searchStudents(ListQuery query, List<Integer> candidateIds) {
+        if (candidateIds != null && candidateIds.isEmpty()) {
+            return Collections.emptyList();
+        }
         StringBuilder sqlBuilder = new StringBuilder(
                 "SELECT s.student_id AS s_student_id, s.name AS s_name, s.gender AS s_gender, " +
                         "s.class_id AS s_class_id, ci.class_name AS ci_class_name, s.username AS s_username " +
                         "FROM Student s " +
                         "LEFT JOIN ClassInfo ci ON s.class_id = ci.class_id"
         );
+        List<String> conditions = new ArrayList<>();
         List<Object> params = new ArrayList<>();
-        if (searchTerm != null && !searchTerm.trim().isEmpty()) {
-            String likeTerm = "%" + searchTerm.trim() + "%";
-            sqlBuilder.append(" WHERE (s.name LIKE ? OR CAST(s.student_id AS CHAR) LIKE ? OR ci.class_name LIKE ? OR s.username LIKE ?)");
+        if (candidateIds != null) {
+            conditions.add("s.student_id IN (" + String.join(",", Collections.nCopies(candidateIds.size(), "?")) + ")");
+            params.addAll(candidateIds);
+        } else if (query.hasSearchTerm()) {
+            String likeTerm = "%" + query.getSearchTerm().trim() + "%";
+            conditions.add("(s.name LIKE ? OR CAST(s.student_id AS CHAR) LIKE ? OR ci.class_name LIKE ? OR s.username LIKE ?)");
             params.add(likeTerm);
             params.add(likeTerm);
             params.add(likeTerm);
             params.add(likeTerm);
         }
-        sqlBuilder.append(" ORDER BY s.student_id ASC");
+        if (query.getGender() != null && !query.getGender().isEmpty()) {
+            conditions.add("s.gender = ?");
+            params.add(query.getGender());
+        }
+        if (query.getClassId() != null) {
+            conditions.add("s.class_id = ?");
+            params.add(query.getClassId());
+        }
+        if (query.getMajorId() != null) {
+            conditions.add("ci.major_id = ?");
+            params.add(query.getMajorId());
+        }
+        if (!conditions.isEmpty()) {
+            sqlBuilder.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sqlBuilder.append(SortClause.orderBy(query, SORTABLE_COLUMNS, "s.student_id ASC", "s.student_id"));
+        SortClause.appendPage(sqlBuilder, params, query);
+
+        try {
+            return jdbcTemplate.query(sqlBuilder.toString(), new BasicStudentRowMapper(), params.toArray()); // 使用 BasicStudentRowMapper
+        } catch (Exception e) {
+            logger.error("搜索学生信息失败", e, "searchTerm", query.getSearchTerm());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * 一次查询获取一组学生的基本信息 (包含班级名)，用于把搜索索引返回的学生ID还原为学生对象。
+     * 返回顺序不保证与传入顺序一致，由调用方按需重新排序。
+     *
+     * @param studentIds 学生ID列表。
+     * @return Student 列表；出错时返回空列表。
+     */
+    public List<Student> getStudentsByIds(List<Integer> studentIds) {
+        if (studentIds == null || studentIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String sql = "SELECT s.student_id AS s_student_id, s.name AS s_name, s.gender AS s_gender, " +
+                "s.class_id AS s_class_id, ci.class_name AS ci_class_name, s.username AS s_username " +
+                "FROM Student s " +
+                "LEFT JOIN ClassInfo ci ON s.class_id = ci.class_id " +
+                "WHERE s.student_id IN (" + String.join(",", Collections.nCopies(studentIds.size(), "?")) + ")";
         try {
-            return jdbcTemplate.query(sqlBuilder.toString(), params.toArray(), new BasicStudentRowMapper()); // 使用 BasicStudentRowMapper
+            return jdbcTemplate.query(sql, new BasicStudentRowMapper(), studentIds.toArray());
         } catch (Exception e) {
-            System.err.println("搜索学生信息失败 (searchTerm: " + searchTerm + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("根据ID列表批量获取学生信息失败", e);
             return Collections.emptyList();
         }
     }
 
+    /**
+     * 流式读取所有学生的可搜索字段 (学号、姓名、用户名、班级ID、班级名)，按学号升序逐行回调，
+     * 用于构建内存搜索索引，不会把整张表一次性载入内存。
+     *
+     * @param callback 每个学生调用一次的回调，可读取列 student_id, name, username, class_id, class_name。
+     * @return 读取的学生数；出错时返回 -1。
+     */
+    public long streamStudentSearchFields(DBHelper.RowCallback callback) {
+        String sql = "SELECT s.student_id, s.name, s.username, s.class_id, ci.class_name " +
+                "FROM Student s " +
+                "LEFT JOIN ClassInfo ci ON s.class_id = ci.class_id " +
+                "ORDER BY s.student_id ASC";
+        try {
+            return dbHelper.stream(sql, callback);
+        } catch (Exception e) {
+            logger.error("流式读取学生搜索字段失败", e);
+            return -1;
+        }
+    }
+
+    // 统计引擎所需的学生字段：学号、班级/专业/学院ID、所属学院名 (无学院时为 '未分配学院')、已获总学分
+    private static final String CREDIT_STATS_SELECT =
+            "SELECT s.student_id, s.class_id, ci.major_id, m.college_id, " +
+            "COALESCE(col.college_name, '未分配学院') AS college_name, cs.total_credits " +
+            "FROM Student s " +
+            "LEFT JOIN ClassInfo ci ON s.class_id = ci.class_id " +
+            "LEFT JOIN Major m ON ci.major_id = m.major_id " +
+            "LEFT JOIN College col ON m.college_id = col.college_id " +
+            "LEFT JOIN CreditSummary cs ON s.student_id = cs.student_id ";
+
+    /**
+     * 流式读取所有学生的统计字段，按学号升序逐行回调，用于构建内存统计数据。
+     *
+     * @param callback 每个学生调用一次的回调，可读取列 student_id, class_id, major_id, college_id, college_name, total_credits。
+     * @return 读取的学生数；出错时返回 -1。
+     */
+    public long streamStudentCreditStats(DBHelper.RowCallback callback) {
+        try {
+            return dbHelper.stream(CREDIT_STATS_SELECT + "ORDER BY s.student_id ASC", callback);
+        } catch (Exception e) {
+            logger.error("流式读取学生统计字段失败", e);
+            return -1;
+        }
+    }
+
+    /**
+     * 读取指定学生的统计字段 (与 streamStudentCreditStats 的列相同)，用于写操作后增量更新统计数据。
+     * 已不存在的学生不会回调。
+     *
+     * @param studentIds 学生ID。
+     * @param callback   每个找到的学生调用一次的回调。
+     * @return 是否读取成功。
+     */
+    public boolean getStudentCreditStats(Collection<Integer> studentIds, DBHelper.RowCallback callback) {
+        if (studentIds == null || studentIds.isEmpty()) {
+            return true;
+        }
+        String sql = CREDIT_STATS_SELECT +
+                "WHERE s.student_id IN (" + String.join(",", Collections.nCopies(studentIds.size(), "?")) + ")";
+        try {
+            jdbcTemplate.query(sql, (RowCallbackHandler) callback::processRow, studentIds.toArray());
+            return true;
+        } catch (Exception e) {
+            logger.error("读取学生统计字段失败", e, "students", studentIds.size());
+            return false;
+        }
+    }
+
     public List<Student> getAllStudents() {
         return searchStudents(null);
     }
@@ -157,8 +310,7 @@ public class StudentDao {
         } catch (EmptyResultDataAccessException e) {
             return null; // 未找到学生
         } catch (Exception e) {
-            System.err.println("根据ID获取学生基本信息失败 (studentId: " + studentId + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("根据ID获取学生基本信息失败", e, "studentId", studentId);
             return null;
         }
     }
@@ -180,8 +332,7 @@ public class StudentDao {
         try {
             return jdbcTemplate.query(sql, new BasicStudentRowMapper(), classId); // 使用 BasicStudentRowMapper
         } catch (Exception e) {
-            System.err.println("根据班级ID获取学生列表失败 (classId: " + classId + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("根据班级ID获取学生列表失败", e, "classId", classId);
             return Collections.emptyList(); // 出错时返回空列表
         }
     }
@@ -218,8 +369,7 @@ public class StudentDao {
         } catch (EmptyResultDataAccessException e) {
             return null;
         } catch (Exception e) {
-            System.err.println("根据用户名获取学生信息失败 (username: " + username + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("根据用户名获取学生信息失败", e, "username", username);
             return null;
         }
     }
@@ -249,11 +399,10 @@ public class StudentDao {
             // 使用 StudentWithDetailsRowMapper 进行映射
             return jdbcTemplate.queryForObject(sql, new StudentWithDetailsRowMapper(), studentId);
         } catch (EmptyResultDataAccessException e) {
-            System.out.println("未找到ID为 " + studentId + " 的学生（用于详细信息查询）。");
+            logger.debug("未找到学生（用于详细信息查询）", "studentId", studentId);
             return null;
         } catch (Exception e) {
-            System.err.println("根据ID获取学生层级详细信息时发生错误 (studentId: " + studentId + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("根据ID获取学生层级详细信息时发生错误", e, "studentId", studentId);
             return null;
         }
     }
@@ -274,30 +423,105 @@ public class StudentDao {
         try {
             return jdbcTemplate.query(sql, new EnrollmentWithCourseDetailsRowMapper(), studentId);
         } catch (Exception e) {
-            System.err.println("根据学生ID获取选课及课程详情列表失败 (studentId: " + studentId + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("根据学生ID获取选课及课程详情列表失败", e, "studentId", studentId);
             return Collections.emptyList();
         }
     }
 
 
+    /**
+     * 添加学生，插入成功后把数据库生成的 student_id 写回传入的 Student 对象。
+     *
+     * @param student 要添加的学生 (密码应已哈希)。
+     * @return 影响的行数，失败时返回 0。
+     */
     public int addStudent(Student student) {
         String sql = "INSERT INTO Student (name, gender, class_id, username, password) VALUES (?, ?, ?, ?, ?)";
+        KeyHolder keyHolder = new GeneratedKeyHolder(); // 用于获取自增的 student_id
         try {
-            Integer classId = student.getClassId();
-            Object classIdParam = (classId == null) ? null : classId;
-            return jdbcTemplate.update(sql,
-                    student.getName(),
-                    student.getGender(),
-                    classIdParam,
-                    student.getUserName(),
-                    student.getPassword());
+            int rowsAffected = jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                ps.setString(1, student.getName());
+                ps.setString(2, student.getGender());
+                ps.setObject(3, student.getClassId()); // classId 可以为 null
+                ps.setString(4, student.getUserName());
+                ps.setString(5, student.getPassword());
+                return ps;
+            }, keyHolder);
+            if (rowsAffected > 0 && keyHolder.getKey() != null) {
+                student.setStudentId(keyHolder.getKey().intValue());
+            }
+            return rowsAffected;
         } catch (Exception e) {
-            System.err.println("添加学生信息失败: " + student.getName() + " (用户名: " + student.getUserName() + ") - " + e.getMessage());
+            logger.error("添加学生信息失败", e, "name", student.getName(), "username", student.getUserName());
             return 0;
         }
     }
 
+    /**
+     * 批量添加学生：用一个 JDBC 批处理插入全部学生 (连接 URL 开启 rewriteBatchedStatements 时合并为多行 INSERT)，
+     * 并把数据库生成的 student_id 按顺序写回各个 Student 对象。
+     * 在 Spring 事务中调用时复用事务连接，任意一行失败都会抛出异常，由调用方决定回滚范围。
+     *
+     * @param students 要添加的学生 (密码应已哈希)。
+     */
+    public void addStudents(List<Student> students) {
+        if (students == null || students.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO Student (name, gender, class_id, username, password) VALUES (?, ?, ?, ?, ?)";
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (Student student : students) {
+                    ps.setString(1, student.getName());
+                    ps.setString(2, student.getGender());
+                    ps.setObject(3, student.getClassId()); // classId 可以为 null
+                    ps.setString(4, student.getUserName());
+                    ps.setString(5, student.getPassword());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (Student student : students) {
+                        if (!keys.next()) {
+                            throw new SQLException("批量添加学生时返回的自增主键少于插入的行数");
+                        }
+                        student.setStudentId(keys.getInt(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 查询哪些用户名已被使用。用户名按 IN_QUERY_CHUNK 个一组查询，用于批量导入前一次性检查唯一性。
+     * 比较时忽略大小写 (与数据库默认排序规则一致)。
+     *
+     * @param usernames 待检查的用户名。
+     * @return 已存在的用户名 (小写)；出错时返回 null。
+     */
+    public Set<String> findExistingUsernames(Collection<String> usernames) {
+        Set<String> existing = new HashSet<>();
+        if (usernames == null || usernames.isEmpty()) {
+            return existing;
+        }
+        List<String> all = new ArrayList<>(usernames);
+        try {
+            for (int from = 0; from < all.size(); from += IN_QUERY_CHUNK) {
+                List<String> chunk = all.subList(from, Math.min(from + IN_QUERY_CHUNK, all.size()));
+                String sql = "SELECT username FROM Student WHERE username IN (" +
+                        String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+                jdbcTemplate.query(sql, (RowCallbackHandler) rs ->
+                        existing.add(rs.getString("username").toLowerCase(Locale.ROOT)), chunk.toArray());
+            }
+            return existing;
+        } catch (Exception e) {
+            logger.error("批量检查用户名是否存在失败", e, "usernames", usernames.size());
+            return null;
+        }
+    }
+
     public int updateStudent(Student student) {
         StringBuilder sqlBuilder = new StringBuilder("UPDATE Student SET name = ?, gender = ?, class_id = ?, username = ?");
         List<Object> params = new ArrayList<>();
@@ -320,8 +544,7 @@ public class StudentDao {
         try {
             return jdbcTemplate.update(sqlBuilder.toString(), params.toArray());
         } catch (Exception e) {
-            System.err.println("更新学生信息失败 (ID: " + student.getStudentId() + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("更新学生信息失败", e, "studentId", student.getStudentId());
             return 0;
         }
     }
@@ -331,8 +554,7 @@ public class StudentDao {
         try {
             return jdbcTemplate.update(sql, studentId);
         } catch (Exception e) {
-            System.err.println("删除学生信息失败 (studentId: " + studentId + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("删除学生信息失败", e, "studentId", studentId);
             return 0;
         }
     }
@@ -359,26 +581,24 @@ public class StudentDao {
         try {
             return jdbcTemplate.queryForList(sql);
         } catch (Exception e) {
-            System.err.println("获取各学院学生统计数据失败: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("获取各学院学生统计数据失败", e);
             return Collections.emptyList();
         }
     }
 
     /**
      * 获取不同学分区间的学生人数统计。
-     * 学分区间定义为: 0-29, 30-59, 60-89, 90+
+     * 学分区间定义为: 0-5, 5-10, 10-15, 15+ (左闭右开)
      * @return List of Maps, 每个 Map 包含 "credit_range" 和 "student_count".
      */
     public List<java.util.Map<String, Object>> getStudentCountByCreditRanges() {
         // IFNULL(cs.total_credits, 0) 用于处理没有学分记录的学生，将其视为0学分
         String sql = "SELECT " +
                      "  CASE " +
-                     "    WHEN IFNULL(cs.total_credits, 0) BETWEEN 0 AND 4.99 THEN '0-5 学分' " +
-                     "    WHEN IFNULL(cs.total_credits, 0) BETWEEN 5 AND 9.99 THEN '5-10 学分' " +
-                     "    WHEN IFNULL(cs.total_credits, 0) BETWEEN 10 AND 14.99 THEN '10-15 学分' " +
-                     "    WHEN IFNULL(cs.total_credits, 0) >= 90 THEN '90+ 学分' " +
-                     "    ELSE '0-5 学分' " + // 确保所有学生都被统计
+                     "    WHEN IFNULL(cs.total_credits, 0) < 5 THEN '0-5 学分' " +
+                     "    WHEN IFNULL(cs.total_credits, 0) < 10 THEN '5-10 学分' " +
+                     "    WHEN IFNULL(cs.total_credits, 0) < 15 THEN '10-15 学分' " +
+                     "    ELSE '15+ 学分' " + // 确保所有学生都被统计
                      "  END AS credit_range, " +
                      "  COUNT(s.student_id) AS student_count " +
                      "FROM Student s " +
@@ -388,8 +608,7 @@ public class StudentDao {
         try {
             return jdbcTemplate.queryForList(sql);
         } catch (Exception e) {
-            System.err.println("获取学分区间学生统计数据失败: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("获取学分区间学生统计数据失败", e);
             return Collections.emptyList();
         }
     }
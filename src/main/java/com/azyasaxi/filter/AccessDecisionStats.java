@@ -0,0 +1,52 @@
+package com.azyasaxi.filter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AccessDecisionStats 类
+ * 统计 Filter 对每个请求做出的授权决定，替代逐请求打印日志。
+ * 计数使用 LongAdder，高并发下各线程写各自的单元，不会互相争用。
+ * Filter 在 init 时把实例放入 ServletContext (属性名 CONTEXT_ATTRIBUTE)，供 /admin/filterStats 读取。
+ */
+public class AccessDecisionStats {
+
+    public static final String CONTEXT_ATTRIBUTE = AccessDecisionStats.class.getName();
+
+    /**
+     * 授权决定。
+     */
+    public enum Decision {
+        STATIC,          // 静态资源，直接放行
+        PUBLIC,          // 公共页面，直接放行
+        GRANTED,         // 已登录且角色匹配，放行
+        LOGIN_REDIRECT,  // 未登录，重定向到登录页
+        ROLE_REDIRECT    // 已登录但角色不匹配，重定向到自己的主界面
+    }
+
+    private final LongAdder[] counters = new LongAdder[Decision.values().length];
+
+    public AccessDecisionStats() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+    }
+
+    public void record(Decision decision) {
+        counters[decision.ordinal()].increment();
+    }
+
+    /**
+     * 获取各授权决定的累计次数，便于序列化为 JSON 输出。
+     *
+     * @return 决定名称 -> 次数
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        for (Decision decision : Decision.values()) {
+            snapshot.put(decision.name(), counters[decision.ordinal()].sum());
+        }
+        return snapshot;
+    }
+}
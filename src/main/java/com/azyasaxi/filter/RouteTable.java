@@ -0,0 +1,169 @@
+package com.azyasaxi.filter;
+
+import java.util.Arrays;
+
+/**
+ * RouteTable 类
+ * 把 "路径前缀 -> 访问级别" 的路由表编译成按字符展开的前缀树 (trie)，由 Filter 在 init 时构建。
+ * 匹配时沿请求路径逐字符向下查找，返回最长匹配前缀的访问级别；匹配过程不创建任何对象
+ * (不截取子串、不分配迭代器)，可以在每个请求上调用。
+ * 路径必须先经过 normalize：原始请求 URI 中的 ";参数" 和 ".." 段会让前缀匹配与容器实际分派的资源不一致。
+ */
+public class RouteTable {
+
+    /**
+     * 访问级别。
+     */
+    public enum Access {
+        STATIC,        // 静态资源：不查会话，直接放行
+        PUBLIC,        // 公共页面 (首页、登录、登出)：不查会话，直接放行
+        ADMIN,         // 仅管理员
+        STUDENT,       // 仅学生
+        AUTHENTICATED  // 任意已登录用户 (未在路由表中声明的路径)
+    }
+
+    // trie 节点：子节点按字符升序存放在并行数组中，查找时二分
+    private static final class Node {
+        char[] keys = new char[0];
+        Node[] children = new Node[0];
+        Access prefixAccess; // 以此节点结尾的前缀路由
+        Access exactAccess;  // 以此节点结尾的精确路由
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = new Node();
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[insertAt];
+        }
+    }
+
+    private final Node root = new Node();
+    private final Access defaultAccess; // 没有任何路由匹配时的访问级别
+
+    public RouteTable(Access defaultAccess) {
+        this.defaultAccess = defaultAccess;
+    }
+
+    /**
+     * 注册一条前缀路由：所有以 prefix 开头的路径 (含 prefix 本身) 使用该访问级别。
+     *
+     * @param prefix 路径前缀 (不含上下文路径)，例如 "/admin/"
+     * @param access 访问级别
+     * @return this，便于链式声明
+     */
+    public RouteTable prefix(String prefix, Access access) {
+        walkOrCreate(prefix).prefixAccess = access;
+        return this;
+    }
+
+    /**
+     * 注册一条精确路由：只有路径与 path 完全相同时才使用该访问级别，优先于前缀路由。
+     *
+     * @param path   路径 (不含上下文路径)，例如 "/"
+     * @param access 访问级别
+     * @return this，便于链式声明
+     */
+    public RouteTable exact(String path, Access access) {
+        walkOrCreate(path).exactAccess = access;
+        return this;
+    }
+
+    private Node walkOrCreate(String path) {
+        Node node = root;
+        for (int i = 0; i < path.length(); i++) {
+            node = node.childOrCreate(path.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * 规范化请求路径，供匹配前使用：去掉每一段的路径参数 (";" 之后的部分)，合并重复的 "/"，
+     * 解析 "." 和 ".." 段。例如 "/admin;x/dashboard" -> "/admin/dashboard"，
+     * "/assets/..;/admin/logs" -> "/admin/logs"。容器给出的 servletPath 通常已经规范化，这里再做一次，
+     * 保证路由表匹配的路径与容器实际分派的路径一致。不做百分号解码 (servletPath 已由容器解码)。
+     *
+     * @param path 不含上下文路径的请求路径 (servletPath + pathInfo)
+     * @return 规范化后的路径，以 "/" 开头，原路径以 "/" 结尾时保留结尾的 "/"；".." 越过根路径时返回 null
+     */
+    public static String normalize(String path) {
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        String[] segments = path.split("/", -1);
+        String[] kept = new String[segments.length];
+        int depth = 0;
+        for (String segment : segments) {
+            int semicolon = segment.indexOf(';');
+            if (semicolon >= 0) {
+                segment = segment.substring(0, semicolon);
+            }
+            if (segment.isEmpty() || ".".equals(segment)) {
+                continue;
+            }
+            if ("..".equals(segment)) {
+                if (depth == 0) {
+                    return null;
+                }
+                depth--;
+            } else {
+                kept[depth++] = segment;
+            }
+        }
+        StringBuilder normalized = new StringBuilder(path.length());
+        for (int i = 0; i < depth; i++) {
+            normalized.append('/').append(kept[i]);
+        }
+        String last = segments[segments.length - 1];
+        if (depth == 0 || last.isEmpty() || ".".equals(last) || "..".equals(last) || last.startsWith(";")) {
+            normalized.append('/'); // 以目录形式结尾，如 "/admin/" 或 "/admin/x/.."
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * 查找路径的访问级别。
+     *
+     * @param uri   请求 URI (可以包含上下文路径)
+     * @param start 路径在 uri 中的起始下标 (即上下文路径长度)
+     * @return 精确路由或最长前缀路由的访问级别；都不匹配时返回默认访问级别
+     */
+    public Access match(String uri, int start) {
+        if (start >= uri.length()) {
+            // 访问应用根路径但没有结尾的 "/"，按 "/" 处理
+            Node slash = root.child('/');
+            if (slash != null && slash.exactAccess != null) {
+                return slash.exactAccess;
+            }
+            return slash != null && slash.prefixAccess != null ? slash.prefixAccess : defaultAccess;
+        }
+        Node node = root;
+        Access best = defaultAccess;
+        for (int i = start; i < uri.length(); i++) {
+            node = node.child(uri.charAt(i));
+            if (node == null) {
+                return best;
+            }
+            if (node.prefixAccess != null) {
+                best = node.prefixAccess;
+            }
+        }
+        return node.exactAccess != null ? node.exactAccess : best;
+    }
+}
@@ -0,0 +1,183 @@
+package com.azyasaxi.logging;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * LogAppender 类
+ * 后台输出线程：从环形缓冲区取出日志，格式化为一行文本后写到标准输出 (DEBUG/INFO) 或标准错误 (WARN/ERROR)。
+ * 输出格式: "2024-05-01 10:00:00.123 WARN  [线程名] 类名 - 消息 key=value key=value"。
+ * 同一位置 (日志器 + 异常类型 + 抛出位置) 的异常堆栈在 stackTraceIntervalMillis 内只完整打印一次，
+ * 其余只输出异常类型和消息，并在下次打印堆栈时附带被省略的次数，避免数据库故障时堆栈刷屏。
+ */
+final class LogAppender implements Runnable {
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5); // 缓冲区为空时的休眠时间
+    private static final int MAX_TRACKED_STACK_TRACES = 1024; // 记录的堆栈位置数上限，超过后清空重新计数
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    // 某个异常位置最近一次打印堆栈的时间，以及此后被省略的次数
+    private static final class StackTraceState {
+        long lastPrintedAt;
+        int suppressed;
+    }
+
+    private final LogRingBuffer buffer;
+    private final PrintStream out;
+    private final PrintStream err;
+    private final Map<String, StackTraceState> stackTraces = new HashMap<>();
+    private final StringBuilder line = new StringBuilder(256); // 复用的行缓冲
+    private final LongAdder written = new LongAdder();
+    private final LongAdder stackTracesSuppressed = new LongAdder();
+    private volatile long stackTraceIntervalMillis;
+    private volatile boolean running = true;
+
+    LogAppender(LogRingBuffer buffer, PrintStream out, PrintStream err, long stackTraceIntervalMillis) {
+        this.buffer = buffer;
+        this.out = out;
+        this.err = err;
+        this.stackTraceIntervalMillis = stackTraceIntervalMillis;
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            LogEvent event = buffer.poll();
+            if (event == null) {
+                if (!running) {
+                    break; // 已请求停止且缓冲区已清空
+                }
+                out.flush();
+                err.flush();
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            write(event);
+        }
+        out.flush();
+        err.flush();
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    void setStackTraceIntervalMillis(long stackTraceIntervalMillis) {
+        this.stackTraceIntervalMillis = stackTraceIntervalMillis;
+    }
+
+    long getStackTraceIntervalMillis() {
+        return stackTraceIntervalMillis;
+    }
+
+    long getWrittenCount() {
+        return written.sum();
+    }
+
+    long getStackTracesSuppressedCount() {
+        return stackTracesSuppressed.sum();
+    }
+
+    /**
+     * 格式化并写出一条日志。正常情况下只由后台线程调用；输出线程停止后，LogManager 会在调用线程中直接调用。
+     */
+    synchronized void write(LogEvent event) {
+        line.setLength(0);
+        TIME_FORMAT.formatTo(Instant.ofEpochMilli(event.timestamp), line);
+        line.append(' ').append(event.level.name());
+        for (int i = event.level.name().length(); i < 5; i++) {
+            line.append(' ');
+        }
+        line.append(" [").append(event.threadName).append("] ");
+        line.append(event.loggerName, event.loggerName.lastIndexOf('.') + 1, event.loggerName.length());
+        line.append(" - ").append(event.message);
+        appendFields(event.fields);
+
+        Throwable throwable = event.throwable;
+        if (throwable != null) {
+            appendThrowable(event.loggerName, throwable, event.timestamp);
+        }
+
+        PrintStream target = event.level.compareTo(LogLevel.WARN) >= 0 ? err : out;
+        target.println(line);
+        written.increment();
+    }
+
+    private void appendFields(Object[] fields) {
+        if (fields == null) {
+            return;
+        }
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            line.append(' ').append(fields[i]).append('=');
+            appendValue(fields[i + 1]);
+        }
+        if (fields.length % 2 != 0) {
+            // 字段个数为奇数时，最后一个值没有对应的键
+            line.append(" extra=");
+            appendValue(fields[fields.length - 1]);
+        }
+    }
+
+    // 值中含空白、引号或等号时加双引号，保证 key=value 可以被按空格切分解析
+    private void appendValue(Object value) {
+        String text = String.valueOf(value);
+        boolean needsQuotes = text.isEmpty();
+        for (int i = 0; i < text.length() && !needsQuotes; i++) {
+            char c = text.charAt(i);
+            needsQuotes = Character.isWhitespace(c) || c == '"' || c == '=';
+        }
+        if (!needsQuotes) {
+            line.append(text);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c == '\n' || c == '\r') {
+                line.append(' ');
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+
+    private void appendThrowable(String loggerName, Throwable throwable, long timestamp) {
+        line.append(" exception=");
+        appendValue(throwable.toString());
+
+        StackTraceElement[] frames = throwable.getStackTrace();
+        String key = loggerName + '|' + throwable.getClass().getName() + '|'
+                + (frames.length > 0 ? frames[0].toString() : "");
+        if (stackTraces.size() >= MAX_TRACKED_STACK_TRACES && !stackTraces.containsKey(key)) {
+            stackTraces.clear();
+        }
+        StackTraceState state = stackTraces.computeIfAbsent(key, k -> new StackTraceState());
+        boolean firstTime = state.lastPrintedAt == 0;
+        if (!firstTime && timestamp - state.lastPrintedAt < stackTraceIntervalMillis) {
+            state.suppressed++;
+            stackTracesSuppressed.increment();
+            return; // 同一位置的堆栈刚打印过，只保留异常类型和消息
+        }
+        if (state.suppressed > 0) {
+            line.append(" stackTracesSuppressed=").append(state.suppressed);
+        }
+        state.lastPrintedAt = timestamp;
+        state.suppressed = 0;
+
+        StringWriter stackTrace = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(stackTrace));
+        line.append(System.lineSeparator()).append(stackTrace.toString().stripTrailing());
+    }
+}
@@ -0,0 +1,52 @@
+package com.azyasaxi.logging;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.env.Environment; // 用于访问属性文件
+import org.springframework.stereotype.Component;
+
+/**
+ * LogConfigurer 类
+ * 在容器启动时把 application.properties 中的日志配置应用到 LogManager，
+ * 在容器关闭时停止后台输出线程并写完缓冲区中剩余的日志。
+ * 运行期间可以通过 /admin/logLevels 接口修改级别，修改不会写回属性文件。
+ */
+@Component
+public class LogConfigurer implements InitializingBean, DisposableBean {
+    private static final Logger logger = LogManager.getLogger(LogConfigurer.class);
+
+    private final Environment env;
+
+    public LogConfigurer(Environment env) {
+        this.env = env;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        LogLevel rootLevel = LogLevel.parse(env.getProperty("log.level.root"));
+        if (rootLevel != null) {
+            LogManager.setRootLevel(rootLevel);
+        }
+        // 格式: 前缀=级别,前缀=级别，例如 com.azyasaxi.dao=WARN,com.azyasaxi.service.StudentSearchIndex=DEBUG
+        String levels = env.getProperty("log.levels", "");
+        for (String entry : levels.split(",")) {
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                continue;
+            }
+            String prefix = entry.substring(0, separator).trim();
+            LogLevel level = LogLevel.parse(entry.substring(separator + 1));
+            if (level == null) {
+                logger.warn("忽略无效的日志级别配置", "entry", entry.trim());
+                continue;
+            }
+            LogManager.setLevel(prefix, level);
+        }
+        LogManager.setStackTraceIntervalMillis(env.getProperty("log.stacktrace.min-interval-ms", Long.class, 60_000L));
+    }
+
+    @Override
+    public void destroy() {
+        LogManager.shutdown(env.getProperty("log.shutdown.timeout-ms", Long.class, 2_000L));
+    }
+}
@@ -0,0 +1,26 @@
+package com.azyasaxi.logging;
+
+/**
+ * 一条待输出的日志。
+ * 由调用线程创建并放入环形缓冲区，只记录原始数据 (时间、线程名、消息、字段、异常)，
+ * 格式化和写出都在后台输出线程中完成。
+ */
+final class LogEvent {
+    final long timestamp;     // 产生时间 (毫秒)
+    final LogLevel level;     // 日志级别
+    final String loggerName;  // 日志器名称 (类名)
+    final String threadName;  // 产生日志的线程
+    final String message;     // 消息
+    final Object[] fields;    // 结构化字段，按 key, value, key, value... 排列
+    final Throwable throwable; // 关联的异常，可以为 null
+
+    LogEvent(LogLevel level, String loggerName, String message, Object[] fields, Throwable throwable) {
+        this.timestamp = System.currentTimeMillis();
+        this.level = level;
+        this.loggerName = loggerName;
+        this.threadName = Thread.currentThread().getName();
+        this.message = message;
+        this.fields = fields;
+        this.throwable = throwable;
+    }
+}
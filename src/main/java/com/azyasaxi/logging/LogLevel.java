@@ -0,0 +1,30 @@
+package com.azyasaxi.logging;
+
+/**
+ * 日志级别，按严重程度从低到高排列。
+ * 日志器只输出级别不低于其生效级别的日志；OFF 表示关闭输出。
+ */
+public enum LogLevel {
+    DEBUG, // 调试信息，默认不输出
+    INFO,  // 正常业务事件
+    WARN,  // 参数无效、业务校验失败等可预期的问题
+    ERROR, // 数据库错误等需要排查的异常
+    OFF;   // 不输出任何日志
+
+    /**
+     * 按名称解析日志级别 (不区分大小写)。
+     *
+     * @param name 级别名称，例如 "debug"
+     * @return 对应的日志级别；名称为空或无法识别时返回 null
+     */
+    public static LogLevel parse(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return LogLevel.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.azyasaxi.logging;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * LogManager 类
+ * 日志系统入口：创建日志器、维护运行时可修改的日志级别，并管理环形缓冲区和后台输出线程。
+ * 日志级别按包名或类名前缀配置，取最长匹配的前缀 (例如 "com.azyasaxi.dao" 对所有 DAO 生效)，
+ * 都不匹配时使用根级别。修改级别后立即更新所有已创建的日志器。
+ * 缓冲区满时新日志被丢弃并计数，调用线程不会等待输出。
+ * 后台输出线程在第一次写日志时启动，由 LogConfigurer 在容器关闭时调用 shutdown 停止。
+ */
+public final class LogManager {
+    private static final int BUFFER_CAPACITY = Integer.getInteger("log.buffer.capacity", 8192);
+    private static final long DEFAULT_STACK_TRACE_INTERVAL_MS = 60_000L;
+
+    private static final Map<String, Logger> loggers = new ConcurrentHashMap<>();
+    private static final Map<String, LogLevel> levelOverrides = new ConcurrentHashMap<>(); // 前缀 -> 级别
+    private static volatile LogLevel rootLevel = LogLevel.INFO;
+
+    private static final LogRingBuffer buffer = new LogRingBuffer(BUFFER_CAPACITY);
+    private static final LogAppender appender =
+            new LogAppender(buffer, System.out, System.err, DEFAULT_STACK_TRACE_INTERVAL_MS);
+    private static final LongAdder enqueued = new LongAdder();
+    private static final LongAdder dropped = new LongAdder();
+    private static volatile Thread appenderThread;
+    private static volatile boolean shutDown;
+
+    private LogManager() {
+    }
+
+    /**
+     * 获取 (或创建) 指定类的日志器。
+     *
+     * @param type 使用日志的类
+     * @return 该类的日志器
+     */
+    public static synchronized Logger getLogger(Class<?> type) {
+        return loggers.computeIfAbsent(type.getName(), name -> new Logger(name, effectiveLevel(name)));
+    }
+
+    static void enqueue(LogEvent event) {
+        if (shutDown) {
+            appender.write(event); // 输出线程已停止 (容器关闭过程中)，直接在调用线程写出
+            return;
+        }
+        if (appenderThread == null) {
+            startAppender();
+        }
+        if (buffer.offer(event)) {
+            enqueued.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    private static synchronized void startAppender() {
+        if (appenderThread != null || shutDown) {
+            return;
+        }
+        Thread thread = new Thread(appender, "log-appender");
+        thread.setDaemon(true);
+        thread.start();
+        appenderThread = thread;
+    }
+
+    /**
+     * 停止后台输出线程，最多等待 timeoutMillis 把缓冲区中剩余的日志写完。
+     * 之后产生的日志在调用线程中同步写出。
+     *
+     * @param timeoutMillis 最长等待时间 (毫秒)
+     */
+    public static synchronized void shutdown(long timeoutMillis) {
+        if (shutDown) {
+            return;
+        }
+        appender.stop();
+        Thread thread = appenderThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(timeoutMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        shutDown = true;
+        if (thread == null || !thread.isAlive()) {
+            // 输出线程退出前后仍可能有日志写入缓冲区，在这里补写
+            LogEvent event;
+            while ((event = buffer.poll()) != null) {
+                appender.write(event);
+            }
+        }
+    }
+
+    public static LogLevel getRootLevel() {
+        return rootLevel;
+    }
+
+    /**
+     * 修改根级别 (没有任何前缀配置匹配的日志器使用该级别)。
+     *
+     * @param level 新级别，不能为 null
+     */
+    public static synchronized void setRootLevel(LogLevel level) {
+        rootLevel = level;
+        refreshLevels();
+    }
+
+    /**
+     * 为包名或类名前缀设置日志级别。
+     *
+     * @param prefix 包名或类名前缀，例如 "com.azyasaxi.dao"
+     * @param level  新级别；为 null 时删除该前缀的配置，恢复继承上级配置
+     */
+    public static synchronized void setLevel(String prefix, LogLevel level) {
+        if (level == null) {
+            levelOverrides.remove(prefix);
+        } else {
+            levelOverrides.put(prefix, level);
+        }
+        refreshLevels();
+    }
+
+    /**
+     * 获取所有前缀级别配置，按前缀排序。
+     */
+    public static Map<String, LogLevel> getLevelOverrides() {
+        return new TreeMap<>(levelOverrides);
+    }
+
+    public static void setStackTraceIntervalMillis(long intervalMillis) {
+        appender.setStackTraceIntervalMillis(Math.max(0, intervalMillis));
+    }
+
+    /**
+     * 获取日志系统的运行状态，便于序列化为 JSON 输出。
+     *
+     * @return 级别配置与缓冲区、输出计数
+     */
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("rootLevel", rootLevel.name());
+        snapshot.put("levels", getLevelOverrides());
+        snapshot.put("bufferCapacity", buffer.capacity());
+        snapshot.put("buffered", buffer.size());
+        snapshot.put("enqueued", enqueued.sum());
+        snapshot.put("dropped", dropped.sum());
+        snapshot.put("written", appender.getWrittenCount());
+        snapshot.put("stackTraceIntervalMs", appender.getStackTraceIntervalMillis());
+        snapshot.put("stackTracesSuppressed", appender.getStackTracesSuppressedCount());
+        return snapshot;
+    }
+
+    private static void refreshLevels() {
+        for (Logger logger : loggers.values()) {
+            logger.setLevel(effectiveLevel(logger.getName()));
+        }
+    }
+
+    // 取与日志器名称匹配的最长前缀的级别
+    private static LogLevel effectiveLevel(String loggerName) {
+        LogLevel level = rootLevel;
+        int bestLength = -1;
+        for (Map.Entry<String, LogLevel> entry : levelOverrides.entrySet()) {
+            String prefix = entry.getKey();
+            boolean matches = loggerName.equals(prefix)
+                    || (loggerName.startsWith(prefix) && loggerName.charAt(prefix.length()) == '.');
+            if (matches && prefix.length() > bestLength) {
+                level = entry.getValue();
+                bestLength = prefix.length();
+            }
+        }
+        return level;
+    }
+}
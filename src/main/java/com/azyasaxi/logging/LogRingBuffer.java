@@ -0,0 +1,92 @@
+package com.azyasaxi.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * LogRingBuffer 类
+ * 有界、无锁的多生产者单消费者环形缓冲区。
+ * 每个槽位带一个序号：生产者用 CAS 抢占写入位置，写入元素后发布序号；
+ * 唯一的消费者 (后台输出线程) 按序号读取并释放槽位。
+ * 缓冲区满时 offer 立即返回 false，调用线程从不等待。
+ */
+final class LogRingBuffer {
+    private final int mask;
+    private final AtomicReferenceArray<LogEvent> slots;
+    private final AtomicLongArray sequences; // 槽位序号：等于写入位置表示可写，等于写入位置 + 1 表示可读
+    private final AtomicLong tail = new AtomicLong(); // 下一个写入位置 (生产者共享)
+    private volatile long head; // 下一个读取位置 (仅消费者线程修改，统计时可被其他线程读取)
+
+    /**
+     * @param capacity 容量，向上取整为 2 的幂
+     */
+    LogRingBuffer(int capacity) {
+        int size = 2;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * 写入一条日志 (可由任意线程并发调用)。
+     *
+     * @param event 日志
+     * @return 写入成功返回 true；缓冲区已满返回 false
+     */
+    boolean offer(LogEvent event) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long sequence = sequences.get(index);
+            long difference = sequence - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, event);
+                    sequences.set(index, position + 1); // 发布：消费者此后才能读到该槽位
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false; // 该槽位仍未被消费者释放，缓冲区已满
+            } else {
+                position = tail.get(); // 被其他生产者抢先，重新读取写入位置
+            }
+        }
+    }
+
+    /**
+     * 取出一条日志 (只能由消费者线程调用)。
+     *
+     * @return 最早写入的日志；缓冲区为空 (或下一条尚未发布完成) 时返回 null
+     */
+    LogEvent poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        LogEvent event = slots.get(index);
+        slots.lazySet(index, null);
+        sequences.set(index, head + mask + 1); // 释放槽位给下一轮写入
+        head++;
+        return event;
+    }
+
+    /**
+     * 当前缓冲区中的日志条数 (近似值)。
+     */
+    int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+}
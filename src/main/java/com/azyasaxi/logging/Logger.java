@@ -0,0 +1,70 @@
+package com.azyasaxi.logging;
+
+/**
+ * Logger 类
+ * 按类名创建的日志器，通过 LogManager.getLogger(Class) 获取，通常保存在类的静态常量中。
+ * 每个方法都接受一条消息和若干结构化字段 (按 key, value, key, value... 传入)，输出为
+ * "消息 key=value key=value"；错误方法还可以附带异常，由后台输出线程按频率限制打印堆栈。
+ * 级别检查只读取一个 volatile 字段，未启用的级别直接返回，不创建日志对象。
+ * 日志只放入环形缓冲区，调用线程不做任何 I/O。
+ */
+public final class Logger {
+    private final String name;        // 日志器名称 (完整类名)
+    private volatile LogLevel level;  // 生效级别，由 LogManager 在级别配置变化时更新
+
+    Logger(String name, LogLevel level) {
+        this.name = name;
+        this.level = level;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LogLevel getLevel() {
+        return level;
+    }
+
+    void setLevel(LogLevel level) {
+        this.level = level;
+    }
+
+    public boolean isEnabled(LogLevel candidate) {
+        return candidate.compareTo(level) >= 0 && candidate != LogLevel.OFF;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(LogLevel.DEBUG);
+    }
+
+    public void debug(String message, Object... fields) {
+        log(LogLevel.DEBUG, message, null, fields);
+    }
+
+    public void info(String message, Object... fields) {
+        log(LogLevel.INFO, message, null, fields);
+    }
+
+    public void warn(String message, Object... fields) {
+        log(LogLevel.WARN, message, null, fields);
+    }
+
+    public void warn(String message, Throwable throwable, Object... fields) {
+        log(LogLevel.WARN, message, throwable, fields);
+    }
+
+    public void error(String message, Object... fields) {
+        log(LogLevel.ERROR, message, null, fields);
+    }
+
+    public void error(String message, Throwable throwable, Object... fields) {
+        log(LogLevel.ERROR, message, throwable, fields);
+    }
+
+    private void log(LogLevel eventLevel, String message, Throwable throwable, Object[] fields) {
+        if (!isEnabled(eventLevel)) {
+            return;
+        }
+        LogManager.enqueue(new LogEvent(eventLevel, name, message, fields, throwable));
+    }
+}
@@ -0,0 +1,41 @@
+package com.azyasaxi.model;
+
+import java.util.List;
+
+/**
+ * AdminLogPage 类
+ * 基于游标 (keyset) 分页查询管理员日志的一页结果。
+ * nextCursor 指向更早的日志 (下一页)，prevCursor 指向更新的日志 (上一页)，
+ * 游标为不透明字符串，由 AdminLogService 编码和解析。
+ */
+public class AdminLogPage {
+    private final List<AdminLog> logs;     // 当前页的日志，按时间倒序
+    private final String nextCursor;       // 下一页游标，没有更早的日志时为 null
+    private final String prevCursor;       // 上一页游标，已是第一页时为 null
+
+    public AdminLogPage(List<AdminLog> logs, String nextCursor, String prevCursor) {
+        this.logs = logs;
+        this.nextCursor = nextCursor;
+        this.prevCursor = prevCursor;
+    }
+
+    public List<AdminLog> getLogs() {
+        return logs;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public String getPrevCursor() {
+        return prevCursor;
+    }
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+
+    public boolean isHasPrev() {
+        return prevCursor != null;
+    }
+}
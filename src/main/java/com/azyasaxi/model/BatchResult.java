@@ -0,0 +1,86 @@
+package com.azyasaxi.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BatchResult 类
+ * 批量写入 (批量添加课程、导入学生等) 的结果：总行数、成功行数，以及每个失败行的行号和原因。
+ * 行号从 1 开始，与调用方传入的顺序 (或上传文件中的数据行) 对应。
+ */
+public class BatchResult {
+    private int total;                                    // 提交的总行数
+    private int succeeded;                                // 成功写入的行数
+    private final List<RowError> errors = new ArrayList<>(); // 失败行，按行号升序
+    private final List<Integer> createdIds = new ArrayList<>(); // 新记录的自增主键，按行号顺序 (只有取回主键的批量写入会填写)
+
+    /**
+     * 单个失败行。
+     */
+    public static class RowError {
+        private final int row;         // 行号 (从 1 开始)
+        private final String message;  // 失败原因
+
+        public RowError(int row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    public BatchResult(int total) {
+        this.total = total;
+    }
+
+    /**
+     * 总行数事先未知 (如边读边导入的文件) 时使用，处理完成后由 setTotal 设置。
+     */
+    public BatchResult() {
+        this(0);
+    }
+
+    /**
+     * 记录一个失败行。调用方按行号升序添加。
+     *
+     * @param row     行号 (从 1 开始)
+     * @param message 失败原因
+     */
+    public void addError(int row, String message) {
+        errors.add(new RowError(row, message));
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return errors.size();
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public List<Integer> getCreatedIds() {
+        return createdIds;
+    }
+}
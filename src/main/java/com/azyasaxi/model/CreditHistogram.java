@@ -0,0 +1,57 @@
+package com.azyasaxi.model;
+
+/**
+ * CreditHistogram 类
+ * 一组学生已获总学分的分布直方图，由 StatisticsEngine 在内存中计算。
+ * 第 i 个区间为 [boundaries[i], boundaries[i+1])，最后一个区间没有上限；没有学分记录的学生按 0 学分统计。
+ * 有学生低于第一个边界时 underflow 为 true，labels 和 counts 的第一个元素是额外的 "<下限 学分" 区间，
+ * 此时两者比 boundaries 多一个元素；否则三者一一对应。
+ */
+public class CreditHistogram {
+    private final String scope;        // 统计范围: all / college / major / class
+    private final Integer scopeId;     // 学院、专业或班级ID，全体学生时为 null
+    private final double[] boundaries; // 各区间的下边界，严格递增
+    private final String[] labels;     // 区间标签，如 "<10 学分"、"10-15 学分"、"15+ 学分"
+    private final int[] counts;        // 各区间的学生人数
+    private final boolean underflow;   // 第一个区间是否为低于第一个边界的学生
+    private final int total;           // 统计范围内的学生总数
+
+    public CreditHistogram(String scope, Integer scopeId, double[] boundaries, String[] labels, int[] counts,
+                           boolean underflow, int total) {
+        this.scope = scope;
+        this.scopeId = scopeId;
+        this.boundaries = boundaries;
+        this.labels = labels;
+        this.counts = counts;
+        this.underflow = underflow;
+        this.total = total;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public Integer getScopeId() {
+        return scopeId;
+    }
+
+    public double[] getBoundaries() {
+        return boundaries;
+    }
+
+    public String[] getLabels() {
+        return labels;
+    }
+
+    public int[] getCounts() {
+        return counts;
+    }
+
+    public boolean isUnderflow() {
+        return underflow;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+}
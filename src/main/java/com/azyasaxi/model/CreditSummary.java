@@ -4,8 +4,9 @@ import java.math.BigDecimal; // 用于总学分
 
 /**
  * CreditSummary 模型类 (数据传输对象 DTO)
- * 代表从 CreditSummary 视图中查询到的学生学分统计信息。
- * 这个类不是直接对应一个可修改的表，而是用于展示查询结果。
+ * 代表从 CreditSummary 汇总表中查询到的学生学分统计信息。
+ * 汇总表按 student_id 保存 total_credits，由 Service 层在成绩或课程学分变化时通过 CreditSummaryDao 增量维护；
+ * studentName 不在汇总表中，查询时关联 Student 表获得。
  */
 public class CreditSummary {
 
@@ -0,0 +1,28 @@
+package com.azyasaxi.model;
+
+/**
+ * LeaveTransitionResult 枚举
+ * 请假申请状态变更 (审批、学生修改、删除) 的结果，由 LeaveRequestService 返回，message 可直接展示给用户。
+ */
+public enum LeaveTransitionResult {
+    SUCCESS("操作成功"),
+    NOT_FOUND("请假申请不存在"),
+    NOT_OWNER("无权操作不属于自己的请假申请"),
+    NOT_PENDING("该请假申请已审批，不能再审批、修改或删除"),
+    INVALID("参数无效"),
+    ERROR("系统繁忙，请稍后重试");
+
+    private final String message;
+
+    LeaveTransitionResult(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isSuccess() {
+        return this == SUCCESS;
+    }
+}
@@ -0,0 +1,115 @@
+package com.azyasaxi.model;
+
+/**
+ * ListQuery 类
+ * 管理员列表查询的条件：检索词、筛选条件 (性别、班级、专业、请假状态)、排序列与方向，以及分页位置。
+ * 排序列使用接口层的字段名 (如 "name"、"credit")，由各 DAO 通过白名单映射为实际的 SQL 列，
+ * 不在白名单中的排序列会被忽略并使用默认排序。
+ */
+public class ListQuery {
+    private String searchTerm;   // 检索词 (可选)
+    private String status;       // 请假状态筛选 (可选)
+    private String gender;       // 性别筛选 (可选)
+    private Integer classId;     // 班级筛选 (可选)
+    private Integer majorId;     // 专业筛选 (可选)
+    private String sortKey;      // 排序列 (接口字段名，可选)
+    private boolean ascending = true; // 排序方向，仅在 sortKey 有效时生效
+    private int offset;          // 跳过的行数
+    private int pageSize;        // 每页行数；小于等于 0 时不分页
+
+    /**
+     * 创建一个只包含检索词、不分页的查询。
+     *
+     * @param searchTerm 检索词 (可选)
+     * @return 查询条件
+     */
+    public static ListQuery ofSearchTerm(String searchTerm) {
+        ListQuery query = new ListQuery();
+        query.setSearchTerm(searchTerm);
+        return query;
+    }
+
+    public boolean hasSearchTerm() {
+        return searchTerm != null && !searchTerm.trim().isEmpty();
+    }
+
+    /**
+     * @return 是否指定了排序列或任意筛选条件 (检索词除外)
+     */
+    public boolean hasSortOrFilter() {
+        return (sortKey != null && !sortKey.isEmpty()) || (gender != null && !gender.isEmpty())
+                || classId != null || majorId != null || (status != null && !status.isEmpty());
+    }
+
+    public String getSearchTerm() {
+        return searchTerm;
+    }
+
+    public void setSearchTerm(String searchTerm) {
+        this.searchTerm = searchTerm;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getGender() {
+        return gender;
+    }
+
+    public void setGender(String gender) {
+        this.gender = gender;
+    }
+
+    public Integer getClassId() {
+        return classId;
+    }
+
+    public void setClassId(Integer classId) {
+        this.classId = classId;
+    }
+
+    public Integer getMajorId() {
+        return majorId;
+    }
+
+    public void setMajorId(Integer majorId) {
+        this.majorId = majorId;
+    }
+
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    public void setSortKey(String sortKey) {
+        this.sortKey = sortKey;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public void setAscending(boolean ascending) {
+        this.ascending = ascending;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+}
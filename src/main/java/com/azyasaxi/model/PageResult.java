@@ -0,0 +1,60 @@
+package com.azyasaxi.model;
+
+import java.util.List;
+
+/**
+ * PageResult 类
+ * 列表分页查询的一页结果，供管理员仪表盘按需加载 (滚动到底部时加载下一页)。
+ * 不计算总行数：DAO 多取一行来判断是否还有下一页，避免每页都执行一次 COUNT(*)。
+ *
+ * @param <T> 列表元素类型
+ */
+public class PageResult<T> {
+    private final List<T> items;   // 当前页的数据
+    private final int offset;      // 当前页第一行的偏移量
+    private final int limit;       // 每页行数
+    private final boolean hasMore; // 是否还有下一页
+
+    public PageResult(List<T> items, int offset, int limit, boolean hasMore) {
+        this.items = items;
+        this.offset = offset;
+        this.limit = limit;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * 根据 DAO 多取一行 (limit + 1) 的查询结果构造一页：多出的一行只用于判断 hasMore，不返回给调用方。
+     *
+     * @param rows   最多 limit + 1 行的查询结果
+     * @param offset 当前页偏移量
+     * @param limit  每页行数
+     * @return 分页结果
+     */
+    public static <T> PageResult<T> fromLookahead(List<T> rows, int offset, int limit) {
+        boolean hasMore = rows.size() > limit;
+        return new PageResult<>(hasMore ? rows.subList(0, limit) : rows, offset, limit, hasMore);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    /**
+     * @return 下一页的偏移量，没有下一页时为 null
+     */
+    public Integer getNextOffset() {
+        return hasMore ? offset + items.size() : null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.azyasaxi.model;
+
+/**
+ * RegistrationResult 枚举
+ * 学生选课或退课的结果，由 RegistrationEngine 返回，message 可直接展示给学生。
+ */
+public enum RegistrationResult {
+    ENROLLED("选课成功"),
+    WAITLISTED("课程已满，已加入候补队列，有名额空出时将按顺序自动选上"),
+    ALREADY_ENROLLED("您已选修该课程"),
+    ALREADY_WAITLISTED("您已在该课程的候补队列中"),
+    DROPPED("退课成功"),
+    LEFT_WAITLIST("已退出该课程的候补队列"),
+    NOT_ENROLLED("您未选修该课程，或该课程已有成绩不能退选"),
+    COURSE_NOT_FOUND("课程不存在"),
+    ERROR("系统繁忙，请稍后重试");
+
+    private final String message;
+
+    RegistrationResult(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
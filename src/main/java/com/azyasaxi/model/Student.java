@@ -29,7 +29,7 @@ public class Student {
     // 选课与学分信息
     // 使用 Enrollment 列表，因为 Enrollment 对象可以同时包含课程信息和该生的成绩
     private List<Enrollment> enrollments; // 该学生的所有选课记录 (包含课程详情和成绩)
-    private BigDecimal totalEarnedCredits; // 该学生已获得的总学分 (从 CreditSummary 视图获取或计算)
+    private BigDecimal totalEarnedCredits; // 该学生已获得的总学分 (从 CreditSummary 汇总表获取或计算)
 
     // 默认构造函数
     public Student() {
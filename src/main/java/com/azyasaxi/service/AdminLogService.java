@@ -1,25 +1,86 @@
 package com.azyasaxi.service;
 
 import com.azyasaxi.dao.AdminLogDao;
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.AdminLog;
+import com.azyasaxi.model.AdminLogPage;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * AdminLogService 类 (服务层)
+ * 负责管理员操作日志的记录与查询。
+ * 日志采用异步批量写入 (write-behind)：recordAdminAction 只把日志放入有界内存队列，
+ * 由后台写线程按 flush-size / flush-interval 取出，并用一条多行 INSERT 写入 AdminLog 表。
+ */
 @Service
-public class AdminLogService {
+public class AdminLogService implements InitializingBean, DisposableBean {
+    private static final Logger logger = LogManager.getLogger(AdminLogService.class);
+
+    private static final long COUNT_CACHE_TTL_MILLIS = 60_000; // 日志总数缓存有效期 (毫秒)
 
     private final AdminLogDao adminLogDao;
+    private final AtomicLong cachedLogCount = new AtomicLong(); // 缓存的日志总数
+    private final Object countLock = new Object();               // 防止缓存过期时多个请求同时 COUNT(*)
+    private volatile long countCachedAt = 0;                      // 日志总数缓存的刷新时间
+
+    private final BlockingQueue<AdminLog> pendingLogs; // 待写入的日志队列 (有界)
+    private final int flushSize;                       // 每批最多写入的日志条数
+    private final long flushIntervalMillis;            // 一批日志最长的攒批等待时间
+    private final long offerTimeoutMillis;             // 队列满时调用方最长的等待时间 (背压)
+    private final LongAdder queuedCount = new LongAdder();  // 成功入队的日志数
+    private final LongAdder flushedCount = new LongAdder(); // 已写入数据库的日志数
+    private final LongAdder droppedCount = new LongAdder(); // 因队列满或写库失败而丢弃的日志数
+    private volatile boolean running = true;
+    private Thread writerThread;
 
     @Autowired
-    public AdminLogService(AdminLogDao adminLogDao) {
+    public AdminLogService(AdminLogDao adminLogDao, Environment env) {
         this.adminLogDao = adminLogDao;
+        this.pendingLogs = new ArrayBlockingQueue<>(env.getProperty("adminlog.write-behind.queue-capacity", Integer.class, 10000));
+        this.flushSize = env.getProperty("adminlog.write-behind.flush-size", Integer.class, 200);
+        this.flushIntervalMillis = env.getProperty("adminlog.write-behind.flush-interval-ms", Long.class, 500L);
+        this.offerTimeoutMillis = env.getProperty("adminlog.write-behind.offer-timeout-ms", Long.class, 50L);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        writerThread = new Thread(this::runWriter, "admin-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Spring 容器关闭时停止后台写线程，并把队列中剩余的日志全部写入数据库。
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        writerThread.join(Math.max(flushIntervalMillis * 4, 5000));
+        flushRemaining(); // 写线程未能及时退出时，由当前线程兜底写完剩余日志
     }
 
     /**
      * 记录一条管理员操作日志。
+     * 日志立即进入写入队列，由后台线程批量写库，调用方不再等待 INSERT 完成。
+     * 队列已满时最多等待 offer-timeout-ms 毫秒，仍无空位则丢弃该日志并计数。
      *
      * @param adminId           操作管理员的ID。
      * @param adminUsername     操作管理员的用户名。
@@ -27,13 +88,13 @@ public class AdminLogService {
      * @param targetEntity      操作针对的实体类型 (例如："学生", "课程")。
      * @param targetEntityId    操作针对的实体ID。
      * @param actionDescription 对操作的详细描述。
-     * @return 如果记录成功返回 true，否则返回 false。
+     * @return 如果日志成功进入写入队列返回 true，否则返回 false。
      */
     public boolean recordAdminAction(Integer adminId, String adminUsername, String actionType,
                                      String targetEntity, String targetEntityId, String actionDescription) {
         if (adminId == null || adminUsername == null || adminUsername.trim().isEmpty() ||
             actionType == null || actionType.trim().isEmpty()) {
-            System.err.println("AdminLogService: 记录日志失败，管理员ID、用户名或操作类型不能为空。");
+            logger.warn("记录日志失败，管理员ID、用户名或操作类型不能为空");
             return false;
         }
 
@@ -44,46 +105,230 @@ public class AdminLogService {
         log.setTargetEntity(targetEntity); // 可以为 null
         log.setTargetEntityId(targetEntityId); // 可以为 null
         log.setActionDescription(actionDescription); // 可以为 null
+        log.setActionTimestamp(LocalDateTime.now()); // 入队时间，写库时只用于扣除排队时长，实际时间以数据库时钟为准
 
         try {
-            return adminLogDao.addLog(log);
-        } catch (Exception e) {
-            System.err.println("AdminLogService: 记录管理员操作日志时发生错误: " + e.getMessage());
-            e.printStackTrace();
+            if (running && pendingLogs.offer(log, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                queuedCount.increment();
+                return true;
+            }
+            droppedCount.increment();
+            logger.warn("日志写入队列已满或服务正在关闭，丢弃日志", "actionType", actionType);
             return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            droppedCount.increment();
+            return false;
+        }
+    }
+
+    // 后台写线程：攒够 flushSize 条或等待满 flushIntervalMillis 后写入一批
+    private void runWriter() {
+        List<AdminLog> batch = new ArrayList<>(flushSize);
+        while (running || !pendingLogs.isEmpty()) {
+            try {
+                AdminLog first = pendingLogs.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < flushSize && running) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    AdminLog next = pendingLogs.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                pendingLogs.drainTo(batch, flushSize - batch.size()); // 关闭时不再等待，直接取走已有日志
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    // 在当前线程中写完队列中剩余的日志
+    private void flushRemaining() {
+        List<AdminLog> batch = new ArrayList<>(flushSize);
+        while (pendingLogs.drainTo(batch, flushSize) > 0) {
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    // 写入一批日志：多行 INSERT 失败时重试一次 (例如连接瞬断)，仍失败则逐条写入，只丢弃写不进去的那几条
+    private void writeBatch(List<AdminLog> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (int attempt = 1; attempt <= 2; attempt++) {
+            try {
+                recordFlushed(adminLogDao.addLogs(batch));
+                return;
+            } catch (Exception e) {
+                logger.warn("批量写入管理员日志失败", "batchSize", batch.size(), "attempt", attempt, "reason", e.getMessage());
+            }
+        }
+        for (AdminLog log : batch) {
+            try {
+                recordFlushed(adminLogDao.addLogs(Collections.singletonList(log)));
+            } catch (Exception e) {
+                droppedCount.increment();
+                logger.error("写入管理员日志失败，丢弃该条日志", e, "actionType", log.getActionType(),
+                        "adminId", log.getAdminId(), "targetEntityId", log.getTargetEntityId());
+            }
         }
     }
 
+    private void recordFlushed(int inserted) {
+        flushedCount.add(inserted);
+        cachedLogCount.addAndGet(inserted); // 同步更新缓存的日志总数
+    }
+
     /**
-     * 分页获取管理员操作日志。
-     * @param pageNumber 当前页码 (从1开始)。
-     * @param pageSize 每页记录数。
-     * @return 日志列表。
+     * @return 成功进入写入队列的日志总数。
      */
-    public List<AdminLog> getLogsPaged(int pageNumber, int pageSize) {
-        if (pageNumber < 1) pageNumber = 1;
+    public long getQueuedCount() {
+        return queuedCount.sum();
+    }
+
+    /**
+     * @return 已写入数据库的日志总数。
+     */
+    public long getFlushedCount() {
+        return flushedCount.sum();
+    }
+
+    /**
+     * @return 因队列满、服务关闭或写库失败而丢弃的日志总数。
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * @return 当前仍在队列中等待写入的日志数。
+     */
+    public int getPendingCount() {
+        return pendingLogs.size();
+    }
+
+    /**
+     * 按游标获取一页管理员操作日志。
+     * after 与 before 最多只应提供一个：after 取游标之后 (更早) 的一页，before 取游标之前 (更新) 的一页，
+     * 两者都为空时返回最新的一页。每次查询多取一行用于判断该方向是否还有数据，
+     * 查询耗时只与页大小有关，与翻页深度无关。
+     *
+     * @param afterCursor  "下一页"游标 (可选)。
+     * @param beforeCursor "上一页"游标 (可选)。
+     * @param pageSize     每页记录数。
+     * @return 当前页日志及前后翻页游标；游标无法解析时按第一页处理。
+     */
+    public AdminLogPage getLogsPage(String afterCursor, String beforeCursor, int pageSize) {
         if (pageSize < 1) pageSize = 10; // 默认每页10条
-        int offset = (pageNumber - 1) * pageSize;
         try {
-            return adminLogDao.getLogs(offset, pageSize);
+            LogPosition after = decodeCursor(afterCursor);
+            LogPosition before = after == null ? decodeCursor(beforeCursor) : null;
+
+            if (before != null) {
+                List<AdminLog> logs = adminLogDao.getLogsAfter(before.timestamp, before.logId, pageSize + 1);
+                boolean hasNewer = logs.size() > pageSize;
+                if (hasNewer) {
+                    logs = logs.subList(1, logs.size()); // 翻转后多出的一行在列表最前面
+                }
+                if (logs.isEmpty()) {
+                    return getLogsPage(null, null, pageSize); // 游标之前已没有数据，回到第一页
+                }
+                return new AdminLogPage(logs,
+                        encodeCursor(logs.get(logs.size() - 1)), // 从 before 游标翻回来，后面必然还有数据
+                        hasNewer ? encodeCursor(logs.get(0)) : null);
+            }
+
+            List<AdminLog> logs = after != null
+                    ? adminLogDao.getLogsBefore(after.timestamp, after.logId, pageSize + 1)
+                    : adminLogDao.getLatestLogs(pageSize + 1);
+            boolean hasOlder = logs.size() > pageSize;
+            if (hasOlder) {
+                logs = logs.subList(0, pageSize);
+            }
+            String nextCursor = hasOlder ? encodeCursor(logs.get(logs.size() - 1)) : null;
+            String prevCursor = after != null && !logs.isEmpty() ? encodeCursor(logs.get(0)) : null;
+            return new AdminLogPage(logs, nextCursor, prevCursor);
         } catch (Exception e) {
-            System.err.println("AdminLogService: 分页获取日志时发生错误: " + e.getMessage());
-            e.printStackTrace();
-            return Collections.emptyList();
+            logger.error("按游标获取日志时发生错误", e);
+            return new AdminLogPage(Collections.emptyList(), null, null);
         }
     }
 
     /**
      * 获取所有管理员操作日志的总数。
-     * @return 日志总数。
+     * 结果缓存 COUNT_CACHE_TTL_MILLIS 毫秒，期间新写入的日志直接在缓存值上累加，
+     * 避免每次翻页都对整张表执行 COUNT(*)。
+     * @return 日志总数 (近似值，最多滞后一个缓存周期)。
      */
     public int getTotalLogCount() {
+        long now = System.currentTimeMillis();
+        if (now - countCachedAt < COUNT_CACHE_TTL_MILLIS) {
+            return (int) cachedLogCount.get();
+        }
+        synchronized (countLock) {
+            if (now - countCachedAt < COUNT_CACHE_TTL_MILLIS) { // 其他线程可能已刷新
+                return (int) cachedLogCount.get();
+            }
+            try {
+                cachedLogCount.set(adminLogDao.countLogs());
+                countCachedAt = System.currentTimeMillis();
+            } catch (Exception e) {
+                logger.error("获取日志总数时发生错误", e);
+            }
+            return (int) cachedLogCount.get();
+        }
+    }
+
+    // 游标对应的排序键位置
+    private static class LogPosition {
+        final Timestamp timestamp;
+        final int logId;
+
+        LogPosition(Timestamp timestamp, int logId) {
+            this.timestamp = timestamp;
+            this.logId = logId;
+        }
+    }
+
+    // 将日志的排序键编码为不透明游标: Base64("时间戳毫秒:log_id")
+    private static String encodeCursor(AdminLog log) {
+        if (log.getActionTimestamp() == null) {
+            return null;
+        }
+        String raw = Timestamp.valueOf(log.getActionTimestamp()).getTime() + ":" + log.getLogId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 解析游标，为空或格式不正确时返回 null
+    private static LogPosition decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
         try {
-            return adminLogDao.countLogs();
-        } catch (Exception e) {
-            System.err.println("AdminLogService: 获取日志总数时发生错误: " + e.getMessage());
-            e.printStackTrace();
-            return 0;
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            if (sep <= 0) {
+                return null;
+            }
+            long millis = Long.parseLong(raw.substring(0, sep));
+            int logId = Integer.parseInt(raw.substring(sep + 1));
+            return new LogPosition(new Timestamp(millis), logId);
+        } catch (IllegalArgumentException e) { // 包含 NumberFormatException
+            logger.warn("无效的日志分页游标", "cursor", cursor);
+            return null;
         }
     }
-}
\ No newline at end of file
+}
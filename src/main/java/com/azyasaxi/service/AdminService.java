@@ -1,6 +1,8 @@
 package com.azyasaxi.service;
 
 import com.azyasaxi.dao.AdminDao; // 导入 AdminDao 类
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
 import com.azyasaxi.model.Admin;   // 导入 Admin 模型类
 import com.azyasaxi.utils.CalculateSHA256;
 import org.springframework.beans.factory.annotation.Autowired; // 用于依赖注入
@@ -13,6 +15,7 @@ import org.springframework.stereotype.Service; // 声明这是一个 Service 组
  */
 @Service // 将此类标记为 Spring 管理的 Service 组件
 public class AdminService {
+    private static final Logger logger = LogManager.getLogger(AdminService.class);
 
     private final AdminDao adminDao; // AdminDao 实例，通过构造函数注入
 
@@ -38,12 +41,10 @@ public class AdminService {
 
         // 检查传入的参数
         if (username == null || username.isEmpty() || clientProvidedPasswordHash == null || clientProvidedPasswordHash.isEmpty()) {
-             System.err.println("认证失败：用户名或客户端哈希密码为空。");
+             logger.warn("认证失败：用户名或客户端哈希密码为空");
             return null; // 用户名或客户端哈希为空，认证失败
         }
 
-        System.out.println("服务层：尝试认证用户 '" + username + "，哈希密码：" + clientProvidedPasswordHash );
-
         // 1. 从数据库获取管理员信息
         Admin adminFromDb = adminDao.getAdminByUsername(username);
 
@@ -55,14 +56,14 @@ public class AdminService {
             // 核心：比较客户端计算的哈希 和 数据库存储的哈希。
             // 使用 equalsIgnoreCase 更稳妥，以防十六进制出现大小写差异。
             if (clientProvidedPasswordHash.equalsIgnoreCase(storedPasswordHash)) {
-                 System.out.println("服务层：用户 '" + username + "' 认证成功。");
+                 logger.info("用户认证成功", "username", username);
                 // 用户名存在且密码哈希匹配
                 return adminFromDb; // 认证成功，返回 Admin 对象
             } else {
-                 System.err.println("服务层：用户 '" + username + "' 认证失败：密码哈希不匹配。");
+                 logger.warn("用户认证失败：密码哈希不匹配", "username", username);
             }
         } else {
-             System.err.println("服务层：用户 '" + username + "' 认证失败：用户不存在。");
+             logger.warn("用户认证失败：用户不存在", "username", username);
         }
 
         return null; // 用户名不存在或密码哈希不匹配，认证失败
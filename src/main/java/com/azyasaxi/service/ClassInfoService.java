@@ -3,9 +3,13 @@ package com.azyasaxi.service;
 import com.azyasaxi.dao.ClassInfoDao;
 import com.azyasaxi.dao.CreditSummaryDao;
 import com.azyasaxi.dao.StudentDao;
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
+import com.azyasaxi.model.ListQuery;
+import com.azyasaxi.model.PageResult;
 import com.azyasaxi.model.ClassInfo;
-import com.azyasaxi.model.CreditSummary;
 import com.azyasaxi.model.Student;
+import com.azyasaxi.utils.TableVersions;
 import org.springframework.beans.factory.annotation.Autowired; // 用于依赖注入
 import org.springframework.stereotype.Service; // 声明这是一个 Service 组件
 import org.springframework.util.StringUtils;
@@ -13,6 +17,7 @@ import org.springframework.util.StringUtils;
 import java.math.BigDecimal; // 用于学分
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.ArrayList; // 用于创建学生列表
 
 /**
@@ -21,22 +26,38 @@ import java.util.ArrayList; // 用于创建学生列表
  */
 @Service
 public class ClassInfoService {
+    private static final Logger logger = LogManager.getLogger(ClassInfoService.class);
 
     private final ClassInfoDao classInfoDao;         // ClassInfoDao 实例
     private final StudentDao studentDao;             // StudentDao 实例，用于获取班级下的学生
     private final CreditSummaryDao creditSummaryDao; // CreditSummaryDao 实例，用于获取学生总学分
+    private final StudentSearchIndex studentSearchIndex; // 删除班级后同步学生搜索索引
+    private final TableVersions tableVersions;       // 写入成功后递增 ClassInfo 等表的版本号
+    private final StatisticsEngine statisticsEngine; // 删除班级后同步内存统计数据
+    private final HierarchyCache hierarchyCache;     // 院系层级的内存缓存，班级增删后重新加载
 
     /**
-     * 构造函数，通过 Spring 依赖注入 ClassInfoDao, StudentDao, 和 CreditSummaryDao。
+     * 构造函数，通过 Spring 依赖注入 ClassInfoDao、StudentDao、CreditSummaryDao、StudentSearchIndex、TableVersions、
+     * StatisticsEngine 和 HierarchyCache。
      *
-     * @param classInfoDaoArg     由 Spring 容器提供的 ClassInfoDao 实例。
-     * @param studentDaoArg       由 Spring 容器提供的 StudentDao 实例。
-     * @param creditSummaryDaoArg 由 Spring 容器提供的 CreditSummaryDao 实例。
+     * @param classInfoDaoArg       由 Spring 容器提供的 ClassInfoDao 实例。
+     * @param studentDaoArg         由 Spring 容器提供的 StudentDao 实例。
+     * @param creditSummaryDaoArg   由 Spring 容器提供的 CreditSummaryDao 实例。
+     * @param studentSearchIndexArg 由 Spring 容器提供的 StudentSearchIndex 实例。
+     * @param tableVersionsArg      数据表版本号，写入成功后递增。
+     * @param statisticsEngineArg   数据统计页的内存统计数据。
+     * @param hierarchyCacheArg     院系层级的内存缓存。
      */
-    public ClassInfoService(ClassInfoDao classInfoDaoArg, StudentDao studentDaoArg, CreditSummaryDao creditSummaryDaoArg) {
+    public ClassInfoService(ClassInfoDao classInfoDaoArg, StudentDao studentDaoArg, CreditSummaryDao creditSummaryDaoArg,
+                            StudentSearchIndex studentSearchIndexArg, TableVersions tableVersionsArg,
+                            StatisticsEngine statisticsEngineArg, HierarchyCache hierarchyCacheArg) {
         this.classInfoDao = classInfoDaoArg;
         this.studentDao = studentDaoArg;
         this.creditSummaryDao = creditSummaryDaoArg;
+        this.studentSearchIndex = studentSearchIndexArg;
+        this.tableVersions = tableVersionsArg;
+        this.statisticsEngine = statisticsEngineArg;
+        this.hierarchyCache = hierarchyCacheArg;
     }
     public List<ClassInfo> listAllClassInfos() { // 方法名从 listAllStudents 改为 listAllClassInfos
         // 调用 DAO 层获取所有班级数据
@@ -47,17 +68,34 @@ public class ClassInfoService {
     // --- 原有方法 (保持或略作调整) ---
     public List<ClassInfo> searchClassInfos(String searchTerm) {
         try {
+            List<ClassInfo> cached = hierarchyCache.searchClassInfos(ListQuery.ofSearchTerm(searchTerm));
+            if (cached != null) {
+                return cached;
+            }
             return classInfoDao.searchClassInfos(searchTerm);
         } catch (Exception e) {
-            System.err.println("ClassInfoService: 搜索班级信息时发生错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("搜索班级信息时发生错误", e);
             return Collections.emptyList();
         }
     }
 
+    /**
+     * 分页搜索班级信息，供仪表盘按需加载。优先在内存缓存中检索，缓存尚未就绪时查询数据库。
+     *
+     * @param query 检索词 (班级名、专业名或学院名)、专业筛选、排序和分页条件。
+     * @return 当前页的班级列表及是否还有下一页。
+     */
+    public PageResult<ClassInfo> searchClassInfosPage(ListQuery query) {
+        List<ClassInfo> rows = hierarchyCache.searchClassInfos(query);
+        if (rows == null) {
+            rows = classInfoDao.searchClassInfos(query);
+        }
+        return PageResult.fromLookahead(rows, query.getOffset(), query.getPageSize());
+    }
+
     public boolean addClassInfo(ClassInfo classInfo) {
         if (classInfo == null || !StringUtils.hasText(classInfo.getClassName())) {
-            System.err.println("ClassInfoService: 添加班级失败，班级名称不能为空。");
+            logger.warn("添加班级失败，班级名称不能为空");
             return false;
         }
         // 业务逻辑：例如检查班级名在同一专业下是否已存在
@@ -67,16 +105,19 @@ public class ClassInfoService {
                  ( (existing.getMajorId() == null && classInfo.getMajorId() == null) ||
                    (existing.getMajorId() != null && existing.getMajorId().equals(classInfo.getMajorId())) )
              ) {
-                 System.err.println("ClassInfoService: 添加班级失败，名称为 '" + classInfo.getClassName() + "' 的班级已在该专业下存在。");
+                 logger.warn("添加班级失败，同名班级已在该专业下存在", "className", classInfo.getClassName());
                  return false;
              }
          }
         try {
             int rowsAffected = classInfoDao.addClassInfo(classInfo);
+            if (rowsAffected > 0) {
+                hierarchyCache.reload();
+                tableVersions.bump(TableVersions.Table.CLASS_INFO);
+            }
             return rowsAffected > 0;
         } catch (Exception e) {
-            System.err.println("ClassInfoService: 添加班级时发生数据库错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("添加班级时发生数据库错误", e);
             return false;
         }
     }
@@ -84,15 +125,20 @@ public class ClassInfoService {
     public boolean deleteClassInfo(int classId) {
         // (与您之前提供的代码一致)
         if (classId <= 0) {
-            System.err.println("ClassInfoService: 删除班级失败，无效的班级ID: " + classId);
+            logger.warn("删除班级失败，无效的班级ID", "classId", classId);
             return false;
         }
         try {
             int rowsAffected = classInfoDao.deleteClassInfo(classId);
+            if (rowsAffected > 0) {
+                studentSearchIndex.removeClass(classId);
+                statisticsEngine.classRemoved(classId);
+                hierarchyCache.reload();
+                tableVersions.bump(TableVersions.Table.CLASS_INFO, TableVersions.Table.STUDENT); // 该班学生的 class_id 被置为 NULL
+            }
             return rowsAffected > 0;
         } catch (Exception e) {
-            System.err.println("ClassInfoService: 删除班级 (ID: " + classId + ") 时发生数据库错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("删除班级时发生数据库错误", e, "classId", classId);
             return false;
         }
     }
@@ -107,15 +153,19 @@ public class ClassInfoService {
      */
     public ClassInfo findClassInfoWithDetailsById(int classId) {
         if (classId <= 0) {
-            System.err.println("ClassInfoService: 获取班级详细信息失败，无效的班级ID: " + classId);
+            logger.warn("获取班级详细信息失败，无效的班级ID", "classId", classId);
             return null;
         }
 
-        // 1. 获取班级基本信息 (包含专业名和学院名)
-        ClassInfo classInfo = classInfoDao.getClassInfoWithHierarchyById(classId);
+        // 1. 获取班级基本信息 (包含专业名和学院名)，优先从院系层级缓存读取；
+        //    缓存未就绪或缓存中没有 (例如刚在库中直接新增) 时查询数据库
+        ClassInfo classInfo = hierarchyCache.getClassInfo(classId);
+        if (classInfo == null) {
+            classInfo = classInfoDao.getClassInfoWithHierarchyById(classId);
+        }
 
         if (classInfo == null) {
-            System.out.println("ClassInfoService: 未找到ID为 " + classId + " 的班级。");
+            logger.debug("未找到班级", "classId", classId);
             return null; // 如果班级本身都找不到，则直接返回null
         }
 
@@ -125,26 +175,16 @@ public class ClassInfoService {
         try {
             studentsInThisClass = studentDao.getStudentsByClassId(classId); // 调用新的DAO方法
         } catch (Exception e) {
-            System.err.println("ClassInfoService: 获取班级 (ID: " + classId + ") 的学生列表时发生错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("获取班级的学生列表时发生错误", e, "classId", classId);
             // 即使学生列表获取失败，也返回已获取的班级信息
         }
 
-        // 3. 为每个学生获取并设置其总学分
+        // 3. 一次查询取出全班学生的总学分，再逐个填充 (班级详情页共 3 次查询，与学生人数无关)
         if (!studentsInThisClass.isEmpty()) {
+            Map<Integer, BigDecimal> creditsByStudentId = creditSummaryDao.getTotalCreditsByClassId(classId);
             for (Student student : studentsInThisClass) {
-                try {
-                    CreditSummary summary = creditSummaryDao.getCreditSummaryByStudentId(student.getStudentId());
-                    if (summary != null) {
-                        student.setTotalEarnedCredits(summary.getTotalCredits());
-                    } else {
-                        student.setTotalEarnedCredits(BigDecimal.ZERO); // 没有记录则总学分为0
-                    }
-                } catch (Exception e) {
-                    System.err.println("ClassInfoService: 获取学生 (ID: " + student.getStudentId() + ") 的总学分时发生错误: " + e.getMessage());
-                    e.printStackTrace();
-                    student.setTotalEarnedCredits(null); // 出错时设为null或0
-                }
+                // 没有记录则总学分为0
+                student.setTotalEarnedCredits(creditsByStudentId.getOrDefault(student.getStudentId(), BigDecimal.ZERO));
             }
         }
 
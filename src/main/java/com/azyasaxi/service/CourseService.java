@@ -1,16 +1,35 @@
 package com.azyasaxi.service;
 
 import com.azyasaxi.dao.CourseDao; // 导入 CourseDao
+import com.azyasaxi.dao.MajorDao;  // 院系层级缓存未就绪时按名称查询专业
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
+import com.azyasaxi.model.BatchResult; // 批量添加结果
+import com.azyasaxi.model.ListQuery;
+import com.azyasaxi.model.PageResult;     // 分页结果
 import com.azyasaxi.model.Course;   // 导入 Course 模型
 import com.azyasaxi.model.Enrollment; // 导入 Enrollment 模型
 import com.azyasaxi.service.EnrollmentService; // 导入 EnrollmentService
+import com.azyasaxi.utils.CsvReader;     // 导入课程时逐条读取 CSV
+import com.azyasaxi.utils.TableVersions; // 数据表版本号
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.util.CollectionUtils; // 用于检查集合是否为空
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.math.BigDecimal; // 用于处理学分
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * CourseService 类 (服务层)
@@ -19,20 +38,81 @@ import java.util.List;
  */
 @Service // 将此类标记为 Spring 管理的 Service 组件
 public class CourseService {
+    private static final Logger logger = LogManager.getLogger(CourseService.class);
 
     private final CourseDao courseDao; // CourseDao 实例
     private final EnrollmentService enrollmentService; // EnrollmentService 实例
+    private final CreditSummaryService creditSummaryService; // 课程学分变化或删除课程后同步学分汇总
+    private final TransactionTemplate transactionTemplate;
+    private final TableVersions tableVersions; // 写入成功后递增 Course 等表的版本号
+    private final HierarchyCache hierarchyCache; // 专业名称 -> 专业ID 从内存解析
+    private final MajorDao majorDao; // 缓存尚未就绪时按名称查询专业
+    private final RegistrationEngine registrationEngine; // 课程人数上限与候补队列
 
     /**
-     * 构造函数，通过 Spring 依赖注入 CourseDao 和 EnrollmentService。
+     * 构造函数，通过 Spring 依赖注入 CourseDao、EnrollmentService、CreditSummaryService、TransactionTemplate、TableVersions、
+     * HierarchyCache、MajorDao 和 RegistrationEngine。
      *
      * @param courseDao 由 Spring 容器提供的 CourseDao 实例。
      * @param enrollmentService 由 Spring 容器提供的 EnrollmentService 实例。
+     * @param creditSummaryService 由 Spring 容器提供的 CreditSummaryService 实例。
+     * @param transactionTemplate 由 Spring 容器提供的 TransactionTemplate 实例。
+     * @param tableVersions 数据表版本号，写入成功后递增。
+     * @param hierarchyCache 院系层级的内存缓存，用于按名称解析专业。
+     * @param majorDao 由 Spring 容器提供的 MajorDao 实例。
+     * @param registrationEngine 选课引擎，管理课程名额和候补队列。
      */
     @Autowired // 自动注入 beans
-    public CourseService(CourseDao courseDao, EnrollmentService enrollmentService) {
+    public CourseService(CourseDao courseDao, EnrollmentService enrollmentService,
+                         CreditSummaryService creditSummaryService, TransactionTemplate transactionTemplate,
+                         TableVersions tableVersions, HierarchyCache hierarchyCache, MajorDao majorDao,
+                         RegistrationEngine registrationEngine) {
         this.courseDao = courseDao;
         this.enrollmentService = enrollmentService;
+        this.creditSummaryService = creditSummaryService;
+        this.transactionTemplate = transactionTemplate;
+        this.tableVersions = tableVersions;
+        this.hierarchyCache = hierarchyCache;
+        this.majorDao = majorDao;
+        this.registrationEngine = registrationEngine;
+    }
+
+    // 专业名称解析结果中的错误码 (专业ID总是正数)
+    private static final int MAJOR_NONE = 0;          // 未提供专业名称，课程不关联专业
+    private static final int MAJOR_NOT_FOUND = -1;    // 找不到该名称的专业
+    private static final int MAJOR_LOOKUP_ERROR = -2; // 查询专业时发生数据库错误
+    private static final int MAJOR_AMBIGUOUS = -4;    // 多个学院下有同名专业
+
+    /**
+     * 把专业名称 (忽略首尾空白和大小写) 解析为专业ID。
+     * 院系层级缓存就绪时完全在内存中完成，未知名称也不访问数据库；缓存尚未就绪时查询 Major 表。
+     *
+     * @param majorName 专业名称，可以为 null 或空。
+     * @return 专业ID (正数)，或 MAJOR_NONE / MAJOR_NOT_FOUND / MAJOR_LOOKUP_ERROR / MAJOR_AMBIGUOUS。
+     */
+    private int resolveMajorId(String majorName) {
+        if (majorName == null || majorName.trim().isEmpty()) {
+            return MAJOR_NONE;
+        }
+        List<Integer> ids = hierarchyCache.findMajorIdsByName(majorName);
+        if (ids == null) {
+            ids = majorDao.findMajorIdsByName(majorName.trim());
+        }
+        if (ids == null) {
+            return MAJOR_LOOKUP_ERROR;
+        }
+        return ids.isEmpty() ? MAJOR_NOT_FOUND : ids.size() > 1 ? MAJOR_AMBIGUOUS : ids.get(0);
+    }
+
+    private static String describeMajorError(int code) {
+        switch (code) {
+            case MAJOR_NOT_FOUND:
+                return "找不到指定的专业名称";
+            case MAJOR_AMBIGUOUS:
+                return "多个学院下有同名专业";
+            default:
+                return "查询专业时发生数据库错误";
+        }
     }
 
     /**
@@ -56,6 +136,16 @@ public class CourseService {
         return courseDao.searchCourses(searchTerm);
     }
 
+    /**
+     * 分页搜索课程信息，供仪表盘按需加载。
+     *
+     * @param query 检索词 (课程名称或课程教师)、专业筛选、排序和分页条件。
+     * @return 当前页的课程列表及是否还有下一页。
+     */
+    public PageResult<Course> searchCoursesPage(ListQuery query) {
+        return PageResult.fromLookahead(courseDao.searchCourses(query), query.getOffset(), query.getPageSize());
+    }
+
     /**
      * 添加一个新的课程信息。
      *
@@ -69,15 +159,22 @@ public class CourseService {
     public boolean addCourse(String courseName, String teacherName, BigDecimal credit, String majorName) {
         // 基本的验证
         if (courseName == null || courseName.trim().isEmpty()) {
-            System.err.println("CourseService: 添加课程失败，课程名称不能为空。");
+            logger.warn("添加课程失败，课程名称不能为空");
             return false;
         }
         if (teacherName == null || teacherName.trim().isEmpty()) {
-            System.err.println("CourseService: 添加课程失败，教师名称不能为空。");
+            logger.warn("添加课程失败，教师名称不能为空");
             return false;
         }
         if (credit == null || credit.compareTo(BigDecimal.ZERO) < 0) { // 学分不能为null且不能为负
-            System.err.println("CourseService: 添加课程失败，学分无效。");
+            logger.warn("添加课程失败，学分无效");
+            return false;
+        }
+
+        // majorName 可以为 null 或空字符串，表示不关联专业
+        int majorId = resolveMajorId(majorName);
+        if (majorId < 0) {
+            logger.warn("添加课程失败，" + describeMajorError(majorId), "majorName", majorName);
             return false;
         }
 
@@ -85,29 +182,197 @@ public class CourseService {
         newCourse.setCourseName(courseName.trim());
         newCourse.setCourseTeacher(teacherName.trim());
         newCourse.setCredit(credit);
-        // majorName 可以为 null 或空字符串，DAO层会处理
+        newCourse.setMajorId(majorId == MAJOR_NONE ? null : majorId);
 
         // 调用 DAO 层添加课程
         // CourseDao的addCourse方法返回影响的行数，或者特定的负数错误码
-        int result = courseDao.addCourse(newCourse, (majorName != null ? majorName.trim() : null));
+        int result = courseDao.addCourse(newCourse);
 
         if (result > 0) {
+            tableVersions.bump(TableVersions.Table.COURSE);
             return true; // 添加成功
         } else {
             // 可以根据DAO层返回的负数错误码给出更详细的日志或错误信息
-            if (result == -1) {
-                System.err.println("CourseService: 添加课程失败，因为找不到指定的专业名称: " + majorName);
-            } else if (result == -2) {
-                System.err.println("CourseService: 添加课程失败，查询专业ID时发生数据库错误。");
-            } else if (result == -3) {
-                System.err.println("CourseService: 添加课程失败，课程 '" + courseName + "' 在该专业下已存在。");
+            if (result == -3) {
+                logger.warn("添加课程失败，课程在该专业下已存在", "courseName", courseName);
             } else {
-                System.err.println("CourseService: 添加课程失败，DAO层返回未知错误或影响行数为0。");
+                logger.warn("添加课程失败，DAO层返回未知错误或影响行数为0");
             }
             return false; // 添加失败
         }
     }
 
+    /**
+     * 批量添加课程。每门课程需要 courseName、courseTeacher、credit，以及可选的 majorName。
+     * 先逐行校验，并一次性把所有不同的专业名称解析为专业ID；再用一次查询检查课程是否已存在
+     * (同一专业下课程名唯一，也检查提交内容内部的重复)；最后在一个事务中用 JDBC 批处理插入所有通过检查的课程。
+     * 插入失败 (例如并发写入造成唯一性冲突) 时整批回滚，所有待插入行都记为失败。
+     *
+     * @param courses 要添加的课程，按提交顺序编号 (从 1 开始)。
+     * @return 成功行数以及每个失败行的原因。
+     */
+    public BatchResult addCourses(List<Course> courses) {
+        BatchResult result = new BatchResult(courses == null ? 0 : courses.size());
+        if (courses == null || courses.isEmpty()) {
+            return result;
+        }
+
+        // 1. 一次性解析所有不同的专业名称
+        Map<String, Integer> majorIds = new HashMap<>();
+        Set<String> courseNames = new LinkedHashSet<>();
+        for (Course course : courses) {
+            String majorName = course.getMajorName() != null ? course.getMajorName().trim() : "";
+            majorIds.computeIfAbsent(majorName, this::resolveMajorId);
+            if (course.getCourseName() != null && !course.getCourseName().trim().isEmpty()) {
+                courseNames.add(course.getCourseName().trim());
+            }
+        }
+
+        // 2. 一次查询取出同名课程已存在的 (课程名, 专业) 组合
+        Set<String> existingKeys = courseDao.findExistingCourseKeys(courseNames);
+        if (existingKeys == null) {
+            for (int i = 0; i < courses.size(); i++) {
+                result.addError(i + 1, "检查课程是否已存在时发生数据库错误");
+            }
+            return result;
+        }
+
+        // 3. 逐行校验
+        List<Course> toInsert = new ArrayList<>();
+        List<Integer> insertRows = new ArrayList<>();
+        Set<String> seenKeys = new HashSet<>();
+        for (int i = 0; i < courses.size(); i++) {
+            Course course = courses.get(i);
+            int row = i + 1;
+            if (course.getCourseName() == null || course.getCourseName().trim().isEmpty()) {
+                result.addError(row, "课程名称不能为空");
+                continue;
+            }
+            if (course.getCourseTeacher() == null || course.getCourseTeacher().trim().isEmpty()) {
+                result.addError(row, "教师名称不能为空");
+                continue;
+            }
+            if (course.getCredit() == null || course.getCredit().compareTo(BigDecimal.ZERO) < 0) {
+                result.addError(row, "学分无效");
+                continue;
+            }
+            int majorId = majorIds.get(course.getMajorName() != null ? course.getMajorName().trim() : "");
+            if (majorId < 0) {
+                result.addError(row, describeMajorError(majorId) + ": " + course.getMajorName().trim());
+                continue;
+            }
+            Integer majorIdValue = majorId == MAJOR_NONE ? null : majorId;
+            String key = CourseDao.courseKey(course.getCourseName(), majorIdValue);
+            if (existingKeys.contains(key)) {
+                result.addError(row, "课程在该专业下已存在");
+                continue;
+            }
+            if (!seenKeys.add(key)) {
+                result.addError(row, "与前面的行重复");
+                continue;
+            }
+            Course newCourse = new Course();
+            newCourse.setCourseName(course.getCourseName().trim());
+            newCourse.setCourseTeacher(course.getCourseTeacher().trim());
+            newCourse.setCredit(course.getCredit());
+            newCourse.setMajorId(majorIdValue);
+            toInsert.add(newCourse);
+            insertRows.add(row);
+        }
+        if (toInsert.isEmpty()) {
+            return result;
+        }
+
+        // 4. 在一个事务中批量插入
+        try {
+            transactionTemplate.executeWithoutResult(status -> courseDao.addCourses(toInsert));
+        } catch (Exception e) {
+            logger.error("批量添加课程失败，已回滚", e, "courses", toInsert.size());
+            for (int row : insertRows) {
+                result.addError(row, "写入数据库失败，本批次已回滚");
+            }
+            result.getErrors().sort(Comparator.comparingInt(BatchResult.RowError::getRow)); // 与校验错误合并后保持行号升序
+            return result;
+        }
+        result.setSucceeded(toInsert.size());
+        tableVersions.bump(TableVersions.Table.COURSE);
+        logger.info("批量添加课程完成", "total", courses.size(), "inserted", toInsert.size(), "failed", result.getFailed());
+        return result;
+    }
+
+    // 课程导入的列 (表头别名，比较时不区分大小写)
+    private static final String[][] IMPORT_HEADERS = {
+            {"course_name", "coursename", "课程名称"}, {"course_teacher", "teacher", "授课教师"}, {"credit", "学分"},
+            {"major_name", "majorname", "专业"}};
+    private static final int COL_COURSE_NAME = 0, COL_TEACHER = 1, COL_CREDIT = 2, COL_MAJOR_NAME = 3;
+    private static final int MAX_IMPORT_ROWS = 5000; // 整个文件在一个事务中写入，限制一次导入的行数
+
+    /**
+     * 从 CSV 批量导入课程。
+     * 第一行为表头：course_name/课程名称、course_teacher/授课教师、credit/学分 为必需列，major_name/专业 可选。
+     * 课程数量远少于学生，整个文件读入后交给 addCourses 处理：一次性解析专业、一次查询检查重复、一个事务内批量插入。
+     * 学分无法解析为数字的行记为 "学分无效"。
+     *
+     * @param reader CSV 内容，由调用方关闭。
+     * @return 成功行数以及每个失败行的原因；行号为数据行的序号 (不含表头和空行，从 1 开始)。
+     * @throws IOException              读取失败或 CSV 格式错误 (此时不导入任何行)。
+     * @throws IllegalArgumentException 文件为空、表头缺少必需列或超过一次导入的行数上限。
+     */
+    public BatchResult importCourses(Reader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new IllegalArgumentException("文件为空");
+        }
+        int[] columns = resolveImportColumns(header);
+
+        List<Course> courses = new ArrayList<>();
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            if (courses.size() == MAX_IMPORT_ROWS) {
+                throw new IllegalArgumentException("超过一次导入的上限 " + MAX_IMPORT_ROWS + " 行");
+            }
+            Course course = new Course();
+            course.setCourseName(importField(record, columns[COL_COURSE_NAME]));
+            course.setCourseTeacher(importField(record, columns[COL_TEACHER]));
+            course.setMajorName(importField(record, columns[COL_MAJOR_NAME]));
+            String credit = importField(record, columns[COL_CREDIT]);
+            try {
+                course.setCredit(credit.isEmpty() ? null : new BigDecimal(credit));
+            } catch (NumberFormatException e) {
+                course.setCredit(null); // 由 addCourses 记为 "学分无效"
+            }
+            courses.add(course);
+        }
+        return addCourses(courses);
+    }
+
+    // 按表头找到各列的位置，可选列不存在时为 -1
+    private static int[] resolveImportColumns(List<String> header) {
+        int[] columns = new int[IMPORT_HEADERS.length];
+        Arrays.fill(columns, -1);
+        for (int index = 0; index < header.size(); index++) {
+            String name = header.get(index).trim().toLowerCase(Locale.ROOT);
+            for (int col = 0; col < IMPORT_HEADERS.length; col++) {
+                for (String alias : IMPORT_HEADERS[col]) {
+                    if (alias.equals(name) && columns[col] < 0) {
+                        columns[col] = index;
+                    }
+                }
+            }
+        }
+        for (int col = COL_COURSE_NAME; col <= COL_CREDIT; col++) {
+            if (columns[col] < 0) {
+                throw new IllegalArgumentException("表头缺少必需列: " + IMPORT_HEADERS[col][0]);
+            }
+        }
+        return columns;
+    }
+
+    private static String importField(List<String> record, int column) {
+        return column >= 0 && column < record.size() ? record.get(column).trim() : "";
+    }
+
     /**
      * 根据课程ID获取课程的详细信息，包括选修该课程的学生列表及其成绩。
      *
@@ -116,7 +381,7 @@ public class CourseService {
      */
     public Course getCourseDetailsById(int courseId) {
         if (courseId <= 0) {
-            System.err.println("CourseService: 无效的课程ID: " + courseId);
+            logger.warn("无效的课程ID", "courseId", courseId);
             return null;
         }
         Course course = courseDao.getCourseById(courseId); // 获取课程基本信息
@@ -125,7 +390,7 @@ public class CourseService {
             List<Enrollment> enrollments = enrollmentService.getEnrollmentsByCourseIdWithStudentDetails(courseId);
             course.setEnrollments(enrollments); // 设置到 Course 对象的 enrollments 字段
         } else {
-            System.out.println("CourseService: 未找到ID为 " + courseId + " 的课程。");
+            logger.debug("未找到课程", "courseId", courseId);
         }
         return course;
     }
@@ -134,7 +399,7 @@ public class CourseService {
     // 为了清晰，如果只需要基本信息，可以保留 findCourseById
      public Course findCourseById(int courseId) {
         if (courseId <= 0) {
-             System.err.println("CourseService: 无效的课程ID (findCourseById): " + courseId);
+             logger.warn("无效的课程ID (findCourseById)", "courseId", courseId);
              return null;
         }
         return courseDao.getCourseById(courseId);
@@ -154,28 +419,55 @@ public class CourseService {
     public boolean updateCourse(int courseId, String courseName, String teacherName, BigDecimal credit, String majorName) {
         // 验证输入
         if (courseName == null || courseName.trim().isEmpty()) {
-            System.err.println("CourseService: 更新课程失败，课程名称不能为空。");
+            logger.warn("更新课程失败，课程名称不能为空");
             return false;
         }
         // ... 其他验证可以添加 ...
 
         Course courseToUpdate = courseDao.getCourseById(courseId);
         if (courseToUpdate == null) {
-            System.err.println("CourseService: 更新课程失败，未找到ID为 " + courseId + " 的课程。");
+            logger.warn("更新课程失败，未找到课程", "courseId", courseId);
             return false;
         }
 
+        // 学分发生变化时，已通过该课程的学生的学分汇总需要重算
+        boolean creditChanged = courseToUpdate.getCredit() == null || credit == null
+                || courseToUpdate.getCredit().compareTo(credit) != 0;
+
+        // majorName 为 null 时保持原专业不变，为空字符串时清除专业关联
+        if (majorName != null) {
+            int majorId = resolveMajorId(majorName);
+            if (majorId < 0) {
+                logger.warn("更新课程失败，" + describeMajorError(majorId), "courseId", courseId, "majorName", majorName);
+                return false;
+            }
+            courseToUpdate.setMajorId(majorId == MAJOR_NONE ? null : majorId);
+        }
+
         courseToUpdate.setCourseName(courseName.trim());
         courseToUpdate.setCourseTeacher(teacherName.trim());
         courseToUpdate.setCredit(credit);
-        // majorName 的处理逻辑在DAO层
 
-        int result = courseDao.updateCourse(courseToUpdate, (majorName != null ? majorName.trim() : null));
+        int result;
+        try {
+            Integer updateResult = transactionTemplate.execute(status -> {
+                int rows = courseDao.updateCourse(courseToUpdate);
+                if (rows > 0 && creditChanged) {
+                    creditSummaryService.refreshStudentCredits(creditSummaryService.findStudentsCreditedForCourse(courseId));
+                }
+                return rows;
+            });
+            result = updateResult != null ? updateResult : 0;
+        } catch (Exception e) {
+            logger.error("更新课程时同步学分汇总失败", e, "courseId", courseId);
+            return false;
+        }
         if (result > 0) {
+            tableVersions.bump(TableVersions.Table.COURSE); // 事务已提交
             return true;
         } else {
             // 可以根据DAO层返回的错误码进行更详细的日志
-            System.err.println("CourseService: 更新课程 (ID: " + courseId + ") 失败。");
+            logger.warn("更新课程失败", "courseId", courseId);
             return false;
         }
     }
@@ -190,14 +482,46 @@ public class CourseService {
         // 可以在这里添加业务逻辑，例如检查是否有学生正在修读此课程且不允许删除等
         // 但根据您的表结构，Enrollment表有级联删除，所以直接删除即可
 
-        int rowsAffected = courseDao.deleteCourse(courseId);
+        // 删除前记录已通过该课程的学生，删除 (选课记录级联删除) 后在同一事务中重算他们的学分汇总
+        int rowsAffected;
+        try {
+            Integer deleted = transactionTemplate.execute(status -> {
+                List<Integer> creditedStudentIds = creditSummaryService.findStudentsCreditedForCourse(courseId);
+                int rows = courseDao.deleteCourse(courseId);
+                if (rows > 0) {
+                    creditSummaryService.refreshStudentCredits(creditedStudentIds);
+                }
+                return rows;
+            });
+            rowsAffected = deleted != null ? deleted : 0;
+        } catch (Exception e) {
+            logger.error("删除课程时同步学分汇总失败", e, "courseId", courseId);
+            return false;
+        }
         if (rowsAffected > 0) {
+            registrationEngine.courseRemoved(courseId);
+            tableVersions.bump(TableVersions.Table.COURSE, TableVersions.Table.ENROLLMENT); // 事务已提交，选课记录已级联删除
             return true;
         } else {
             // 可能是因为课程不存在，或者删除时发生数据库错误
-            System.err.println("CourseService: 删除课程 (ID: " + courseId + ") 失败或课程不存在。");
+            logger.warn("删除课程失败或课程不存在", "courseId", courseId);
+            return false;
+        }
+    }
+
+    /**
+     * 设置课程的人数上限。调高上限后候补队列中的学生按顺序自动选上。
+     *
+     * @param courseId 课程ID。
+     * @param capacity 人数上限，null 表示不限人数。
+     * @return 如果更新成功，返回 true；课程不存在或上限无效时返回 false。
+     */
+    public boolean setCourseCapacity(int courseId, Integer capacity) {
+        if (courseId <= 0 || (capacity != null && capacity < 0)) {
+            logger.warn("设置课程人数上限失败，参数无效", "courseId", courseId, "capacity", capacity);
             return false;
         }
+        return registrationEngine.setCapacity(courseId, capacity);
     }
 
     /**
@@ -208,29 +532,14 @@ public class CourseService {
      */
     public List<Course> getAvailableCoursesForStudent(int studentId) {
         if (studentId <= 0) {
-            System.err.println("CourseService: 无效的学生ID: " + studentId + "，无法获取可选课程。");
+            logger.warn("无效的学生ID，无法获取可选课程", "studentId", studentId);
             return Collections.emptyList();
         }
         try {
-            List<Course> allCourses = courseDao.searchCourses(null); // 获取所有课程
-            if (CollectionUtils.isEmpty(allCourses)) {
-                return Collections.emptyList();
-            }
-
-            List<Integer> enrolledCourseIds = enrollmentService.getEnrolledCourseIdsByStudentId(studentId);
-
-            if (CollectionUtils.isEmpty(enrolledCourseIds)) {
-                return allCourses; // 如果学生没有选修任何课程，则所有课程都可选
-            }
-
-            // 过滤掉已选课程
-            return allCourses.stream()
-                    .filter(course -> !enrolledCourseIds.contains(course.getCourseId()))
-                    .collect(java.util.stream.Collectors.toList());
-
+            // 在数据库中用反连接排除已选课程，只取回可选的课程
+            return courseDao.getCoursesNotEnrolledByStudent(studentId);
         } catch (Exception e) {
-            System.err.println("CourseService: 获取学生 (ID: " + studentId + ") 可选课程时发生错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("获取学生可选课程时发生错误", e, "studentId", studentId);
             return Collections.emptyList();
         }
     }
@@ -1,31 +1,46 @@
 package com.azyasaxi.service;
 
 import com.azyasaxi.dao.CreditSummaryDao; // 导入 CreditSummaryDao
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
+import com.azyasaxi.model.ListQuery;
+import com.azyasaxi.model.PageResult;     // 分页结果
 import com.azyasaxi.model.CreditSummary;   // 导入 CreditSummary 模型
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Collection;
 import java.util.Collections; // 用于返回空列表
 import java.util.List;
 
 /**
  * CreditSummaryService 类 (服务层)
  * 负责处理与学生学分统计相关的业务逻辑。
- * 它会调用 CreditSummaryDao 来从 CreditSummary 视图获取数据。
+ * 它会调用 CreditSummaryDao 来从 CreditSummary 汇总表获取数据，并负责汇总表的增量维护与定期校验。
  */
 @Service // 将此类标记为 Spring 管理的 Service 组件
 public class CreditSummaryService {
+    private static final Logger logger = LogManager.getLogger(CreditSummaryService.class);
 
     private final CreditSummaryDao creditSummaryDao; // CreditSummaryDao 实例，通过构造函数注入
+    private final TransactionTemplate transactionTemplate; // 编程式事务模板
+    private final StatisticsEngine statisticsEngine; // 学分变化后同步内存统计数据
 
     /**
-     * 构造函数，通过 Spring 依赖注入 CreditSummaryDao。
+     * 构造函数，通过 Spring 依赖注入 CreditSummaryDao、TransactionTemplate 和 StatisticsEngine。
      *
      * @param creditSummaryDaoArg 由 Spring 容器提供的 CreditSummaryDao 实例。
+     * @param transactionTemplateArg 由 Spring 容器提供的 TransactionTemplate 实例。
+     * @param statisticsEngineArg 由 Spring 容器提供的 StatisticsEngine 实例。
      */
-    @Autowired // 自动注入 CreditSummaryDao bean
-    public CreditSummaryService(CreditSummaryDao creditSummaryDaoArg) {
+    @Autowired // 自动注入 beans
+    public CreditSummaryService(CreditSummaryDao creditSummaryDaoArg, TransactionTemplate transactionTemplateArg,
+                                StatisticsEngine statisticsEngineArg) {
         this.creditSummaryDao = creditSummaryDaoArg;
+        this.transactionTemplate = transactionTemplateArg;
+        this.statisticsEngine = statisticsEngineArg;
     }
 
     /**
@@ -44,12 +59,21 @@ public class CreditSummaryService {
             return creditSummaryDao.searchCreditSummaries(searchTerm);
         } catch (Exception e) {
             // 如果在获取数据过程中发生异常，打印错误日志并返回空列表
-            System.err.println("CreditSummaryService: 获取学分统计列表时发生错误: " + e.getMessage());
-            e.printStackTrace(); // 打印详细错误信息
+            logger.error("获取学分统计列表时发生错误", e);
             return Collections.emptyList(); // 返回空列表以避免null指针
         }
     }
 
+    /**
+     * 分页获取学分统计列表，供仪表盘按需加载。
+     *
+     * @param query 检索词 (学生姓名或学号)、排序和分页条件。
+     * @return 当前页的学分统计及是否还有下一页。
+     */
+    public PageResult<CreditSummary> listCreditSummariesPage(ListQuery query) {
+        return PageResult.fromLookahead(creditSummaryDao.searchCreditSummaries(query), query.getOffset(), query.getPageSize());
+    }
+
     /**
      * 根据学生ID获取该学生的学分统计信息。
      *
@@ -59,22 +83,80 @@ public class CreditSummaryService {
     public CreditSummary findCreditSummaryByStudentId(int studentId) {
         // 对学生ID进行基本验证
         if (studentId <= 0) {
-            System.err.println("CreditSummaryService: 无效的学生ID: " + studentId);
+            logger.warn("无效的学生ID", "studentId", studentId);
             return null; // 无效ID直接返回null
         }
         try {
             return creditSummaryDao.getCreditSummaryByStudentId(studentId);
         } catch (Exception e) {
-            System.err.println("CreditSummaryService: 根据学生ID查找学分统计时发生错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("根据学生ID查找学分统计时发生错误", e);
             return null; // 出错时返回null
         }
     }
 
-    // 针对学分统计，通常业务逻辑会集中在如何展示这些数据，
-    // 或者基于这些数据进行一些分析，例如：
-    // - 获取学分最高的N个学生
-    // - 计算平均学分等
-    // 由于数据源是视图，修改操作不在此处进行。
-    // 例如，如果需要导出学分报告，可以在这里添加相应的方法。
-}
\ No newline at end of file
+    /**
+     * 按实时成绩重算指定学生的已获学分。
+     * 在调用方已开启的事务中执行时随调用方一起提交或回滚；否则自行开启事务。
+     * 数据库错误以异常形式抛出，以便调用方的事务回滚。
+     * 事务提交后，内存统计数据随之更新。
+     *
+     * @param studentIds 成绩或所修课程学分发生变化的学生ID。
+     */
+    public void refreshStudentCredits(Collection<Integer> studentIds) {
+        if (studentIds == null || studentIds.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            creditSummaryDao.refreshStudents(studentIds);
+            statisticsEngine.studentsChanged(studentIds);
+        });
+    }
+
+    /**
+     * 获取某门课程中学分已计入汇总 (成绩及格) 的学生ID，
+     * 用于在修改课程学分或删除课程后确定需要重算的学生。
+     *
+     * @param courseId 课程ID。
+     * @return 学生ID列表。
+     */
+    public List<Integer> findStudentsCreditedForCourse(int courseId) {
+        return creditSummaryDao.getStudentIdsWithPassingGrade(courseId);
+    }
+
+    /**
+     * 在一个事务中清空并全量重建学分汇总表。
+     *
+     * @return 重建后的汇总行数；失败时返回 -1。
+     */
+    public int rebuildCreditSummary() {
+        try {
+            Integer rows = transactionTemplate.execute(status -> creditSummaryDao.rebuildAll());
+            return rows != null ? rows : 0;
+        } catch (Exception e) {
+            logger.error("重建学分汇总表时发生错误", e);
+            return -1;
+        }
+    }
+
+    /**
+     * 定时校验学分汇总表与选课成绩是否一致，发现不一致时全量重建。
+     * 用于修复绕过应用直接修改数据库等情况造成的偏差，也负责从旧版视图迁移后的首次填充。
+     */
+    @Scheduled(initialDelayString = "${creditsummary.verify.initial-delay-ms:30000}",
+               fixedDelayString = "${creditsummary.verify.interval-ms:3600000}")
+    public void verifyCreditSummary() {
+        try {
+            int mismatches = creditSummaryDao.countMismatches();
+            if (mismatches > 0) {
+                logger.warn("学分汇总表与成绩数据不一致，开始重建", "mismatches", mismatches);
+                int rows = rebuildCreditSummary();
+                logger.info("学分汇总表重建完成", "rows", rows);
+                if (rows >= 0) {
+                    statisticsEngine.reconcile(); // 学分可能整体变化，统计数据随之全量重建
+                }
+            }
+        } catch (Exception e) {
+            logger.error("校验学分汇总表时发生错误", e);
+        }
+    }
+}
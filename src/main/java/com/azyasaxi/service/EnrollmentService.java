@@ -1,13 +1,24 @@
 package com.azyasaxi.service;
 
 import com.azyasaxi.dao.EnrollmentDao;
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
+import com.azyasaxi.model.BatchResult;
 import com.azyasaxi.model.Enrollment;
+import com.azyasaxi.model.RegistrationResult;
+import com.azyasaxi.utils.TableVersions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal; // 导入 BigDecimal
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * EnrollmentService 类 (服务层)
@@ -15,12 +26,24 @@ import java.util.List;
  */
 @Service
 public class EnrollmentService {
+    private static final Logger logger = LogManager.getLogger(EnrollmentService.class);
+    private static final BigDecimal MAX_GRADE = new BigDecimal("100"); // 成绩上限
 
     private final EnrollmentDao enrollmentDao;
+    private final CreditSummaryService creditSummaryService; // 成绩变化后同步学分汇总
+    private final TransactionTemplate transactionTemplate;
+    private final TableVersions tableVersions; // 写入成功后递增 Enrollment 表的版本号
+    private final RegistrationEngine registrationEngine; // 选课名额与候补队列
 
     @Autowired
-    public EnrollmentService(EnrollmentDao enrollmentDao) {
+    public EnrollmentService(EnrollmentDao enrollmentDao, CreditSummaryService creditSummaryService,
+                             TransactionTemplate transactionTemplate, TableVersions tableVersions,
+                             RegistrationEngine registrationEngine) {
         this.enrollmentDao = enrollmentDao;
+        this.creditSummaryService = creditSummaryService;
+        this.transactionTemplate = transactionTemplate;
+        this.tableVersions = tableVersions;
+        this.registrationEngine = registrationEngine;
     }
 
     /**
@@ -31,20 +54,20 @@ public class EnrollmentService {
      */
     public List<Enrollment> getEnrollmentsByCourseIdWithStudentDetails(int courseId) {
         if (courseId <= 0) {
-            System.err.println("EnrollmentService: 无效的课程ID: " + courseId);
+            logger.warn("无效的课程ID", "courseId", courseId);
             return Collections.emptyList();
         }
         try {
             return enrollmentDao.getEnrollmentsByCourseIdWithStudentDetails(courseId);
         } catch (Exception e) {
-            System.err.println("EnrollmentService: 根据课程ID获取选课学生列表时发生错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("根据课程ID获取选课学生列表时发生错误", e);
             return Collections.emptyList();
         }
     }
 
     /**
      * 更新特定学生特定课程的成绩。
+     * 成绩更新与该学生学分汇总的重算在同一事务中完成。
      *
      * @param studentId 学生的ID。
      * @param courseId  课程的ID。
@@ -54,31 +77,130 @@ public class EnrollmentService {
      */
     public boolean updateStudentCourseGrade(int studentId, int courseId, BigDecimal newGrade) {
         if (studentId <= 0 || courseId <= 0) {
-            System.err.println("EnrollmentService: 更新成绩失败，无效的学生ID或课程ID。");
+            logger.warn("更新成绩失败，无效的学生ID或课程ID");
             return false;
         }
 
         // 业务逻辑验证：例如成绩范围
         if (newGrade != null) {
             if (newGrade.compareTo(BigDecimal.ZERO) < 0 || newGrade.compareTo(new BigDecimal("100")) > 0) {
-                System.err.println("EnrollmentService: 更新成绩失败，成绩必须在0到100之间 (或为null)。当前值: " + newGrade);
+                logger.warn("更新成绩失败，成绩必须在0到100之间 (或为null)", "newGrade", newGrade);
                 return false;
             }
         }
 
         try {
-            int rowsAffected = enrollmentDao.updateGradeByStudentAndCourse(studentId, courseId, newGrade);
-            return rowsAffected > 0; // 如果影响行数大于0，则表示更新成功
+            Boolean updated = transactionTemplate.execute(status -> {
+                int rowsAffected = enrollmentDao.updateGradeByStudentAndCourse(studentId, courseId, newGrade);
+                if (rowsAffected > 0) { // 如果影响行数大于0，则表示更新成功
+                    creditSummaryService.refreshStudentCredits(Collections.singletonList(studentId));
+                }
+                return rowsAffected > 0;
+            });
+            if (Boolean.TRUE.equals(updated)) {
+                tableVersions.bump(TableVersions.Table.ENROLLMENT); // 事务已提交
+                return true;
+            }
+            return false;
         } catch (Exception e) {
-            System.err.println("EnrollmentService: 更新学生 (ID: " + studentId + ") 课程 (ID: " + courseId + ") 成绩时发生错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("更新学生课程成绩时发生错误", e, "studentId", studentId, "courseId", courseId);
             return false;
         }
     }
 
-    // 未来可以添加其他与选课相关的业务逻辑方法，例如：
-    // public boolean enrollStudentInCourse(int studentId, int courseId) { ... }
-    // public boolean deleteEnrollment(int enrollmentId) { ... }
+    /**
+     * 批量录入一门课程的成绩 (整张名单一次提交)。
+     * 先用一次查询取出该课程的选课名单与当前成绩，逐行校验 (成绩范围、重复提交、是否选修该课程)；
+     * 再在一个事务中用 JDBC 批处理更新成绩有变化的行，并对这些学生只重算一次学分汇总。
+     * 成绩与原值相同的行计为成功但不写库。写入失败时整批回滚，所有待写入行记为失败。
+     *
+     * @param courseId 课程的ID。
+     * @param grades   每项包含 studentId 和新成绩 (null 表示清除成绩)，按提交顺序编号 (从 1 开始)。
+     * @return 成功行数以及每个失败行的原因。
+     */
+    public BatchResult updateCourseGrades(int courseId, List<Enrollment> grades) {
+        BatchResult result = new BatchResult(grades == null ? 0 : grades.size());
+        if (grades == null || grades.isEmpty()) {
+            return result;
+        }
+        if (courseId <= 0) {
+            logger.warn("批量录入成绩失败，无效的课程ID", "courseId", courseId);
+            for (int row = 1; row <= grades.size(); row++) {
+                result.addError(row, "无效的课程ID");
+            }
+            return result;
+        }
+
+        Map<Integer, BigDecimal> roster = enrollmentDao.getGradesByCourseId(courseId);
+        if (roster == null) {
+            for (int row = 1; row <= grades.size(); row++) {
+                result.addError(row, "读取选课名单时发生数据库错误");
+            }
+            return result;
+        }
+
+        List<Enrollment> changed = new ArrayList<>();
+        List<Integer> changedRows = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        int unchanged = 0;
+        for (int i = 0; i < grades.size(); i++) {
+            Enrollment entry = grades.get(i);
+            int row = i + 1;
+            Integer studentId = entry.getStudentId();
+            BigDecimal grade = entry.getGrade();
+            if (studentId == null || studentId <= 0) {
+                result.addError(row, "无效的学生ID");
+            } else if (grade != null && (grade.compareTo(BigDecimal.ZERO) < 0 || grade.compareTo(MAX_GRADE) > 0)) {
+                result.addError(row, "成绩必须在0到100之间 (或为空)");
+            } else if (!seen.add(studentId)) {
+                result.addError(row, "同一学生重复提交");
+            } else if (!roster.containsKey(studentId)) {
+                result.addError(row, "该学生未选修此课程");
+            } else if (sameGrade(roster.get(studentId), grade)) {
+                unchanged++;
+            } else {
+                Enrollment update = new Enrollment();
+                update.setStudentId(studentId);
+                update.setCourseId(courseId);
+                update.setGrade(grade);
+                changed.add(update);
+                changedRows.add(row);
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            // 按学生ID升序写入，并发录入同一课程时按相同顺序锁定选课记录，避免死锁
+            List<Enrollment> ordered = new ArrayList<>(changed);
+            ordered.sort(Comparator.comparing(Enrollment::getStudentId));
+            List<Integer> studentIds = new ArrayList<>(ordered.size());
+            for (Enrollment update : ordered) {
+                studentIds.add(update.getStudentId());
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    enrollmentDao.updateGrades(courseId, ordered);
+                    creditSummaryService.refreshStudentCredits(studentIds); // 每名学生只重算一次
+                });
+            } catch (Exception e) {
+                logger.error("批量录入成绩失败，已回滚", e, "courseId", courseId, "rows", changed.size());
+                for (int row : changedRows) {
+                    result.addError(row, "写入数据库失败，本批次已回滚");
+                }
+                result.getErrors().sort(Comparator.comparingInt(BatchResult.RowError::getRow));
+                result.setSucceeded(unchanged);
+                return result;
+            }
+            tableVersions.bump(TableVersions.Table.ENROLLMENT); // 事务已提交
+        }
+        result.setSucceeded(unchanged + changed.size());
+        logger.info("批量录入成绩完成", "courseId", courseId, "total", grades.size(), "updated", changed.size(),
+                "unchanged", unchanged, "failed", result.getFailed());
+        return result;
+    }
+
+    private static boolean sameGrade(BigDecimal current, BigDecimal grade) {
+        return current == null ? grade == null : grade != null && current.compareTo(grade) == 0;
+    }
 
     /**
      * 根据学生ID获取该学生已选修的所有课程ID列表。
@@ -87,52 +209,48 @@ public class EnrollmentService {
      */
     public List<Integer> getEnrolledCourseIdsByStudentId(int studentId) {
         if (studentId <= 0) {
-            System.err.println("EnrollmentService: 无效的学生ID: " + studentId);
+            logger.warn("无效的学生ID", "studentId", studentId);
             return Collections.emptyList();
         }
         try {
             return enrollmentDao.getEnrolledCourseIdsByStudentId(studentId);
         } catch (Exception e) {
-            System.err.println("EnrollmentService: 获取学生 (ID: " + studentId + ") 已选课程ID列表时发生错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("获取学生已选课程ID列表时发生错误", e, "studentId", studentId);
             return Collections.emptyList();
         }
     }
-/**
-     * 学生选修一门课程。
+
+    /**
+     * 学生选修一门课程。名额控制与候补队列由 RegistrationEngine 处理：课程已满时学生进入候补队列。
+     *
      * @param studentId 学生的ID。
      * @param courseId  要选修的课程的ID。
-     * @return 如果选课成功（即之前未选过且成功插入记录）返回true，否则返回false。
+     * @return 选课结果 (选上、进入候补、已选过等)。
      */
-    public boolean enrollStudentInCourse(int studentId, int courseId) {
+    public RegistrationResult enrollStudentInCourse(int studentId, int courseId) {
         if (studentId <= 0 || courseId <= 0) {
-            System.err.println("EnrollmentService: 选课失败，无效的学生ID或课程ID。");
-            return false;
+            logger.warn("选课失败，无效的学生ID或课程ID");
+            return RegistrationResult.COURSE_NOT_FOUND;
         }
+        RegistrationResult result = registrationEngine.enroll(studentId, courseId);
+        logger.info("学生选课", "studentId", studentId, "courseId", courseId, "result", result);
+        return result;
+    }
 
-        // DAO层的addEnrollment使用了INSERT IGNORE，所以这里不需要再次检查是否已选。
-        // 如果需要明确区分“已选”和“插入失败”两种情况，可以在这里先查询。
-        // 但对于简单选课功能，直接尝试插入并根据返回值判断即可。
-
-        Enrollment newEnrollment = new Enrollment();
-        newEnrollment.setStudentId(studentId);
-        newEnrollment.setCourseId(courseId);
-        // 成绩默认为null，由DAO层处理
-
-        try {
-            int rowsAffected = enrollmentDao.addEnrollment(newEnrollment);
-            if (rowsAffected > 0) {
-                System.out.println("EnrollmentService: 学生 (ID: " + studentId + ") 成功选修课程 (ID: " + courseId + ")。");
-                return true;
-            } else {
-                // rowsAffected == 0 表示 INSERT IGNORE 生效，即学生已选过此课程，或插入因其他约束失败但未抛异常
-                System.out.println("EnrollmentService: 学生 (ID: " + studentId + ") 可能已选修课程 (ID: " + courseId + ") 或插入未成功。");
-                return false; 
-            }
-        } catch (Exception e) {
-            System.err.println("EnrollmentService: 学生 (ID: " + studentId + ") 选修课程 (ID: " + courseId + ") 时发生数据库错误: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+    /**
+     * 学生退选一门尚未录入成绩的课程，或退出该课程的候补队列。空出的名额自动交给候补队列中的下一位学生。
+     *
+     * @param studentId 学生的ID。
+     * @param courseId  要退选的课程的ID。
+     * @return 退课结果。
+     */
+    public RegistrationResult dropStudentFromCourse(int studentId, int courseId) {
+        if (studentId <= 0 || courseId <= 0) {
+            logger.warn("退课失败，无效的学生ID或课程ID");
+            return RegistrationResult.NOT_ENROLLED;
         }
+        RegistrationResult result = registrationEngine.drop(studentId, courseId);
+        logger.info("学生退课", "studentId", studentId, "courseId", courseId, "result", result);
+        return result;
     }
 }
\ No newline at end of file
@@ -0,0 +1,234 @@
+package com.azyasaxi.service;
+
+import com.azyasaxi.dao.EnrollmentDao;
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
+import com.azyasaxi.model.Enrollment;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * EnrollmentWriteBatcher 类
+ * 选课记录的合并写入：并发的选课请求进入队列，由后台写线程在 window-ms 毫秒的窗口内攒成一批
+ * (最多 max-size 条)，用一条多行 INSERT 写入，再把每一行的结果 (已插入、已选过、被拒绝) 分别交还给等待的请求。
+ * 选课高峰时一批只占用一个数据库连接、一次往返，而不是每次点击一条自动提交的 INSERT。
+ * 写线程写入上一批时，新的请求继续在队列中攒批，因此负载越高每批越大。
+ * 队列已满或服务正在关闭时，请求直接在调用线程中单条写入。
+ * 每批在一个可重复读事务中写入 (见 EnrollmentDao.insertEnrollments)。请求最多等待 result-timeout-ms 毫秒，
+ * 写线程出现任何错误都以异常结束整批请求；关闭时仍在队列中的请求以异常结束，不会无限等待。
+ */
+@Component
+public class EnrollmentWriteBatcher implements InitializingBean, DisposableBean {
+    private static final Logger logger = LogManager.getLogger(EnrollmentWriteBatcher.class);
+
+    /**
+     * 一条选课记录的写入结果。
+     */
+    public enum Outcome {
+        INSERTED,  // 已插入
+        DUPLICATE, // 该学生已选修此课程
+        REJECTED   // 学生或课程不存在
+    }
+
+    /**
+     * 等待超时时请求已被写线程取走，这条选课可能已经写入，也可能没有。
+     */
+    public static class WriteTimeoutException extends RuntimeException {
+        WriteTimeoutException(String message) {
+            super(message);
+        }
+    }
+
+    // 等待写入的一条选课及其结果
+    private static final class PendingInsert {
+        final Enrollment enrollment = new Enrollment();
+        final CompletableFuture<Outcome> result = new CompletableFuture<>();
+
+        PendingInsert(int studentId, int courseId) {
+            enrollment.setStudentId(studentId);
+            enrollment.setCourseId(courseId);
+        }
+    }
+
+    private final EnrollmentDao enrollmentDao;
+    private final TransactionTemplate writeTransaction; // 每批一个可重复读的新事务
+    private final BlockingQueue<PendingInsert> pending; // 待写入的选课队列 (有界)
+    private final int maxBatchSize;                     // 每批最多写入的选课条数
+    private final long windowNanos;                     // 一批选课最长的攒批等待时间
+    private final long resultTimeoutMillis;             // 请求等待写入结果的最长时间
+    private final LongAdder batchCount = new LongAdder();   // 已写入的批数
+    private final LongAdder insertCount = new LongAdder();  // 经批量写入的选课条数
+    private volatile boolean running = true;
+    private Thread writerThread;
+
+    @Autowired
+    public EnrollmentWriteBatcher(EnrollmentDao enrollmentDao, PlatformTransactionManager transactionManager, Environment env) {
+        this.enrollmentDao = enrollmentDao;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.writeTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.pending = new ArrayBlockingQueue<>(env.getProperty("enrollment.write-batch.queue-capacity", Integer.class, 10000));
+        this.maxBatchSize = Math.max(1, env.getProperty("enrollment.write-batch.max-size", Integer.class, 200));
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(env.getProperty("enrollment.write-batch.window-ms", Long.class, 2L));
+        this.resultTimeoutMillis = env.getProperty("enrollment.write-batch.result-timeout-ms", Long.class, 5000L);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        writerThread = new Thread(this::runWriter, "enrollment-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Spring 容器关闭时停止后台写线程。写线程会写完已在队列中的选课；
+     * 超过等待时间仍未写入的请求以异常结束，不在关闭线程中写入 (数据库可能正是写线程卡住的原因)。
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        writerThread.join(5000);
+        List<PendingInsert> remaining = new ArrayList<>();
+        pending.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            logger.warn("关闭时仍有选课未写入", "count", remaining.size());
+            IllegalStateException shutdown = new IllegalStateException("选课写入服务已关闭");
+            for (PendingInsert request : remaining) {
+                request.result.completeExceptionally(shutdown);
+            }
+        }
+    }
+
+    /**
+     * 插入一条选课记录 (成绩为 NULL)，等待所在的批次写入完成后返回。
+     *
+     * @param studentId 学生ID。
+     * @param courseId  课程ID。
+     * @return 该条选课的写入结果。
+     * @throws WriteTimeoutException 等待超时且请求已被写线程取走时抛出，这条选课可能已经写入。
+     * @throws RuntimeException 写入数据库失败、服务已关闭或请求在队列中等待超时时抛出，调用方应视为未插入。
+     */
+    public Outcome insert(int studentId, int courseId) {
+        PendingInsert request = new PendingInsert(studentId, courseId);
+        if (!running || !pending.offer(request)) {
+            // 队列已满或正在关闭：不再等待，在当前线程单条写入
+            return toOutcome(write(List.of(request.enrollment))[0]);
+        }
+        try {
+            return request.result.get(resultTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (pending.remove(request)) {
+                throw new IllegalStateException("选课写入排队超时");
+            }
+            throw new WriteTimeoutException("等待选课写入结果超时");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (pending.remove(request)) {
+                throw new IllegalStateException("等待选课写入时被中断");
+            }
+            throw new WriteTimeoutException("等待选课写入结果时被中断");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                    : new IllegalStateException("批量写入选课记录失败", e.getCause());
+        }
+    }
+
+    // 后台写线程：取到第一条后最多再等待一个窗口，攒够 maxBatchSize 条或窗口结束即写入
+    private void runWriter() {
+        List<PendingInsert> batch = new ArrayList<>(maxBatchSize);
+        while (running || !pending.isEmpty()) {
+            try {
+                PendingInsert first = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize && running) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingInsert next = remaining > 0 ? pending.poll(remaining, TimeUnit.NANOSECONDS) : pending.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                pending.drainTo(batch, maxBatchSize - batch.size()); // 关闭时不再等待，直接取走已有请求
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<PendingInsert> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Enrollment> enrollments = new ArrayList<>(batch.size());
+        for (PendingInsert request : batch) {
+            enrollments.add(request.enrollment);
+        }
+        try {
+            int[] outcomes = write(enrollments);
+            batchCount.increment();
+            insertCount.add(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(toOutcome(outcomes[i]));
+            }
+        } catch (Throwable e) {
+            // 任何错误 (包括 Error) 都结束整批请求，写线程继续处理后续的批次
+            logger.error("批量写入选课记录失败", e, "batchSize", batch.size());
+            for (PendingInsert request : batch) {
+                request.result.completeExceptionally(e); // 已完成的请求不受影响
+            }
+        }
+    }
+
+    // 在一个可重复读的新事务中写入一批选课
+    private int[] write(List<Enrollment> enrollments) {
+        return writeTransaction.execute(status -> enrollmentDao.insertEnrollments(enrollments));
+    }
+
+    private static Outcome toOutcome(int code) {
+        switch (code) {
+            case EnrollmentDao.INSERT_OK:
+                return Outcome.INSERTED;
+            case EnrollmentDao.INSERT_DUPLICATE:
+                return Outcome.DUPLICATE;
+            default:
+                return Outcome.REJECTED;
+        }
+    }
+
+    /**
+     * @return 已写入的批数。
+     */
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    /**
+     * @return 经批量写入的选课条数 (含已选过和被拒绝的)。
+     */
+    public long getInsertCount() {
+        return insertCount.sum();
+    }
+}
@@ -0,0 +1,299 @@
+package com.azyasaxi.service;
+
+import com.azyasaxi.dao.ClassInfoDao;
+import com.azyasaxi.dao.CollegeDao;
+import com.azyasaxi.dao.MajorDao;
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
+import com.azyasaxi.model.ClassInfo;
+import com.azyasaxi.model.College;
+import com.azyasaxi.model.ListQuery;
+import com.azyasaxi.model.Major;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * HierarchyCache 类
+ * 学院 → 专业 → 班级 层级的内存缓存。这些基础数据一年只变化几次，
+ * 班级详情、学生详情、班级列表和各表单的专业下拉框都从这里取名称，不再每次 JOIN Major / College。
+ * 数据保存在不可变的快照中，重新加载时整体替换 (读取方不加锁，总能看到一致的一份数据)。
+ * 班级增删后由 ClassInfoService 调用 reload，并定期重新加载以覆盖直接修改数据库的情况。
+ * 首次加载完成前 isReady 返回 false，调用方应回退到 SQL 查询。
+ */
+@Component
+public class HierarchyCache implements InitializingBean {
+    private static final Logger logger = LogManager.getLogger(HierarchyCache.class);
+
+    // 班级列表允许排序的列，与 ClassInfoDao 的白名单一致；字符串按不区分大小写比较，null 排在最前
+    private static final Comparator<String> NAME_ORDER = Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER);
+    private static final Map<String, Comparator<ClassInfo>> SORTABLE_COLUMNS = Map.of(
+            "classId", Comparator.comparingInt(ClassInfo::getClassId),
+            "className", Comparator.comparing(ClassInfo::getClassName, NAME_ORDER),
+            "majorName", Comparator.comparing(ClassInfo::getMajorName, NAME_ORDER),
+            "collegeName", Comparator.comparing(ClassInfo::getCollegeName, NAME_ORDER));
+
+    private final CollegeDao collegeDao;
+    private final MajorDao majorDao;
+    private final ClassInfoDao classInfoDao;
+
+    private volatile Snapshot snapshot; // 当前生效的快照，首次加载完成前为 null
+
+    @Autowired
+    public HierarchyCache(CollegeDao collegeDao, MajorDao majorDao, ClassInfoDao classInfoDao) {
+        this.collegeDao = collegeDao;
+        this.majorDao = majorDao;
+        this.classInfoDao = classInfoDao;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        reload();
+    }
+
+    private static final class CollegeNode {
+        final int collegeId;
+        final String collegeName;
+
+        CollegeNode(int collegeId, String collegeName) {
+            this.collegeId = collegeId;
+            this.collegeName = collegeName;
+        }
+    }
+
+    private static final class MajorNode {
+        final int majorId;
+        final String majorName;
+        final Integer collegeId;   // 原始的 college_id，学院不存在时 college 为 null
+        final CollegeNode college;
+
+        MajorNode(int majorId, String majorName, Integer collegeId, CollegeNode college) {
+            this.majorId = majorId;
+            this.majorName = majorName;
+            this.collegeId = collegeId;
+            this.college = college;
+        }
+    }
+
+    private static final class ClassNode {
+        final int classId;
+        final String className;
+        final Integer majorId;  // 原始的 major_id，专业不存在时 major 为 null
+        final MajorNode major;
+
+        ClassNode(int classId, String className, Integer majorId, MajorNode major) {
+            this.classId = classId;
+            this.className = className;
+            this.majorId = majorId;
+            this.major = major;
+        }
+    }
+
+    /**
+     * 一份完整的层级数据，创建后不再修改。
+     */
+    private static final class Snapshot {
+        final Map<Integer, CollegeNode> colleges;
+        final Map<Integer, MajorNode> majors;     // 按专业名称排序 (与 MajorDao.getAllMajors 一致)
+        final Map<Integer, ClassNode> classes;    // 按班级ID升序
+        final Map<String, Integer> collegeIdsByName;
+        final Map<String, List<Integer>> majorIdsByName; // 专业名只在同一学院内唯一，同名专业可能有多个
+
+        Snapshot(List<College> collegeRows, List<Major> majorRows, List<ClassInfo> classRows) {
+            Map<Integer, CollegeNode> collegeMap = new HashMap<>();
+            Map<String, Integer> collegeNames = new HashMap<>();
+            for (College college : collegeRows) {
+                collegeMap.put(college.getCollegeId(), new CollegeNode(college.getCollegeId(), college.getCollegeName()));
+                collegeNames.putIfAbsent(normalize(college.getCollegeName()), college.getCollegeId());
+            }
+            Map<Integer, MajorNode> majorMap = new LinkedHashMap<>();
+            Map<String, List<Integer>> majorNames = new HashMap<>();
+            for (Major major : majorRows) {
+                CollegeNode college = major.getCollegeId() != null ? collegeMap.get(major.getCollegeId()) : null;
+                majorMap.put(major.getMajorId(), new MajorNode(major.getMajorId(), major.getMajorName(), major.getCollegeId(), college));
+                majorNames.computeIfAbsent(normalize(major.getMajorName()), k -> new ArrayList<>(1)).add(major.getMajorId());
+            }
+            majorNames.replaceAll((name, ids) -> Collections.unmodifiableList(ids));
+            Map<Integer, ClassNode> classMap = new LinkedHashMap<>();
+            for (ClassInfo classInfo : classRows) {
+                MajorNode major = classInfo.getMajorId() != null ? majorMap.get(classInfo.getMajorId()) : null;
+                classMap.put(classInfo.getClassId(),
+                        new ClassNode(classInfo.getClassId(), classInfo.getClassName(), classInfo.getMajorId(), major));
+            }
+            this.colleges = Collections.unmodifiableMap(collegeMap);
+            this.majors = Collections.unmodifiableMap(majorMap);
+            this.classes = Collections.unmodifiableMap(classMap);
+            this.collegeIdsByName = Collections.unmodifiableMap(collegeNames);
+            this.majorIdsByName = Collections.unmodifiableMap(majorNames);
+        }
+    }
+
+    private static String normalize(String name) {
+        return name == null ? null : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 从数据库重新加载学院、专业和班级，构建新快照后整体替换。任一查询失败时保留旧快照。
+     */
+    @Scheduled(initialDelayString = "${hierarchy.reload-interval-ms:3600000}",
+               fixedDelayString = "${hierarchy.reload-interval-ms:3600000}")
+    public synchronized void reload() {
+        List<College> colleges = collegeDao.findAllColleges();
+        List<Major> majors = majorDao.findAllMajors();
+        List<ClassInfo> classes = classInfoDao.findAllClassInfoBasic();
+        if (colleges == null || majors == null || classes == null) {
+            logger.warn(snapshot != null ? "院系层级加载失败，继续使用旧数据" : "院系层级加载失败，将回退到数据库查询");
+            return;
+        }
+        snapshot = new Snapshot(colleges, majors, classes);
+        logger.info("院系层级加载完成", "colleges", colleges.size(), "majors", majors.size(), "classes", classes.size());
+    }
+
+    /**
+     * @return 是否已完成首次加载。
+     */
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * 获取班级及其专业、学院信息 (不含学生列表)。
+     *
+     * @param classId 班级ID。
+     * @return 新建的 ClassInfo 对象；班级不存在或缓存尚未就绪时返回 null。
+     */
+    public ClassInfo getClassInfo(int classId) {
+        Snapshot current = snapshot;
+        ClassNode node = current != null ? current.classes.get(classId) : null;
+        return node != null ? toClassInfo(node) : null;
+    }
+
+    /**
+     * 按条件检索班级，行为与 ClassInfoDao.searchClassInfos(ListQuery) 相同 (检索词、专业筛选、白名单排序、多取一行的分页)，
+     * 但完全在内存中完成。
+     *
+     * @param query 查询条件。
+     * @return 班级列表；缓存尚未就绪时返回 null。
+     */
+    public List<ClassInfo> searchClassInfos(ListQuery query) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        String term = query.hasSearchTerm() ? normalize(query.getSearchTerm()) : null;
+        List<ClassInfo> matches = new ArrayList<>();
+        for (ClassNode node : current.classes.values()) {
+            if (query.getMajorId() != null && !query.getMajorId().equals(node.majorId)) {
+                continue;
+            }
+            ClassInfo classInfo = toClassInfo(node);
+            if (term != null && !contains(classInfo.getClassName(), term)
+                    && !contains(classInfo.getMajorName(), term) && !contains(classInfo.getCollegeName(), term)) {
+                continue;
+            }
+            matches.add(classInfo);
+        }
+
+        Comparator<ClassInfo> order = query.getSortKey() != null ? SORTABLE_COLUMNS.get(query.getSortKey()) : null;
+        if (order != null) {
+            // 指定的排序列之后按班级ID排序，保证分页时顺序稳定 (与 SortClause 相同)
+            order = order.thenComparing(SORTABLE_COLUMNS.get("classId"));
+            matches.sort(query.isAscending() ? order : order.reversed());
+        } // 未指定时保持班级ID升序
+
+        if (query.getPageSize() <= 0) {
+            return matches;
+        }
+        int from = Math.min(Math.max(0, query.getOffset()), matches.size());
+        int to = (int) Math.min((long) from + query.getPageSize() + 1, matches.size());
+        return new ArrayList<>(matches.subList(from, to));
+    }
+
+    /**
+     * 获取所有专业，按专业名称排序。
+     *
+     * @return 新建的 Major 对象列表；缓存尚未就绪时返回 null。
+     */
+    public List<Major> listMajors() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        List<Major> majors = new ArrayList<>(current.majors.size());
+        for (MajorNode node : current.majors.values()) {
+            Major major = new Major();
+            major.setMajorId(node.majorId);
+            major.setMajorName(node.majorName);
+            major.setCollegeId(node.collegeId);
+            majors.add(major);
+        }
+        return majors;
+    }
+
+    /**
+     * 按名称 (忽略首尾空白和大小写) 查找专业ID。不同学院可以有同名专业，因此可能返回多个ID。
+     *
+     * @param majorName 专业名称。
+     * @return 专业ID列表 (不可修改)；不存在时返回空列表，缓存尚未就绪时返回 null。
+     */
+    public List<Integer> findMajorIdsByName(String majorName) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        List<Integer> ids = majorName != null ? current.majorIdsByName.get(normalize(majorName)) : null;
+        return ids != null ? ids : Collections.emptyList();
+    }
+
+    /**
+     * 按名称 (忽略首尾空白和大小写) 查找学院ID。
+     *
+     * @param collegeName 学院名称。
+     * @return 学院ID；不存在或缓存尚未就绪时返回 null。
+     */
+    public Integer findCollegeIdByName(String collegeName) {
+        Snapshot current = snapshot;
+        return current != null && collegeName != null ? current.collegeIdsByName.get(normalize(collegeName)) : null;
+    }
+
+    /**
+     * 获取学院名称。
+     *
+     * @param collegeId 学院ID。
+     * @return 学院名称；不存在或缓存尚未就绪时返回 null。
+     */
+    public String getCollegeName(Integer collegeId) {
+        Snapshot current = snapshot;
+        CollegeNode node = current != null && collegeId != null ? current.colleges.get(collegeId) : null;
+        return node != null ? node.collegeName : null;
+    }
+
+    private static boolean contains(String value, String term) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(term);
+    }
+
+    private static ClassInfo toClassInfo(ClassNode node) {
+        ClassInfo classInfo = new ClassInfo();
+        classInfo.setClassId(node.classId);
+        classInfo.setClassName(node.className);
+        classInfo.setMajorId(node.majorId);
+        if (node.major != null) {
+            classInfo.setMajorName(node.major.majorName);
+            classInfo.setCollegeId(node.major.collegeId);
+            if (node.major.college != null) {
+                classInfo.setCollegeName(node.major.college.collegeName);
+            }
+        }
+        return classInfo;
+    }
+}
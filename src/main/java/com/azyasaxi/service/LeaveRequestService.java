@@ -1,13 +1,27 @@
 package com.azyasaxi.service;
 
 import com.azyasaxi.dao.LeaveRequestDao; // 导入 LeaveRequestDao
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
+import com.azyasaxi.model.ListQuery;
+import com.azyasaxi.model.PageResult;     // 分页结果
 import com.azyasaxi.model.LeaveRequest;   // 导入 LeaveRequest 模型
+import com.azyasaxi.model.LeaveTransitionResult; // 审批、修改、删除请假申请的结果
+import com.azyasaxi.utils.TableVersions;  // 数据表版本号
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections; // 用于返回空列表
 import java.util.Date;        // 用于处理日期
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * LeaveRequestService 类 (服务层)
@@ -16,18 +30,29 @@ import java.util.List;
  */
 @Service // 将此类标记为 Spring 管理的 Service 组件
 public class LeaveRequestService {
+    private static final Logger logger = LogManager.getLogger(LeaveRequestService.class);
 
     private final LeaveRequestDao leaveRequestDao; // LeaveRequestDao 实例，通过构造函数注入
+    private final TableVersions tableVersions;     // 写入成功后递增 LeaveRequest 表的版本号
+    private final TransactionTemplate transactionTemplate; // 批量审批的锁定读取和更新在同一事务中
+    private final int maxBulkSize;                 // 一次批量审批最多处理的申请数
 
     /**
-     * 构造函数，通过 Spring 依赖注入 LeaveRequestDao。
+     * 构造函数，通过 Spring 依赖注入 LeaveRequestDao、TableVersions 和 TransactionTemplate。
      *
      * @param leaveRequestDaoArg 由 Spring 容器提供的 LeaveRequestDao 实例。
      *                           参数名使用 leaveRequestDaoArg 以避免与成员变量混淆。
+     * @param tableVersionsArg   数据表版本号，写入成功后递增。
+     * @param transactionTemplateArg 用于批量审批的事务模板。
+     * @param env                用于读取 leave.bulk.max-size 配置。
      */
     @Autowired // 自动注入 LeaveRequestDao bean
-    public LeaveRequestService(LeaveRequestDao leaveRequestDaoArg) {
+    public LeaveRequestService(LeaveRequestDao leaveRequestDaoArg, TableVersions tableVersionsArg,
+                               TransactionTemplate transactionTemplateArg, Environment env) {
         this.leaveRequestDao = leaveRequestDaoArg;
+        this.tableVersions = tableVersionsArg;
+        this.transactionTemplate = transactionTemplateArg;
+        this.maxBulkSize = Math.max(1, env.getProperty("leave.bulk.max-size", Integer.class, 1000));
     }
 
     /**
@@ -42,12 +67,21 @@ public class LeaveRequestService {
         try {
             return leaveRequestDao.searchLeaveRequests(studentNameSearchTerm, statusSearchTerm);
         } catch (Exception e) {
-            System.err.println("LeaveRequestService: 获取请假列表时发生错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("获取请假列表时发生错误", e);
             return Collections.emptyList(); // 出错时返回空列表
         }
     }
 
+    /**
+     * 分页获取请假申请列表，供仪表盘按需加载。
+     *
+     * @param query 检索词 (学生姓名)、状态筛选、排序和分页条件。
+     * @return 当前页的请假申请及是否还有下一页。
+     */
+    public PageResult<LeaveRequest> listLeaveRequestsPage(ListQuery query) {
+        return PageResult.fromLookahead(leaveRequestDao.searchLeaveRequests(query), query.getOffset(), query.getPageSize());
+    }
+
     /**
      * 根据学生ID获取该学生的所有请假申请。
      *
@@ -56,14 +90,13 @@ public class LeaveRequestService {
      */
     public List<LeaveRequest> getLeaveRequestsByStudentId(int studentId) { // 方法名已修改
         if (studentId <= 0) {
-            System.err.println("LeaveRequestService: 无效的学生ID: " + studentId);
+            logger.warn("无效的学生ID", "studentId", studentId);
             return Collections.emptyList();
         }
         try {
             return leaveRequestDao.getLeaveRequestsByStudentId(studentId);
         } catch (Exception e) {
-            System.err.println("LeaveRequestService: 根据学生ID获取请假列表时发生错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("根据学生ID获取请假列表时发生错误", e);
             return Collections.emptyList();
         }
     }
@@ -80,19 +113,19 @@ public class LeaveRequestService {
     public int submitLeaveRequest(Integer studentId, String reason, Date startDate, Date endDate) {
         // 基本的业务验证
         if (studentId == null || studentId <= 0) {
-            System.err.println("LeaveRequestService: 提交请假失败，无效的学生ID。");
+            logger.warn("提交请假失败，无效的学生ID");
             return -1; // 或抛出业务异常
         }
         if (reason == null || reason.trim().isEmpty()) {
-            System.err.println("LeaveRequestService: 提交请假失败，请假原因不能为空。");
+            logger.warn("提交请假失败，请假原因不能为空");
             return -1;
         }
         if (startDate == null || endDate == null) {
-            System.err.println("LeaveRequestService: 提交请假失败，开始或结束日期不能为空。");
+            logger.warn("提交请假失败，开始或结束日期不能为空");
             return -1;
         }
         if (endDate.before(startDate)) { // 结束日期不能早于开始日期
-            System.err.println("LeaveRequestService: 提交请假失败，结束日期不能早于开始日期。");
+            logger.warn("提交请假失败，结束日期不能早于开始日期");
             return -1;
         }
         // 可以添加更多业务规则，例如请假时长限制等
@@ -106,10 +139,13 @@ public class LeaveRequestService {
         // requestDate 由数据库自动生成 (DEFAULT CURRENT_TIMESTAMP)
 
         try {
-            return leaveRequestDao.addLeaveRequest(newLeaveRequest);
+            int leaveId = leaveRequestDao.addLeaveRequest(newLeaveRequest);
+            if (leaveId > 0) {
+                tableVersions.bump(TableVersions.Table.LEAVE_REQUEST);
+            }
+            return leaveId;
         } catch (Exception e) {
-            System.err.println("LeaveRequestService: 提交请假申请时发生数据库错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("提交请假申请时发生数据库错误", e);
             return -1;
         }
     }
@@ -122,158 +158,265 @@ public class LeaveRequestService {
      */
     public LeaveRequest findLeaveRequestById(int leaveId) {
         if (leaveId <= 0) {
-            System.err.println("LeaveRequestService: 无效的请假ID: " + leaveId);
+            logger.warn("无效的请假ID", "leaveId", leaveId);
             return null;
         }
         try {
             return leaveRequestDao.getLeaveRequestById(leaveId);
         } catch (Exception e) {
-            System.err.println("LeaveRequestService: 根据ID查找请假申请时发生错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("根据ID查找请假申请时发生错误", e);
             return null;
         }
     }
 
     /**
      * 管理员审批请假申请。
+     * 只执行一条带状态条件的 UPDATE (leave_id = ? AND status = '待审批')，两位管理员同时审批时只有一人成功；
+     * 只有未生效时才读取该申请的状态以说明原因。
      *
      * @param leaveId 要审批的请假记录的ID。
      * @param newStatus 新的审批状态 ("已批准" 或 "已驳回")。
      * @param adminId 执行审批的管理员ID。
-     * @return 如果操作成功，返回 true；否则返回 false。
+     * @return SUCCESS 表示审批成功；否则为 NOT_FOUND、NOT_PENDING、INVALID 或 ERROR。
      */
-    public boolean approveOrRejectLeaveRequest(int leaveId, String newStatus, Integer adminId) {
+    public LeaveTransitionResult approveOrRejectLeaveRequest(int leaveId, String newStatus, Integer adminId) {
         if (leaveId <= 0) {
-            System.err.println("LeaveRequestService: 审批失败，无效的请假ID。");
-            return false;
+            logger.warn("审批失败，无效的请假ID");
+            return LeaveTransitionResult.INVALID;
         }
         if (adminId == null || adminId <= 0) {
-            System.err.println("LeaveRequestService: 审批失败，无效的管理员ID。");
-            return false;
+            logger.warn("审批失败，无效的管理员ID");
+            return LeaveTransitionResult.INVALID;
         }
         if (!"已批准".equals(newStatus) && !"已驳回".equals(newStatus)) { // 验证审批状态的有效性
-            System.err.println("LeaveRequestService: 审批失败，无效的审批状态: " + newStatus);
-            return false;
-        }
-
-        // （可选）可以先获取请假记录，检查当前状态是否允许审批等业务逻辑
-        LeaveRequest existingRequest = leaveRequestDao.getLeaveRequestById(leaveId);
-        if (existingRequest == null) {
-            System.err.println("LeaveRequestService: 审批失败，未找到ID为 " + leaveId + " 的请假申请。");
-            return false;
-        }
-        if (!"待审批".equals(existingRequest.getStatus())) {
-            System.err.println("LeaveRequestService: 审批失败，该请假申请 (ID: " + leaveId + ") 当前状态为 '" + existingRequest.getStatus() + "'，不能重复审批。");
-            return false;
+            logger.warn("审批失败，无效的审批状态", "newStatus", newStatus);
+            return LeaveTransitionResult.INVALID;
         }
 
-        try {
-            int rowsAffected = leaveRequestDao.updateLeaveRequestStatus(leaveId, newStatus, adminId);
-            return rowsAffected > 0; // 如果影响行数大于0，则表示更新成功
-        } catch (Exception e) {
-            System.err.println("LeaveRequestService: 审批请假申请时发生数据库错误: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+        LeaveTransitionResult result = transitionResult(
+                leaveRequestDao.updateLeaveRequestStatus(leaveId, newStatus, adminId), leaveId, null);
+        if (!result.isSuccess()) {
+            logger.warn("审批请假申请未生效", "leaveId", leaveId, "newStatus", newStatus, "reason", result);
         }
+        return result;
     }
 
     /**
      * 学生更新自己的请假申请。
-     * 只有在“待审批”状态下才能修改。
+     * 只有本人在“待审批”状态下才能修改；申请人和状态条件都在同一条 UPDATE 中检查，无需先查询。
      *
      * @param leaveId 要修改的请假ID。
      * @param studentId 进行修改操作的学生ID (用于验证权限)。
      * @param newReason 新的请假原因。
      * @param newStartDate 新的开始日期。
      * @param newEndDate 新的结束日期。
-     * @return 如果更新成功返回true，否则返回false。
+     * @return SUCCESS 表示修改成功；否则为 NOT_FOUND、NOT_OWNER、NOT_PENDING、INVALID 或 ERROR。
      */
-    public boolean updateLeaveRequestByStudent(int leaveId, int studentId, String newReason, Date newStartDate, Date newEndDate) {
+    public LeaveTransitionResult updateLeaveRequestByStudent(int leaveId, int studentId, String newReason,
+                                                             Date newStartDate, Date newEndDate) {
         if (leaveId <= 0 || studentId <= 0) {
-            System.err.println("LeaveRequestService: 更新请假失败，无效的请假ID或学生ID。");
-            return false;
+            logger.warn("更新请假失败，无效的请假ID或学生ID");
+            return LeaveTransitionResult.INVALID;
         }
         // 其他参数验证 (原因、日期等)
         if (newReason == null || newReason.trim().isEmpty() || newStartDate == null || newEndDate == null || newEndDate.before(newStartDate)) {
-            System.err.println("LeaveRequestService: 更新请假失败，参数无效。");
-            return false;
-        }
-
-        LeaveRequest existingRequest = leaveRequestDao.getLeaveRequestById(leaveId);
-        if (existingRequest == null) {
-            System.err.println("LeaveRequestService: 更新失败，未找到ID为 " + leaveId + " 的请假申请。");
-            return false;
-        }
-        if (existingRequest.getStudentId() != studentId) {
-            System.err.println("LeaveRequestService: 更新失败，学生ID不匹配，无权修改此请假申请。");
-            return false; // 权限验证
-        }
-        if (!"待审批".equals(existingRequest.getStatus())) {
-            System.err.println("LeaveRequestService: 更新失败，该请假申请 (ID: " + leaveId + ") 当前状态为 '" + existingRequest.getStatus() + "'，不能修改。");
-            return false;
+            logger.warn("更新请假失败，参数无效");
+            return LeaveTransitionResult.INVALID;
         }
 
         LeaveRequest updatedRequest = new LeaveRequest();
         updatedRequest.setLeaveId(leaveId);
+        updatedRequest.setStudentId(studentId); // 只匹配本人的申请
         updatedRequest.setReason(newReason.trim());
         updatedRequest.setStartDate(newStartDate);
         updatedRequest.setEndDate(newEndDate);
-        // studentId, status, requestDate, approvalDate, approvedByAdminId 不应由学生修改
+        // status, requestDate, approvalDate, approvedByAdminId 不应由学生修改
 
-        try {
-            int rowsAffected = leaveRequestDao.updateLeaveRequestByStudent(updatedRequest);
-            return rowsAffected > 0;
-        } catch (Exception e) {
-            System.err.println("LeaveRequestService: 学生更新请假申请时发生数据库错误: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+        LeaveTransitionResult result = transitionResult(
+                leaveRequestDao.updateLeaveRequestByStudent(updatedRequest), leaveId, studentId);
+        if (!result.isSuccess()) {
+            logger.warn("学生更新请假申请未生效", "leaveId", leaveId, "studentId", studentId, "reason", result);
         }
+        return result;
     }
 
 
     /**
      * 根据请假ID删除请假申请 (通常由学生在申请被审批前，或管理员进行操作)。
+     * 学生只能删除自己“待审批”的申请，这些条件写在 DELETE 语句中；管理员可以删除任何申请。
      *
      * @param leaveId 要删除的请假记录的ID。
      * @param requesterId 执行删除操作的用户ID (可以是学生ID或管理员ID，用于权限判断)。
      * @param requesterType 请求者类型 ("student" 或 "admin")。
-     * @return 如果删除成功，返回 true；否则返回 false。
+     * @return SUCCESS 表示删除成功；否则为 NOT_FOUND、NOT_OWNER、NOT_PENDING、INVALID 或 ERROR。
      */
-    public boolean deleteLeaveRequest(int leaveId, int requesterId, String requesterType) {
+    public LeaveTransitionResult deleteLeaveRequest(int leaveId, int requesterId, String requesterType) {
         if (leaveId <= 0) {
-            System.err.println("LeaveRequestService: 删除失败，无效的请假ID。");
-            return false;
+            logger.warn("删除失败，无效的请假ID");
+            return LeaveTransitionResult.INVALID;
         }
 
-        LeaveRequest existingRequest = leaveRequestDao.getLeaveRequestById(leaveId);
-        if (existingRequest == null) {
-            System.err.println("LeaveRequestService: 删除失败，未找到ID为 " + leaveId + " 的请假申请。");
-            return false;
+        LeaveTransitionResult result;
+        if ("student".equalsIgnoreCase(requesterType)) {
+            result = transitionResult(leaveRequestDao.deletePendingLeaveRequest(leaveId, requesterId), leaveId, requesterId);
+        } else if ("admin".equalsIgnoreCase(requesterType)) {
+            result = transitionResult(leaveRequestDao.deleteLeaveRequest(leaveId), leaveId, null);
+        } else {
+            logger.warn("删除失败，未知的请求者类型");
+            return LeaveTransitionResult.INVALID;
         }
+        if (!result.isSuccess()) {
+            logger.warn("删除请假申请未生效", "leaveId", leaveId, "requesterType", requesterType, "reason", result);
+        }
+        return result;
+    }
 
-        // 权限控制：学生只能删除自己“待审批”的申请，管理员可以删除任何申请
-        if ("student".equalsIgnoreCase(requesterType)) {
-            if (existingRequest.getStudentId() != requesterId) {
-                System.err.println("LeaveRequestService: 学生删除失败，无权删除不属于自己的请假申请。");
-                return false;
-            }
-            if (!"待审批".equals(existingRequest.getStatus())) {
-                System.err.println("LeaveRequestService: 学生删除失败，只能删除状态为“待审批”的请假申请。");
-                return false;
-            }
-        } else if (!"admin".equalsIgnoreCase(requesterType)) {
-            System.err.println("LeaveRequestService: 删除失败，未知的请求者类型。");
-            return false;
+    /**
+     * 批量审批给定ID的请假申请。在一个事务中先锁定这些申请 (SELECT ... FOR UPDATE)，
+     * 再用一条带状态条件的 UPDATE 审批其中所有待审批的申请。
+     *
+     * @param leaveIds 要审批的请假记录的ID (重复的ID只处理一次)。
+     * @param newStatus 新的审批状态 ("已批准" 或 "已驳回")。
+     * @param adminId 执行审批的管理员ID。
+     * @return 请假ID -> 结果 (SUCCESS、NOT_FOUND 或 NOT_PENDING)，按传入顺序排列；
+     *         参数无效 (包括超过一次批量审批的上限) 或数据库错误时返回 null。
+     */
+    public Map<Integer, LeaveTransitionResult> approveOrRejectLeaveRequests(Collection<Integer> leaveIds,
+                                                                             String newStatus, Integer adminId) {
+        Set<Integer> ids = new LinkedHashSet<>(leaveIds);
+        ids.removeIf(id -> id == null || id <= 0);
+        if (ids.isEmpty() || ids.size() > maxBulkSize || !validDecision(newStatus, adminId)) {
+            logger.warn("批量审批失败，参数无效", "count", ids.size(), "newStatus", newStatus);
+            return null;
         }
-        // 如果是管理员，则不加额外限制 (或者可以根据业务添加其他限制)
+        Map<Integer, LeaveTransitionResult> result;
+        try {
+            result = transactionTemplate.execute(status -> {
+                Map<Integer, String> current = leaveRequestDao.lockLeaveStatuses(ids);
+                List<Integer> pending = new ArrayList<>();
+                Map<Integer, LeaveTransitionResult> outcomes = new LinkedHashMap<>();
+                for (Integer id : ids) {
+                    String leaveStatus = current.get(id);
+                    if (leaveStatus == null) {
+                        outcomes.put(id, LeaveTransitionResult.NOT_FOUND);
+                    } else if (!"待审批".equals(leaveStatus)) {
+                        outcomes.put(id, LeaveTransitionResult.NOT_PENDING);
+                    } else {
+                        outcomes.put(id, LeaveTransitionResult.SUCCESS);
+                        pending.add(id);
+                    }
+                }
+                leaveRequestDao.updatePendingLeaveStatuses(pending, newStatus, adminId); // 行已锁定，全部生效
+                return outcomes;
+            });
+        } catch (Exception e) {
+            logger.error("批量审批请假申请时发生数据库错误", e, "count", ids.size());
+            return null;
+        }
+        if (result != null && result.containsValue(LeaveTransitionResult.SUCCESS)) {
+            tableVersions.bump(TableVersions.Table.LEAVE_REQUEST);
+        }
+        return result;
+    }
 
+    /**
+     * 批量审批符合筛选条件的待审批请假申请 (按申请时间先后，最多处理 leave.bulk.max-size 条)。
+     * 在一个事务中先锁定符合条件的申请，再用一条带状态条件的 UPDATE 审批。
+     *
+     * @param classId 只处理该班级学生的申请；为 null 时不限班级。
+     * @param requestedFrom 申请时间下限 (含)；为 null 时不限。
+     * @param requestedBefore 申请时间上限 (不含)；为 null 时不限。
+     * @param newStatus 新的审批状态 ("已批准" 或 "已驳回")。
+     * @param adminId 执行审批的管理员ID。
+     * @return 已审批的请假ID -> SUCCESS，按申请时间排列；参数无效或数据库错误时返回 null。
+     */
+    public Map<Integer, LeaveTransitionResult> approveOrRejectPendingLeaveRequests(Integer classId, Date requestedFrom,
+                                                                                    Date requestedBefore, String newStatus,
+                                                                                    Integer adminId) {
+        if (!validDecision(newStatus, adminId)) {
+            return null;
+        }
+        Map<Integer, LeaveTransitionResult> result;
         try {
-            int rowsAffected = leaveRequestDao.deleteLeaveRequest(leaveId);
-            return rowsAffected > 0; // 如果影响行数大于0，则表示删除成功
+            result = transactionTemplate.execute(status -> {
+                List<Integer> pending = leaveRequestDao.lockPendingLeaveIds(classId, requestedFrom, requestedBefore, maxBulkSize);
+                leaveRequestDao.updatePendingLeaveStatuses(pending, newStatus, adminId);
+                Map<Integer, LeaveTransitionResult> outcomes = new LinkedHashMap<>();
+                for (Integer id : pending) {
+                    outcomes.put(id, LeaveTransitionResult.SUCCESS);
+                }
+                return outcomes;
+            });
         } catch (Exception e) {
-            System.err.println("LeaveRequestService: 删除请假申请时发生数据库错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("按条件批量审批请假申请时发生数据库错误", e, "classId", classId);
+            return null;
+        }
+        if (result != null && !result.isEmpty()) {
+            tableVersions.bump(TableVersions.Table.LEAVE_REQUEST);
+        }
+        return result;
+    }
+
+    /**
+     * 统计符合筛选条件的待审批请假申请数量 (批量审批前的预览)。
+     *
+     * @param classId 只统计该班级学生的申请；为 null 时不限班级。
+     * @param requestedFrom 申请时间下限 (含)；为 null 时不限。
+     * @param requestedBefore 申请时间上限 (不含)；为 null 时不限。
+     * @return 待审批申请的数量；数据库错误时返回 -1。
+     */
+    public int countPendingLeaveRequests(Integer classId, Date requestedFrom, Date requestedBefore) {
+        return leaveRequestDao.countPendingLeaveRequests(classId, requestedFrom, requestedBefore);
+    }
+
+    /**
+     * @return 一次批量审批最多处理的申请数。
+     */
+    public int getMaxBulkSize() {
+        return maxBulkSize;
+    }
+
+    private static boolean validDecision(String newStatus, Integer adminId) {
+        if (adminId == null || adminId <= 0) {
+            logger.warn("审批失败，无效的管理员ID");
             return false;
         }
+        if (!"已批准".equals(newStatus) && !"已驳回".equals(newStatus)) {
+            logger.warn("审批失败，无效的审批状态", "newStatus", newStatus);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 根据带条件的 UPDATE/DELETE 的影响行数得出结果。影响行数为 0 时才读取该申请的学生ID和状态，
+     * 区分申请不存在、不属于该学生和已审批三种情况。
+     *
+     * @param rowsAffected DAO 返回的影响行数 (-1 表示数据库错误)。
+     * @param leaveId 请假记录的ID。
+     * @param studentId 学生操作时为学生ID，管理员操作时为 null。
+     */
+    private LeaveTransitionResult transitionResult(int rowsAffected, int leaveId, Integer studentId) {
+        if (rowsAffected > 0) {
+            tableVersions.bump(TableVersions.Table.LEAVE_REQUEST);
+            return LeaveTransitionResult.SUCCESS;
+        }
+        if (rowsAffected < 0) {
+            return LeaveTransitionResult.ERROR;
+        }
+        LeaveRequest current;
+        try {
+            current = leaveRequestDao.getLeaveRequestState(leaveId);
+        } catch (Exception e) {
+            logger.error("读取请假申请状态失败", e, "leaveId", leaveId);
+            return LeaveTransitionResult.ERROR;
+        }
+        if (current == null) {
+            return LeaveTransitionResult.NOT_FOUND;
+        }
+        if (studentId != null && !studentId.equals(current.getStudentId())) {
+            return LeaveTransitionResult.NOT_OWNER;
+        }
+        return LeaveTransitionResult.NOT_PENDING;
     }
 }
\ No newline at end of file
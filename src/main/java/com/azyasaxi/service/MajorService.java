@@ -15,19 +15,22 @@ import java.util.List;
 public class MajorService {
 
     private final MajorDao majorDao;
+    private final HierarchyCache hierarchyCache; // 院系层级的内存缓存
 
     @Autowired
-    public MajorService(MajorDao majorDao) {
+    public MajorService(MajorDao majorDao, HierarchyCache hierarchyCache) {
         this.majorDao = majorDao;
+        this.hierarchyCache = hierarchyCache;
     }
 
     /**
-     * 获取所有专业的列表。
+     * 获取所有专业的列表 (按专业名称排序)。优先从内存缓存读取，缓存尚未就绪时查询数据库。
      *
      * @return 包含所有 Major 对象的列表。
      */
     public List<Major> listAllMajors() {
-        return majorDao.getAllMajors();
+        List<Major> majors = hierarchyCache.listMajors();
+        return majors != null ? majors : majorDao.getAllMajors();
     }
 
 }
\ No newline at end of file
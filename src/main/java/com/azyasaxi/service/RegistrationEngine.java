@@ -0,0 +1,512 @@
+package com.azyasaxi.service;
+
+import com.azyasaxi.dao.CourseDao;
+import com.azyasaxi.dao.EnrollmentDao;
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
+import com.azyasaxi.model.RegistrationResult;
+import com.azyasaxi.utils.TableVersions;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RegistrationEngine 类
+ * 选课引擎：按课程人数上限 (Course.capacity，NULL 表示不限) 控制选课，满员后进入先到先得的候补队列。
+ * 每门课程在内存中保存已占名额的原子计数，学生选课时用 CAS 抢占名额，不加锁，抢到后才写入选课记录
+ * (经 EnrollmentWriteBatcher 与同一时刻的其他选课合并为一条多行 INSERT)；
+ * 写入失败或已选过时归还名额。满员时把学生写入 CourseWaitlist 表，再在该课程的锁内加入内存队列。
+ * 有学生退课时，空出的名额为候补学生保留，不会被新来的请求抢走，由同一时刻唯一的递补线程按队列顺序
+ * 把候补学生转为正式选课 (删除候补记录并插入选课记录在同一事务中)；递补失败时名额继续为队首学生保留，
+ * 在下一次退课、调整人数上限或定期校正时重试。所有数据库操作都在课程的锁之外进行。
+ * 启动时从数据库加载各课程的名额和候补队列；之后定期与数据库中的实际选课人数比对，
+ * 只在该课程没有进行中的选课/退课时校正计数 (例如学生被删除后级联删除的选课记录)。
+ * 只适用于单个应用实例：多实例部署时各实例的计数互不可见。
+ */
+@Component
+public class RegistrationEngine implements InitializingBean {
+    private static final Logger logger = LogManager.getLogger(RegistrationEngine.class);
+
+    private final EnrollmentDao enrollmentDao;
+    private final CourseDao courseDao;
+    private final TransactionTemplate transactionTemplate;
+    private final TableVersions tableVersions;
+    private final EnrollmentWriteBatcher enrollmentWriteBatcher; // 选课记录合并为多行 INSERT 写入
+
+    private final Map<Integer, CourseSeats> courses = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RegistrationEngine(EnrollmentDao enrollmentDao, CourseDao courseDao,
+                              TransactionTemplate transactionTemplate, TableVersions tableVersions,
+                              EnrollmentWriteBatcher enrollmentWriteBatcher) {
+        this.enrollmentDao = enrollmentDao;
+        this.courseDao = courseDao;
+        this.transactionTemplate = transactionTemplate;
+        this.tableVersions = tableVersions;
+        this.enrollmentWriteBatcher = enrollmentWriteBatcher;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Map<Integer, CourseSeats> loaded = new HashMap<>();
+        boolean ok = enrollmentDao.getCourseSeats(null, rs -> {
+            CourseSeats seats = CourseSeats.fromRow(rs);
+            loaded.put(seats.courseId, seats);
+        }) && enrollmentDao.streamWaitlist(null, rs -> {
+            CourseSeats seats = loaded.get(rs.getInt("course_id"));
+            if (seats != null) {
+                seats.waitlist.addLast(rs.getInt("student_id"));
+            }
+        });
+        if (!ok) {
+            logger.warn("选课名额加载失败，将在各课程首次选课时加载");
+            return;
+        }
+        courses.putAll(loaded);
+        logger.info("选课名额加载完成", "courses", loaded.size());
+    }
+
+    /**
+     * 一门课程的名额计数与候补队列。
+     * taken 为已占名额 (已提交的选课 + 正在写入的选课 + 为候补学生保留的名额)，抢占名额不加锁；
+     * 候补队列、reserved 和 promoting 只在持有该对象的锁时访问。
+     * inFlight 和 epoch 记录进行中的选课/退课，定期校正时据此判断计数是否可能与数据库不一致。
+     */
+    private static final class CourseSeats {
+        final int courseId;
+        volatile Integer capacity;                          // 人数上限，null 表示不限
+        final AtomicInteger taken;
+        final AtomicInteger inFlight = new AtomicInteger(); // 进行中的操作数
+        final AtomicLong epoch = new AtomicLong();          // 开始过的操作数
+        final ArrayDeque<Integer> waitlist = new ArrayDeque<>(); // 候补学生ID，队首最早
+        int reserved;                                       // 为候补队列前 reserved 名学生保留的名额 (已计入 taken)
+        boolean promoting;                                  // 是否有线程正在递补候补学生
+
+        CourseSeats(int courseId, Integer capacity, int taken) {
+            this.courseId = courseId;
+            this.capacity = capacity;
+            this.taken = new AtomicInteger(taken);
+        }
+
+        static CourseSeats fromRow(ResultSet rs) throws SQLException {
+            int capacity = rs.getInt("capacity");
+            Integer capacityValue = rs.wasNull() ? null : capacity;
+            return new CourseSeats(rs.getInt("course_id"), capacityValue, rs.getInt("enrolled"));
+        }
+
+        // 抢占一个名额；已满时返回 false
+        boolean tryClaim() {
+            while (true) {
+                Integer limit = capacity;
+                int current = taken.get();
+                if (limit != null && current >= limit) {
+                    return false;
+                }
+                if (taken.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void begin() {
+            inFlight.incrementAndGet();
+            epoch.incrementAndGet();
+        }
+
+        void end() {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    // 候补学生转为正式选课的结果
+    private enum Promotion {
+        PROMOTED, // 已选上
+        SKIPPED,  // 不再需要 (已选过、学生或课程已删除)，候补记录已移除
+        FAILED    // 数据库错误，候补者仍留在队首，名额继续为其保留
+    }
+
+    // 取得课程的名额数据，首次访问时从数据库加载；课程不存在时返回 null
+    private CourseSeats seatsFor(int courseId) {
+        CourseSeats seats = courses.get(courseId);
+        if (seats != null) {
+            return seats;
+        }
+        CourseSeats[] loaded = new CourseSeats[1];
+        boolean ok = enrollmentDao.getCourseSeats(courseId, rs -> loaded[0] = CourseSeats.fromRow(rs));
+        if (!ok) {
+            throw new IllegalStateException("读取课程名额失败");
+        }
+        if (loaded[0] == null) {
+            return null;
+        }
+        if (!enrollmentDao.streamWaitlist(courseId, rs -> loaded[0].waitlist.addLast(rs.getInt("student_id")))) {
+            throw new IllegalStateException("读取候补队列失败");
+        }
+        CourseSeats existing = courses.putIfAbsent(courseId, loaded[0]);
+        return existing != null ? existing : loaded[0];
+    }
+
+    /**
+     * 学生选课：有名额时直接选上，满员时加入候补队列。
+     *
+     * @param studentId 学生ID。
+     * @param courseId  课程ID。
+     * @return ENROLLED、WAITLISTED、ALREADY_ENROLLED、ALREADY_WAITLISTED、COURSE_NOT_FOUND 或 ERROR。
+     */
+    public RegistrationResult enroll(int studentId, int courseId) {
+        CourseSeats seats;
+        try {
+            seats = seatsFor(courseId);
+        } catch (IllegalStateException e) {
+            return RegistrationResult.ERROR;
+        }
+        if (seats == null) {
+            return RegistrationResult.COURSE_NOT_FOUND;
+        }
+        seats.begin();
+        try {
+            if (!seats.tryClaim()) {
+                return joinWaitlist(seats, studentId);
+            }
+            EnrollmentWriteBatcher.Outcome outcome;
+            try {
+                outcome = enrollmentWriteBatcher.insert(studentId, courseId);
+            } catch (EnrollmentWriteBatcher.WriteTimeoutException e) {
+                // 选课可能已经写入：保留名额，由定期校正按数据库中的实际人数核对
+                logger.error("选课写入结果未知，暂不归还名额", e, "studentId", studentId, "courseId", courseId);
+                return RegistrationResult.ERROR;
+            } catch (Exception e) {
+                logger.error("写入选课记录失败，归还名额", e, "studentId", studentId, "courseId", courseId);
+                releaseSeat(seats);
+                return RegistrationResult.ERROR;
+            }
+            if (outcome != EnrollmentWriteBatcher.Outcome.INSERTED) {
+                releaseSeat(seats);
+                // REJECTED: 写入前课程 (或学生) 已被删除
+                return outcome == EnrollmentWriteBatcher.Outcome.DUPLICATE
+                        ? RegistrationResult.ALREADY_ENROLLED : RegistrationResult.COURSE_NOT_FOUND;
+            }
+            tableVersions.bump(TableVersions.Table.ENROLLMENT);
+            return RegistrationResult.ENROLLED;
+        } finally {
+            seats.end();
+        }
+    }
+
+    // 课程已满：把学生加入候补队列 (先写数据库，再加入内存队列)，随后检查入队期间是否有名额空出
+    private RegistrationResult joinWaitlist(CourseSeats seats, int studentId) {
+        synchronized (seats) {
+            if (seats.waitlist.contains(studentId)) {
+                return RegistrationResult.ALREADY_WAITLISTED;
+            }
+        }
+        try {
+            if (enrollmentDao.isEnrolled(studentId, seats.courseId)) {
+                return RegistrationResult.ALREADY_ENROLLED;
+            }
+            if (enrollmentDao.addToWaitlist(studentId, seats.courseId) == 0) {
+                return RegistrationResult.ALREADY_WAITLISTED; // 同一学生的并发请求已先入队
+            }
+        } catch (Exception e) {
+            logger.error("加入候补队列失败", e, "studentId", studentId, "courseId", seats.courseId);
+            return RegistrationResult.ERROR;
+        }
+        synchronized (seats) {
+            seats.waitlist.addLast(studentId);
+            logger.info("课程已满，学生加入候补队列", "studentId", studentId, "courseId", seats.courseId,
+                    "position", seats.waitlist.size());
+        }
+        promoteWaiting(seats);
+        synchronized (seats) {
+            return seats.waitlist.contains(studentId) ? RegistrationResult.WAITLISTED : RegistrationResult.ENROLLED;
+        }
+    }
+
+    /**
+     * 学生退课 (只能退尚未录入成绩的课程)，或退出候补队列。退课空出的名额自动交给队首的候补学生。
+     *
+     * @param studentId 学生ID。
+     * @param courseId  课程ID。
+     * @return DROPPED、LEFT_WAITLIST、NOT_ENROLLED、COURSE_NOT_FOUND 或 ERROR。
+     */
+    public RegistrationResult drop(int studentId, int courseId) {
+        CourseSeats seats;
+        try {
+            seats = seatsFor(courseId);
+        } catch (IllegalStateException e) {
+            return RegistrationResult.ERROR;
+        }
+        if (seats == null) {
+            return RegistrationResult.COURSE_NOT_FOUND;
+        }
+        seats.begin();
+        try {
+            boolean waitlisted;
+            synchronized (seats) {
+                waitlisted = seats.waitlist.contains(studentId);
+            }
+            if (waitlisted) {
+                int removed;
+                try {
+                    removed = enrollmentDao.removeFromWaitlist(studentId, courseId);
+                } catch (Exception e) {
+                    logger.error("退出候补队列失败", e, "studentId", studentId, "courseId", courseId);
+                    return RegistrationResult.ERROR;
+                }
+                synchronized (seats) {
+                    seats.waitlist.remove((Integer) studentId);
+                }
+                if (removed > 0) {
+                    return RegistrationResult.LEFT_WAITLIST;
+                }
+                // 候补记录已不存在：刚被递补为正式选课，按退课处理
+            }
+            int deleted;
+            try {
+                deleted = enrollmentDao.deleteUngradedEnrollment(studentId, courseId);
+            } catch (Exception e) {
+                logger.error("删除选课记录失败", e, "studentId", studentId, "courseId", courseId);
+                return RegistrationResult.ERROR;
+            }
+            if (deleted == 0) {
+                return RegistrationResult.NOT_ENROLLED;
+            }
+            releaseSeat(seats);
+            tableVersions.bump(TableVersions.Table.ENROLLMENT);
+            return RegistrationResult.DROPPED;
+        } finally {
+            seats.end();
+        }
+    }
+
+    // 归还一个名额：还有未分到保留名额的候补学生时，名额转为保留并递补，否则计数减一
+    private void releaseSeat(CourseSeats seats) {
+        synchronized (seats) {
+            if (seats.waitlist.size() <= seats.reserved) {
+                seats.taken.decrementAndGet();
+                return;
+            }
+            seats.reserved++;
+            if (seats.promoting) {
+                return; // 正在递补的线程会继续处理这个名额
+            }
+            seats.promoting = true;
+        }
+        runPromotions(seats);
+    }
+
+    // 有空余名额时为候补学生保留名额并递补 (入队后、人数上限调高后、定期校正后调用)；之前递补失败保留的名额在此重试
+    private void promoteWaiting(CourseSeats seats) {
+        synchronized (seats) {
+            while (seats.waitlist.size() > seats.reserved && seats.tryClaim()) {
+                seats.reserved++;
+            }
+            if (seats.reserved == 0 || seats.promoting) {
+                return;
+            }
+            seats.promoting = true;
+        }
+        runPromotions(seats);
+    }
+
+    // 递补循环：调用方已把 promoting 设为 true。每次只在锁内读取队首学生，数据库操作在锁外进行；
+    // 递补成功时消耗一个保留名额，不再需要时跳过该学生，失败时保留名额和队列顺序并退出
+    private void runPromotions(CourseSeats seats) {
+        while (true) {
+            int next;
+            synchronized (seats) {
+                if (seats.reserved == 0 || seats.waitlist.isEmpty()) {
+                    seats.taken.addAndGet(-seats.reserved); // 候补队列已空，多余的保留名额归还
+                    seats.reserved = 0;
+                    seats.promoting = false;
+                    return;
+                }
+                next = seats.waitlist.peekFirst();
+            }
+            Promotion promotion = promote(seats.courseId, next);
+            synchronized (seats) {
+                if (promotion == Promotion.FAILED) {
+                    seats.promoting = false;
+                    return;
+                }
+                seats.waitlist.remove((Integer) next);
+                if (promotion == Promotion.PROMOTED) {
+                    seats.reserved--;
+                }
+            }
+        }
+    }
+
+    // 在一个事务中删除候补记录并插入选课记录；调用方已为该学生保留名额。候补记录已不存在 (学生已退出候补) 时跳过
+    private Promotion promote(int courseId, int studentId) {
+        try {
+            Integer inserted = transactionTemplate.execute(status -> {
+                if (enrollmentDao.removeFromWaitlist(studentId, courseId) == 0) {
+                    return 0;
+                }
+                return enrollmentDao.insertEnrollment(studentId, courseId);
+            });
+            if (inserted == null || inserted == 0) {
+                return Promotion.SKIPPED;
+            }
+            tableVersions.bump(TableVersions.Table.ENROLLMENT);
+            logger.info("候补学生自动选上课程", "studentId", studentId, "courseId", courseId);
+            return Promotion.PROMOTED;
+        } catch (DataIntegrityViolationException e) {
+            // 学生或课程已被删除，候补记录已随之级联删除
+            logger.warn("候补学生已不存在，跳过", "studentId", studentId, "courseId", courseId);
+            return Promotion.SKIPPED;
+        } catch (Exception e) {
+            logger.error("候补学生转为选课失败", e, "studentId", studentId, "courseId", courseId);
+            return Promotion.FAILED;
+        }
+    }
+
+    /**
+     * 设置课程的人数上限，调高后立即按顺序选上候补学生。
+     * 调低到已选人数以下时不会移除已选的学生，只是在人数降到上限以下之前不再接受新的选课。
+     *
+     * @param courseId 课程ID。
+     * @param capacity 人数上限，null 表示不限。
+     * @return 课程存在且更新成功时返回 true。
+     */
+    public boolean setCapacity(int courseId, Integer capacity) {
+        if (courseDao.updateCourseCapacity(courseId, capacity) == 0) {
+            return false;
+        }
+        CourseSeats seats;
+        try {
+            seats = seatsFor(courseId);
+        } catch (IllegalStateException e) {
+            return true; // 数据库已更新，内存数据在首次选课或定期校正时加载
+        }
+        if (seats != null) {
+            seats.begin();
+            try {
+                seats.capacity = capacity;
+                promoteWaiting(seats);
+            } finally {
+                seats.end();
+            }
+        }
+        tableVersions.bump(TableVersions.Table.COURSE);
+        return true;
+    }
+
+    /**
+     * 获取课程的名额状态。
+     *
+     * @param courseId 课程ID。
+     * @return 人数上限 (null 表示不限)、已选人数和候补人数；课程不存在或读取失败时返回 null。
+     */
+    public Map<String, Object> getSeatStatus(int courseId) {
+        CourseSeats seats;
+        try {
+            seats = seatsFor(courseId);
+        } catch (IllegalStateException e) {
+            return null;
+        }
+        if (seats == null) {
+            return null;
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("courseId", courseId);
+        status.put("capacity", seats.capacity);
+        synchronized (seats) {
+            status.put("enrolled", seats.taken.get() - seats.reserved); // 保留给候补学生的名额尚未选上
+            status.put("waitlisted", seats.waitlist.size());
+        }
+        return status;
+    }
+
+    /**
+     * 课程被删除后移除其名额数据 (选课和候补记录已随课程级联删除)。
+     */
+    public void courseRemoved(int courseId) {
+        courses.remove(courseId);
+    }
+
+    /**
+     * 学生被删除后把其从所有候补队列中移除 (数据库中的候补记录已级联删除)。
+     * 已占的名额由定期校正归还。
+     */
+    public void studentRemoved(int studentId) {
+        for (CourseSeats seats : courses.values()) {
+            synchronized (seats) {
+                seats.waitlist.remove(studentId);
+            }
+        }
+    }
+
+    /**
+     * 定期把内存中的已选人数和人数上限校正为数据库中的值。
+     * 只有在读取前后该课程都没有进行中的操作、也没有新开始的操作时才校正，避免覆盖尚未提交的选课；
+     * 人数上限变大时顺带选上候补学生。
+     */
+    @Scheduled(initialDelayString = "${registration.reconcile-interval-ms:300000}",
+               fixedDelayString = "${registration.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        // 先记录各课程当前的操作序号和计数，再读取数据库
+        List<CourseSeats> idle = new ArrayList<>();
+        Map<Integer, long[]> before = new HashMap<>(); // courseId -> {epoch, taken, reserved}
+        for (CourseSeats seats : courses.values()) {
+            if (seats.inFlight.get() == 0) {
+                synchronized (seats) {
+                    before.put(seats.courseId, new long[]{seats.epoch.get(), seats.taken.get(), seats.reserved});
+                }
+                idle.add(seats);
+            }
+        }
+        Map<Integer, CourseSeats> actual = new HashMap<>();
+        if (!enrollmentDao.getCourseSeats(null, rs -> {
+            CourseSeats row = CourseSeats.fromRow(rs);
+            actual.put(row.courseId, row);
+        })) {
+            return;
+        }
+
+        int corrected = 0;
+        for (CourseSeats seats : idle) {
+            CourseSeats row = actual.get(seats.courseId);
+            if (row == null) {
+                courses.remove(seats.courseId, seats); // 课程已被删除
+                continue;
+            }
+            long[] snapshot = before.get(seats.courseId);
+            if (seats.inFlight.get() != 0 || seats.epoch.get() != snapshot[0]) {
+                continue; // 读取期间有选课或退课，下次再校正
+            }
+            int expected = row.taken.get() + (int) snapshot[2]; // 数据库中的选课人数 + 保留给候补学生的名额
+            if (expected != snapshot[1] && seats.taken.compareAndSet((int) snapshot[1], expected)) {
+                logger.warn("选课人数与数据库不一致，已校正", "courseId", seats.courseId,
+                        "memory", snapshot[1] - snapshot[2], "database", row.taken.get());
+                corrected++;
+            }
+            seats.capacity = row.capacity;
+            seats.begin();
+            try {
+                promoteWaiting(seats); // 人数上限被直接调高、计数被调低或之前的递补失败后，可能有名额可以交给候补学生
+            } finally {
+                seats.end();
+            }
+        }
+        if (corrected > 0) {
+            logger.info("选课人数校正完成", "corrected", corrected);
+        }
+    }
+}
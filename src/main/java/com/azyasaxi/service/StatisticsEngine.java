@@ -0,0 +1,621 @@
+package com.azyasaxi.service;
+
+import com.azyasaxi.dao.StudentDao;
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
+import com.azyasaxi.model.CreditHistogram;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper; // 用于把统计结果预先序列化为 JSON
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * StatisticsEngine 类
+ * 数据统计页的内存统计数据：每个学院的学生人数与平均已获学分，以及各学分区间的学生人数。
+ * 每个学生只保存班级ID、所属学院和总学分，学院合计与区间直方图随学生的增删改增量调整，
+ * 页面请求时不再执行多表 JOIN 聚合。
+ * 统计结果按版本号缓存为 JSON 字符串，数据未变化时直接返回同一份序列化结果。
+ * 学生增删改、班级删除、成绩或课程学分变化后由对应 Service 通知 (事务提交后才重新读取)，
+ * 并定期从数据库全量重建，与内存数据比对后替换，以纠正绕过应用修改数据库等造成的偏差。
+ * 另外提供按学院、专业或班级筛选、区间边界任意指定 (或等宽、等频划分) 的学分直方图，
+ * 一次遍历内存数据即可得出，不同区间划分不需要新的 SQL。
+ * 首次构建完成前 getSnapshot 返回 null，调用方应回退到 SQL 查询。
+ */
+@Component
+public class StatisticsEngine implements InitializingBean {
+    private static final Logger logger = LogManager.getLogger(StatisticsEngine.class);
+
+    private static final String UNASSIGNED_COLLEGE = "未分配学院";
+    // 统计页学分区间的下边界 (左闭右开)，没有学分记录的学生计入第一个区间
+    private static final double[] CREDIT_RANGE_BOUNDARIES = {0, 5, 10, 15};
+    private static final String[] CREDIT_RANGE_LABELS = labels(CREDIT_RANGE_BOUNDARIES); // "0-5 学分" ... "15+ 学分"
+    private static final int AVERAGE_SCALE = 4; // 平均学分保留的小数位数，与 MySQL AVG(DECIMAL) 一致
+    private static final int BOUNDARY_SCALE = 2; // 等宽、等频划分时区间边界保留的小数位数
+    public static final int MAX_HISTOGRAM_BUCKETS = 100; // 直方图允许的最大区间数
+
+    /**
+     * 直方图的统计范围。
+     */
+    public enum Scope {
+        ALL,     // 全体学生
+        COLLEGE, // 某个学院的学生
+        MAJOR,   // 某个专业的学生
+        CLASS;   // 某个班级的学生
+
+        /**
+         * 按名称解析统计范围 (不区分大小写)。
+         *
+         * @param value 名称，如 "college"
+         * @return 对应的范围；为空时返回 ALL，无法识别时返回 null
+         */
+        public static Scope parse(String value) {
+            if (value == null || value.trim().isEmpty()) {
+                return ALL;
+            }
+            for (Scope scope : values()) {
+                if (scope.name().equalsIgnoreCase(value.trim())) {
+                    return scope;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final StudentDao studentDao;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private StatsData data = new StatsData();     // 当前生效的统计数据 (读写均需持有锁)
+    private List<Consumer<StatsData>> pendingOps; // 全量重建期间发生的增量更新，重建完成后重放到新数据
+    private long version;                         // 统计数据每次变化后递增 (持有写锁时修改)
+    private volatile Snapshot snapshot;           // 最近一次序列化的结果
+    private volatile boolean ready = false;       // 首次构建是否完成
+
+    @Autowired
+    public StatisticsEngine(StudentDao studentDao) {
+        this.studentDao = studentDao;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        reconcile();
+    }
+
+    /**
+     * 预先序列化好的统计结果，字段与 dataStats.jsp 使用的请求属性一一对应。
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final String collegeNamesJson;
+        private final String studentCountsPerCollegeJson;
+        private final String avgCreditsPerCollegeJson;
+        private final String creditRangeLabelsJson;
+        private final String studentCountsPerRangeJson;
+
+        Snapshot(long version, String collegeNamesJson, String studentCountsPerCollegeJson,
+                 String avgCreditsPerCollegeJson, String creditRangeLabelsJson, String studentCountsPerRangeJson) {
+            this.version = version;
+            this.collegeNamesJson = collegeNamesJson;
+            this.studentCountsPerCollegeJson = studentCountsPerCollegeJson;
+            this.avgCreditsPerCollegeJson = avgCreditsPerCollegeJson;
+            this.creditRangeLabelsJson = creditRangeLabelsJson;
+            this.studentCountsPerRangeJson = studentCountsPerRangeJson;
+        }
+
+        public String getCollegeNamesJson() {
+            return collegeNamesJson;
+        }
+
+        public String getStudentCountsPerCollegeJson() {
+            return studentCountsPerCollegeJson;
+        }
+
+        public String getAvgCreditsPerCollegeJson() {
+            return avgCreditsPerCollegeJson;
+        }
+
+        public String getCreditRangeLabelsJson() {
+            return creditRangeLabelsJson;
+        }
+
+        public String getStudentCountsPerRangeJson() {
+            return studentCountsPerRangeJson;
+        }
+    }
+
+    /**
+     * 单个学生参与统计的字段。
+     */
+    private static final class StudentEntry {
+        final Integer classId;
+        final Integer majorId;
+        final Integer collegeId;
+        final String collegeName;
+        final BigDecimal credits; // 没有学分汇总记录时为 null (不计入平均值)
+
+        StudentEntry(Integer classId, Integer majorId, Integer collegeId, String collegeName, BigDecimal credits) {
+            this.classId = classId;
+            this.majorId = majorId;
+            this.collegeId = collegeId;
+            this.collegeName = collegeName != null ? collegeName : UNASSIGNED_COLLEGE;
+            this.credits = credits;
+        }
+
+        // 读取 StudentDao.streamStudentCreditStats 结果集的当前行
+        static StudentEntry fromRow(ResultSet rs) throws SQLException {
+            return new StudentEntry(rs.getObject("class_id", Integer.class), rs.getObject("major_id", Integer.class),
+                    rs.getObject("college_id", Integer.class), rs.getString("college_name"),
+                    rs.getBigDecimal("total_credits"));
+        }
+
+        boolean sameAs(StudentEntry other) {
+            return other != null && Objects.equals(classId, other.classId) && Objects.equals(majorId, other.majorId)
+                    && Objects.equals(collegeId, other.collegeId) && collegeName.equals(other.collegeName)
+                    && (credits == null ? other.credits == null : other.credits != null && credits.compareTo(other.credits) == 0);
+        }
+
+        boolean inScope(Scope scope, Integer scopeId) {
+            switch (scope) {
+                case COLLEGE:
+                    return scopeId.equals(collegeId);
+                case MAJOR:
+                    return scopeId.equals(majorId);
+                case CLASS:
+                    return scopeId.equals(classId);
+                default:
+                    return true;
+            }
+        }
+    }
+
+    /**
+     * 一个学院的合计：学生人数、有学分记录的人数和学分总和。
+     */
+    private static final class CollegeTotals {
+        int students;
+        int creditedStudents;
+        BigDecimal creditSum = BigDecimal.ZERO;
+
+        boolean sameAs(CollegeTotals other) {
+            return other != null && students == other.students && creditedStudents == other.creditedStudents
+                    && creditSum.compareTo(other.creditSum) == 0;
+        }
+    }
+
+    /**
+     * 一份完整的统计数据：学生表、按学院名排序的学院合计和学分区间直方图。
+     */
+    private static final class StatsData {
+        final Map<Integer, StudentEntry> students = new HashMap<>();
+        final TreeMap<String, CollegeTotals> colleges = new TreeMap<>();
+        final int[] rangeCounts = new int[CREDIT_RANGE_LABELS.length];
+
+        void put(int studentId, StudentEntry entry) {
+            remove(studentId);
+            students.put(studentId, entry);
+            count(entry, 1);
+        }
+
+        void remove(int studentId) {
+            StudentEntry entry = students.remove(studentId);
+            if (entry != null) {
+                count(entry, -1);
+            }
+        }
+
+        void clearClass(int classId) {
+            List<Integer> affected = new ArrayList<>();
+            for (Map.Entry<Integer, StudentEntry> entry : students.entrySet()) {
+                if (entry.getValue().classId != null && entry.getValue().classId == classId) {
+                    affected.add(entry.getKey());
+                }
+            }
+            for (int studentId : affected) {
+                // 班级删除后学生的 class_id 被置为 NULL，归入未分配学院
+                put(studentId, new StudentEntry(null, null, null, UNASSIGNED_COLLEGE, students.get(studentId).credits));
+            }
+        }
+
+        // 把一个学生计入 (delta = 1) 或移出 (delta = -1) 学院合计与区间直方图
+        private void count(StudentEntry entry, int delta) {
+            CollegeTotals totals = colleges.computeIfAbsent(entry.collegeName, k -> new CollegeTotals());
+            totals.students += delta;
+            if (entry.credits != null) {
+                totals.creditedStudents += delta;
+                totals.creditSum = delta > 0 ? totals.creditSum.add(entry.credits) : totals.creditSum.subtract(entry.credits);
+            }
+            if (totals.students == 0) {
+                colleges.remove(entry.collegeName);
+            }
+            rangeCounts[rangeOf(creditsOf(entry))] += delta;
+        }
+
+        // 每个学生的班级、专业、学院和学分都相同 (直方图可按班级、专业下钻，只比较学院合计不够)
+        boolean sameStudents(StatsData other) {
+            if (students.size() != other.students.size()) {
+                return false;
+            }
+            for (Map.Entry<Integer, StudentEntry> entry : students.entrySet()) {
+                if (!entry.getValue().sameAs(other.students.get(entry.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // 没有学分记录的学生按 0 学分计
+    private static double creditsOf(StudentEntry entry) {
+        return entry.credits != null ? entry.credits.doubleValue() : 0;
+    }
+
+    // 学分所在区间的下标；低于第一个边界时为 -1
+    private static int bucketOf(double[] boundaries, double credits) {
+        int pos = Arrays.binarySearch(boundaries, credits);
+        return pos >= 0 ? pos : -pos - 2;
+    }
+
+    // 统计页固定区间 (0/5/10/15) 的下标：学分不会为负，没有记录的学生按 0 学分，都落在第一个区间
+    private static int rangeOf(double credits) {
+        return Math.max(0, bucketOf(CREDIT_RANGE_BOUNDARIES, credits));
+    }
+
+    // 区间标签，如 "5-10 学分"，最后一个区间为 "15+ 学分"
+    private static String[] labels(double[] boundaries) {
+        String[] labels = new String[boundaries.length];
+        for (int i = 0; i < boundaries.length; i++) {
+            labels[i] = i + 1 < boundaries.length
+                    ? plain(boundaries[i]) + "-" + plain(boundaries[i + 1]) + " 学分"
+                    : plain(boundaries[i]) + "+ 学分";
+        }
+        return labels;
+    }
+
+    private static String plain(double boundary) {
+        return BigDecimal.valueOf(boundary).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * 从数据库流式读取全部学生并重建统计数据。
+     * 新数据在锁外构建，完成后在写锁内重放构建期间的增量更新；若与内存中的数据不一致则记录警告，然后替换，
+     * 并递增版本号，使统计页和直方图的 ETag 随之变化。数据一致时版本号不变，客户端缓存继续有效。
+     */
+    @Scheduled(initialDelayString = "${statistics.reconcile-interval-ms:600000}",
+               fixedDelayString = "${statistics.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        lock.writeLock().lock();
+        try {
+            if (pendingOps != null) {
+                return; // 已有重建在进行
+            }
+            pendingOps = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        StatsData fresh = new StatsData();
+        long start = System.currentTimeMillis();
+        long count = studentDao.streamStudentCreditStats(rs -> fresh.put(rs.getInt("student_id"), StudentEntry.fromRow(rs)));
+
+        lock.writeLock().lock();
+        try {
+            if (count >= 0) {
+                pendingOps.forEach(op -> op.accept(fresh));
+                boolean changed = !ready || !fresh.sameStudents(data);
+                if (ready && changed) {
+                    logger.warn("内存统计数据与数据库不一致，已按数据库校正", "students", count);
+                }
+                data = fresh;
+                if (changed) {
+                    version++;
+                }
+                ready = true;
+                logger.info("统计数据构建完成", "students", count, "colleges", fresh.colleges.size(),
+                        "elapsedMs", System.currentTimeMillis() - start);
+            } else {
+                logger.warn(ready ? "统计数据构建失败，继续使用旧数据" : "统计数据构建失败，统计页将回退到数据库查询");
+            }
+            pendingOps = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 在写锁内把增量更新应用到当前数据，重建期间同时记录下来以便重放
+    private void apply(Consumer<StatsData> op) {
+        lock.writeLock().lock();
+        try {
+            op.accept(data);
+            version++;
+            if (pendingOps != null) {
+                pendingOps.add(op);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 当前线程有活动事务时在提交后执行 (回滚则不执行)，否则立即执行
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 学生被新增、修改 (班级变化) 或学分发生变化后，重新读取这些学生的统计字段；已不存在的学生从统计中移除。
+     * 读取失败时保留旧数据，由定期重建纠正。
+     *
+     * @param studentIds 发生变化的学生ID。
+     */
+    public void studentsChanged(Collection<Integer> studentIds) {
+        if (studentIds == null || studentIds.isEmpty()) {
+            return;
+        }
+        List<Integer> ids = new ArrayList<>(studentIds);
+        afterCommit(() -> {
+            Map<Integer, StudentEntry> rows = new HashMap<>();
+            boolean loaded = studentDao.getStudentCreditStats(ids, rs -> rows.put(rs.getInt("student_id"), StudentEntry.fromRow(rs)));
+            if (!loaded) {
+                return;
+            }
+            apply(stats -> {
+                for (int studentId : ids) {
+                    StudentEntry row = rows.get(studentId);
+                    if (row != null) {
+                        stats.put(studentId, row);
+                    } else {
+                        stats.remove(studentId);
+                    }
+                }
+            });
+        });
+    }
+
+    /**
+     * 从统计中移除一个已删除的学生。
+     *
+     * @param studentId 学生ID。
+     */
+    public void studentRemoved(int studentId) {
+        afterCommit(() -> apply(stats -> stats.remove(studentId)));
+    }
+
+    /**
+     * 班级被删除后，把该班级的学生归入未分配学院。
+     *
+     * @param classId 被删除的班级ID。
+     */
+    public void classRemoved(int classId) {
+        afterCommit(() -> apply(stats -> stats.clearClass(classId)));
+    }
+
+    /**
+     * @return 统计数据是否已完成首次构建。
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return 统计数据的版本号，增量更新和定期校正改变数据时递增，用于生成 HTTP 缓存校验的 ETag。
+     */
+    public long getVersion() {
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 获取序列化好的统计结果。数据自上次序列化以来没有变化时直接返回缓存的结果。
+     *
+     * @return 统计结果；统计数据尚未就绪时返回 null。
+     * @throws JsonProcessingException 序列化失败时抛出。
+     */
+    public Snapshot getSnapshot() throws JsonProcessingException {
+        if (!ready) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            Snapshot current = snapshot;
+            if (current != null && current.version == version) {
+                return current;
+            }
+            List<String> collegeNames = new ArrayList<>(data.colleges.size());
+            List<Integer> studentCounts = new ArrayList<>(data.colleges.size());
+            List<BigDecimal> averageCredits = new ArrayList<>(data.colleges.size());
+            for (Map.Entry<String, CollegeTotals> entry : data.colleges.entrySet()) {
+                CollegeTotals totals = entry.getValue();
+                collegeNames.add(entry.getKey());
+                studentCounts.add(totals.students);
+                averageCredits.add(totals.creditedStudents > 0
+                        ? totals.creditSum.divide(BigDecimal.valueOf(totals.creditedStudents), AVERAGE_SCALE, RoundingMode.HALF_UP)
+                        : BigDecimal.ZERO);
+            }
+            current = new Snapshot(version,
+                    objectMapper.writeValueAsString(collegeNames),
+                    objectMapper.writeValueAsString(studentCounts),
+                    objectMapper.writeValueAsString(averageCredits),
+                    objectMapper.writeValueAsString(CREDIT_RANGE_LABELS),
+                    objectMapper.writeValueAsString(data.rangeCounts));
+            snapshot = current; // 多个读线程同时重建时结果相同，谁覆盖都可以
+            return current;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按指定的区间下边界计算学分直方图。
+     *
+     * @param scope      统计范围。
+     * @param scopeId    学院、专业或班级ID (范围为 ALL 时忽略)。
+     * @param boundaries 各区间的下边界，必须严格递增，个数为 1 到 MAX_HISTOGRAM_BUCKETS。
+     * @return 直方图；统计数据尚未就绪时返回 null。
+     * @throws IllegalArgumentException 边界不合法，或范围不是 ALL 却没有提供ID时抛出。
+     */
+    public CreditHistogram histogram(Scope scope, Integer scopeId, double[] boundaries) {
+        checkScope(scope, scopeId);
+        if (boundaries == null || boundaries.length == 0 || boundaries.length > MAX_HISTOGRAM_BUCKETS) {
+            throw new IllegalArgumentException("区间个数必须在 1 到 " + MAX_HISTOGRAM_BUCKETS + " 之间");
+        }
+        for (int i = 0; i < boundaries.length; i++) {
+            if (!Double.isFinite(boundaries[i]) || (i > 0 && boundaries[i] <= boundaries[i - 1])) {
+                throw new IllegalArgumentException("区间边界必须是严格递增的数字");
+            }
+        }
+        double[] credits = collectCredits(scope, scopeId);
+        return credits == null ? null : count(scope, scopeId, boundaries.clone(), credits);
+    }
+
+    /**
+     * 把统计范围内的最低到最高学分等分为若干区间，计算学分直方图。
+     *
+     * @param scope   统计范围。
+     * @param scopeId 学院、专业或班级ID (范围为 ALL 时忽略)。
+     * @param buckets 区间个数 (1 到 MAX_HISTOGRAM_BUCKETS)；学分全部相同时只有一个区间。
+     * @return 直方图；统计数据尚未就绪时返回 null。
+     * @throws IllegalArgumentException 区间个数不合法，或范围不是 ALL 却没有提供ID时抛出。
+     */
+    public CreditHistogram equalWidthHistogram(Scope scope, Integer scopeId, int buckets) {
+        checkScope(scope, scopeId);
+        checkBuckets(buckets);
+        double[] credits = collectCredits(scope, scopeId);
+        if (credits == null) {
+            return null;
+        }
+        double min = 0;
+        double max = 0;
+        for (int i = 0; i < credits.length; i++) {
+            min = i == 0 ? credits[i] : Math.min(min, credits[i]);
+            max = i == 0 ? credits[i] : Math.max(max, credits[i]);
+        }
+        double[] boundaries = new double[buckets];
+        double width = (max - min) / buckets;
+        for (int i = 0; i < buckets; i++) {
+            boundaries[i] = round(min + i * width);
+        }
+        return count(scope, scopeId, distinct(boundaries), credits);
+    }
+
+    /**
+     * 按学分排序后每个区间人数大致相同 (等频) 划分区间，计算学分直方图。
+     * 相同学分的学生总在同一区间，因此区间个数可能少于请求的个数。
+     *
+     * @param scope   统计范围。
+     * @param scopeId 学院、专业或班级ID (范围为 ALL 时忽略)。
+     * @param buckets 区间个数 (1 到 MAX_HISTOGRAM_BUCKETS)。
+     * @return 直方图；统计数据尚未就绪时返回 null。
+     * @throws IllegalArgumentException 区间个数不合法，或范围不是 ALL 却没有提供ID时抛出。
+     */
+    public CreditHistogram quantileHistogram(Scope scope, Integer scopeId, int buckets) {
+        checkScope(scope, scopeId);
+        checkBuckets(buckets);
+        double[] credits = collectCredits(scope, scopeId);
+        if (credits == null) {
+            return null;
+        }
+        double[] sorted = credits.clone();
+        Arrays.sort(sorted);
+        double[] boundaries = new double[buckets];
+        for (int i = 0; i < buckets; i++) {
+            boundaries[i] = sorted.length == 0 ? 0 : round(sorted[(int) ((long) i * sorted.length / buckets)]);
+        }
+        return count(scope, scopeId, distinct(boundaries), credits);
+    }
+
+    private static void checkScope(Scope scope, Integer scopeId) {
+        if (scope == null) {
+            throw new IllegalArgumentException("统计范围不能为空");
+        }
+        if (scope != Scope.ALL && scopeId == null) {
+            throw new IllegalArgumentException("按学院、专业或班级统计时必须提供ID");
+        }
+    }
+
+    private static void checkBuckets(int buckets) {
+        if (buckets < 1 || buckets > MAX_HISTOGRAM_BUCKETS) {
+            throw new IllegalArgumentException("区间个数必须在 1 到 " + MAX_HISTOGRAM_BUCKETS + " 之间");
+        }
+    }
+
+    // 在读锁内遍历一次内存数据，取出统计范围内所有学生的学分；统计数据尚未就绪时返回 null
+    private double[] collectCredits(Scope scope, Integer scopeId) {
+        if (!ready) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            double[] credits = new double[data.students.size()];
+            int size = 0;
+            for (StudentEntry entry : data.students.values()) {
+                if (entry.inScope(scope, scopeId)) {
+                    credits[size++] = creditsOf(entry);
+                }
+            }
+            return Arrays.copyOf(credits, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 低于第一个边界的学生单独计入最前面的 "<下限 学分" 区间，没有这样的学生时不输出该区间
+    private static CreditHistogram count(Scope scope, Integer scopeId, double[] boundaries, double[] credits) {
+        int[] counts = new int[boundaries.length + 1]; // counts[0] 为低于第一个边界的人数
+        for (double value : credits) {
+            counts[bucketOf(boundaries, value) + 1]++;
+        }
+        String[] labels = labels(boundaries);
+        boolean underflow = counts[0] > 0;
+        if (underflow) {
+            String[] withUnderflow = new String[labels.length + 1];
+            withUnderflow[0] = "<" + plain(boundaries[0]) + " 学分";
+            System.arraycopy(labels, 0, withUnderflow, 1, labels.length);
+            labels = withUnderflow;
+        } else {
+            counts = Arrays.copyOfRange(counts, 1, counts.length);
+        }
+        return new CreditHistogram(scope.name().toLowerCase(Locale.ROOT), scope == Scope.ALL ? null : scopeId,
+                boundaries, labels, counts, underflow, credits.length);
+    }
+
+    private static double round(double value) {
+        return BigDecimal.valueOf(value).setScale(BOUNDARY_SCALE, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    // 已升序排列的边界去掉重复值
+    private static double[] distinct(double[] sortedBoundaries) {
+        return Arrays.stream(sortedBoundaries).distinct().toArray();
+    }
+}
@@ -0,0 +1,500 @@
+package com.azyasaxi.service;
+
+import com.azyasaxi.dao.StudentDao;
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
+import com.azyasaxi.model.Student;
+import com.azyasaxi.utils.PinyinUtil;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * StudentSearchIndex 类
+ * 学生搜索的内存倒排索引，覆盖学号、姓名、用户名、班级名，以及姓名的全拼和拼音首字母 (如 "zs" -> 张三)。
+ * 每个字段按字符切分为单字 (unigram) 与相邻双字 (bigram)，每个 n-gram 对应一个升序的学生ID数组 (倒排表)。
+ * 查询时对检索词的所有 bigram 倒排表求交集得到候选，再逐个用子串匹配校验，保证结果与 SQL 的 LIKE '%词%' 一致，
+ * 最后按匹配程度 (完全相等 > 前缀 > 包含) 与字段权重排序。
+ * 索引在启动时流式构建，由 StudentService / ClassInfoService 在写操作后增量更新，并定期全量重建以纠正偏差。
+ * 索引尚未就绪时 search 返回 null，调用方应回退到 SQL 查询。
+ */
+@Component
+public class StudentSearchIndex implements InitializingBean {
+    private static final Logger logger = LogManager.getLogger(StudentSearchIndex.class);
+
+    // 字段下标与权重 (学号 > 姓名 > 用户名、拼音 > 班级名)
+    private static final int FIELD_ID = 0;
+    private static final int FIELD_NAME = 1;
+    private static final int FIELD_USERNAME = 2;
+    private static final int FIELD_CLASS = 3;
+    private static final int FIELD_NAME_PINYIN = 4;   // 姓名全拼，如 zhangsan
+    private static final int FIELD_NAME_INITIALS = 5; // 姓名拼音首字母，如 zs
+    private static final int[] FIELD_WEIGHTS = {4, 3, 2, 1, 2, 2};
+
+    private final StudentDao studentDao;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private IndexData data = new IndexData();     // 当前生效的索引 (读写均需持有锁)
+    private List<Consumer<IndexData>> pendingOps; // 全量重建期间发生的增量更新，重建完成后重放到新索引
+    private volatile boolean ready = false;       // 首次构建是否完成
+
+    @Autowired
+    public StudentSearchIndex(StudentDao studentDao) {
+        this.studentDao = studentDao;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rebuild();
+    }
+
+    /**
+     * 单个学生在索引中的文档：保存小写后的各字段用于校验与打分，
+     * 以及姓名、用户名、班级名原文，用于搜索建议直接从内存返回而不查询数据库。
+     */
+    private static final class Doc {
+        final Integer classId;
+        final String[] fields;
+        final String name;
+        final String username;
+        final String className;
+
+        Doc(Integer classId, String[] fields, String name, String username, String className) {
+            this.classId = classId;
+            this.fields = fields;
+            this.name = name;
+            this.username = username;
+            this.className = className;
+        }
+    }
+
+    /**
+     * 升序且无重复的 int 数组，作为一个 n-gram 的倒排表。
+     */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] < id) { // 按学号升序构建时直接追加
+                append(id);
+                return;
+            }
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return;
+            }
+            pos = -pos - 1;
+            ensureCapacity();
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        void append(int id) {
+            ensureCapacity();
+            ids[size++] = id;
+        }
+
+        boolean remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+        }
+    }
+
+    /**
+     * 一份完整的索引数据：文档表与 n-gram 倒排表。
+     * n-gram 编码为 int：单字为字符本身，双字为 (c1 << 16) | c2 (c1 不会是 '\0'，两者不会冲突)。
+     */
+    private static final class IndexData {
+        final Map<Integer, Doc> docs = new HashMap<>();
+        final Map<Integer, Postings> postings = new HashMap<>();
+
+        void put(int studentId, Integer classId, String name, String username, String className) {
+            remove(studentId);
+            Doc doc = new Doc(classId, toFields(studentId, name, username, className), name, username, className);
+            docs.put(studentId, doc);
+            for (int gram : grams(doc)) {
+                postings.computeIfAbsent(gram, k -> new Postings()).add(studentId);
+            }
+        }
+
+        void remove(int studentId) {
+            Doc doc = docs.remove(studentId);
+            if (doc == null) {
+                return;
+            }
+            for (int gram : grams(doc)) {
+                Postings list = postings.get(gram);
+                if (list != null && list.remove(studentId) && list.size == 0) {
+                    postings.remove(gram);
+                }
+            }
+        }
+
+        void clearClass(int classId) {
+            List<Integer> affected = new ArrayList<>();
+            for (Map.Entry<Integer, Doc> entry : docs.entrySet()) {
+                if (entry.getValue().classId != null && entry.getValue().classId == classId) {
+                    affected.add(entry.getKey());
+                }
+            }
+            for (int studentId : affected) {
+                Doc doc = docs.get(studentId);
+                put(studentId, null, doc.name, doc.username, null); // 班级删除后学生的 class_id 被置为 NULL
+            }
+        }
+    }
+
+    // 文档所有字段的 n-gram (已去重)
+    private static int[] grams(Doc doc) {
+        int[] result = new int[16];
+        int count = 0;
+        for (String field : doc.fields) {
+            if (field == null) {
+                continue;
+            }
+            for (int i = 0; i < field.length(); i++) {
+                if (count + 2 > result.length) {
+                    result = Arrays.copyOf(result, result.length * 2);
+                }
+                result[count++] = field.charAt(i);
+                if (i + 1 < field.length()) {
+                    result[count++] = (field.charAt(i) << 16) | field.charAt(i + 1);
+                }
+            }
+        }
+        return Arrays.stream(result, 0, count).distinct().toArray();
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String[] toFields(int studentId, String name, String username, String className) {
+        String[] fields = new String[FIELD_WEIGHTS.length];
+        fields[FIELD_ID] = String.valueOf(studentId);
+        fields[FIELD_NAME] = normalize(name);
+        fields[FIELD_USERNAME] = normalize(username);
+        fields[FIELD_CLASS] = normalize(className);
+        fields[FIELD_NAME_PINYIN] = PinyinUtil.toPinyin(fields[FIELD_NAME]);
+        fields[FIELD_NAME_INITIALS] = PinyinUtil.toInitials(fields[FIELD_NAME]);
+        return fields;
+    }
+
+    /**
+     * 从数据库流式读取全部学生并重建索引。
+     * 新索引在锁外构建，完成后在写锁内重放构建期间的增量更新并替换旧索引，重建过程中搜索不受影响。
+     */
+    @Scheduled(initialDelayString = "${studentsearch.rebuild-interval-ms:1800000}",
+               fixedDelayString = "${studentsearch.rebuild-interval-ms:1800000}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pendingOps != null) {
+                return; // 已有重建在进行
+            }
+            pendingOps = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        IndexData fresh = new IndexData();
+        long start = System.currentTimeMillis();
+        long count = studentDao.streamStudentSearchFields(rs -> {
+            int studentId = rs.getInt("student_id");
+            int classId = rs.getInt("class_id");
+            Integer classIdValue = rs.wasNull() ? null : classId;
+            fresh.put(studentId, classIdValue, rs.getString("name"), rs.getString("username"), rs.getString("class_name"));
+        });
+
+        lock.writeLock().lock();
+        try {
+            if (count >= 0) {
+                pendingOps.forEach(op -> op.accept(fresh));
+                data = fresh;
+                ready = true;
+                logger.info("索引构建完成", "students", count, "ngrams", fresh.postings.size(),
+                        "elapsedMs", System.currentTimeMillis() - start);
+            } else {
+                logger.warn(ready ? "索引构建失败，继续使用旧索引" : "索引构建失败，搜索将回退到数据库查询");
+            }
+            pendingOps = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 在写锁内把增量更新应用到当前索引，重建期间同时记录下来以便重放
+    private void apply(Consumer<IndexData> op) {
+        lock.writeLock().lock();
+        try {
+            op.accept(data);
+            if (pendingOps != null) {
+                pendingOps.add(op);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 新增或更新一个学生的索引条目。
+     *
+     * @param student 包含学号、姓名、用户名、班级ID和班级名的学生对象。
+     */
+    public void upsert(Student student) {
+        if (student == null || student.getStudentId() == null) {
+            return;
+        }
+        int studentId = student.getStudentId();
+        Integer classId = student.getClassId();
+        String name = student.getName();
+        String username = student.getUserName();
+        String className = student.getClassName();
+        apply(index -> index.put(studentId, classId, name, username, className));
+    }
+
+    /**
+     * 批量新增或更新学生的索引条目 (批量导入后调用)，只获取一次写锁。
+     *
+     * @param students 包含学号、姓名、用户名、班级ID和班级名的学生对象。
+     */
+    public void upsertAll(List<Student> students) {
+        List<Student> copy = new ArrayList<>(students.size());
+        for (Student student : students) {
+            if (student != null && student.getStudentId() != null) {
+                copy.add(student);
+            }
+        }
+        if (copy.isEmpty()) {
+            return;
+        }
+        apply(index -> {
+            for (Student student : copy) {
+                index.put(student.getStudentId(), student.getClassId(), student.getName(),
+                        student.getUserName(), student.getClassName());
+            }
+        });
+    }
+
+    /**
+     * 从索引中移除一个学生。
+     *
+     * @param studentId 学生ID。
+     */
+    public void remove(int studentId) {
+        apply(index -> index.remove(studentId));
+    }
+
+    /**
+     * 班级被删除后，清除该班级所有学生索引中的班级名。
+     *
+     * @param classId 被删除的班级ID。
+     */
+    public void removeClass(int classId) {
+        apply(index -> index.clearClass(classId));
+    }
+
+    /**
+     * @return 索引是否已完成首次构建。
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 一次搜索的结果：按相关度排列的前若干个学生ID，以及匹配的学生总数。
+     */
+    public static final class SearchHits {
+        private final List<Integer> studentIds;
+        private final int totalMatches;
+
+        SearchHits(List<Integer> studentIds, int totalMatches) {
+            this.studentIds = studentIds;
+            this.totalMatches = totalMatches;
+        }
+
+        /**
+         * @return 按相关度从高到低排列的学生ID，最多 limit 个。
+         */
+        public List<Integer> getStudentIds() {
+            return studentIds;
+        }
+
+        /**
+         * @return 匹配检索词的学生总数 (不受 limit 限制)。
+         */
+        public int getTotalMatches() {
+            return totalMatches;
+        }
+
+        /**
+         * @return 是否有匹配的学生因 limit 未返回。
+         */
+        public boolean isTruncated() {
+            return totalMatches > studentIds.size();
+        }
+    }
+
+    /**
+     * 在索引中搜索学生。
+     * 每个匹配的学生都会参与打分，limit 只决定保留多少个得分最高的学生，totalMatches 始终是完整的匹配数。
+     * 需要完整结果时传入 Integer.MAX_VALUE。
+     *
+     * @param searchTerm 检索词，按不区分大小写的子串匹配学号、姓名、用户名、班级名或姓名拼音/首字母。
+     * @param limit      最多返回的学生ID数。
+     * @return 按相关度从高到低排列的学生ID及匹配总数；索引尚未就绪时返回 null。
+     */
+    public SearchHits search(String searchTerm, int limit) {
+        if (!ready) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            int[] total = new int[1];
+            int[] ranked = rank(normalize(searchTerm), limit, total);
+            List<Integer> result = new ArrayList<>(ranked.length);
+            for (int studentId : ranked) {
+                result.add(studentId);
+            }
+            return new SearchHits(result, total[0]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 搜索框输入建议，直接从内存索引返回学生的学号、姓名、用户名和班级，不访问数据库，适合每次按键调用。
+     *
+     * @param searchTerm 检索词 (支持姓名拼音和首字母)。
+     * @param limit      最多返回的建议数。
+     * @return 按相关度排列的学生 (只填充学号、姓名、用户名、班级ID和班级名)；索引未就绪时返回空列表。
+     */
+    public List<Student> suggest(String searchTerm, int limit) {
+        if (!ready) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            int[] ranked = rank(normalize(searchTerm), limit, new int[1]);
+            List<Student> result = new ArrayList<>(ranked.length);
+            for (int studentId : ranked) {
+                Doc doc = data.docs.get(studentId);
+                Student student = new Student();
+                student.setStudentId(studentId);
+                student.setName(doc.name);
+                student.setUserName(doc.username);
+                student.setClassId(doc.classId);
+                student.setClassName(doc.className);
+                result.add(student);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 在当前索引上检索并排序，匹配总数写入 total[0]，调用方需持有读锁。
+    // 耗时与最短倒排表的长度成正比：单字或单个数字的检索词可能命中大部分学生，此时逐个校验打分 (每个学生几次子串比较)，
+    // 只在堆中保留前 limit 个，不会复制或整体排序全部候选
+    private int[] rank(String term, int limit, int[] total) {
+        if (term == null || term.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+
+        // 1. 取出检索词所有 n-gram 的倒排表，任一不存在即无结果
+        int[] termGrams;
+        if (term.length() == 1) {
+            termGrams = new int[]{term.charAt(0)};
+        } else {
+            termGrams = new int[term.length() - 1];
+            for (int i = 0; i + 1 < term.length(); i++) {
+                termGrams[i] = (term.charAt(i) << 16) | term.charAt(i + 1);
+            }
+        }
+        Postings[] lists = new Postings[termGrams.length];
+        for (int i = 0; i < termGrams.length; i++) {
+            lists[i] = data.postings.get(termGrams[i]);
+            if (lists[i] == null) {
+                return new int[0];
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size)); // 从最短的倒排表开始求交集
+
+        // 2. 求交集 + 子串校验 + 打分，用小顶堆保留得分最高的 limit 个
+        //    堆元素编码为 (得分 << 32) | (Integer.MAX_VALUE - 学号)，数值越大越靠前 (同分时学号小的在前)
+        PriorityQueue<Long> top = new PriorityQueue<>(Math.min(limit, 1024) + 1);
+        Postings shortest = lists[0];
+        candidates:
+        for (int i = 0; i < shortest.size; i++) {
+            int studentId = shortest.ids[i];
+            for (int j = 1; j < lists.length; j++) {
+                if (!lists[j].contains(studentId)) {
+                    continue candidates;
+                }
+            }
+            int score = score(data.docs.get(studentId), term);
+            if (score == 0) {
+                continue; // n-gram 都命中但不是连续子串
+            }
+            total[0]++;
+            long key = ((long) score << 32) | (Integer.MAX_VALUE - studentId);
+            if (top.size() < limit) {
+                top.add(key);
+            } else if (key > top.peek()) {
+                top.poll();
+                top.add(key);
+            }
+        }
+
+        int[] ranked = new int[top.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = Integer.MAX_VALUE - (int) (long) top.poll();
+        }
+        return ranked;
+    }
+
+    // 计算文档对检索词的得分：各字段按 完全相等(3) / 前缀(2) / 包含(1) 乘以字段权重后累加，不匹配为 0
+    private static int score(Doc doc, String term) {
+        if (doc == null) {
+            return 0;
+        }
+        int score = 0;
+        for (int i = 0; i < doc.fields.length; i++) {
+            String field = doc.fields[i];
+            if (field == null) {
+                continue;
+            }
+            int match = field.equals(term) ? 3 : field.startsWith(term) ? 2 : field.contains(term) ? 1 : 0;
+            score += match * FIELD_WEIGHTS[i];
+        }
+        return score;
+    }
+}
@@ -2,17 +2,36 @@ package com.azyasaxi.service;
 
 import com.azyasaxi.dao.StudentDao;          // 导入 StudentDao
 import com.azyasaxi.dao.CreditSummaryDao;    // 导入 CreditSummaryDao
+import com.azyasaxi.logging.LogManager;
+import com.azyasaxi.logging.Logger;
+import com.azyasaxi.model.BatchResult;       // 批量导入结果
+import com.azyasaxi.model.ClassInfo;         // 导入 ClassInfo 模型
+import com.azyasaxi.model.ListQuery;
+import com.azyasaxi.model.PageResult;     // 分页结果
 import com.azyasaxi.model.Student;           // 导入 Student 模型
 import com.azyasaxi.model.Enrollment;        // 导入 Enrollment 模型
 import com.azyasaxi.model.CreditSummary;     // 导入 CreditSummary 模型
 import com.azyasaxi.utils.CalculateSHA256;   // 导入密码哈希工具类
+import com.azyasaxi.utils.CsvReader;         // 批量导入时逐条读取 CSV
+import com.azyasaxi.utils.TableVersions;     // 数据表版本号
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate; // 批量导入时每个分块一个事务
 import org.springframework.util.StringUtils; // Spring 工具类
 
+import java.io.IOException;
+import java.io.Reader;
 import java.math.BigDecimal; // 用于初始化总学分
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 /**
  * StudentService 类 (服务层)
@@ -20,32 +39,137 @@ import java.util.List;
  */
 @Service
 public class StudentService {
+    private static final Logger logger = LogManager.getLogger(StudentService.class);
+    private static final int HYDRATE_CHUNK = 1000; // 按ID取回学生时每条 IN 查询的ID个数上限
 
     private final StudentDao studentDao;                 // StudentDao 实例
     private final CreditSummaryDao creditSummaryDao;   // CreditSummaryDao 实例
+    private final StudentSearchIndex studentSearchIndex; // 学生搜索的内存倒排索引
+    private final int maxCandidateIds;                   // 带排序或筛选的搜索中，交给数据库 IN 查询的索引匹配ID上限
+    private final TableVersions tableVersions;           // 写入成功后递增 Student 等表的版本号
+    private final StatisticsEngine statisticsEngine;     // 学生增删改后同步内存统计数据
+    private final HierarchyCache hierarchyCache;         // 院系层级的内存缓存，用于补全班级、专业和学院名
+    private final TransactionTemplate transactionTemplate; // 批量导入的分块事务
+    private final int maxImportRows;                     // 一次导入最多的数据行数
+    private final int importChunkSize;                   // 批量导入时每个事务插入的行数
+    private final RegistrationEngine registrationEngine; // 删除学生后将其移出候补队列
 
     /**
-     * 构造函数，通过 Spring 依赖注入 StudentDao 和 CreditSummaryDao。
+     * 构造函数，通过 Spring 依赖注入 StudentDao、CreditSummaryDao、StudentSearchIndex、TableVersions、StatisticsEngine、
+     * HierarchyCache、TransactionTemplate 和 RegistrationEngine，并从 Environment 读取搜索与批量导入的配置。
      *
      * @param studentDaoArg         由 Spring 容器提供的 StudentDao 实例。
      * @param creditSummaryDaoArg   由 Spring 容器提供的 CreditSummaryDao 实例。
+     * @param studentSearchIndexArg 由 Spring 容器提供的 StudentSearchIndex 实例。
+     * @param env                   用于读取 studentsearch.max-candidate-ids 等配置。
+     * @param tableVersionsArg      数据表版本号，写入成功后递增。
+     * @param statisticsEngineArg   数据统计页的内存统计数据。
+     * @param hierarchyCacheArg     院系层级的内存缓存。
+     * @param transactionTemplateArg 用于批量导入的事务模板。
+     * @param registrationEngineArg  选课引擎，管理课程名额和候补队列。
      */
     @Autowired
-    public StudentService(StudentDao studentDaoArg, CreditSummaryDao creditSummaryDaoArg) {
+    public StudentService(StudentDao studentDaoArg, CreditSummaryDao creditSummaryDaoArg,
+                          StudentSearchIndex studentSearchIndexArg, Environment env,
+                          TableVersions tableVersionsArg, StatisticsEngine statisticsEngineArg,
+                          HierarchyCache hierarchyCacheArg, TransactionTemplate transactionTemplateArg,
+                          RegistrationEngine registrationEngineArg) {
         this.studentDao = studentDaoArg;
         this.creditSummaryDao = creditSummaryDaoArg;
+        this.studentSearchIndex = studentSearchIndexArg;
+        this.maxCandidateIds = env.getProperty("studentsearch.max-candidate-ids", Integer.class, 5000);
+        this.tableVersions = tableVersionsArg;
+        this.statisticsEngine = statisticsEngineArg;
+        this.hierarchyCache = hierarchyCacheArg;
+        this.transactionTemplate = transactionTemplateArg;
+        this.maxImportRows = env.getProperty("studentimport.max-rows", Integer.class, 100000);
+        this.importChunkSize = Math.max(1, env.getProperty("studentimport.chunk-size", Integer.class, 1000));
+        this.registrationEngine = registrationEngineArg;
     }
 
-    // --- 原有方法 (略作调整以使用 BasicStudentRowMapper 返回的 Student 对象) ---
-    public List<Student> searchStudents(String searchTerm) {
-        // (与您之前提供的代码一致)
+    /**
+     * 分页搜索学生，供仪表盘按需加载。
+     * 无检索词时直接在数据库中筛选、排序并分页。有检索词且未指定排序和筛选时按相关度分页：
+     * 内存索引对全部匹配的学生打分，只保留到当前页末尾，每页用一次 IN 查询取回当前页，是否还有下一页由匹配总数决定。
+     * 指定了排序或筛选时，由数据库在索引的全部匹配ID中筛选排序；匹配数超过 studentsearch.max-candidate-ids
+     * (检索词过于宽泛，如单个字母或数字) 或索引尚未就绪时，改由数据库按 LIKE 匹配检索词。
+     *
+     * @param query 检索词 (学号、姓名、用户名、班级名或姓名拼音)、性别/班级/专业筛选、排序和分页条件。
+     * @return 当前页的学生列表及是否还有下一页。
+     */
+    public PageResult<Student> searchStudentsPage(ListQuery query) {
+        int offset = query.getOffset();
+        int pageSize = query.getPageSize();
         try {
-            return studentDao.searchStudents(searchTerm);
+            if (!query.hasSearchTerm()) {
+                return PageResult.fromLookahead(studentDao.searchStudents(query, null), offset, pageSize);
+            }
+            if (!query.hasSortOrFilter()) {
+                int pageEnd = (int) Math.min(Integer.MAX_VALUE, (long) offset + pageSize);
+                StudentSearchIndex.SearchHits hits = studentSearchIndex.search(query.getSearchTerm(), pageEnd);
+                if (hits != null) {
+                    List<Integer> rankedIds = hits.getStudentIds();
+                    List<Integer> pageIds = rankedIds.subList(Math.min(offset, rankedIds.size()), rankedIds.size());
+                    return new PageResult<>(hydrateInOrder(pageIds), offset, pageSize, hits.getTotalMatches() > pageEnd);
+                }
+            } else {
+                StudentSearchIndex.SearchHits hits = studentSearchIndex.search(query.getSearchTerm(), maxCandidateIds);
+                if (hits != null && !hits.isTruncated()) {
+                    return PageResult.fromLookahead(studentDao.searchStudents(query, hits.getStudentIds()), offset, pageSize);
+                }
+            }
+            // 索引未就绪或匹配过多时由数据库按检索词匹配
+            return PageResult.fromLookahead(studentDao.searchStudents(query, null), offset, pageSize);
         } catch (Exception e) {
-            System.err.println("StudentService: 搜索学生时发生错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("分页搜索学生时发生错误", e);
+            return new PageResult<>(Collections.emptyList(), offset, pageSize, false);
+        }
+    }
+
+    /**
+     * 搜索框输入建议：按学号、姓名、用户名、班级名或姓名拼音/首字母匹配，直接从内存索引返回，不访问数据库。
+     *
+     * @param searchTerm 当前输入的检索词。
+     * @param limit      最多返回的建议数。
+     * @return 按相关度排列的学生列表 (只包含学号、姓名、用户名和班级)。
+     */
+    public List<Student> suggestStudents(String searchTerm, int limit) {
+        if (!StringUtils.hasText(searchTerm)) {
+            return Collections.emptyList();
+        }
+        return studentSearchIndex.suggest(searchTerm, limit);
+    }
+
+    // 取回学生信息 (每 HYDRATE_CHUNK 个ID一次查询)，并按索引给出的相关度顺序排列
+    private List<Student> hydrateInOrder(List<Integer> rankedIds) {
+        if (rankedIds.isEmpty()) {
             return Collections.emptyList();
         }
+        Map<Integer, Student> byId = new HashMap<>();
+        for (int from = 0; from < rankedIds.size(); from += HYDRATE_CHUNK) {
+            List<Integer> chunk = rankedIds.subList(from, Math.min(from + HYDRATE_CHUNK, rankedIds.size()));
+            for (Student student : studentDao.getStudentsByIds(chunk)) {
+                byId.put(student.getStudentId(), student);
+            }
+        }
+        List<Student> ordered = new ArrayList<>(rankedIds.size());
+        for (Integer studentId : rankedIds) {
+            Student student = byId.get(studentId);
+            if (student != null) { // 索引与数据库短暂不一致时跳过已不存在的学生
+                ordered.add(student);
+            }
+        }
+        return ordered;
+    }
+
+    // 写操作成功后，从数据库重新读取学生 (含班级名) 并更新搜索索引
+    private void refreshSearchIndex(int studentId) {
+        Student current = studentDao.getStudentByIdForEdit(studentId);
+        if (current != null) {
+            studentSearchIndex.upsert(current);
+        } else {
+            studentSearchIndex.remove(studentId);
+        }
     }
 
     /**
@@ -56,14 +180,13 @@ public class StudentService {
      */
     public Student findStudentByIdForEdit(int studentId) {
         if (studentId <= 0) {
-            System.err.println("StudentService: 查找学生失败，无效的学生ID: " + studentId);
+            logger.warn("查找学生失败，无效的学生ID", "studentId", studentId);
             return null;
         }
         try {
             return studentDao.getStudentByIdForEdit(studentId); // 调用新的DAO方法
         } catch (Exception e) {
-            System.err.println("StudentService: 根据ID查找学生基本信息时发生错误 (ID: " + studentId + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("根据ID查找学生基本信息时发生错误", e, "studentId", studentId);
             return null;
         }
     }
@@ -73,15 +196,15 @@ public class StudentService {
         if (student == null || !StringUtils.hasText(student.getName()) ||
                 !StringUtils.hasText(student.getUserName()) ||
                 !StringUtils.hasText(student.getPassword())) {
-            System.err.println("StudentService: 添加学生失败，姓名、用户名和密码不能为空。");
+            logger.warn("添加学生失败，姓名、用户名和密码不能为空");
             return false;
         }
         if (student.getGender() == null || (!"男".equals(student.getGender()) && !"女".equals(student.getGender()))) {
-            System.err.println("StudentService: 添加学生失败，性别必须是 '男' 或 '女'。");
+            logger.warn("添加学生失败，性别必须是 '男' 或 '女'");
             return false;
         }
         if (studentDao.getStudentByUsername(student.getUserName().trim()) != null) {
-            System.err.println("StudentService: 添加学生失败，用户名 '" + student.getUserName().trim() + "' 已存在。");
+            logger.warn("添加学生失败，用户名已存在", "username", student.getUserName().trim());
             return false;
         }
         
@@ -91,23 +214,255 @@ public class StudentService {
 
         try {
             int rowsAffected = studentDao.addStudent(student);
+            if (rowsAffected > 0) {
+                if (student.getStudentId() != null) {
+                    refreshSearchIndex(student.getStudentId());
+                    statisticsEngine.studentsChanged(Collections.singletonList(student.getStudentId()));
+                }
+                tableVersions.bump(TableVersions.Table.STUDENT); // 内存数据更新后再递增版本号，避免新 ETag 对应旧数据
+            }
             return rowsAffected > 0;
         } catch (Exception e) {
-            System.err.println("StudentService: 添加学生时发生数据库错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("添加学生时发生数据库错误", e);
             return false;
         }
     }
 
+    // 批量导入 CSV 的列：表头名称不区分大小写，中英文均可
+    private static final int COL_NAME = 0, COL_GENDER = 1, COL_USERNAME = 2, COL_PASSWORD = 3, COL_CLASS_ID = 4;
+    private static final String[][] IMPORT_HEADERS = {
+            {"name", "姓名"}, {"gender", "性别"}, {"username", "用户名"}, {"password", "密码"}, {"class_id", "classid", "班级id"}};
+
+    /**
+     * 从 CSV 批量导入学生。
+     * 第一行为表头：name/姓名、gender/性别、username/用户名、password/密码 为必需列，class_id/班级ID 可选。
+     * 文件按 studentimport.chunk-size 行一个分块边读边处理，内存中只保留当前分块的记录：
+     * 并行校验各行 → 检查文件内重复的用户名 (与之前分块中已导入的行比较)，并用 IN 查询检查已存在的用户名 →
+     * 并行哈希密码 → 一个事务内用 JDBC 批处理插入并取回自增学号。
+     * 某个分块写入失败时只回滚该分块，其中的行全部记为失败，其他分块不受影响。
+     * 中途遇到 CSV 格式错误或超过 studentimport.max-rows 时停止读取：之前的分块保持已导入，
+     * 出错的行记为失败，之后的行不再导入。
+     *
+     * @param reader CSV 内容，由调用方关闭。
+     * @return 已读取的行数、成功行数、新学生的学号和每个失败行的原因；行号为数据行的序号 (不含表头和空行，从 1 开始)。
+     * @throws IOException              读取表头失败或表头格式错误。
+     * @throws IllegalArgumentException 文件为空或表头缺少必需列。
+     */
+    public BatchResult importStudents(Reader reader) throws IOException {
+        long start = System.currentTimeMillis();
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new IllegalArgumentException("文件为空");
+        }
+        int[] columns = resolveImportColumns(header);
+
+        BatchResult result = new BatchResult();
+        boolean checkClasses = hierarchyCache.isReady(); // 缓存未就绪时班级ID由外键约束检查
+        Map<String, Integer> firstRowByUsername = new HashMap<>(); // 已导入的用户名 (小写) -> 所在的行号
+        List<List<String>> records = new ArrayList<>(Math.min(importChunkSize, maxImportRows));
+        int rowsRead = 0;
+        int succeeded = 0;
+        String stopReason = null; // 提前停止读取的原因，记在第 rowsRead + 1 行
+        while (stopReason == null) {
+            records.clear();
+            try {
+                List<String> record;
+                while (records.size() < importChunkSize && (record = csv.next()) != null) {
+                    if (rowsRead == maxImportRows) {
+                        stopReason = "超过一次导入的上限 " + maxImportRows + " 行，从该行起未导入";
+                        break;
+                    }
+                    records.add(record);
+                    rowsRead++;
+                }
+            } catch (IOException e) {
+                stopReason = "CSV 格式错误 (" + e.getMessage() + ")，从该行起未导入";
+            }
+            if (!records.isEmpty()) {
+                succeeded += importChunk(records, rowsRead - records.size(), columns, checkClasses, firstRowByUsername, result);
+            }
+            if (records.size() < importChunkSize) {
+                break; // 已读到文件末尾 (或已停止读取)
+            }
+        }
+        if (stopReason != null) {
+            result.addError(rowsRead + 1, stopReason);
+        }
+
+        result.setTotal(rowsRead + (stopReason != null ? 1 : 0));
+        result.setSucceeded(succeeded);
+        if (succeeded > 0) {
+            tableVersions.bump(TableVersions.Table.STUDENT); // 内存数据更新后再递增版本号
+        }
+        logger.info("批量导入学生完成", "total", result.getTotal(), "inserted", succeeded, "failed", result.getFailed(),
+                "elapsedMs", System.currentTimeMillis() - start);
+        return result;
+    }
+
+    // 导入一个分块 (第 firstRow + 1 行起) 并把各行结果按行号顺序记入 result，返回插入的行数
+    private int importChunk(List<List<String>> records, int firstRow, int[] columns, boolean checkClasses,
+                            Map<String, Integer> firstRowByUsername, BatchResult result) {
+        int size = records.size();
+
+        // 1. 并行校验各行
+        Student[] students = new Student[size];
+        String[] errors = new String[size];
+        IntStream.range(0, size).parallel().forEach(i -> {
+            Student student = new Student();
+            errors[i] = parseImportRow(records.get(i), columns, student, checkClasses);
+            students[i] = student;
+        });
+
+        // 2. 文件内重复的用户名 (与之前分块中已导入的行及本分块内的行比较)，以及数据库中已存在的用户名 (一次查询)
+        //    本分块的用户名在提交成功后才记入 firstRowByUsername，回滚的分块不会让之后的行被误判为重复
+        Map<String, Integer> chunkFirstRow = new HashMap<>();
+        List<String> usernames = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (errors[i] == null) {
+                String username = students[i].getUserName().toLowerCase(Locale.ROOT);
+                Integer first = firstRowByUsername.get(username);
+                if (first == null) {
+                    first = chunkFirstRow.putIfAbsent(username, firstRow + i + 1);
+                }
+                if (first != null) {
+                    errors[i] = "用户名与第 " + first + " 行重复";
+                } else {
+                    usernames.add(username);
+                }
+            }
+        }
+        Set<String> existing = studentDao.findExistingUsernames(usernames);
+        for (int i = 0; i < size; i++) {
+            if (errors[i] != null) {
+                continue;
+            }
+            if (existing == null) {
+                errors[i] = "检查用户名时发生数据库错误";
+            } else if (existing.contains(students[i].getUserName().toLowerCase(Locale.ROOT))) {
+                errors[i] = "用户名已存在";
+            }
+        }
+
+        // 3. 并行哈希密码
+        IntStream.range(0, size).parallel().filter(i -> errors[i] == null)
+                .forEach(i -> students[i].setPassword(CalculateSHA256.calculateSHA256(students[i].getPassword())));
+
+        // 4. 一个事务批量插入
+        List<Student> chunk = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (errors[i] == null) {
+                chunk.add(students[i]);
+            }
+        }
+        boolean inserted = chunk.isEmpty();
+        if (!chunk.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> studentDao.addStudents(chunk));
+                inserted = true;
+            } catch (Exception e) {
+                logger.error("批量导入学生时写入失败，已回滚该批", e, "firstRow", firstRow + 1, "rows", chunk.size());
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (errors[i] == null && !inserted) {
+                errors[i] = "写入数据库失败，该批已回滚";
+                students[i].setStudentId(null);
+            }
+            if (errors[i] != null) {
+                result.addError(firstRow + i + 1, errors[i]);
+            } else {
+                result.getCreatedIds().add(students[i].getStudentId());
+                firstRowByUsername.put(students[i].getUserName().toLowerCase(Locale.ROOT), firstRow + i + 1);
+            }
+        }
+        if (!inserted || chunk.isEmpty()) {
+            return 0;
+        }
+
+        List<Integer> ids = new ArrayList<>(chunk.size());
+        for (Student student : chunk) {
+            ids.add(student.getStudentId());
+        }
+        studentSearchIndex.upsertAll(chunk);
+        statisticsEngine.studentsChanged(ids);
+        return chunk.size();
+    }
+
+    // 按表头确定各列的位置，缺少必需列时抛出 IllegalArgumentException
+    private static int[] resolveImportColumns(List<String> header) {
+        int[] columns = new int[IMPORT_HEADERS.length];
+        Arrays.fill(columns, -1);
+        for (int index = 0; index < header.size(); index++) {
+            String name = header.get(index).trim().toLowerCase(Locale.ROOT);
+            for (int col = 0; col < IMPORT_HEADERS.length; col++) {
+                for (String alias : IMPORT_HEADERS[col]) {
+                    if (alias.equals(name) && columns[col] < 0) {
+                        columns[col] = index;
+                    }
+                }
+            }
+        }
+        for (int col = COL_NAME; col <= COL_PASSWORD; col++) {
+            if (columns[col] < 0) {
+                throw new IllegalArgumentException("表头缺少必需列: " + IMPORT_HEADERS[col][0]);
+            }
+        }
+        return columns;
+    }
+
+    private static String importField(List<String> record, int column) {
+        return column >= 0 && column < record.size() ? record.get(column).trim() : "";
+    }
+
+    // 校验一行数据并填充到 student；返回错误信息，通过时返回 null。校验规则与 addStudent 相同，并检查列长度
+    private String parseImportRow(List<String> record, int[] columns, Student student, boolean checkClasses) {
+        String name = importField(record, columns[COL_NAME]);
+        String gender = importField(record, columns[COL_GENDER]);
+        String username = importField(record, columns[COL_USERNAME]);
+        String password = importField(record, columns[COL_PASSWORD]);
+        String classIdStr = importField(record, columns[COL_CLASS_ID]);
+        if (name.isEmpty() || username.isEmpty() || password.isEmpty()) {
+            return "姓名、用户名和密码不能为空";
+        }
+        if (name.length() > 100 || username.length() > 50) {
+            return "姓名最长 100 个字符，用户名最长 50 个字符";
+        }
+        if (!"男".equals(gender) && !"女".equals(gender)) {
+            return "性别必须是 '男' 或 '女'";
+        }
+        student.setName(name);
+        student.setGender(gender);
+        student.setUserName(username);
+        student.setPassword(password);
+        if (!classIdStr.isEmpty()) {
+            int classId;
+            try {
+                classId = Integer.parseInt(classIdStr);
+            } catch (NumberFormatException e) {
+                return "班级ID格式不正确";
+            }
+            if (checkClasses) {
+                ClassInfo classInfo = hierarchyCache.getClassInfo(classId);
+                if (classInfo == null) {
+                    return "班级不存在: " + classId;
+                }
+                student.setClassName(classInfo.getClassName()); // 供搜索索引使用
+            }
+            student.setClassId(classId);
+        }
+        return null;
+    }
+
     public boolean updateStudent(Student studentWithUpdates) {
         // (与您之前提供的代码一致，使用可选更新逻辑)
         if (studentWithUpdates == null || studentWithUpdates.getStudentId() == null || studentWithUpdates.getStudentId() <= 0) {
-            System.err.println("StudentService: 更新学生失败，学生对象或学生ID无效。");
+            logger.warn("更新学生失败，学生对象或学生ID无效");
             return false;
         }
         Student existingStudent = studentDao.getStudentByIdForEdit(studentWithUpdates.getStudentId()); // 获取基本信息以比较
         if (existingStudent == null) {
-            System.err.println("StudentService: 更新学生失败，未找到ID为 " + studentWithUpdates.getStudentId() + " 的学生记录。");
+            logger.warn("更新学生失败，未找到学生记录", "studentId", studentWithUpdates.getStudentId());
             return false;
         }
         Student studentToSave = new Student();
@@ -148,7 +503,7 @@ public class StudentService {
             String newUsername = studentWithUpdates.getUserName().trim();
             Student studentWithSameUsername = studentDao.getStudentByUsername(newUsername);
             if (studentWithSameUsername != null && !studentWithSameUsername.getStudentId().equals(existingStudent.getStudentId())) { // 使用equals比较Integer
-                System.err.println("StudentService: 更新学生失败，用户名 '" + newUsername + "' 已被其他学生使用。");
+                logger.warn("更新学生失败，用户名已被其他学生使用", "newUsername", newUsername);
                 return false;
             }
             studentToSave.setUserName(newUsername);
@@ -168,15 +523,19 @@ public class StudentService {
         }
 
         if (!needsUpdate) {
-            System.out.println("StudentService: 学生信息 (ID: " + existingStudent.getStudentId() + ") 没有需要更新的字段。");
+            logger.debug("学生信息没有需要更新的字段", "studentId", existingStudent.getStudentId());
             return true; // 如果没有任何字段（包括密码）被修改，则认为操作“成功”但未执行更新
         }
         try {
             int rowsAffected = studentDao.updateStudent(studentToSave);
+            if (rowsAffected > 0) {
+                refreshSearchIndex(studentToSave.getStudentId());
+                statisticsEngine.studentsChanged(Collections.singletonList(studentToSave.getStudentId()));
+                tableVersions.bump(TableVersions.Table.STUDENT);
+            }
             return rowsAffected > 0;
         } catch (Exception e) {
-            System.err.println("StudentService: 更新学生 (ID: " + studentToSave.getStudentId() + ") 时发生数据库错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("更新学生时发生数据库错误", e, "studentId", studentToSave.getStudentId());
             return false;
         }
     }
@@ -184,15 +543,22 @@ public class StudentService {
     public boolean deleteStudent(int studentId) {
         // (与您之前提供的代码一致)
         if (studentId <= 0) {
-            System.err.println("StudentService: 删除学生失败，无效的学生ID: " + studentId);
+            logger.warn("删除学生失败，无效的学生ID", "studentId", studentId);
             return false;
         }
         try {
             int rowsAffected = studentDao.deleteStudent(studentId);
+            if (rowsAffected > 0) {
+                studentSearchIndex.remove(studentId);
+                statisticsEngine.studentRemoved(studentId);
+                registrationEngine.studentRemoved(studentId);
+                // 选课记录和请假申请随学生级联删除
+                tableVersions.bump(TableVersions.Table.STUDENT, TableVersions.Table.ENROLLMENT,
+                        TableVersions.Table.LEAVE_REQUEST);
+            }
             return rowsAffected > 0;
         } catch (Exception e) {
-            System.err.println("StudentService: 删除学生 (ID: " + studentId + ") 时发生数据库错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("删除学生时发生数据库错误", e, "studentId", studentId);
             return false;
         }
     }
@@ -209,15 +575,18 @@ public class StudentService {
      */
     public Student getStudentFullDetailsById(int studentId) {
         if (studentId <= 0) {
-            System.err.println("StudentService: 获取学生详细信息失败，无效的学生ID: " + studentId);
+            logger.warn("获取学生详细信息失败，无效的学生ID", "studentId", studentId);
             return null;
         }
 
         // 1. 获取学生基本信息、班级、专业、学院信息，并填充到一个Student对象
-        Student studentWithDetails = studentDao.getStudentWithHierarchyDetailsById(studentId);
+        //    院系层级缓存就绪时只查学生表，名称从缓存补全
+        Student studentWithDetails = hierarchyCache.isReady()
+                ? fillHierarchyNames(studentDao.getStudentByIdForEdit(studentId))
+                : studentDao.getStudentWithHierarchyDetailsById(studentId);
 
         if (studentWithDetails == null) {
-            System.out.println("StudentService: 未找到ID为 " + studentId + " 的学生，无法获取详细信息。");
+            logger.debug("未找到学生，无法获取详细信息", "studentId", studentId);
             return null; // 如果学生基本信息都找不到，则直接返回null
         }
 
@@ -226,12 +595,11 @@ public class StudentService {
             List<Enrollment> enrollments = studentDao.getEnrollmentsWithCourseDetailsByStudentId(studentId);
             studentWithDetails.setEnrollments(enrollments); // 设置到Student对象的enrollments属性
         } catch (Exception e) {
-            System.err.println("StudentService: 获取学生 (ID: " + studentId + ") 的选课列表时发生错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("获取学生的选课列表时发生错误", e, "studentId", studentId);
             studentWithDetails.setEnrollments(Collections.emptyList()); // 出错时设置为空列表
         }
 
-        // 3. 获取学生已获得的总学分 (从 CreditSummary 视图)
+        // 3. 获取学生已获得的总学分 (从 CreditSummary 汇总表)
         try {
             CreditSummary summary = creditSummaryDao.getCreditSummaryByStudentId(studentId);
             if (summary != null) {
@@ -240,14 +608,27 @@ public class StudentService {
                 studentWithDetails.setTotalEarnedCredits(BigDecimal.ZERO); // 没有记录则总学分为0
             }
         } catch (Exception e) {
-            System.err.println("StudentService: 获取学生 (ID: " + studentId + ") 的总学分时发生错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("获取学生的总学分时发生错误", e, "studentId", studentId);
             studentWithDetails.setTotalEarnedCredits(null); // 出错时设为null或0
         }
 
         return studentWithDetails; // 返回填充了所有详细信息的Student对象
     }
 
+    // 用院系层级缓存补全学生的班级、专业和学院名称；班级已不存在时保留查询到的值
+    private Student fillHierarchyNames(Student student) {
+        if (student == null || student.getClassId() == null) {
+            return student;
+        }
+        ClassInfo classInfo = hierarchyCache.getClassInfo(student.getClassId());
+        if (classInfo != null) {
+            student.setClassName(classInfo.getClassName());
+            student.setMajorName(classInfo.getMajorName());
+            student.setCollegeName(classInfo.getCollegeName());
+        }
+        return student;
+    }
+
     /**
      * 认证学生用户。
      * @param username 用户名
@@ -271,8 +652,7 @@ public class StudentService {
                 }
             }
         } catch (Exception e) {
-            System.err.println("StudentService: 学生认证时发生错误 (username: " + username + "): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("学生认证时发生错误", e, "username", username);
         }
         return null; // 学生不存在或密码不匹配
     }
@@ -287,8 +667,7 @@ public class StudentService {
         try {
             return studentDao.getStudentStatsByCollege();
         } catch (Exception e) {
-            System.err.println("StudentService: 获取各学院学生统计数据时发生错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("获取各学院学生统计数据时发生错误", e);
             return Collections.emptyList();
         }
     }
@@ -301,8 +680,7 @@ public class StudentService {
         try {
             return studentDao.getStudentCountByCreditRanges();
         } catch (Exception e) {
-            System.err.println("StudentService: 获取学分区间学生统计数据时发生错误: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("获取学分区间学生统计数据时发生错误", e);
             return Collections.emptyList();
         }
     }
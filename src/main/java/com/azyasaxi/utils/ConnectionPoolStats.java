@@ -0,0 +1,141 @@
+package com.azyasaxi.utils;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ConnectionPoolStats 类
+ * 作为 HikariCP 的 MetricsTrackerFactory 注册到连接池上，记录连接获取等待时间、使用时长、超时次数等指标，
+ * 并结合连接池自身的 PoolStats 提供活跃/空闲/等待线程数等实时统计，供运行时读取。
+ */
+public class ConnectionPoolStats implements MetricsTrackerFactory {
+
+    private final LongAdder acquireCount = new LongAdder();       // 成功获取连接的次数
+    private final LongAdder acquireNanosTotal = new LongAdder();  // 获取连接累计等待时间 (纳秒)
+    private final AtomicLong acquireNanosMax = new AtomicLong();  // 单次获取连接的最长等待时间 (纳秒)
+    private final LongAdder usageCount = new LongAdder();         // 连接归还次数
+    private final LongAdder usageMillisTotal = new LongAdder();   // 连接累计借出时长 (毫秒)
+    private final LongAdder createdCount = new LongAdder();       // 新建物理连接次数
+    private final LongAdder timeoutCount = new LongAdder();       // 获取连接超时次数
+
+    private volatile String poolName;
+    private volatile PoolStats poolStats; // 由 HikariCP 在连接池启动时传入
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        this.poolStats = poolStats;
+        return new Tracker();
+    }
+
+    /**
+     * HikariCP 回调的指标记录器，所有方法都在借出/归还连接的路径上执行，只做无锁累加。
+     */
+    private class Tracker implements IMetricsTracker {
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            createdCount.increment();
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquireCount.increment();
+            acquireNanosTotal.add(elapsedAcquiredNanos);
+            acquireNanosMax.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usageCount.increment();
+            usageMillisTotal.add(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeoutCount.increment();
+        }
+    }
+
+    public int getActiveConnections() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getActiveConnections() : 0;
+    }
+
+    public int getIdleConnections() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getIdleConnections() : 0;
+    }
+
+    public int getTotalConnections() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getTotalConnections() : 0;
+    }
+
+    public int getThreadsAwaitingConnection() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getPendingThreads() : 0;
+    }
+
+    public long getAcquireCount() {
+        return acquireCount.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    public long getCreatedCount() {
+        return createdCount.sum();
+    }
+
+    /**
+     * @return 平均获取连接等待时间 (毫秒)。
+     */
+    public double getAverageWaitMillis() {
+        long count = acquireCount.sum();
+        return count == 0 ? 0.0 : acquireNanosTotal.sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return 单次获取连接的最长等待时间 (毫秒)。
+     */
+    public double getMaxWaitMillis() {
+        return acquireNanosMax.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return 连接平均借出时长 (毫秒)。
+     */
+    public double getAverageUsageMillis() {
+        long count = usageCount.sum();
+        return count == 0 ? 0.0 : usageMillisTotal.sum() / (double) count;
+    }
+
+    /**
+     * 获取当前所有统计指标的快照，便于序列化为 JSON 输出。
+     *
+     * @return 有序的指标名 -> 指标值映射。
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("poolName", poolName);
+        snapshot.put("activeConnections", getActiveConnections());
+        snapshot.put("idleConnections", getIdleConnections());
+        snapshot.put("totalConnections", getTotalConnections());
+        snapshot.put("threadsAwaitingConnection", getThreadsAwaitingConnection());
+        snapshot.put("acquireCount", getAcquireCount());
+        snapshot.put("averageWaitMillis", getAverageWaitMillis());
+        snapshot.put("maxWaitMillis", getMaxWaitMillis());
+        snapshot.put("averageUsageMillis", getAverageUsageMillis());
+        snapshot.put("connectionsCreated", getCreatedCount());
+        snapshot.put("connectionTimeouts", getTimeoutCount());
+        return snapshot;
+    }
+}
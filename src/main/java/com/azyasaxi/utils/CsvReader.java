@@ -0,0 +1,105 @@
+package com.azyasaxi.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CsvReader 类
+ * 逐条读取 CSV 记录 (RFC 4180)：逗号分隔，字段可用双引号包裹，引号内可以含逗号、换行和转义的双引号 ("")。
+ * 行尾可以是 \n 或 \r\n，文件开头的 UTF-8 BOM 会被忽略。每次只在内存中保留当前这一条记录，
+ * 适合直接读取上传文件的输入流。未缓冲的 Reader 会被包装为 BufferedReader；调用方负责关闭底层 Reader。
+ */
+public class CsvReader {
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private final StringBuilder field = new StringBuilder(64); // 复用的字段缓冲
+    private int peeked = -2;     // 预读的字符，-2 表示没有
+    private boolean started;     // 是否已处理过文件开头的 BOM
+    private long recordNumber;   // 已读取的记录数
+
+    public CsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+    }
+
+    /**
+     * 读取下一条记录。空行被跳过。
+     *
+     * @return 记录中的字段 (不去除空白)；已到文件末尾时返回 null。
+     * @throws IOException 读取失败，或引号未闭合就到了文件末尾。
+     */
+    public List<String> next() throws IOException {
+        if (!started) {
+            started = true;
+            if (peek() == '\uFEFF') {
+                read();
+            }
+        }
+        int c;
+        while ((c = peek()) == '\r' || c == '\n') { // 跳过空行
+            read();
+        }
+        if (c == EOF) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        while (true) {
+            c = read();
+            if (quoted) {
+                if (c == EOF) {
+                    throw new IOException("第 " + (recordNumber + 1) + " 条记录的引号没有闭合");
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == EOF) {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                fields.add(field.toString());
+                recordNumber++;
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    /**
+     * @return 已读取的记录数 (包括表头)。
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = reader.read();
+        }
+        return peeked;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        peeked = -2;
+        return c;
+    }
+}
@@ -1,93 +1,185 @@
 package com.azyasaxi.utils;
 
-import java.io.InputStream;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
 import java.sql.*;
-import java.util.Properties;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * DBHelper 类
+ * 基于 Spring 管理的共享连接池 (AppConfig.dataSource) 的轻量 JDBC 工具。
+ * 所有方法都在内部打开并关闭 Connection / PreparedStatement / ResultSet，调用方只通过回调接触结果集，
+ * 因此不会再出现连接泄漏。连接通过 DataSourceUtils 获取，若当前线程处于 Spring 事务中则复用事务连接。
+ */
+@Component
 public class DBHelper {
 
-    private static String url;
-    private static String username;
-    private static String password;
-
-    static {
-        try {
-            // 读取 application.properties 文件
-            Properties props = new Properties();
-            InputStream input = DBHelper.class.getClassLoader().getResourceAsStream("application.properties");
-            if (input == null) {
-                throw new RuntimeException("无法找到 application.properties 文件");
+    /**
+     * 将结果集的当前行映射为一个对象。
+     */
+    @FunctionalInterface
+    public interface RowHandler<T> {
+        T handle(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * 逐行处理结果集的回调，用于流式读取大结果集。
+     */
+    @FunctionalInterface
+    public interface RowCallback {
+        void processRow(ResultSet rs) throws SQLException;
+    }
+
+    private final DataSource dataSource;
+    private final int defaultFetchSize; // 流式查询默认每次从服务器拉取的行数
+    private final int batchSize;        // executeBatch 每次提交到服务器的语句数
+
+    public DBHelper(DataSource dataSource, Environment env) {
+        this.dataSource = dataSource;
+        this.defaultFetchSize = env.getProperty("db.stream.fetch-size", Integer.class, 500);
+        this.batchSize = env.getProperty("db.batch.size", Integer.class, 500);
+    }
+
+    // 从连接池获取连接 (在 Spring 事务中会返回事务绑定的连接)
+    private Connection getConnection() {
+        return DataSourceUtils.getConnection(dataSource);
+    }
+
+    // 归还连接 (事务绑定的连接由事务管理器负责关闭)
+    private void releaseConnection(Connection conn) {
+        DataSourceUtils.releaseConnection(conn, dataSource);
+    }
+
+    private static void bindParams(PreparedStatement stmt, Object... params) throws SQLException {
+        if (params == null) {
+            return;
+        }
+        for (int i = 0; i < params.length; i++) {
+            stmt.setObject(i + 1, params[i]);
+        }
+    }
+
+    // 执行查询，将每一行映射为对象后以列表返回
+    public <T> List<T> query(String sql, RowHandler<T> rowHandler, Object... params) throws SQLException {
+        List<T> results = new ArrayList<>();
+        stream(sql, 0, rs -> results.add(rowHandler.handle(rs)), params);
+        return results;
+    }
+
+    // 执行查询并返回第一行的映射结果，没有结果时返回 null
+    public <T> T queryForFirst(String sql, RowHandler<T> rowHandler, Object... params) throws SQLException {
+        Connection conn = getConnection();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bindParams(stmt, params);
+            stmt.setMaxRows(1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rowHandler.handle(rs) : null;
             }
-            props.load(input);
-            url = props.getProperty("db.url");
-            username = props.getProperty("db.username");
-            password = props.getProperty("db.password");
-
-            // 加载 JDBC 驱动
-            Class.forName("com.mysql.cj.jdbc.Driver");
-        } catch (Exception e) {
-            throw new RuntimeException("初始化数据库连接失败", e);
+        } finally {
+            releaseConnection(conn);
         }
     }
 
-    // 获取数据库连接
-    public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(url, username, password);
+    // 使用默认的 fetch size 流式读取查询结果
+    public long stream(String sql, RowCallback callback, Object... params) throws SQLException {
+        return stream(sql, defaultFetchSize, callback, params);
     }
 
-    // 执行查询
-    public static ResultSet executeQuery(String sql, Object... params) throws SQLException {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-
-        try {
-            conn = getConnection();
-            stmt = conn.prepareStatement(sql);
-            for (int i = 0; i < params.length; i++) {
-                stmt.setObject(i + 1, params[i]);
+    /**
+     * 流式执行查询，逐行回调而不把整个结果集载入内存。
+     * fetchSize > 0 时配合连接 URL 中的 useCursorFetch=true 使用服务器端游标分批拉取。
+     *
+     * @param sql       查询语句
+     * @param fetchSize 每批拉取的行数，0 表示使用驱动默认行为 (一次性读取)
+     * @param callback  每行调用一次的回调
+     * @param params    查询参数
+     * @return 处理的总行数
+     */
+    public long stream(String sql, int fetchSize, RowCallback callback, Object... params) throws SQLException {
+        Connection conn = getConnection();
+        try (PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            if (fetchSize > 0) {
+                stmt.setFetchSize(fetchSize);
             }
-            rs = stmt.executeQuery();
-            return rs;
-        } catch (SQLException e) {
-            closeResources(conn, stmt, rs);
-            throw e;
+            bindParams(stmt, params);
+            long rowCount = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    callback.processRow(rs);
+                    rowCount++;
+                }
+            }
+            return rowCount;
+        } finally {
+            releaseConnection(conn);
         }
     }
 
     // 执行更新（插入、更新、删除）
-    public static int executeUpdate(String sql, Object... params) throws SQLException {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-
-        try {
-            conn = getConnection();
-            stmt = conn.prepareStatement(sql);
-            for (int i = 0; i < params.length; i++) {
-                stmt.setObject(i + 1, params[i]);
-            }
+    public int executeUpdate(String sql, Object... params) throws SQLException {
+        Connection conn = getConnection();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bindParams(stmt, params);
             return stmt.executeUpdate();
-        } catch (SQLException e) {
-            closeResources(conn, stmt);
-            throw e;
+        } finally {
+            releaseConnection(conn);
         }
     }
 
-    // 关闭资源
-    public static void closeResources(Connection conn, Statement stmt, ResultSet rs) throws SQLException {
-        if (rs != null && !rs.isClosed()) {
-            rs.close();
-        }
-        if (stmt != null && !stmt.isClosed()) {
-            stmt.close();
+    /**
+     * 批量执行同一条语句 (多行写入)。
+     * 每 db.batch.size 条参数提交一次 JDBC 批处理；不在外部事务中时，整个批次在一个本地事务里提交，
+     * 任意一批失败则全部回滚。
+     *
+     * @param sql         带占位符的写语句
+     * @param batchParams 每一行的参数数组
+     * @return 每条语句的影响行数 (开启 rewriteBatchedStatements 时可能为 Statement.SUCCESS_NO_INFO)
+     */
+    public int[] executeBatch(String sql, List<Object[]> batchParams) throws SQLException {
+        if (batchParams == null || batchParams.isEmpty()) {
+            return new int[0];
         }
-        if (conn != null && !conn.isClosed()) {
-            conn.close();
+        Connection conn = getConnection();
+        boolean manageTransaction = !DataSourceUtils.isConnectionTransactional(conn, dataSource) && conn.getAutoCommit();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            if (manageTransaction) {
+                conn.setAutoCommit(false);
+            }
+            int[] results = new int[batchParams.size()];
+            int resultIndex = 0;
+            int pending = 0;
+            for (Object[] params : batchParams) {
+                bindParams(stmt, params);
+                stmt.addBatch();
+                if (++pending == batchSize) {
+                    int[] counts = stmt.executeBatch();
+                    System.arraycopy(counts, 0, results, resultIndex, counts.length);
+                    resultIndex += counts.length;
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                int[] counts = stmt.executeBatch();
+                System.arraycopy(counts, 0, results, resultIndex, counts.length);
+            }
+            if (manageTransaction) {
+                conn.commit();
+            }
+            return results;
+        } catch (SQLException e) {
+            if (manageTransaction) {
+                conn.rollback();
+            }
+            throw e;
+        } finally {
+            if (manageTransaction) {
+                conn.setAutoCommit(true);
+            }
+            releaseConnection(conn);
         }
     }
-
-    // 重载关闭资源的方法，不带 ResultSet
-    public static void closeResources(Connection conn, Statement stmt) throws SQLException {
-        closeResources(conn, stmt, null);
-    }
 }
@@ -117,9 +117,11 @@ public class DataBase {
                         "course_teacher VARCHAR(100) NOT NULL," + // 课程教师
                         "credit DECIMAL(3,1) NOT NULL," +
                         "major_id INT," + // 课程所属专业，用于区分专业课和选修课的判断
+                        "capacity INT NULL," + // 选课人数上限，NULL 表示不限
                         "FOREIGN KEY (major_id) REFERENCES Major(major_id) ON DELETE CASCADE," +
                         "UNIQUE (course_name, major_id)" + // 同一专业下课程名唯一
                         ");",
+                "ALTER TABLE Course ADD COLUMN capacity INT NULL;", // 旧版本的 Course 表没有 capacity 列 (已存在时执行失败，可忽略)
                 // 9. 创建Enrollment表 (修读学分信息，即选课记录和成绩)
                 "CREATE TABLE IF NOT EXISTS Enrollment (" +
                         "enrollment_id INT PRIMARY KEY AUTO_INCREMENT," +
@@ -130,6 +132,16 @@ public class DataBase {
                         "FOREIGN KEY (course_id) REFERENCES Course(course_id) ON DELETE CASCADE," +
                         "UNIQUE (student_id, course_id)" + // 一个学生同一门课只能有一条选课记录
                         ");",
+                // 9.1 创建CourseWaitlist表 (课程满员后的候补队列，按 waitlist_id 先到先得)
+                "CREATE TABLE IF NOT EXISTS CourseWaitlist (" +
+                        "waitlist_id BIGINT PRIMARY KEY AUTO_INCREMENT," +
+                        "student_id INT NOT NULL," +
+                        "course_id INT NOT NULL," +
+                        "created_at DATETIME DEFAULT CURRENT_TIMESTAMP," +
+                        "FOREIGN KEY (student_id) REFERENCES Student(student_id) ON DELETE CASCADE," +
+                        "FOREIGN KEY (course_id) REFERENCES Course(course_id) ON DELETE CASCADE," +
+                        "UNIQUE (student_id, course_id)" + // 同一学生在同一门课的候补队列中只出现一次
+                        ");",
                 // 10. 创建LeaveRequest表 (请假信息)
                 "CREATE TABLE IF NOT EXISTS LeaveRequest (" +
                         "leave_id INT PRIMARY KEY AUTO_INCREMENT," +
@@ -144,14 +156,14 @@ public class DataBase {
                         "FOREIGN KEY (student_id) REFERENCES Student(student_id) ON DELETE CASCADE," +
                         "FOREIGN KEY (approved_by_admin_id) REFERENCES Admin(admin_id) ON DELETE SET NULL" +
                         ");",
-                // 11. 创建CreditSummary视图 (修读学分统计视图)
-                "CREATE OR REPLACE VIEW CreditSummary AS " +
-                        "SELECT e.student_id, s.name AS student_name, SUM(c.credit) AS total_credits " +
-                        "FROM Enrollment e " +
-                        "JOIN Course c ON e.course_id = c.course_id " +
-                        "JOIN Student s ON e.student_id = s.student_id " +
-                        "WHERE e.grade >= 60.0 " + // 假设60分及以上获得学分
-                        "GROUP BY e.student_id, s.name;",
+                // 11. 创建CreditSummary表 (修读学分统计汇总表，由应用在成绩/课程变更时增量维护)
+                "DROP VIEW IF EXISTS CreditSummary;", // 旧版本中 CreditSummary 是视图，先删除
+                "CREATE TABLE IF NOT EXISTS CreditSummary (" +
+                        "student_id INT PRIMARY KEY," +
+                        "total_credits DECIMAL(7,1) NOT NULL DEFAULT 0," + // 成绩60分及以上课程的学分之和
+                        "INDEX idx_creditsummary_total (total_credits)," +
+                        "FOREIGN KEY (student_id) REFERENCES Student(student_id) ON DELETE CASCADE" +
+                        ");",
                 // 12. 创建AdminLog表 (管理员操作日志)
                 "CREATE TABLE IF NOT EXISTS AdminLog (" +
                         "log_id INT PRIMARY KEY AUTO_INCREMENT," +
@@ -163,7 +175,18 @@ public class DataBase {
                         "action_description TEXT," +
                         "action_timestamp DATETIME DEFAULT CURRENT_TIMESTAMP," +
                         "FOREIGN KEY (admin_id) REFERENCES Admin(admin_id) ON DELETE SET NULL" +
-                        ");"
+                        ");",
+                // 13. AdminLog 游标分页使用的复合索引 (按时间倒序 + log_id 保证顺序稳定)
+                "CREATE INDEX idx_adminlog_ts_id ON AdminLog (action_timestamp, log_id);",
+                // 14. 管理员列表服务端排序/筛选使用的二级索引 (InnoDB 二级索引隐含主键，可直接按 "列, 主键" 顺序分页)
+                "CREATE INDEX idx_student_name ON Student (name);",
+                "CREATE INDEX idx_student_gender ON Student (gender);",
+                "CREATE INDEX idx_course_name ON Course (course_name);",
+                "CREATE INDEX idx_course_teacher ON Course (course_teacher);",
+                "CREATE INDEX idx_course_credit ON Course (credit);",
+                "CREATE INDEX idx_classinfo_name ON ClassInfo (class_name);",
+                "CREATE INDEX idx_leaverequest_request_date ON LeaveRequest (request_date);",
+                "CREATE INDEX idx_leaverequest_status_date ON LeaveRequest (status, request_date);"
         };
 
         // 先连接到MySQL服务器，不指定数据库名，用于创建数据库
@@ -225,6 +248,9 @@ public class DataBase {
             // 添加选课数据 (Enrollment表，带有成绩)
             addInitialEnrollmentData(conn);
 
+            // 根据选课成绩重建学分汇总表
+            rebuildCreditSummary(conn);
+
             System.out.println("数据库所有数据初始化完成！");
 
         } catch (SQLException e) {
@@ -233,6 +259,19 @@ public class DataBase {
         }
     }
 
+    private static void rebuildCreditSummary(Connection conn) {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM CreditSummary");
+            int rows = stmt.executeUpdate("INSERT INTO CreditSummary (student_id, total_credits) " +
+                    "SELECT e.student_id, SUM(c.credit) FROM Enrollment e " +
+                    "JOIN Course c ON e.course_id = c.course_id " +
+                    "WHERE e.grade >= 60.0 GROUP BY e.student_id");
+            System.out.println("学分汇总表重建完成，共 " + rows + " 名学生。");
+        } catch (SQLException e) {
+            System.err.println("重建学分汇总表失败: " + e.getMessage());
+        }
+    }
+
     private static Properties loadProperties() {
         try (InputStream input = DataBase.class.getClassLoader()
                 .getResourceAsStream("application.properties")) {
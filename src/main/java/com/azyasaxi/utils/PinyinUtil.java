@@ -0,0 +1,66 @@
+package com.azyasaxi.utils;
+
+import net.sourceforge.pinyin4j.PinyinHelper; // 汉字转拼音
+import net.sourceforge.pinyin4j.format.HanyuPinyinCaseType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinOutputFormat;
+import net.sourceforge.pinyin4j.format.HanyuPinyinToneType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinVCharType;
+import net.sourceforge.pinyin4j.format.exception.BadHanyuPinyinOutputFormatCombination;
+
+import java.util.Locale;
+
+public class PinyinUtil {
+
+    // 小写、无声调，ü 输出为 v (与常见拼音输入习惯一致，如 "lv")
+    private static final HanyuPinyinOutputFormat FORMAT = new HanyuPinyinOutputFormat();
+
+    static {
+        FORMAT.setCaseType(HanyuPinyinCaseType.LOWERCASE);
+        FORMAT.setToneType(HanyuPinyinToneType.WITHOUT_TONE);
+        FORMAT.setVCharType(HanyuPinyinVCharType.WITH_V);
+    }
+
+    /**
+     * 将文本转换为全拼 (不带空格)，例如 "张三" -> "zhangsan"。
+     * 非汉字字符原样保留 (转为小写)；多音字取第一个读音。
+     *
+     * @param text 要转换的文本
+     * @return 全拼字符串，text 为 null 时返回 null
+     */
+    public static String toPinyin(String text) {
+        return convert(text, false);
+    }
+
+    /**
+     * 将文本转换为拼音首字母，例如 "张三" -> "zs"。
+     * 非汉字字符原样保留 (转为小写)；多音字取第一个读音。
+     *
+     * @param text 要转换的文本
+     * @return 首字母字符串，text 为 null 时返回 null
+     */
+    public static String toInitials(String text) {
+        return convert(text, true);
+    }
+
+    private static String convert(String text, boolean initialsOnly) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder result = new StringBuilder(text.length() * (initialsOnly ? 1 : 6));
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String[] readings = null;
+            try {
+                readings = PinyinHelper.toHanyuPinyinStringArray(c, FORMAT); // 非汉字返回 null
+            } catch (BadHanyuPinyinOutputFormatCombination e) {
+                // 输出格式固定且合法，不会发生
+            }
+            if (readings != null && readings.length > 0 && !readings[0].isEmpty()) {
+                result.append(initialsOnly ? readings[0].substring(0, 1) : readings[0]);
+            } else if (!Character.isWhitespace(c)) {
+                result.append(Character.toLowerCase(c));
+            }
+        }
+        return result.toString().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,48 @@
+package com.azyasaxi.utils;
+
+import com.azyasaxi.model.ListQuery;
+
+import java.util.List;
+import java.util.Map;
+
+public class SortClause {
+
+    /**
+     * 根据查询条件构建 ORDER BY 子句。
+     * 排序列只能取白名单中的值 (接口字段名 -> SQL 列)，客户端传入的字符串不会拼接进 SQL；
+     * 不在白名单中或未指定时使用默认排序。指定的排序列后面追加主键作为第二排序列，保证分页时顺序稳定。
+     *
+     * @param query            列表查询条件
+     * @param sortableColumns  可排序列白名单 (接口字段名 -> SQL 列)
+     * @param defaultOrderBy   默认排序 (不含 "ORDER BY")
+     * @param tieBreakerColumn 主键列，作为第二排序列
+     * @return 以空格开头的 ORDER BY 子句
+     */
+    public static String orderBy(ListQuery query, Map<String, String> sortableColumns,
+                                 String defaultOrderBy, String tieBreakerColumn) {
+        String column = query.getSortKey() == null ? null : sortableColumns.get(query.getSortKey());
+        if (column == null) {
+            return " ORDER BY " + defaultOrderBy;
+        }
+        String direction = query.isAscending() ? " ASC" : " DESC";
+        if (column.equals(tieBreakerColumn)) {
+            return " ORDER BY " + column + direction;
+        }
+        return " ORDER BY " + column + direction + ", " + tieBreakerColumn + direction;
+    }
+
+    /**
+     * 追加分页子句。pageSize 大于 0 时多取一行 (pageSize + 1)，用于判断是否还有下一页。
+     *
+     * @param sql    SQL 构建器
+     * @param params 参数列表
+     * @param query  列表查询条件
+     */
+    public static void appendPage(StringBuilder sql, List<Object> params, ListQuery query) {
+        if (query.getPageSize() > 0) {
+            sql.append(" LIMIT ? OFFSET ?");
+            params.add(query.getPageSize() + 1);
+            params.add(Math.max(0, query.getOffset()));
+        }
+    }
+}
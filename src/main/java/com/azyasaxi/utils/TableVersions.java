@@ -0,0 +1,101 @@
+package com.azyasaxi.utils;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * TableVersions 类
+ * 进程内的数据表版本号。Service 层的写方法在写入成功 (事务提交) 后递增相应表的版本号，
+ * 只读页面根据所依赖的表的版本号计算 ETag：浏览器带 If-None-Match 重新请求时，
+ * 版本号没有变化就直接返回 304，不查询数据库也不重新渲染 JSP。
+ * 版本号只在内存中，应用重启后归零；ETag 中带有启动时间，重启前发出的 ETag 不会被误认为有效。
+ */
+public class TableVersions {
+
+    /**
+     * 带版本号的数据表。
+     */
+    public enum Table {
+        STUDENT,
+        COURSE,
+        CLASS_INFO,
+        ENROLLMENT,
+        LEAVE_REQUEST
+    }
+
+    private final AtomicLongArray versions = new AtomicLongArray(Table.values().length);
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36); // 启动时间，区分不同进程发出的 ETag
+
+    /**
+     * 递增数据表的版本号。必须在写入提交之后调用：先递增再提交的话，并发的读请求可能用新版本号缓存旧数据。
+     *
+     * @param tables 被修改的数据表 (包括级联删除波及的表)
+     */
+    public void bump(Table... tables) {
+        for (Table table : tables) {
+            versions.incrementAndGet(table.ordinal());
+        }
+    }
+
+    /**
+     * 根据所依赖的数据表的当前版本号计算 ETag。必须在查询数据之前调用，
+     * 这样查询期间发生的写入只会让 ETag 偏旧 (下次请求重新渲染)，不会让旧数据带上新 ETag。
+     *
+     * @param variant 页面中与数据表无关的可变部分 (如当前登录用户名)，可以为 null
+     * @param tables  页面读取的数据表
+     * @return 带双引号的 ETag
+     */
+    public String etag(String variant, Table... tables) {
+        StringBuilder etag = new StringBuilder("\"").append(epoch);
+        for (Table table : tables) {
+            etag.append('-').append(Long.toString(versions.get(table.ordinal()), 36));
+        }
+        if (variant != null) {
+            etag.append('-').append(Integer.toHexString(variant.hashCode()));
+        }
+        return etag.append('"').toString();
+    }
+
+    /**
+     * 处理条件请求。请求的 If-None-Match 包含该 ETag 时返回 304 并返回 true，调用方应直接结束处理；
+     * 否则返回 false，调用方照常生成页面，并在成功时调用 {@link #writeETag} 发出 ETag。
+     *
+     * @param request  HTTP 请求
+     * @param response HTTP 响应
+     * @param etag     当前 ETag
+     * @return 已返回 304 时为 true
+     */
+    public static boolean notModified(HttpServletRequest request, HttpServletResponse response, String etag) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch == null || !matches(ifNoneMatch, etag)) {
+            return false;
+        }
+        writeETag(response, etag);
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        return true;
+    }
+
+    /**
+     * 发出 ETag。页面需要登录才能访问，只允许浏览器私有缓存，并要求每次使用前都重新验证。
+     */
+    public static void writeETag(HttpServletResponse response, String etag) {
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", "private, no-cache");
+    }
+
+    // If-None-Match 可以是 "*" 或逗号分隔的多个 ETag，弱 ETag 前缀 W/ 按弱比较忽略
+    private static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,93 +1,273 @@
 /**
  * 文件: assets/js/admin.js
- * 描述: 管理员控制台的客户端交互脚本，包括模块切换、表格排序/筛选、消息提示等。
+ * 描述: 管理员控制台的客户端交互脚本，包括模块切换、列表分页加载、服务端排序/筛选、消息提示等。
  */
 document.addEventListener('DOMContentLoaded', function () {
     console.log('admin.js loaded and DOM fully parsed.');
 
-    const sortableHeaders = document.querySelectorAll('th[data-sortable]');
-    const genderFilterHeader = document.querySelector('th[data-filterable-type="gender"]'); // 学生列表的性别筛选
+    const sidebarLinks = document.querySelectorAll('.sidebar ul li a');
+    const contentModules = document.querySelectorAll('.admin-main .module');
 
-    sortableHeaders.forEach(header => {
-        // 确保性别筛选表头不被重复处理为普通排序（如果它同时也有 data-sortable）
-        if (header === genderFilterHeader && header.dataset.filterableType === 'gender') {
-            return; // 性别筛选列有单独的点击处理逻辑
+    function showModule(moduleIdToShow) {
+        if (!moduleIdToShow) {
+            console.warn("showModule called with invalid moduleId:", moduleIdToShow);
+            return;
         }
 
-        header.addEventListener('click', function () {
-            const table = this.closest('table');
-            if (!table) {
-                console.warn("Sortable header clicked, but no parent table found.");
-                return;
+        let moduleFound = false;
+        contentModules.forEach(module => {
+            if (module.id === moduleIdToShow) {
+                module.classList.add('active');
+                moduleFound = true;
+            } else {
+                module.classList.remove('active');
             }
+        });
 
-            const columnIndex = parseInt(this.dataset.columnIndex);
-            const columnType = this.dataset.columnType; // 获取列类型
-            // 判断是否为数字类型（包括 'numeric', 'floatNumber', 'integer' 等）
-            const columnTypeIsNumeric = (columnType === 'numeric' || columnType === 'floatNumber' || columnType === 'integer');
-            console.log(`Header clicked: columnType='${columnType}', columnTypeIsNumeric=${columnTypeIsNumeric}`); // 调试日志
-
-            let currentSortDir = this.dataset.sortDir || 'desc'; // 默认为降序，点击后变为升序
-            const newSortDir = currentSortDir === 'asc' ? 'desc' : 'asc';
+        if (!moduleFound) {
+            console.warn("Module with ID '" + moduleIdToShow + "' not found. Cannot activate.");
+            // 可以选择显示一个默认模块或记录错误
+            return;
+        }
 
-            // 重置其他表头的排序方向指示
-            table.querySelectorAll('th[data-sortable]').forEach(th => {
-                if (th !== this) {
-                    delete th.dataset.sortDir;
-                    th.classList.remove('sort-asc', 'sort-desc');
-                }
-            });
-            this.dataset.sortDir = newSortDir; // 设置当前列的排序状态
-            this.classList.remove(newSortDir === 'asc' ? 'sort-desc' : 'sort-asc'); // 移除相反的类
-            this.classList.add(newSortDir === 'asc' ? 'sort-asc' : 'sort-desc');    // 添加正确的类
+        document.querySelectorAll('.sidebar ul li').forEach(listItem => {
+            if (listItem.dataset.moduleId === moduleIdToShow) {
+                listItem.classList.add('active');
+            } else {
+                listItem.classList.remove('active');
+            }
+        });
 
-            console.log(`Sorting table '${table.id || 'untitled'}' by column index: ${columnIndex}, type: ${columnTypeIsNumeric ? 'numeric' : 'text'}, direction: ${newSortDir}`);
+        localStorage.setItem('activeAdminModule', moduleIdToShow);
+        console.log("Active module set to:", moduleIdToShow);
+        loadModuleLists(moduleIdToShow);
+    }
 
-            sortTableByColumn(table, columnIndex, newSortDir === 'asc', columnTypeIsNumeric);
+    sidebarLinks.forEach(link => {
+        link.addEventListener('click', function (event) {
+            // 从 href 获取模块 ID, 例如 "#student" -> "student"
+            const moduleId = this.getAttribute('href').substring(1);
+            if (document.getElementById(moduleId)) {
+                // event.preventDefault(); // 如果不希望改变URL hash，可以取消注释
+                showModule(moduleId);
+            } else {
+                console.warn("Clicked link for non-existent module:", moduleId);
+            }
         });
     });
 
-    if (genderFilterHeader) {
-        let genderFilterStates = ['all', '男', '女']; // 筛选状态：全部，男，女
-        let currentGenderFilterIndex = 0; // 当前筛选状态索引
+    // ---------------- 列表数据按需分页加载 ----------------
+    // 仪表盘页面不再内嵌列表数据：模块第一次可见时请求第一页 JSON，滚动到表格底部时继续加载下一页。
+    const contextPath = document.querySelector('.admin-main').dataset.contextPath || '';
+    const PAGE_SIZE = 50;
 
-        genderFilterHeader.style.cursor = 'pointer'; // 提示可点击
-        updateGenderFilterDisplay(genderFilterHeader, genderFilterStates[currentGenderFilterIndex]); // 初始化显示
+    function textCell(value) {
+        const td = document.createElement('td');
+        td.textContent = value === null || value === undefined ? '' : value;
+        return td;
+    }
 
-        genderFilterHeader.addEventListener('click', function () {
-            const table = this.closest('table');
-            if (!table) {
-                console.warn("Gender filter header clicked, but no parent table found.");
-                return;
+    function actionCell(links) {
+        const td = document.createElement('td');
+        links.forEach(({ href, text, className, confirmText }) => {
+            const a = document.createElement('a');
+            a.href = contextPath + href;
+            a.textContent = text;
+            a.className = 'action-link' + (className ? ' ' + className : '');
+            if (confirmText) {
+                a.addEventListener('click', event => {
+                    if (!confirm(confirmText)) {
+                        event.preventDefault();
+                    }
+                });
             }
-            const tbody = table.querySelector('tbody');
-            if (!tbody) {
-                console.warn("Gender filter header clicked, but no tbody found in table.");
-                return;
+            td.appendChild(a);
+            td.appendChild(document.createTextNode(' '));
+        });
+        return td;
+    }
+
+    // 名称缺失时的显示与原 JSP 保持一致
+    function nameOrFallback(name, id, idLabel, emptyText) {
+        if (name) return name;
+        if (id !== null && id !== undefined) return `${idLabel}: ${id} (名称未找到)`;
+        return emptyText;
+    }
+
+    function formatCredit(value) {
+        return value === null || value === undefined ? '' : Number(value).toFixed(1);
+    }
+
+    // 表格ID -> (搜索表单字段到接口参数的映射, 单行渲染)
+    const listConfigs = {
+        'class-list-table': {
+            params: form => ({ q: form.elements.searchClassTerm.value }),
+            render: c => [
+                textCell(c.className),
+                textCell(nameOrFallback(c.majorName, c.majorId, '专业ID', '未指定专业')),
+                textCell(nameOrFallback(c.collegeName, c.collegeId, '学院ID', '未指定学院')),
+                actionCell([
+                    { href: `/admin/deleteClass?id=${c.classId}`, text: '删除', className: 'delete-link', confirmText: '确定要删除该班级吗？此操作可能影响关联学生。' },
+                    { href: `/admin/viewClassInfoDetails?id=${c.classId}`, text: '详情' }
+                ])
+            ]
+        },
+        'student-list-table': {
+            params: form => ({ q: form.elements.searchStudentTerm.value }),
+            render: s => [
+                textCell(s.studentId),
+                textCell(s.name),
+                textCell(s.gender),
+                textCell(nameOrFallback(s.className, s.classId, '班级ID', '未分配班级')),
+                actionCell([
+                    { href: `/admin/editStudent?id=${s.studentId}`, text: '编辑' },
+                    { href: `/admin/deleteStudent?id=${s.studentId}`, text: '删除', className: 'delete-link', confirmText: '确定要删除该学生吗？' },
+                    { href: `/admin/viewStudentDetails?id=${s.studentId}`, text: '详情' }
+                ])
+            ]
+        },
+        'course-list-table': {
+            params: form => ({ q: form.elements.searchCourseTerm.value }),
+            render: c => [
+                textCell(c.courseId),
+                textCell(c.courseName),
+                textCell(c.courseTeacher),
+                textCell(formatCredit(c.credit)),
+                textCell(nameOrFallback(c.majorName, c.majorId, '专业ID', '全校选修或未指定')),
+                actionCell([
+                    { href: `/admin/editCourse?id=${c.courseId}`, text: '编辑' },
+                    { href: `/admin/deleteCourse?id=${c.courseId}`, text: '删除', className: 'delete-link', confirmText: '确定要删除该课程吗？' },
+                    { href: `/admin/viewCourseDetails?id=${c.courseId}`, text: '详情' }
+                ])
+            ]
+        },
+        'leave-request-list-table': {
+            params: form => ({ q: form.elements.searchLeaveStudentName.value, status: form.elements.searchLeaveStatus.value }),
+            render: l => {
+                const statusCell = document.createElement('td');
+                const badge = document.createElement('span');
+                badge.className = 'status-' + (l.status === '待审批' ? 'pending' : (l.status === '已批准' ? 'approved' : 'rejected'));
+                badge.textContent = l.status;
+                statusCell.appendChild(badge);
+                const actions = l.status === '待审批' ? [
+                    { href: `/admin/approveLeave?id=${l.leaveId}`, text: '批准', className: 'btn-approve', confirmText: '确定要批准该请假申请吗？' },
+                    { href: `/admin/rejectLeave?id=${l.leaveId}`, text: '驳回', className: 'btn-reject', confirmText: '确定要驳回该请假申请吗？' }
+                ] : [];
+                return [
+                    textCell(l.leaveId),
+                    textCell(l.studentName),
+                    textCell(l.reason),
+                    textCell(l.startDate),
+                    textCell(l.endDate),
+                    statusCell,
+                    textCell(l.requestDate),
+                    actionCell(actions)
+                ];
             }
+        },
+        'credit-summary-list-table': {
+            params: form => ({ q: form.elements.searchCreditTerm.value }),
+            render: c => [
+                textCell(c.studentId),
+                textCell(c.studentName),
+                textCell(formatCredit(c.totalCredits)),
+                actionCell([
+                    { href: `/admin/viewStudentCreditDetails?studentId=${c.studentId}`, text: '查看详情' }
+                ])
+            ]
+        }
+    };
 
-            const columnIndex = parseInt(this.dataset.columnIndex); // 获取性别列的索引
+    const listStates = new Map(); // 表格ID -> { params, nextOffset, hasMore, loading, controller }
+    const listSorts = new Map();  // 表格ID -> 表头选择的排序与筛选参数 { sort, dir, gender }，搜索时保留
 
-            // 切换到下一个筛选状态
-            currentGenderFilterIndex = (currentGenderFilterIndex + 1) % genderFilterStates.length;
-            const currentFilterValue = genderFilterStates[currentGenderFilterIndex];
+    function setListStatus(tableId, text) {
+        const status = document.querySelector(`.list-status[data-status-for="${tableId}"]`);
+        if (status) {
+            status.textContent = text;
+        }
+    }
 
-            updateGenderFilterDisplay(this, currentFilterValue); // 更新表头显示
-            console.log(`Filtering student table by gender: ${currentFilterValue}`);
-
-            const rows = tbody.querySelectorAll('tr');
-            rows.forEach(row => {
-                const cell = row.querySelectorAll('td')[columnIndex];
-                if (cell) {
-                    const cellValue = cell.innerText.trim();
-                    if (currentFilterValue === 'all' || cellValue === currentFilterValue) {
-                        row.style.display = ''; // 显示符合条件的行
-                    } else {
-                        row.style.display = 'none'; // 隐藏不符合条件的行
-                    }
+    function resetList(tableId) {
+        const table = document.getElementById(tableId);
+        const form = document.querySelector(`form[data-list-table="${tableId}"]`);
+        const previous = listStates.get(tableId);
+        if (previous && previous.controller) {
+            previous.controller.abort(); // 取消旧条件下尚未返回的请求
+        }
+        table.querySelector('tbody').innerHTML = '';
+        const state = {
+            params: Object.assign(form ? listConfigs[tableId].params(form) : {}, listSorts.get(tableId)),
+            nextOffset: 0, hasMore: true, loading: false, controller: null
+        };
+        listStates.set(tableId, state);
+        loadNextPage(tableId);
+    }
+
+    function loadNextPage(tableId) {
+        const state = listStates.get(tableId);
+        if (!state || state.loading || !state.hasMore) {
+            return;
+        }
+        const table = document.getElementById(tableId);
+        const query = new URLSearchParams({ offset: state.nextOffset, limit: PAGE_SIZE });
+        Object.entries(state.params).forEach(([key, value]) => {
+            if (value) query.set(key, value.trim());
+        });
+
+        state.loading = true;
+        state.controller = new AbortController();
+        setListStatus(tableId, '加载中...');
+        fetch(table.dataset.sourceUrl + '?' + query, { signal: state.controller.signal })
+            .then(response => {
+                if (!response.ok) throw new Error('HTTP ' + response.status);
+                return response.json();
+            })
+            .then(page => {
+                const tbody = table.querySelector('tbody');
+                const fragment = document.createDocumentFragment();
+                page.items.forEach(item => {
+                    const tr = document.createElement('tr');
+                    listConfigs[tableId].render(item).forEach(td => tr.appendChild(td));
+                    fragment.appendChild(tr);
+                });
+                tbody.appendChild(fragment);
+                state.hasMore = page.hasMore;
+                state.nextOffset = page.nextOffset;
+                state.loading = false;
+                if (!tbody.children.length) {
+                    setListStatus(tableId, table.dataset.emptyText);
+                } else {
+                    setListStatus(tableId, state.hasMore ? '向下滚动加载更多' : `已全部加载 (${tbody.children.length} 条)`);
+                }
+                // 第一页不足以填满屏幕时，状态行仍在视口内，继续加载
+                observeStatus(tableId);
+            })
+            .catch(error => {
+                state.loading = false;
+                if (error.name !== 'AbortError') {
+                    console.warn('加载列表数据失败:', tableId, error);
+                    setListStatus(tableId, '加载失败，请稍后刷新重试。');
+                    state.hasMore = false;
                 }
             });
+    }
+
+    // 状态行进入视口 (滚动到表格底部) 时加载下一页；隐藏模块中的状态行不会进入视口
+    const statusObserver = 'IntersectionObserver' in window ? new IntersectionObserver(entries => {
+        entries.forEach(entry => {
+            if (entry.isIntersecting) {
+                loadNextPage(entry.target.dataset.statusFor);
+            }
         });
+    }, { rootMargin: '200px' }) : null;
+
+    function observeStatus(tableId) {
+        const status = document.querySelector(`.list-status[data-status-for="${tableId}"]`);
+        if (statusObserver && status) {
+            statusObserver.unobserve(status); // 重新观察以便再次触发当前的可见状态
+            statusObserver.observe(status);
+        }
     }
 
     /**
@@ -102,138 +282,73 @@ document.addEventListener('DOMContentLoaded', function () {
         } else {
             headerElement.textContent = `${baseText} (${filterState})`; // 例如 "性别 (男)"
         }
-        // 移除旧的排序/筛选指示类
-        headerElement.classList.remove('sort-asc', 'sort-desc', 'filter-active');
+        headerElement.classList.remove('filter-active');
         if (filterState !== 'all') {
             headerElement.classList.add('filter-active'); // 如果不是'all'，可以添加一个类以突出显示筛选状态
         }
     }
 
-    /**
-     * 通用的表格排序函数。
-     * @param {HTMLTableElement} table 要排序的表格元素
-     * @param {number} columnIndex 要排序的列索引 (0-based)
-     * @param {boolean} asc 是否升序排序 (true for asc, false for desc)
-     * @param {boolean} isNumeric 列是否为数字类型
-     */
-    function sortTableByColumn(table, columnIndex, asc = true, isNumeric = false) {
-        const tbody = table.querySelector('tbody');
-        if (!tbody) {
-            console.warn("sortTableByColumn called, but no tbody found in table:", table.id || 'untitled');
-            return;
-        }
-
-        // 获取所有当前可见的行进行排序
-        const rowsToSort = Array.from(tbody.querySelectorAll('tr')).filter(row => row.style.display !== 'none');
-
-        // 如果没有可见的行，则不执行排序
-        if (rowsToSort.length === 0) {
-            console.log("No visible rows to sort in table:", table.id || 'untitled');
-            return;
-        }
-
-        const sortedRows = rowsToSort.sort((a, b) => {
-            const cellAElement = a.querySelectorAll('td')[columnIndex];
-            const cellBElement = b.querySelectorAll('td')[columnIndex];
-
-            // 如果某一行没有足够的td（例如合并的单元格或者损坏的行结构），则将其视为相等或放在末尾
-            if (!cellAElement && !cellBElement) return 0;
-            if (!cellAElement) return asc ? 1 : -1; // A 无单元格，视为较大值
-            if (!cellBElement) return asc ? -1 : 1; // B 无单元格，视为较大值
-
-            const cellAValue = cellAElement.innerText.trim();
-            const cellBValue = cellBElement.innerText.trim();
-
-            let valA, valB;
-
-            if (isNumeric) {
-                valA = parseFloat(cellAValue);
-                valB = parseFloat(cellBValue);
-                console.log(`Numeric compare: cellA='${cellAValue}' (parsed: ${valA}), cellB='${cellBValue}' (parsed: ${valB})`); // 调试日志
-
-                const aIsNaN = isNaN(valA);
-                const bIsNaN = isNaN(valB);
-
-                if (aIsNaN && bIsNaN) return 0;
-                if (aIsNaN) return asc ? 1 : -1;  // NaN 值排在有效数字之后 (升序时)
-                if (bIsNaN) return asc ? -1 : 1;  // 有效数字排在 NaN 值之前 (升序时)
-
-                // 两个都是有效数字
-                if (valA < valB) return asc ? -1 : 1;
-                if (valA > valB) return asc ? 1 : -1;
-                return 0;
-
-            } else { // 文本排序
-                valA = cellAValue.toLowerCase();
-                valB = cellBValue.toLowerCase();
-                // console.log(`Text compare: '${valA}' vs '${valB}'`); // 调试日志
+    // 表头排序与性别筛选：由服务端按白名单列排序/筛选后重新加载第一页，浏览器不再对 DOM 行排序
+    document.querySelectorAll('table[data-source-url] th[data-sort-key]').forEach(header => {
+        header.addEventListener('click', function () {
+            const table = this.closest('table');
+            const newSortDir = this.dataset.sortDir === 'asc' ? 'desc' : 'asc'; // 第一次点击为升序
 
-                if (valA === '' && valB !== '') return asc ? 1 : -1;
-                if (valA !== '' && valB === '') return asc ? -1 : 1;
-                if (valA === '' && valB === '') return 0;
+            // 重置其他表头的排序方向指示
+            table.querySelectorAll('th[data-sort-key]').forEach(th => {
+                if (th !== this) {
+                    delete th.dataset.sortDir;
+                    th.classList.remove('sort-asc', 'sort-desc');
+                }
+            });
+            this.dataset.sortDir = newSortDir;
+            this.classList.remove(newSortDir === 'asc' ? 'sort-desc' : 'sort-asc');
+            this.classList.add(newSortDir === 'asc' ? 'sort-asc' : 'sort-desc');
 
-                // 使用 localeCompare 进行更准确的字符串比较 (推荐)
-                return asc ? valA.localeCompare(valB) : valB.localeCompare(valA);
-                // 或者简单的比较：
-                // if (valA < valB) return asc ? -1 : 1;
-                // if (valA > valB) return asc ? 1 : -1;
-                // return 0;
-            }
+            const sortState = Object.assign({}, listSorts.get(table.id), { sort: this.dataset.sortKey, dir: newSortDir });
+            listSorts.set(table.id, sortState);
+            resetList(table.id);
         });
+    });
 
-        // 将排序后的行（仅可见行）重新添加到tbody的末尾
-        // 这会保持未参与排序的隐藏行的位置（如果它们还在tbody中）
-        // 如果希望所有行（包括隐藏行）都参与排序并且tbody被完全重构，则需要不同的处理
-        tbody.append(...sortedRows);
-    }
-
-    const sidebarLinks = document.querySelectorAll('.sidebar ul li a');
-    const contentModules = document.querySelectorAll('.admin-main .module');
+    document.querySelectorAll('table[data-source-url] th[data-filterable-type="gender"]').forEach(header => {
+        const genderFilterStates = ['all', '男', '女']; // 筛选状态：全部，男，女
+        let currentGenderFilterIndex = 0; // 当前筛选状态索引
+        updateGenderFilterDisplay(header, genderFilterStates[currentGenderFilterIndex]); // 初始化显示
 
-    function showModule(moduleIdToShow) {
-        if (!moduleIdToShow) {
-            console.warn("showModule called with invalid moduleId:", moduleIdToShow);
-            return;
-        }
+        header.addEventListener('click', function () {
+            const table = this.closest('table');
+            currentGenderFilterIndex = (currentGenderFilterIndex + 1) % genderFilterStates.length;
+            const currentFilterValue = genderFilterStates[currentGenderFilterIndex];
+            updateGenderFilterDisplay(this, currentFilterValue);
 
-        let moduleFound = false;
-        contentModules.forEach(module => {
-            if (module.id === moduleIdToShow) {
-                module.classList.add('active');
-                moduleFound = true;
+            const sortState = Object.assign({}, listSorts.get(table.id));
+            if (currentFilterValue === 'all') {
+                delete sortState.gender;
             } else {
-                module.classList.remove('active');
+                sortState.gender = currentFilterValue;
             }
+            listSorts.set(table.id, sortState);
+            resetList(table.id);
         });
+    });
 
-        if (!moduleFound) {
-            console.warn("Module with ID '" + moduleIdToShow + "' not found. Cannot activate.");
-            // 可以选择显示一个默认模块或记录错误
-            return;
-        }
-
-        document.querySelectorAll('.sidebar ul li').forEach(listItem => {
-            if (listItem.dataset.moduleId === moduleIdToShow) {
-                listItem.classList.add('active');
-            } else {
-                listItem.classList.remove('active');
+    // 模块第一次可见时才加载其中的列表
+    function loadModuleLists(moduleId) {
+        const module = document.getElementById(moduleId);
+        if (!module) return;
+        module.querySelectorAll('table[data-source-url]').forEach(table => {
+            if (!listStates.has(table.id)) {
+                resetList(table.id);
             }
         });
-
-        localStorage.setItem('activeAdminModule', moduleIdToShow);
-        console.log("Active module set to:", moduleIdToShow);
     }
 
-    sidebarLinks.forEach(link => {
-        link.addEventListener('click', function (event) {
-            // 从 href 获取模块 ID, 例如 "#student" -> "student"
-            const moduleId = this.getAttribute('href').substring(1);
-            if (document.getElementById(moduleId)) {
-                // event.preventDefault(); // 如果不希望改变URL hash，可以取消注释
-                showModule(moduleId);
-            } else {
-                console.warn("Clicked link for non-existent module:", moduleId);
-            }
+    // 搜索表单改为只刷新对应列表，不重新加载整个页面
+    document.querySelectorAll('form[data-list-table]').forEach(form => {
+        form.addEventListener('submit', event => {
+            event.preventDefault();
+            resetList(form.dataset.listTable);
         });
     });
 
@@ -266,6 +381,46 @@ document.addEventListener('DOMContentLoaded', function () {
     }
     showModule(initialActiveModuleId); // 应用初始模块
 
+    // 学生搜索框输入建议 (支持姓名全拼和首字母，如 "zs" -> 张三)
+    const studentSearchInput = document.getElementById('search-student-input');
+    const studentSuggestions = document.getElementById('student-suggestions');
+    if (studentSearchInput && studentSuggestions && studentSearchInput.dataset.suggestUrl) {
+        let suggestTimer = null;
+        let suggestController = null;
+        studentSearchInput.addEventListener('input', function () {
+            clearTimeout(suggestTimer);
+            const term = this.value.trim();
+            if (!term) {
+                studentSuggestions.innerHTML = '';
+                return;
+            }
+            suggestTimer = setTimeout(() => {
+                if (suggestController) {
+                    suggestController.abort(); // 取消上一次尚未返回的请求
+                }
+                suggestController = new AbortController();
+                const url = studentSearchInput.dataset.suggestUrl + '?limit=10&q=' + encodeURIComponent(term);
+                fetch(url, { signal: suggestController.signal })
+                    .then(response => response.ok ? response.json() : [])
+                    .then(items => {
+                        studentSuggestions.innerHTML = '';
+                        items.forEach(item => {
+                            const option = document.createElement('option');
+                            option.value = item.studentId; // 选中后按学号精确搜索
+                            option.label = item.name + ' (' + item.userName + (item.className ? ', ' + item.className : '') + ')';
+                            option.textContent = option.label;
+                            studentSuggestions.appendChild(option);
+                        });
+                    })
+                    .catch(error => {
+                        if (error.name !== 'AbortError') {
+                            console.warn('获取学生搜索建议失败:', error);
+                        }
+                    });
+            }, 150); // 150ms 防抖
+        });
+    }
+
     // Flash 消息自动隐藏
     const successMessageFlash = document.querySelector('.alert-success');
     if (successMessageFlash) {
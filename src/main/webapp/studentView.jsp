@@ -155,6 +155,7 @@
                                 <th>授课教师</th>
                                 <th>学分</th>
                                 <th>我的成绩</th>
+                                <th>操作</th>
                             </tr>
                         </thead>
                         <tbody>
@@ -173,11 +174,19 @@
                                                     <c:otherwise>未录入</c:otherwise>
                                                 </c:choose>
                                             </td>
+                                            <td>
+                                                <c:if test="${enrollment.grade eq null}">
+                                                    <form action="${pageContext.request.contextPath}/student/dropCourse" method="POST" style="display:inline;">
+                                                        <input type="hidden" name="courseId" value="${enrollment.courseId}">
+                                                        <button type="submit" class="btn btn-action">退选</button>
+                                                    </form>
+                                                </c:if>
+                                            </td>
                                         </tr>
                                     </c:forEach>
                                 </c:when>
                                 <c:otherwise>
-                                    <tr><td colspan="4" style="text-align: center;">暂无已选课程记录。</td></tr>
+                                    <tr><td colspan="5" style="text-align: center;">暂无已选课程记录。</td></tr>
                                 </c:otherwise>
                             </c:choose>
                         </tbody>
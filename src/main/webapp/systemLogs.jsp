@@ -73,7 +73,11 @@
     </header>
 
     <div class="log-container">
-        <h2>系统操作日志 (共 ${totalLogs} 条)</h2>
+        <h2>系统操作日志 (约 ${totalLogs} 条，每页 ${pageSize} 条)</h2>
+
+        <p style="text-align:center; color: var(--light-text-color); font-size: 0.85em;">
+            日志写入队列：已入队 ${logQueuedCount} 条，已写入 ${logFlushedCount} 条，等待写入 ${logPendingCount} 条，已丢弃 ${logDroppedCount} 条
+        </p>
 
         <c:if test="${not empty errorMessage}">
             <div class="alert alert-danger">
@@ -124,54 +128,29 @@
                 </table>
             </div>
 
-            <%-- 分页控件 --%>
+            <%-- 分页控件 (游标分页，只提供首页 / 上一页 / 下一页) --%>
             <div class="pagination">
-                <c:if test="${currentPage > 1}">
-                    <a href="${pageContext.request.contextPath}/admin/systemLogs?page=${currentPage - 1}">&laquo; 上一页</a>
-                </c:if>
-                <c:if test="${currentPage eq 1}">
-                     <span class="disabled">&laquo; 上一页</span>
-                </c:if>
-
-                <c:set var="startPage" value="${currentPage - 2 < 1 ? 1 : currentPage - 2}"/>
-                <c:set var="endPage" value="${currentPage + 2 > totalPages ? totalPages : currentPage + 2}"/>
-                <c:if test="${endPage - startPage < 4 && totalPages > 4}">
-                    <c:if test="${startPage eq 1}">
-                         <c:set var="endPage" value="${startPage + 4 > totalPages ? totalPages : startPage + 4}"/>
-                    </c:if>
-                    <c:if test="${endPage eq totalPages}">
-                         <c:set var="startPage" value="${endPage - 4 < 1 ? 1 : endPage - 4}"/>
-                    </c:if>
-                </c:if>
-
-
-                <c:if test="${startPage > 1}">
-                    <a href="${pageContext.request.contextPath}/admin/systemLogs?page=1">1</a>
-                    <c:if test="${startPage > 2}"><span>...</span></c:if>
-                </c:if>
-
-                <c:forEach begin="${startPage}" end="${endPage}" var="i">
-                    <c:choose>
-                        <c:when test="${i eq currentPage}">
-                            <span class="current">${i}</span>
-                        </c:when>
-                        <c:otherwise>
-                            <a href="${pageContext.request.contextPath}/admin/systemLogs?page=${i}">${i}</a>
-                        </c:otherwise>
-                    </c:choose>
-                </c:forEach>
-
-                <c:if test="${endPage < totalPages}">
-                    <c:if test="${endPage < totalPages - 1}"><span>...</span></c:if>
-                    <a href="${pageContext.request.contextPath}/admin/systemLogs?page=${totalPages}">${totalPages}</a>
-                </c:if>
+                <c:choose>
+                    <c:when test="${not empty prevCursor}">
+                        <a href="${pageContext.request.contextPath}/admin/systemLogs">&laquo; 最新</a>
+                        <c:url var="prevUrl" value="/admin/systemLogs"><c:param name="before" value="${prevCursor}"/></c:url>
+                        <a href="${prevUrl}">&lsaquo; 上一页</a>
+                    </c:when>
+                    <c:otherwise>
+                        <span class="disabled">&laquo; 最新</span>
+                        <span class="disabled">&lsaquo; 上一页</span>
+                    </c:otherwise>
+                </c:choose>
 
-                <c:if test="${currentPage < totalPages}">
-                    <a href="${pageContext.request.contextPath}/admin/systemLogs?page=${currentPage + 1}">下一页 &raquo;</a>
-                </c:if>
-                 <c:if test="${currentPage eq totalPages}">
-                     <span class="disabled">下一页 &raquo;</span>
-                </c:if>
+                <c:choose>
+                    <c:when test="${not empty nextCursor}">
+                        <c:url var="nextUrl" value="/admin/systemLogs"><c:param name="after" value="${nextCursor}"/></c:url>
+                        <a href="${nextUrl}">下一页 &rsaquo;</a>
+                    </c:when>
+                    <c:otherwise>
+                        <span class="disabled">下一页 &rsaquo;</span>
+                    </c:otherwise>
+                </c:choose>
             </div>
         </c:if>
     </div>
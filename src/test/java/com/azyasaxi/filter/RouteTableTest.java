@@ -0,0 +1,50 @@
+package com.azyasaxi.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * RouteTableTest
+ * 路由按规范化后的路径匹配：";参数" 和 ".." 段不能让受保护路径落到更宽松的路由上。
+ */
+class RouteTableTest {
+    private final RouteTable routes = Filter.routes();
+
+    private RouteTable.Access access(String path) {
+        return routes.match(RouteTable.normalize(path), 0);
+    }
+
+    @Test
+    void plainPathsMatchTheirRoutes() {
+        assertEquals(RouteTable.Access.STATIC, access("/assets/css/site.css"));
+        assertEquals(RouteTable.Access.PUBLIC, access("/"));
+        assertEquals(RouteTable.Access.PUBLIC, access("/loginPage.jsp"));
+        assertEquals(RouteTable.Access.ADMIN, access("/admin/dashboard"));
+        assertEquals(RouteTable.Access.STUDENT, access("/student/dashboard"));
+        assertEquals(RouteTable.Access.AUTHENTICATED, access("/other"));
+    }
+
+    @Test
+    void pathParametersAreStrippedBeforeMatching() {
+        assertEquals("/admin/dashboard", RouteTable.normalize("/admin;x/dashboard"));
+        assertEquals(RouteTable.Access.ADMIN, access("/admin;x/dashboard"));
+        assertEquals(RouteTable.Access.ADMIN, access("/admin;jsessionid=1/"));
+    }
+
+    @Test
+    void dotSegmentsCannotEscapePublicOrStaticPrefixes() {
+        assertEquals("/admin/logs", RouteTable.normalize("/assets/..;/admin/logs"));
+        assertEquals(RouteTable.Access.ADMIN, access("/assets/..;/admin/logs"));
+        assertEquals(RouteTable.Access.ADMIN, access("/login/../admin/dashboard"));
+        assertEquals(RouteTable.Access.ADMIN, access("/assets/./../admin/"));
+        assertEquals(RouteTable.Access.STUDENT, access("//student//dashboard"));
+    }
+
+    @Test
+    void pathsEscapingTheRootAreRejected() {
+        assertNull(RouteTable.normalize("/.."));
+        assertNull(RouteTable.normalize("/assets/../../admin/"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.azyasaxi.service;
+
+import com.azyasaxi.dao.ClassInfoDao;
+import com.azyasaxi.dao.CreditSummaryDao;
+import com.azyasaxi.dao.StudentDao;
+import com.azyasaxi.model.ClassInfo;
+import com.azyasaxi.model.Student;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * ClassInfoServiceTest
+ * 班级详情页的查询次数：班级信息、学生列表、全班学分各一次，共 3 次，与班级人数无关。
+ * DAO 使用真实实现，JdbcTemplate 下面是一个按 SQL 返回预置数据的 DataSource，每条语句计数一次。
+ */
+class ClassInfoServiceTest {
+    private static final int CLASS_ID = 7;
+
+    @Test
+    void classDetailCostsThreeQueriesRegardlessOfClassSize() {
+        for (int size : new int[]{1, 40, 2000}) {
+            JdbcStubs.CountingDataSource dataSource = new JdbcStubs.CountingDataSource(classRows(size));
+            ClassInfoService service = newService(dataSource);
+
+            ClassInfo classInfo = service.findClassInfoWithDetailsById(CLASS_ID);
+
+            assertNotNull(classInfo);
+            assertEquals(size, classInfo.getStudentsInClass().size());
+            assertEquals(3, dataSource.getStatementCount(), "班级人数 " + size);
+            for (Student student : classInfo.getStudentsInClass()) {
+                // 偶数学号有学分记录，奇数学号没有记录时为 0
+                BigDecimal expected = student.getStudentId() % 2 == 0 ? BigDecimal.valueOf(student.getStudentId()) : BigDecimal.ZERO;
+                assertEquals(expected, student.getTotalEarnedCredits());
+            }
+        }
+    }
+
+    @Test
+    void emptyClassSkipsCreditQuery() {
+        JdbcStubs.CountingDataSource dataSource = new JdbcStubs.CountingDataSource(classRows(0));
+        ClassInfo classInfo = newService(dataSource).findClassInfoWithDetailsById(CLASS_ID);
+
+        assertNotNull(classInfo);
+        assertEquals(0, classInfo.getStudentsInClass().size());
+        assertEquals(2, dataSource.getStatementCount());
+    }
+
+    // 院系层级缓存未加载 (getClassInfo 返回 null)，班级信息同样走一次查询
+    private static ClassInfoService newService(DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        return new ClassInfoService(new ClassInfoDao(jdbcTemplate), new StudentDao(jdbcTemplate, null),
+                new CreditSummaryDao(jdbcTemplate), null, null, null, new HierarchyCache(null, null, null));
+    }
+
+    // 按 SQL 中的表返回班级、学生和学分的结果行
+    private static Function<String, List<Map<String, Object>>> classRows(int size) {
+        return sql -> {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            if (sql.contains("FROM CreditSummary")) {
+                for (int id = 1; id <= size; id++) {
+                    if (id % 2 == 0) {
+                        rows.add(Map.of("student_id", id, "total_credits", BigDecimal.valueOf(id)));
+                    }
+                }
+            } else if (sql.contains("FROM Student")) {
+                for (int id = 1; id <= size; id++) {
+                    rows.add(Map.of("s_student_id", id, "s_name", "学生" + id, "s_gender", "男",
+                            "s_class_id", CLASS_ID, "ci_class_name", "软件1班", "s_username", "user" + id));
+                }
+            } else if (sql.contains("FROM ClassInfo")) {
+                rows.add(Map.of("ci_class_id", CLASS_ID, "ci_class_name", "软件1班", "ci_major_id", 3,
+                        "m_major_name", "软件工程", "m_college_id", 1, "co_college_name", "计算机学院"));
+            }
+            return rows;
+        };
+    }
+}
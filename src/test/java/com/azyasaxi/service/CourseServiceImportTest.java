@@ -0,0 +1,140 @@
+package com.azyasaxi.service;
+
+import com.azyasaxi.dao.CourseDao;
+import com.azyasaxi.dao.MajorDao;
+import com.azyasaxi.model.BatchResult;
+import com.azyasaxi.model.Course;
+import com.azyasaxi.utils.TableVersions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * CourseServiceImportTest
+ * 课程 CSV 导入：每个不同的专业名称只解析一次，一次查询检查已存在的课程，通过检查的行在一次批处理中插入。
+ */
+class CourseServiceImportTest {
+    private static final String HEADER = "course_name,course_teacher,credit,major_name\n";
+
+    /**
+     * 以内存中的课程键集合代替 Course 表，记录每次批量插入的课程。
+     */
+    private static final class RecordingCourseDao extends CourseDao {
+        final Set<String> keys = new HashSet<>();
+        final List<List<Course>> insertedBatches = new ArrayList<>();
+        int existenceQueries;
+
+        RecordingCourseDao() {
+            super(null);
+        }
+
+        @Override
+        public Set<String> findExistingCourseKeys(Collection<String> courseNames) {
+            existenceQueries++;
+            Set<String> existing = new HashSet<>();
+            for (String name : courseNames) {
+                String prefix = CourseDao.courseKey(name, null).replace("|null", "|");
+                for (String key : keys) {
+                    if (key.startsWith(prefix)) {
+                        existing.add(key);
+                    }
+                }
+            }
+            return existing;
+        }
+
+        @Override
+        public int[] addCourses(List<Course> courses) {
+            insertedBatches.add(new ArrayList<>(courses));
+            for (Course course : courses) {
+                keys.add(CourseDao.courseKey(course.getCourseName(), course.getMajorId()));
+            }
+            return new int[courses.size()];
+        }
+    }
+
+    /**
+     * 院系层级缓存未就绪时按名称查询专业，记录查询次数。
+     */
+    private static final class CountingMajorDao extends MajorDao {
+        final Map<String, List<Integer>> idsByName = Map.of("软件工程", List.of(3), "英语", List.of(5, 8));
+        int lookups;
+
+        CountingMajorDao() {
+            super(null);
+        }
+
+        @Override
+        public List<Integer> findMajorIdsByName(String majorName) {
+            lookups++;
+            return idsByName.getOrDefault(majorName, List.of());
+        }
+    }
+
+    private static CourseService newService(RecordingCourseDao courseDao, CountingMajorDao majorDao) {
+        return new CourseService(courseDao, null, null, JdbcStubs.directTransactionTemplate(), new TableVersions(),
+                new HierarchyCache(null, null, null), majorDao, null);
+    }
+
+    @Test
+    void importsValidRowsInOneBatchAndReportsTheRest() throws IOException {
+        RecordingCourseDao courseDao = new RecordingCourseDao();
+        courseDao.keys.add(CourseDao.courseKey("数据库", 3));
+        CountingMajorDao majorDao = new CountingMajorDao();
+        String csv = HEADER
+                + "数据结构,王老师,3,软件工程\n"
+                + "操作系统,李老师,4,软件工程\n"
+                + "数据库,赵老师,3,软件工程\n"   // 该专业下已存在
+                + "数据结构,钱老师,2,软件工程\n" // 与第 1 行重复
+                + "高等数学,孙老师,abc,\n"      // 学分不是数字
+                + "英美文学,周老师,2,英语\n"     // 多个学院下有同名专业
+                + "体育,吴老师,1,\n";           // 不关联专业
+
+        BatchResult result = newService(courseDao, majorDao).importCourses(new StringReader(csv));
+
+        assertEquals(7, result.getTotal());
+        assertEquals(3, result.getSucceeded());
+        assertEquals(1, courseDao.insertedBatches.size());
+        assertEquals(3, courseDao.insertedBatches.get(0).size());
+        assertNull(courseDao.insertedBatches.get(0).get(2).getMajorId());
+        assertEquals(1, courseDao.existenceQueries);
+        assertEquals(2, majorDao.lookups); // 软件工程、英语各查一次
+        assertEquals(4, result.getFailed());
+        assertEquals(3, result.getErrors().get(0).getRow());
+        assertEquals("课程在该专业下已存在", result.getErrors().get(0).getMessage());
+        assertEquals("与前面的行重复", result.getErrors().get(1).getMessage());
+        assertEquals("学分无效", result.getErrors().get(2).getMessage());
+        assertEquals(6, result.getErrors().get(3).getRow());
+    }
+
+    @Test
+    void missingRequiredColumnRejectsTheFile() {
+        CourseService service = newService(new RecordingCourseDao(), new CountingMajorDao());
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> service.importCourses(new StringReader("course_name,credit\n数据结构,3\n")));
+        assertEquals("表头缺少必需列: course_teacher", e.getMessage());
+    }
+
+    @Test
+    void formatErrorImportsNothing() {
+        RecordingCourseDao courseDao = new RecordingCourseDao();
+        CourseService service = newService(courseDao, new CountingMajorDao());
+
+        assertThrows(IOException.class, () -> service.importCourses(new StringReader(HEADER
+                + "数据结构,王老师,3,软件工程\n"
+                + "\"操作系统,李老师,4,软件工程\n"))); // 引号没有闭合
+        assertEquals(0, courseDao.insertedBatches.size());
+    }
+}
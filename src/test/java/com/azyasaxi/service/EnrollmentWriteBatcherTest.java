@@ -0,0 +1,79 @@
+package com.azyasaxi.service;
+
+import com.azyasaxi.dao.EnrollmentDao;
+import com.azyasaxi.model.Enrollment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * EnrollmentWriteBatcherTest
+ * 写线程出错时整批请求以异常结束且写线程继续工作；等待写入结果有超时，不会无限阻塞。
+ */
+class EnrollmentWriteBatcherTest {
+    private EnrollmentWriteBatcher batcher;
+
+    private EnrollmentWriteBatcher start(EnrollmentDao dao, long resultTimeoutMillis) {
+        StandardEnvironment env = new StandardEnvironment();
+        env.getPropertySources().addFirst(new MapPropertySource("test",
+                Map.of("enrollment.write-batch.result-timeout-ms", resultTimeoutMillis)));
+        batcher = new EnrollmentWriteBatcher(dao, JdbcStubs.NO_OP_TRANSACTIONS, env);
+        batcher.afterPropertiesSet();
+        return batcher;
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        batcher.destroy();
+    }
+
+    @Test
+    void errorInWriterFailsTheBatchAndLaterBatchesStillRun() {
+        AtomicInteger calls = new AtomicInteger();
+        EnrollmentWriteBatcher batcher = start(new EnrollmentDao(null) {
+            @Override
+            public int[] insertEnrollments(List<Enrollment> enrollments) {
+                if (calls.incrementAndGet() == 1) {
+                    throw new AssertionError("模拟写线程中的 Error");
+                }
+                return new int[]{INSERT_OK};
+            }
+        }, 5000);
+
+        assertThrows(IllegalStateException.class, () -> batcher.insert(1, 1));
+        assertEquals(EnrollmentWriteBatcher.Outcome.INSERTED, batcher.insert(2, 1));
+    }
+
+    @Test
+    void waitingForAStuckWriterTimesOut() {
+        CountDownLatch release = new CountDownLatch(1);
+        EnrollmentWriteBatcher batcher = start(new EnrollmentDao(null) {
+            @Override
+            public int[] insertEnrollments(List<Enrollment> enrollments) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new int[enrollments.size()];
+            }
+        }, 100);
+        try {
+            // 第一条已被写线程取走，结果未知；第二条仍在队列中，超时后被移出队列，不会再写入
+            assertThrows(EnrollmentWriteBatcher.WriteTimeoutException.class, () -> batcher.insert(1, 1));
+            IllegalStateException queued = assertThrows(IllegalStateException.class, () -> batcher.insert(2, 1));
+            assertEquals("选课写入排队超时", queued.getMessage());
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.azyasaxi.service;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * JdbcStubs
+ * 各测试共用的 JDBC 与事务测试桩：按列名读取预置行的 ResultSet、按 SQL 返回预置结果并计数的 DataSource，
+ * 以及不连接数据库的事务管理器和事务模板。
+ */
+final class JdbcStubs {
+
+    private JdbcStubs() {
+    }
+
+    /**
+     * 不连接数据库的事务管理器：开启、提交和回滚都不做任何事。
+     */
+    static final PlatformTransactionManager NO_OP_TRANSACTIONS = new PlatformTransactionManager() {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    };
+
+    /**
+     * @return 直接在当前线程执行回调的事务模板 (不开启事务)。
+     */
+    static TransactionTemplate directTransactionTemplate() {
+        return new TransactionTemplate() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                return action.doInTransaction((TransactionStatus) null);
+            }
+        };
+    }
+
+    /**
+     * 已定位在给定行上的 ResultSet，供直接调用 RowCallbackHandler 的桩 DAO 使用。
+     */
+    static ResultSet row(Map<String, Object> row) {
+        return resultSet(Collections.emptyIterator(), row);
+    }
+
+    /**
+     * 依次返回给定各行的 ResultSet (需先调用 next)。
+     */
+    static ResultSet rows(List<Map<String, Object>> rows) {
+        return resultSet(rows.iterator(), null);
+    }
+
+    // get*(列名[, 类型]) 返回当前行的值：值为 null 时返回返回类型的默认值 (wasNull 为 true)，String 类型返回 toString()
+    private static ResultSet resultSet(Iterator<Map<String, Object>> iterator, Map<String, Object> first) {
+        Object[] state = {first, null}; // [0] 当前行, [1] 上一次读取的值
+        return proxy(ResultSet.class, (p, method, args) -> {
+            String name = method.getName();
+            if ("next".equals(name)) {
+                state[0] = iterator.hasNext() ? iterator.next() : null;
+                return state[0] != null;
+            }
+            if ("wasNull".equals(name)) {
+                return state[1] == null;
+            }
+            if (name.startsWith("get") && args != null && args.length >= 1 && args[0] instanceof String) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> row = (Map<String, Object>) state[0];
+                Object value = row.get(args[0]);
+                state[1] = value;
+                if (value == null) {
+                    return defaultValue(method.getReturnType());
+                }
+                if (method.getReturnType() == String.class) {
+                    return value.toString();
+                }
+                return value;
+            }
+            return defaultValue(method.getReturnType());
+        });
+    }
+
+    /**
+     * 计数的 DataSource：每次 prepareStatement / createStatement 计为一条语句，查询结果由 rowsBySql 按 SQL 提供。
+     */
+    static final class CountingDataSource implements DataSource {
+        private final Function<String, List<Map<String, Object>>> rowsBySql;
+        private final AtomicInteger statementCount = new AtomicInteger();
+
+        CountingDataSource(Function<String, List<Map<String, Object>>> rowsBySql) {
+            this.rowsBySql = rowsBySql;
+        }
+
+        int getStatementCount() {
+            return statementCount.get();
+        }
+
+        @Override
+        public Connection getConnection() {
+            return proxy(Connection.class, (p, method, args) -> {
+                String name = method.getName();
+                if ("prepareStatement".equals(name) || "createStatement".equals(name)) {
+                    statementCount.incrementAndGet();
+                    String sql = args != null && args.length > 0 ? (String) args[0] : null;
+                    return statement(sql);
+                }
+                return defaultValue(method.getReturnType());
+            });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            return getConnection();
+        }
+
+        private PreparedStatement statement(String preparedSql) {
+            return proxy(PreparedStatement.class, (p, method, args) -> {
+                if ("executeQuery".equals(method.getName())) {
+                    return rows(rowsBySql.apply(preparedSql != null ? preparedSql : (String) args[0]));
+                }
+                return defaultValue(method.getReturnType());
+            });
+        }
+
+        @Override
+        public java.io.PrintWriter getLogWriter() {
+            return null;
+        }
+
+        @Override
+        public void setLogWriter(java.io.PrintWriter out) {
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) {
+        }
+
+        @Override
+        public int getLoginTimeout() {
+            return 0;
+        }
+
+        @Override
+        public java.util.logging.Logger getParentLogger() {
+            return java.util.logging.Logger.getGlobal();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) {
+            return null;
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) {
+            return false;
+        }
+    }
+
+    private static final Map<Class<?>, Object> PRIMITIVE_DEFAULTS = new HashMap<>();
+
+    static {
+        PRIMITIVE_DEFAULTS.put(boolean.class, false);
+        PRIMITIVE_DEFAULTS.put(int.class, 0);
+        PRIMITIVE_DEFAULTS.put(long.class, 0L);
+        PRIMITIVE_DEFAULTS.put(short.class, (short) 0);
+        PRIMITIVE_DEFAULTS.put(byte.class, (byte) 0);
+        PRIMITIVE_DEFAULTS.put(double.class, 0d);
+        PRIMITIVE_DEFAULTS.put(float.class, 0f);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        return type.isPrimitive() ? PRIMITIVE_DEFAULTS.get(type) : null;
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(JdbcStubs.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}
@@ -0,0 +1,328 @@
+package com.azyasaxi.service;
+
+import com.azyasaxi.dao.CourseDao;
+import com.azyasaxi.dao.EnrollmentDao;
+import com.azyasaxi.model.Enrollment;
+import com.azyasaxi.model.RegistrationResult;
+import com.azyasaxi.utils.TableVersions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * RegistrationEngineTest
+ * 并发选课不超过课程名额，退课空出的名额按候补顺序 (FIFO) 递补。
+ * 选课记录和候补队列由内存中的桩 DAO 保存，每次批量写入模拟 1 毫秒的数据库往返。
+ */
+class RegistrationEngineTest {
+    private static final int COURSE_ID = 1;
+    private static final int CAPACITY = 50;
+    private static final int STUDENTS = 2000;
+
+    private final Set<Integer> enrolled = ConcurrentHashMap.newKeySet();                     // 已选课的学生
+    private final List<Integer> waitlist = Collections.synchronizedList(new ArrayList<>()); // 候补队列，按加入顺序
+    private final AtomicInteger maxTaken = new AtomicInteger();                              // 任意时刻已占用名额的最大值
+    private volatile Integer capacity = CAPACITY;
+    private volatile int failingStudent = -1;                                                // 递补该学生时模拟数据库错误
+    private final AtomicInteger remainingFailures = new AtomicInteger();                     // 还要失败的次数
+
+    private EnrollmentWriteBatcher batcher;
+    private RegistrationEngine engine;
+    private ExecutorService pool;
+
+    /**
+     * 以内存集合代替 Enrollment 与 CourseWaitlist 表。
+     */
+    private final class InMemoryEnrollmentDao extends EnrollmentDao {
+        InMemoryEnrollmentDao() {
+            super(null);
+        }
+
+        @Override
+        public int insertEnrollment(int studentId, int courseId) {
+            return insertEnrollments(List.of(enrollment(studentId)))[0];
+        }
+
+        @Override
+        public int[] insertEnrollments(List<Enrollment> enrollments) {
+            sleepMillis(1);
+            int[] outcomes = new int[enrollments.size()];
+            for (int i = 0; i < enrollments.size(); i++) {
+                if (enrolled.add(enrollments.get(i).getStudentId())) {
+                    maxTaken.accumulateAndGet(enrolled.size(), Math::max);
+                    outcomes[i] = INSERT_OK;
+                } else {
+                    outcomes[i] = INSERT_DUPLICATE;
+                }
+            }
+            return outcomes;
+        }
+
+        @Override
+        public int deleteUngradedEnrollment(int studentId, int courseId) {
+            return enrolled.remove(studentId) ? 1 : 0;
+        }
+
+        @Override
+        public boolean isEnrolled(int studentId, int courseId) {
+            return enrolled.contains(studentId);
+        }
+
+        @Override
+        public int addToWaitlist(int studentId, int courseId) {
+            synchronized (waitlist) {
+                if (waitlist.contains(studentId)) {
+                    return 0;
+                }
+                waitlist.add(studentId);
+                return 1;
+            }
+        }
+
+        @Override
+        public int removeFromWaitlist(int studentId, int courseId) {
+            if (studentId == failingStudent && remainingFailures.getAndDecrement() > 0) {
+                throw new IllegalStateException("模拟数据库错误");
+            }
+            return waitlist.remove((Integer) studentId) ? 1 : 0;
+        }
+
+        @Override
+        public boolean streamWaitlist(Integer courseId, RowCallbackHandler callback) {
+            return true; // 启动时候补队列为空
+        }
+
+        @Override
+        public boolean getCourseSeats(Integer courseId, RowCallbackHandler callback) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("course_id", COURSE_ID);
+            row.put("capacity", capacity);
+            row.put("enrolled", enrolled.size());
+            try {
+                callback.processRow(JdbcStubs.row(row));
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            return true;
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        EnrollmentDao enrollmentDao = new InMemoryEnrollmentDao();
+        CourseDao courseDao = new CourseDao(null) {
+            @Override
+            public int updateCourseCapacity(int courseId, Integer newCapacity) {
+                capacity = newCapacity;
+                return 1;
+            }
+        };
+        batcher = new EnrollmentWriteBatcher(enrollmentDao, JdbcStubs.NO_OP_TRANSACTIONS, new StandardEnvironment());
+        batcher.afterPropertiesSet();
+        engine = new RegistrationEngine(enrollmentDao, courseDao, JdbcStubs.directTransactionTemplate(),
+                new TableVersions(), batcher);
+        engine.afterPropertiesSet();
+        pool = Executors.newFixedThreadPool(64);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        pool.shutdownNow();
+        batcher.destroy();
+    }
+
+    @Test
+    void concurrentEnrollmentsNeverExceedCapacity() throws Exception {
+        Map<RegistrationResult, Integer> results = enrollAll(1, STUDENTS);
+
+        assertTrue(maxTaken.get() <= CAPACITY, "已占用名额最多为 " + maxTaken.get());
+        assertEquals(CAPACITY, enrolled.size());
+        assertEquals(CAPACITY, results.get(RegistrationResult.ENROLLED));
+        assertEquals(STUDENTS - CAPACITY, results.get(RegistrationResult.WAITLISTED));
+        assertEquals(STUDENTS - CAPACITY, waitlist.size());
+        assertEquals(CAPACITY, engine.getSeatStatus(COURSE_ID).get("enrolled"));
+    }
+
+    @Test
+    void repeatedRequestsAreRecognised() throws Exception {
+        enrollAll(1, CAPACITY + 10);
+
+        assertEquals(RegistrationResult.ALREADY_ENROLLED, engine.enroll(enrolled.iterator().next(), COURSE_ID));
+        assertEquals(RegistrationResult.ALREADY_WAITLISTED, engine.enroll(waitlist.get(3), COURSE_ID));
+    }
+
+    @Test
+    void droppedSeatsGoToWaitlistHeadInOrder() throws Exception {
+        enrollAll(1, STUDENTS);
+        List<Integer> heads = new ArrayList<>(waitlist.subList(0, 20));
+        List<Integer> toDrop = new ArrayList<>(enrolled).subList(0, 20);
+
+        // 20 个退课与 500 个新选课同时进行：空出的名额只能给候补队列最前面的 20 人
+        List<Callable<RegistrationResult>> tasks = new ArrayList<>();
+        for (int studentId : toDrop) {
+            tasks.add(() -> engine.drop(studentId, COURSE_ID));
+        }
+        for (int studentId = STUDENTS + 1; studentId <= STUDENTS + 500; studentId++) {
+            int newcomer = studentId;
+            tasks.add(() -> engine.enroll(newcomer, COURSE_ID));
+        }
+        Map<RegistrationResult, Integer> results = runTogether(tasks);
+
+        assertEquals(20, results.get(RegistrationResult.DROPPED));
+        assertEquals(500, results.get(RegistrationResult.WAITLISTED));
+        assertTrue(maxTaken.get() <= CAPACITY, "已占用名额最多为 " + maxTaken.get());
+        assertEquals(CAPACITY, enrolled.size());
+        assertTrue(enrolled.containsAll(heads), "候补队列最前面的学生应全部递补");
+        for (int studentId : toDrop) {
+            assertFalse(enrolled.contains(studentId));
+        }
+        assertEquals(STUDENTS - CAPACITY - 20 + 500, waitlist.size());
+    }
+
+    @Test
+    void eachDropPromotesTheNextWaitlistedStudent() throws Exception {
+        enrollAll(1, CAPACITY + 5);
+        List<Integer> line = new ArrayList<>(waitlist);
+        List<Integer> original = new ArrayList<>(enrolled);
+
+        for (int k = 0; k < line.size(); k++) {
+            assertEquals(RegistrationResult.DROPPED, engine.drop(original.get(k), COURSE_ID));
+            assertTrue(enrolled.contains(line.get(k)), "第 " + (k + 1) + " 位候补应已递补");
+            if (k + 1 < line.size()) {
+                assertFalse(enrolled.contains(line.get(k + 1)), "第 " + (k + 2) + " 位候补不应提前递补");
+            }
+        }
+        assertTrue(waitlist.isEmpty());
+    }
+
+    @Test
+    void failedPromotionKeepsTheSeatForTheHeadOfTheLine() throws Exception {
+        enrollAll(1, CAPACITY + 5);
+        int head = waitlist.get(0);
+        int second = waitlist.get(1);
+        failingStudent = head;
+        remainingFailures.set(2);
+
+        assertEquals(RegistrationResult.DROPPED, engine.drop(enrolled.iterator().next(), COURSE_ID));
+
+        // 递补失败：名额继续为队首保留，新来的学生拿不到 (其入队触发的重试再次失败)，后面的候补学生也拿不到
+        assertFalse(enrolled.contains(head));
+        assertEquals(RegistrationResult.WAITLISTED, engine.enroll(STUDENTS + 1, COURSE_ID));
+        assertFalse(enrolled.contains(head));
+        assertFalse(enrolled.contains(second));
+        assertEquals(head, waitlist.get(0));
+        assertEquals(CAPACITY - 1, engine.getSeatStatus(COURSE_ID).get("enrolled"));
+
+        engine.reconcile(); // 定期校正时重试
+
+        assertTrue(enrolled.contains(head));
+        assertFalse(enrolled.contains(second));
+        assertEquals(CAPACITY, enrolled.size());
+        assertEquals(CAPACITY, engine.getSeatStatus(COURSE_ID).get("enrolled"));
+        assertEquals(second, waitlist.get(0));
+    }
+
+    @Test
+    void raisingCapacityPromotesNextInLine() throws Exception {
+        enrollAll(1, CAPACITY + 30);
+        List<Integer> next10 = new ArrayList<>(waitlist.subList(0, 10));
+
+        assertTrue(engine.setCapacity(COURSE_ID, CAPACITY + 10));
+
+        assertEquals(CAPACITY + 10, enrolled.size());
+        assertTrue(enrolled.containsAll(next10));
+        assertEquals(20, waitlist.size());
+    }
+
+    @Test
+    void leavingWaitlistDoesNotFreeASeat() throws Exception {
+        enrollAll(1, CAPACITY + 5);
+        int waiting = waitlist.get(0);
+
+        assertEquals(RegistrationResult.LEFT_WAITLIST, engine.drop(waiting, COURSE_ID));
+
+        assertFalse(waitlist.contains(waiting));
+        assertEquals(CAPACITY, enrolled.size());
+    }
+
+    @Test
+    void reconcileCorrectsOutOfBandDeletes() throws Exception {
+        enrollAll(1, CAPACITY + 10);
+        Iterator<Integer> it = enrolled.iterator();
+        for (int i = 0; i < 5; i++) { // 绕过选课引擎直接删除 5 条选课记录
+            it.next();
+            it.remove();
+        }
+
+        engine.reconcile();
+
+        assertEquals(CAPACITY, enrolled.size());
+        assertEquals(CAPACITY, engine.getSeatStatus(COURSE_ID).get("enrolled"));
+        assertEquals(5, waitlist.size());
+    }
+
+    // 学号 from..to 的学生同时选课，返回各结果的次数
+    private Map<RegistrationResult, Integer> enrollAll(int from, int to) throws Exception {
+        List<Callable<RegistrationResult>> tasks = new ArrayList<>();
+        for (int studentId = from; studentId <= to; studentId++) {
+            int id = studentId;
+            tasks.add(() -> engine.enroll(id, COURSE_ID));
+        }
+        return runTogether(tasks);
+    }
+
+    // 所有任务就绪后同时开始，全部完成后返回各结果的次数
+    private Map<RegistrationResult, Integer> runTogether(List<Callable<RegistrationResult>> tasks) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<RegistrationResult>> futures = new ArrayList<>(tasks.size());
+        for (Callable<RegistrationResult> task : tasks) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+        Map<RegistrationResult, Integer> counts = new HashMap<>();
+        for (Future<RegistrationResult> future : futures) {
+            counts.merge(future.get(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private static Enrollment enrollment(int studentId) {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setStudentId(studentId);
+        enrollment.setCourseId(COURSE_ID);
+        return enrollment;
+    }
+
+    private static void sleepMillis(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
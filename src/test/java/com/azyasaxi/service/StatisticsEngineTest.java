@@ -0,0 +1,118 @@
+package com.azyasaxi.service;
+
+import com.azyasaxi.dao.StudentDao;
+import com.azyasaxi.model.CreditHistogram;
+import com.azyasaxi.utils.DBHelper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * StatisticsEngineTest
+ * 内存统计数据的版本号 (统计页 ETag 的一部分)、定期校正，以及自定义区间的学分直方图。
+ */
+class StatisticsEngineTest {
+
+    /**
+     * 以内存中的行代替数据库，每次 reconcile 读取当前的行。
+     */
+    private static final class RowsStudentDao extends StudentDao {
+        final List<Map<String, Object>> rows = new ArrayList<>();
+
+        RowsStudentDao() {
+            super(null, null);
+        }
+
+        void add(int studentId, int classId, int majorId, int collegeId, String collegeName, String credits) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("student_id", studentId);
+            row.put("class_id", classId);
+            row.put("major_id", majorId);
+            row.put("college_id", collegeId);
+            row.put("college_name", collegeName);
+            row.put("total_credits", credits != null ? new BigDecimal(credits) : null);
+            rows.add(row);
+        }
+
+        @Override
+        public long streamStudentCreditStats(DBHelper.RowCallback callback) {
+            try {
+                for (Map<String, Object> row : rows) {
+                    callback.processRow(JdbcStubs.row(row));
+                }
+            } catch (SQLException e) {
+                return -1;
+            }
+            return rows.size();
+        }
+    }
+
+    private static RowsStudentDao sampleDao() {
+        RowsStudentDao dao = new RowsStudentDao();
+        dao.add(1, 10, 100, 1000, "计算机学院", "3");
+        dao.add(2, 10, 100, 1000, "计算机学院", "12");
+        dao.add(3, 20, 200, 2000, "外国语学院", null);
+        return dao;
+    }
+
+    @Test
+    void reconcileKeepsVersionWhenDataIsUnchanged() {
+        StatisticsEngine engine = new StatisticsEngine(sampleDao());
+        engine.afterPropertiesSet();
+        long version = engine.getVersion();
+
+        engine.reconcile();
+
+        assertEquals(version, engine.getVersion());
+    }
+
+    @Test
+    void reconcileBumpsVersionWhenDatabaseChangedOutOfBand() {
+        RowsStudentDao dao = sampleDao();
+        StatisticsEngine engine = new StatisticsEngine(dao);
+        engine.afterPropertiesSet();
+        long version = engine.getVersion();
+
+        dao.rows.get(0).put("class_id", 11); // 同一学院内换班：学院合计不变，但按班级的直方图变化
+        engine.reconcile();
+
+        assertNotEquals(version, engine.getVersion());
+        assertEquals(1, engine.histogram(StatisticsEngine.Scope.CLASS, 11, new double[]{0, 5}).getTotal());
+    }
+
+    @Test
+    void creditsBelowFirstBoundaryGetTheirOwnBucket() {
+        StatisticsEngine engine = new StatisticsEngine(sampleDao());
+        engine.afterPropertiesSet();
+
+        CreditHistogram histogram = engine.histogram(StatisticsEngine.Scope.ALL, null, new double[]{10, 15});
+
+        assertTrue(histogram.isUnderflow());
+        assertArrayEquals(new String[]{"<10 学分", "10-15 学分", "15+ 学分"}, histogram.getLabels());
+        assertArrayEquals(new int[]{2, 1, 0}, histogram.getCounts()); // 3 学分和没有记录 (按 0) 的学生低于 10
+        assertArrayEquals(new double[]{10, 15}, histogram.getBoundaries());
+    }
+
+    @Test
+    void noUnderflowBucketWhenEveryoneIsAboveFirstBoundary() {
+        StatisticsEngine engine = new StatisticsEngine(sampleDao());
+        engine.afterPropertiesSet();
+
+        CreditHistogram histogram = engine.histogram(StatisticsEngine.Scope.ALL, null, new double[]{0, 5, 10, 15});
+
+        assertFalse(histogram.isUnderflow());
+        assertArrayEquals(new String[]{"0-5 学分", "5-10 学分", "10-15 学分", "15+ 学分"}, histogram.getLabels());
+        assertArrayEquals(new int[]{2, 0, 1, 0}, histogram.getCounts());
+    }
+}
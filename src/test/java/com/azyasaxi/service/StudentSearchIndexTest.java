@@ -0,0 +1,82 @@
+package com.azyasaxi.service;
+
+import com.azyasaxi.dao.StudentDao;
+import com.azyasaxi.model.Student;
+import com.azyasaxi.utils.DBHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * StudentSearchIndexTest
+ * 搜索结果的匹配总数不受 limit 限制，limit 只决定返回多少个得分最高的学生。
+ */
+class StudentSearchIndexTest {
+    private static final int STUDENTS = 1200;
+
+    private StudentSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // 数据库中没有学生，首次构建后直接就绪，再通过增量更新加入测试数据
+        index = new StudentSearchIndex(new StudentDao(null, null) {
+            @Override
+            public long streamStudentSearchFields(DBHelper.RowCallback callback) {
+                return 0;
+            }
+        });
+        index.afterPropertiesSet();
+        List<Student> students = new ArrayList<>();
+        for (int id = 1; id <= STUDENTS; id++) {
+            Student student = new Student();
+            student.setStudentId(id);
+            student.setName(id == 700 ? "张三" : "张三" + id);
+            student.setUserName("user" + id);
+            student.setClassId(1);
+            student.setClassName("软件1班");
+            students.add(student);
+        }
+        index.upsertAll(students);
+    }
+
+    @Test
+    void totalMatchesIsNotCappedByLimit() {
+        StudentSearchIndex.SearchHits hits = index.search("张三", 20);
+
+        assertEquals(20, hits.getStudentIds().size());
+        assertEquals(STUDENTS, hits.getTotalMatches());
+        assertTrue(hits.isTruncated());
+        assertEquals(700, hits.getStudentIds().get(0)); // 姓名完全相等的排在最前
+    }
+
+    @Test
+    void unlimitedSearchReturnsEveryMatchInRankOrder() {
+        StudentSearchIndex.SearchHits hits = index.search("张三", Integer.MAX_VALUE);
+
+        assertEquals(STUDENTS, hits.getStudentIds().size());
+        assertFalse(hits.isTruncated());
+        List<Integer> firstPage = index.search("张三", 50).getStudentIds();
+        assertEquals(firstPage, hits.getStudentIds().subList(0, 50)); // 每页都是完整排序的前缀，分页不会重复或遗漏
+    }
+
+    @Test
+    void singleCharacterTermCountsEveryMatch() {
+        StudentSearchIndex.SearchHits hits = index.search("1", 10);
+
+        assertEquals(STUDENTS, hits.getTotalMatches()); // 所有学生的班级名都包含 "1"
+        assertEquals(10, hits.getStudentIds().size());
+    }
+
+    @Test
+    void searchReturnsNullBeforeFirstBuild() {
+        StudentSearchIndex notBuilt = new StudentSearchIndex(new StudentDao(null, null));
+        assertNull(notBuilt.search("张三", 10));
+    }
+}
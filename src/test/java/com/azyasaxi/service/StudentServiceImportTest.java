@@ -0,0 +1,159 @@
+package com.azyasaxi.service;
+
+import com.azyasaxi.dao.StudentDao;
+import com.azyasaxi.model.BatchResult;
+import com.azyasaxi.model.Student;
+import com.azyasaxi.utils.DBHelper;
+import com.azyasaxi.utils.TableVersions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * StudentServiceImportTest
+ * 批量导入按分块边读边写：每个分块单独检查用户名、单独插入，文件内重复跨分块检查，中途出错时保留之前的分块。
+ */
+class StudentServiceImportTest {
+    private static final String HEADER = "name,gender,username,password,class_id\n";
+
+    /**
+     * 以内存中的用户名集合代替 Student 表，记录每次批量插入的行数。
+     */
+    private static final class RecordingStudentDao extends StudentDao {
+        final Set<String> usernames = new HashSet<>();
+        final List<Integer> insertedBatches = new ArrayList<>();
+        int nextId = 1000;
+        int failingBatch = -1; // 第几次批量插入 (从 0 开始) 模拟写入失败
+        int addCalls;
+
+        RecordingStudentDao() {
+            super(null, null);
+        }
+
+        @Override
+        public Set<String> findExistingUsernames(Collection<String> candidates) {
+            Set<String> existing = new HashSet<>();
+            for (String username : candidates) {
+                if (usernames.contains(username.toLowerCase(Locale.ROOT))) {
+                    existing.add(username.toLowerCase(Locale.ROOT));
+                }
+            }
+            return existing;
+        }
+
+        @Override
+        public void addStudents(List<Student> students) {
+            if (addCalls++ == failingBatch) {
+                throw new IllegalStateException("模拟写入失败");
+            }
+            insertedBatches.add(students.size());
+            for (Student student : students) {
+                usernames.add(student.getUserName().toLowerCase(Locale.ROOT));
+                student.setStudentId(nextId++);
+            }
+        }
+
+        @Override
+        public boolean getStudentCreditStats(Collection<Integer> studentIds, DBHelper.RowCallback callback) {
+            return false;
+        }
+    }
+
+    private static StudentService newService(RecordingStudentDao dao, int chunkSize, int maxRows) {
+        StandardEnvironment env = new StandardEnvironment();
+        env.getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "studentimport.chunk-size", chunkSize, "studentimport.max-rows", maxRows)));
+        return new StudentService(dao, null, new StudentSearchIndex(dao), env, new TableVersions(),
+                new StatisticsEngine(dao), new HierarchyCache(null, null, null), JdbcStubs.directTransactionTemplate(), null);
+    }
+
+    @Test
+    void importsInChunksAndDetectsDuplicatesAcrossChunks() throws IOException {
+        RecordingStudentDao dao = new RecordingStudentDao();
+        dao.usernames.add("taken");
+        String csv = HEADER
+                + "张一,男,a1,pw,\n"
+                + "张二,女,a2,pw,\n"
+                + "张三,男,TAKEN,pw,\n"  // 数据库中已存在
+                + "张四,女,A1,pw,\n"     // 与第 1 行重复 (不区分大小写)，位于下一个分块
+                + "张五,男,a5,pw,\n";
+
+        BatchResult result = newService(dao, 2, 100).importStudents(new StringReader(csv));
+
+        assertEquals(5, result.getTotal());
+        assertEquals(3, result.getSucceeded());
+        assertEquals(List.of(2, 1), dao.insertedBatches); // 第 3、4 行所在的分块没有可插入的行
+        assertEquals(List.of(1000, 1001, 1002), result.getCreatedIds());
+        assertEquals(2, result.getFailed());
+        assertEquals(3, result.getErrors().get(0).getRow());
+        assertEquals("用户名已存在", result.getErrors().get(0).getMessage());
+        assertEquals(4, result.getErrors().get(1).getRow());
+        assertEquals("用户名与第 1 行重复", result.getErrors().get(1).getMessage());
+    }
+
+    @Test
+    void usernamesFromARolledBackChunkAreNotDuplicates() throws IOException {
+        RecordingStudentDao dao = new RecordingStudentDao();
+        dao.failingBatch = 0;
+        String csv = HEADER
+                + "张一,男,d1,pw,\n"
+                + "张二,女,d2,pw,\n"
+                + "张三,男,D1,pw,\n"  // 第一个分块已回滚，不算重复
+                + "张四,女,d4,pw,\n";
+
+        BatchResult result = newService(dao, 2, 100).importStudents(new StringReader(csv));
+
+        assertEquals(2, result.getSucceeded());
+        assertEquals(List.of(2), dao.insertedBatches);
+        assertEquals(2, result.getFailed());
+        assertEquals("写入数据库失败，该批已回滚", result.getErrors().get(0).getMessage());
+        assertEquals(2, result.getErrors().get(1).getRow());
+        assertTrue(dao.usernames.contains("d1"));
+    }
+
+    @Test
+    void formatErrorKeepsEarlierChunksAndReportsTheRow() throws IOException {
+        RecordingStudentDao dao = new RecordingStudentDao();
+        String csv = HEADER
+                + "张一,男,b1,pw,\n"
+                + "张二,女,b2,pw,\n"
+                + "张三,男,b3,pw,\n"
+                + "\"张四,女,b4,pw,\n"; // 引号没有闭合
+
+        BatchResult result = newService(dao, 2, 100).importStudents(new StringReader(csv));
+
+        assertEquals(4, result.getTotal());
+        assertEquals(3, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertEquals(4, result.getErrors().get(0).getRow());
+    }
+
+    @Test
+    void rowsBeyondMaxRowsAreNotImported() throws IOException {
+        RecordingStudentDao dao = new RecordingStudentDao();
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 1; i <= 5; i++) {
+            csv.append("学生").append(i).append(",男,c").append(i).append(",pw,\n");
+        }
+
+        BatchResult result = newService(dao, 2, 3).importStudents(new StringReader(csv.toString()));
+
+        assertEquals(3, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertEquals(4, result.getErrors().get(0).getRow());
+        assertEquals(4, result.getTotal());
+    }
+}